@@ -0,0 +1,8 @@
+package net.thomasnardone.ui;
+
+import javax.xml.bind.annotation.XmlEnum;
+
+@XmlEnum
+public enum ChangeType {
+	Delete, Insert, Update
+}
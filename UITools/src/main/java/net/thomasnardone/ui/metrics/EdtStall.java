@@ -0,0 +1,98 @@
+package net.thomasnardone.ui.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One event dispatch that held the EDT longer than the {@link EdtWatchdog}'s threshold, with the stacks sampled while it ran.
+ *
+ * @author Thomas Nardone
+ */
+public class EdtStall {
+	private final long						durationNanos;
+	private final String					eventType;
+	private final String					operation;
+	private final List<StackTraceElement[]>	samples;
+	private final String					serviceName;
+	private final long						time;
+
+	EdtStall(final long time, final long durationNanos, final String eventType, final String serviceName,
+			final String operation, final List<StackTraceElement[]> samples) {
+		this.time = time;
+		this.durationNanos = durationNanos;
+		this.eventType = eventType;
+		this.serviceName = serviceName;
+		this.operation = operation;
+		this.samples = Collections.unmodifiableList(samples);
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * @return Class name of the dispatched event.
+	 */
+	public String getEventType() {
+		return eventType;
+	}
+
+	/**
+	 * @return The frame found on top of the most samples, or <tt>null</tt> if the stall ended before it was sampled.
+	 */
+	public StackTraceElement getHotFrame() {
+		Map<StackTraceElement, Integer> counts = new HashMap<>();
+		StackTraceElement hot = null;
+		int hotCount = 0;
+		for (StackTraceElement[] stack : samples) {
+			if (stack.length == 0) {
+				continue;
+			}
+			Integer count = counts.get(stack[0]);
+			count = count == null ? 1 : count + 1;
+			counts.put(stack[0], count);
+			if (count > hotCount) {
+				hot = stack[0];
+				hotCount = count;
+			}
+		}
+		return hot;
+	}
+
+	/**
+	 * @return The {@link EdtWatchdog.Activity} operation running when the stall was first sampled, or the first one begun during
+	 *         the dispatch; <tt>null</tt> if none was.
+	 */
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return EDT stacks, oldest first, taken every sample interval once the dispatch passed the threshold.
+	 */
+	public List<StackTraceElement[]> getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return Service of the stall's operation, or <tt>null</tt>.
+	 */
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	/**
+	 * @return When the dispatch finished, in milliseconds since the epoch.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	@Override
+	public String toString() {
+		return "EDT stall of " + (durationNanos / 1000000) + "ms in " + eventType + " (" + serviceName + "/" + operation + ", "
+				+ samples.size() + " samples, hot frame " + getHotFrame() + ")";
+	}
+}
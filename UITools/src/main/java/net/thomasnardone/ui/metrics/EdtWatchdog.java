@@ -0,0 +1,280 @@
+package net.thomasnardone.ui.metrics;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in monitor of the event dispatch thread. Once {@link #install(long) installed}, every event dispatch is timed into
+ * {@link #getDispatchLatency()}, and a daemon thread samples the EDT's stack while a dispatch runs past the threshold. Each such
+ * stall is kept in a rolling log and passed to {@link StallListener}s.
+ * <p>
+ * Stalls are attributed through {@link #begin(String, String)}: code that may hold the EDT marks what it is doing, and the stall
+ * records the service and operation that were running. Marking is free while no watchdog is installed.
+ * <p>
+ * When a dispatch pumps events itself (a modal dialog), only the nested dispatches are timed.
+ *
+ * @author Thomas Nardone
+ */
+public final class EdtWatchdog {
+	public static final long			DEFAULT_THRESHOLD_MILLIS	= 100;
+	/** Stalls kept by {@link #getRecentStalls()}. */
+	public static final int				LOG_SIZE					= 64;
+	private static final int			MAX_SAMPLES					= 50;
+	private static final Activity		NONE						= new Activity(null, null, null);
+
+	private static volatile Activity	current						= NONE;
+	private static volatile EdtWatchdog	installed;
+
+	private Activity					dispatchActivity;
+	private volatile int				dispatchId;
+	private volatile long				dispatchStart;
+	private volatile Thread				edt;
+	private final LatencyHistogram		latency;
+	private final List<StallListener>	listeners;
+	private final Deque<EdtStall>		log;
+	private final WatchdogQueue			queue;
+	private final Thread				sampler;
+	private int							sampleId;
+	private final List<Sample>			samples;
+	private final long					thresholdNanos;
+
+	private EdtWatchdog(final long thresholdMillis) {
+		thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		latency = new LatencyHistogram();
+		listeners = new CopyOnWriteArrayList<>();
+		log = new ArrayDeque<>(LOG_SIZE);
+		samples = new ArrayList<>();
+		queue = new WatchdogQueue();
+		sampler = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				sample(Math.max(1, thresholdMillis / 4));
+			}
+		}, "edt-watchdog");
+		sampler.setDaemon(true);
+	}
+
+	/**
+	 * Mark the start of an operation on the EDT; close the returned activity when it ends. Activities nest, and one begun with a
+	 * <tt>null</tt> service name takes the enclosing activity's service.
+	 */
+	public static Activity begin(final String serviceName, final String operation) {
+		final EdtWatchdog watchdog = installed;
+		if (watchdog == null) {
+			return NONE;
+		}
+		final Activity parent = current;
+		final Activity activity = new Activity(serviceName == null ? parent.serviceName : serviceName, operation, parent);
+		current = activity;
+		watchdog.began(activity);
+		return activity;
+	}
+
+	/**
+	 * @return The installed watchdog, or <tt>null</tt>.
+	 */
+	public static EdtWatchdog getInstalled() {
+		return installed;
+	}
+
+	/**
+	 * Start watching the EDT.
+	 *
+	 * @param thresholdMillis
+	 *            Dispatches taking at least this long are reported as stalls.
+	 * @throws IllegalStateException
+	 *             If a watchdog is already installed.
+	 */
+	public static synchronized EdtWatchdog install(final long thresholdMillis) {
+		if (installed != null) {
+			throw new IllegalStateException("An EDT watchdog is already installed");
+		}
+		if (thresholdMillis <= 0) {
+			throw new IllegalArgumentException("Threshold must be positive: " + thresholdMillis);
+		}
+		installed = new EdtWatchdog(thresholdMillis);
+		Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed.queue);
+		installed.sampler.start();
+		return installed;
+	}
+
+	public void addStallListener(final StallListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @return Time taken by every event dispatch since the watchdog was installed.
+	 */
+	public LatencyHistogram getDispatchLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return Up to {@link #LOG_SIZE} of the latest stalls, oldest first.
+	 */
+	public List<EdtStall> getRecentStalls() {
+		synchronized (log) {
+			return new ArrayList<>(log);
+		}
+	}
+
+	public long getThresholdMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+	}
+
+	public void removeStallListener(final StallListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Stop watching; events go back to the queue that was in place before {@link #install(long)}.
+	 */
+	public void uninstall() {
+		synchronized (EdtWatchdog.class) {
+			if (installed != this) {
+				return;
+			}
+			installed = null;
+		}
+		queue.remove();
+		sampler.interrupt();
+	}
+
+	private void began(final Activity activity) {
+		if ((Thread.currentThread() == edt) && (dispatchStart != 0) && (dispatchActivity == null)) {
+			dispatchActivity = activity;
+		}
+	}
+
+	private void dispatched(final int id, final AWTEvent event, final long nanos) {
+		latency.record(nanos);
+		if (nanos < thresholdNanos) {
+			return;
+		}
+		List<StackTraceElement[]> stacks = new ArrayList<>();
+		Activity activity = dispatchActivity;
+		synchronized (samples) {
+			if (sampleId == id) {
+				for (Sample sample : samples) {
+					stacks.add(sample.stack);
+				}
+				if (!samples.isEmpty() && (samples.get(0).activity != NONE)) {
+					activity = samples.get(0).activity;
+				}
+			}
+		}
+		final EdtStall stall = new EdtStall(System.currentTimeMillis(), nanos, event.getClass().getName(),
+				activity == null ? null : activity.serviceName, activity == null ? null : activity.operation, stacks);
+		synchronized (log) {
+			if (log.size() == LOG_SIZE) {
+				log.removeFirst();
+			}
+			log.addLast(stall);
+		}
+		for (StallListener listener : listeners) {
+			listener.stalled(stall);
+		}
+	}
+
+	private void sample(final long intervalMillis) {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				Thread.sleep(intervalMillis);
+			} catch (InterruptedException e) {
+				return;
+			}
+			final int id = dispatchId;
+			final long start = dispatchStart;
+			final Thread thread = edt;
+			if ((start == 0) || (thread == null) || ((System.nanoTime() - start) < thresholdNanos)) {
+				continue;
+			}
+			final Activity activity = current;
+			final StackTraceElement[] stack = thread.getStackTrace();
+			synchronized (samples) {
+				if ((dispatchId != id) || (dispatchStart != start)) {
+					continue; // finished while sampling
+				}
+				if (sampleId != id) {
+					samples.clear();
+					sampleId = id;
+				}
+				if (samples.size() < MAX_SAMPLES) {
+					samples.add(new Sample(activity, stack));
+				}
+			}
+		}
+	}
+
+	/**
+	 * An operation marked by {@link EdtWatchdog#begin(String, String)}. Close it on the EDT, in reverse order of beginning.
+	 */
+	public static final class Activity implements AutoCloseable {
+		private final String	operation;
+		private final Activity	parent;
+		private final String	serviceName;
+
+		private Activity(final String serviceName, final String operation, final Activity parent) {
+			this.serviceName = serviceName;
+			this.operation = operation;
+			this.parent = parent;
+		}
+
+		@Override
+		public void close() {
+			if ((parent != null) && (current == this)) {
+				current = parent;
+			}
+		}
+	}
+
+	public interface StallListener {
+		/**
+		 * Called on the EDT once the stalled dispatch finishes.
+		 */
+		void stalled(EdtStall stall);
+	}
+
+	private static final class Sample {
+		private final Activity				activity;
+		private final StackTraceElement[]	stack;
+
+		private Sample(final Activity activity, final StackTraceElement[] stack) {
+			this.activity = activity;
+			this.stack = stack;
+		}
+	}
+
+	private final class WatchdogQueue extends EventQueue {
+		@Override
+		protected void dispatchEvent(final AWTEvent event) {
+			edt = Thread.currentThread();
+			final Activity outer = dispatchActivity;
+			final int id = ++dispatchId;
+			final long start = System.nanoTime();
+			dispatchActivity = null;
+			dispatchStart = start;
+			try {
+				super.dispatchEvent(event);
+			} finally {
+				final long nanos = System.nanoTime() - start;
+				dispatchStart = 0;
+				if (dispatchId == id) {
+					dispatched(id, event, nanos);
+				}
+				dispatchActivity = outer;
+			}
+		}
+
+		void remove() {
+			pop();
+		}
+	}
+}
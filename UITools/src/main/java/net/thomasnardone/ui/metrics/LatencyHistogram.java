@@ -0,0 +1,99 @@
+package net.thomasnardone.ui.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with log-linear buckets: each power of two, in microseconds, is split into four buckets, so
+ * percentiles are accurate to within 25%.
+ *
+ * @author Thomas Nardone
+ */
+public class LatencyHistogram {
+	private static final int		BUCKETS	= 4 + (62 * 4);
+
+	private final AtomicLongArray	buckets;
+	private final AtomicLong		count;
+	private final AtomicLong		max;
+	private final AtomicLong		total;
+
+	public LatencyHistogram() {
+		buckets = new AtomicLongArray(BUCKETS);
+		count = new AtomicLong();
+		max = new AtomicLong();
+		total = new AtomicLong();
+	}
+
+	static int bucket(final long micros) {
+		if (micros < 4) {
+			return (int) Math.max(0, micros);
+		}
+		final int exp = 63 - Long.numberOfLeadingZeros(micros);
+		final int sub = (int) ((micros >>> (exp - 2)) & 3);
+		return 4 + ((exp - 2) * 4) + sub;
+	}
+
+	static long upperBound(final int bucket) {
+		if (bucket < 4) {
+			return bucket;
+		}
+		final int exp = ((bucket - 4) / 4) + 2;
+		final int sub = (bucket - 4) % 4;
+		return ((4L + sub + 1) << (exp - 2)) - 1;
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	public double getMeanNanos() {
+		final long n = count.get();
+		return n == 0 ? 0 : (double) total.get() / n;
+	}
+
+	/**
+	 * @param percentile
+	 *            Between 0 and 100.
+	 * @return The upper bound of the bucket holding the given percentile, in nanoseconds.
+	 */
+	public long getPercentileNanos(final double percentile) {
+		final long n = count.get();
+		if (n == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(max.get(), upperBound(i) * 1000);
+			}
+		}
+		return max.get();
+	}
+
+	public void record(final long nanos) {
+		buckets.incrementAndGet(bucket(nanos / 1000));
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+		long current;
+		while (nanos > (current = max.get())) {
+			if (max.compareAndSet(current, nanos)) {
+				break;
+			}
+		}
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		max.set(0);
+		total.set(0);
+	}
+}
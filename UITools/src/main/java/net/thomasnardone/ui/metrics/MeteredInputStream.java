@@ -0,0 +1,41 @@
+package net.thomasnardone.ui.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.thomasnardone.utils.io.CountingInputStream;
+
+/**
+ * {@link CountingInputStream} that also adds up the time spent blocked in reads, which for a network stream is the transfer time.
+ */
+public class MeteredInputStream extends CountingInputStream {
+	private long	readNanos;
+
+	public MeteredInputStream(final InputStream input) {
+		super(input);
+	}
+
+	public long getReadNanos() {
+		return readNanos;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final long start = System.nanoTime();
+		try {
+			return super.read();
+		} finally {
+			readNanos += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+		final long start = System.nanoTime();
+		try {
+			return super.read(buffer, offset, length);
+		} finally {
+			readNanos += System.nanoTime() - start;
+		}
+	}
+}
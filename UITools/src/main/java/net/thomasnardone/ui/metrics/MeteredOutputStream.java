@@ -0,0 +1,52 @@
+package net.thomasnardone.ui.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.thomasnardone.utils.io.CountingOutputStream;
+
+/**
+ * {@link CountingOutputStream} that also adds up the time spent in writes and in closing, which in front of a compressor is the
+ * compression time.
+ */
+public class MeteredOutputStream extends CountingOutputStream {
+	private long	writeNanos;
+
+	public MeteredOutputStream(final OutputStream output) {
+		super(output);
+	}
+
+	@Override
+	public void close() throws IOException {
+		final long start = System.nanoTime();
+		try {
+			super.close();
+		} finally {
+			writeNanos += System.nanoTime() - start;
+		}
+	}
+
+	public long getWriteNanos() {
+		return writeNanos;
+	}
+
+	@Override
+	public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+		final long start = System.nanoTime();
+		try {
+			super.write(buffer, offset, length);
+		} finally {
+			writeNanos += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public void write(final int oneByte) throws IOException {
+		final long start = System.nanoTime();
+		try {
+			super.write(oneByte);
+		} finally {
+			writeNanos += System.nanoTime() - start;
+		}
+	}
+}
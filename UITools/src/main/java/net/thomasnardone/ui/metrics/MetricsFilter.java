@@ -0,0 +1,54 @@
+package net.thomasnardone.ui.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.thomasnardone.utils.io.CountingOutputStream;
+
+import com.sun.jersey.api.client.AbstractClientRequestAdapter;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientRequestAdapter;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * Feeds a single request's byte counts and timings into its {@link RequestTrace}. Add it to the {@link
+ * com.sun.jersey.api.client.WebResource} used for that one call.
+ */
+public class MetricsFilter extends ClientFilter {
+	private final RequestTrace	trace;
+
+	public MetricsFilter(final RequestTrace trace) {
+		this.trace = trace;
+	}
+
+	@Override
+	public ClientResponse handle(final ClientRequest request) throws ClientHandlerException {
+		CountingAdapter adapter = null;
+		if (request.getEntity() != null) {
+			adapter = new CountingAdapter(request.getAdapter());
+			request.setAdapter(adapter);
+		}
+		ClientResponse response = getNext().handle(request);
+		trace.responseReceived((adapter == null) || (adapter.output == null) ? 0 : adapter.output.getCount());
+		if (response.hasEntity()) {
+			response.setEntityInputStream(trace.wrap(response.getEntityInputStream()));
+		}
+		return response;
+	}
+
+	private static final class CountingAdapter extends AbstractClientRequestAdapter {
+		CountingOutputStream	output;
+
+		public CountingAdapter(final ClientRequestAdapter adapter) {
+			super(adapter);
+		}
+
+		@Override
+		public OutputStream adapt(final ClientRequest request, final OutputStream out) throws IOException {
+			output = new CountingOutputStream(out);
+			return getAdapter().adapt(request, output);
+		}
+	}
+}
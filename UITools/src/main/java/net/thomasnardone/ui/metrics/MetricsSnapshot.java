@@ -0,0 +1,68 @@
+package net.thomasnardone.ui.metrics;
+
+import java.util.List;
+
+/**
+ * Everything recorded for one service, as of {@link #getTimestamp()}.
+ */
+public class MetricsSnapshot {
+	private final List<OperationStats>	operations;
+	private final List<PhaseStats>		phases;
+	private final String				serviceName;
+	private final long					timestamp;
+
+	public MetricsSnapshot(final String serviceName, final List<OperationStats> operations, final List<PhaseStats> phases) {
+		this.serviceName = serviceName;
+		this.operations = operations;
+		this.phases = phases;
+		timestamp = System.currentTimeMillis();
+	}
+
+	public OperationStats getOperation(final TableOperation operation) {
+		for (OperationStats stats : operations) {
+			if (stats.getOperation().equals(operation.name())) {
+				return stats;
+			}
+		}
+		return null;
+	}
+
+	public List<OperationStats> getOperations() {
+		return operations;
+	}
+
+	public PhaseStats getPhase(final TableOperation operation, final Phase phase) {
+		for (PhaseStats stats : phases) {
+			if (stats.getOperation().equals(operation.name()) && stats.getPhase().equals(phase.name())) {
+				return stats;
+			}
+		}
+		return null;
+	}
+
+	public List<PhaseStats> getPhases() {
+		return phases;
+	}
+
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("MetricsSnapshot [").append(serviceName).append("]");
+		for (OperationStats stats : operations) {
+			sb.append("\n\t").append(stats);
+		}
+		for (PhaseStats stats : phases) {
+			if (stats.getCount() > 0) {
+				sb.append("\n\t").append(stats);
+			}
+		}
+		return sb.toString();
+	}
+}
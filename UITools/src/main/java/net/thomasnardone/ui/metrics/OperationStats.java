@@ -0,0 +1,74 @@
+package net.thomasnardone.ui.metrics;
+
+import java.beans.ConstructorProperties;
+
+import net.thomasnardone.utils.io.ByteFormatter;
+
+/**
+ * Point-in-time counters for one operation.
+ */
+public class OperationStats {
+	private final long		bytesIn;
+	private final long		bytesOut;
+	private final long		calls;
+	private final long		errors;
+	private final String	operation;
+	private final long		rawBytesIn;
+	private final long		rawBytesOut;
+
+	/**
+	 * @param bytesIn
+	 *            Response bytes as sent over the wire.
+	 * @param rawBytesIn
+	 *            Response bytes after decompression; equal to <tt>bytesIn</tt> when nothing was compressed.
+	 */
+	@ConstructorProperties({ "operation", "calls", "errors", "bytesIn", "bytesOut", "rawBytesIn", "rawBytesOut" })
+	public OperationStats(final String operation, final long calls, final long errors, final long bytesIn, final long bytesOut,
+			final long rawBytesIn, final long rawBytesOut) {
+		this.operation = operation;
+		this.calls = calls;
+		this.errors = errors;
+		this.bytesIn = bytesIn;
+		this.bytesOut = bytesOut;
+		this.rawBytesIn = rawBytesIn;
+		this.rawBytesOut = rawBytesOut;
+	}
+
+	private static String ratio(final long raw, final long wire) {
+		return wire == 0 ? "-" : String.format("%.1fx", (double) raw / wire);
+	}
+
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public long getRawBytesIn() {
+		return rawBytesIn;
+	}
+
+	public long getRawBytesOut() {
+		return rawBytesOut;
+	}
+
+	@Override
+	public String toString() {
+		return operation + " [calls=" + calls + ", errors=" + errors + ", in=" + ByteFormatter.format(bytesIn) + " ("
+				+ ratio(rawBytesIn, bytesIn) + "), out=" + ByteFormatter.format(bytesOut) + " (" + ratio(rawBytesOut, bytesOut) + ")]";
+	}
+}
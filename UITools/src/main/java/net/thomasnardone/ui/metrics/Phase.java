@@ -0,0 +1,19 @@
+package net.thomasnardone.ui.metrics;
+
+/**
+ * The stages a table call passes through, in order.
+ */
+public enum Phase {
+	/** Sending the request and waiting for the response headers. */
+	Request,
+	/** Reading the response body off the network. */
+	Transfer,
+	/** Compressing the request body and decompressing the response. Compressing is also part of {@link #Request}. */
+	Compression,
+	/** Turning the response body into objects, excluding time spent waiting on the network. */
+	Decode,
+	/** Handing decoded data to the table model and laying out the table. */
+	ModelBuild,
+	/** Painting the table. */
+	Render
+}
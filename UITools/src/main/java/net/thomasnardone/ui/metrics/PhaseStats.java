@@ -0,0 +1,74 @@
+package net.thomasnardone.ui.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point-in-time summary of one phase of one operation. Times are in milliseconds.
+ */
+public class PhaseStats {
+	private final long		count;
+	private final double	maxMillis;
+	private final double	meanMillis;
+	private final String	operation;
+	private final double	p50Millis;
+	private final double	p90Millis;
+	private final double	p99Millis;
+	private final String	phase;
+
+	@ConstructorProperties({ "operation", "phase", "count", "meanMillis", "p50Millis", "p90Millis", "p99Millis", "maxMillis" })
+	public PhaseStats(final String operation, final String phase, final long count, final double meanMillis,
+			final double p50Millis, final double p90Millis, final double p99Millis, final double maxMillis) {
+		this.operation = operation;
+		this.phase = phase;
+		this.count = count;
+		this.meanMillis = meanMillis;
+		this.p50Millis = p50Millis;
+		this.p90Millis = p90Millis;
+		this.p99Millis = p99Millis;
+		this.maxMillis = maxMillis;
+	}
+
+	PhaseStats(final TableOperation operation, final Phase phase, final LatencyHistogram histogram) {
+		this(operation.name(), phase.name(), histogram.getCount(), histogram.getMeanNanos() / 1e6,
+				histogram.getPercentileNanos(50) / 1e6, histogram.getPercentileNanos(90) / 1e6,
+				histogram.getPercentileNanos(99) / 1e6, histogram.getMaxNanos() / 1e6);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMaxMillis() {
+		return maxMillis;
+	}
+
+	public double getMeanMillis() {
+		return meanMillis;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public double getP50Millis() {
+		return p50Millis;
+	}
+
+	public double getP90Millis() {
+		return p90Millis;
+	}
+
+	public double getP99Millis() {
+		return p99Millis;
+	}
+
+	public String getPhase() {
+		return phase;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s.%s [count=%d, mean=%.2fms, p50=%.2fms, p90=%.2fms, p99=%.2fms, max=%.2fms]", operation, phase,
+				count, meanMillis, p50Millis, p90Millis, p99Millis, maxMillis);
+	}
+}
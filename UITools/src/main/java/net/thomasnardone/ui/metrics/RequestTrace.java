@@ -0,0 +1,113 @@
+package net.thomasnardone.ui.metrics;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Times a single call through its phases and records the result into its {@link TableMetrics} when the call ends. Byte counts
+ * are kept both as sent over the wire and, for compressed bodies, uncompressed.
+ *
+ * @author Thomas Nardone
+ */
+public class RequestTrace {
+	private long						bytesOut;
+	private MeteredInputStream			decoded;
+	private MeteredOutputStream			encoder;
+	private MeteredInputStream			input;
+	private final TableMetrics			metrics;
+	private final TableOperation		operation;
+	private long						responseAt;
+	private final long					start;
+
+	RequestTrace(final TableMetrics metrics, final TableOperation operation) {
+		this.metrics = metrics;
+		this.operation = operation;
+		start = System.nanoTime();
+	}
+
+	/**
+	 * The call failed; count it as an error and record the bytes that did move.
+	 */
+	public void fail() {
+		metrics.recordCall(operation, false, getBytesIn(), bytesOut, getRawBytesIn(), getRawBytesOut());
+	}
+
+	/**
+	 * The response has been fully read and decoded.
+	 */
+	public void finish() {
+		final long end = System.nanoTime();
+		final long transfer = input == null ? 0 : input.getReadNanos();
+		final long decompress = decoded == null ? 0 : Math.max(0, decoded.getReadNanos() - transfer);
+		if (responseAt > 0) {
+			metrics.record(operation, Phase.Transfer, transfer);
+			metrics.record(operation, Phase.Decode, Math.max(0, end - responseAt - transfer - decompress));
+		}
+		if ((decoded != null) || (encoder != null)) {
+			metrics.record(operation, Phase.Compression, decompress + (encoder == null ? 0 : encoder.getWriteNanos()));
+		}
+		metrics.recordCall(operation, true, getBytesIn(), bytesOut, getRawBytesIn(), getRawBytesOut());
+	}
+
+	/**
+	 * @return Response bytes read off the wire.
+	 */
+	public long getBytesIn() {
+		return input == null ? 0 : input.getCount();
+	}
+
+	/**
+	 * @return Request bytes written to the wire.
+	 */
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	public TableOperation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return Response bytes after decompression.
+	 */
+	public long getRawBytesIn() {
+		return decoded == null ? getBytesIn() : decoded.getCount();
+	}
+
+	/**
+	 * @return Request bytes before compression.
+	 */
+	public long getRawBytesOut() {
+		return encoder == null ? bytesOut : encoder.getCount();
+	}
+
+	/**
+	 * Count and time the decompressed response, read from <tt>stream</tt>.
+	 */
+	public InputStream wrapDecoded(final InputStream stream) {
+		decoded = new MeteredInputStream(stream);
+		return decoded;
+	}
+
+	/**
+	 * Count and time the request body written into the compressor <tt>stream</tt>.
+	 */
+	public OutputStream wrapEncoder(final OutputStream stream) {
+		encoder = new MeteredOutputStream(stream);
+		return encoder;
+	}
+
+	/**
+	 * The request was sent and the response headers have arrived.
+	 */
+	void responseReceived(final long sentBytes) {
+		responseAt = System.nanoTime();
+		bytesOut = sentBytes;
+		metrics.record(operation, Phase.Request, responseAt - start);
+	}
+
+	InputStream wrap(final InputStream stream) {
+		input = new MeteredInputStream(stream);
+		return input;
+	}
+}
@@ -0,0 +1,187 @@
+package net.thomasnardone.ui.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Timing histograms and counters for one table service, shared by every client and table using that service on the same host and
+ * servlet. Each instance is registered with the platform MBean server on creation.
+ *
+ * @author Thomas Nardone
+ */
+public class TableMetrics implements TableMetricsMXBean {
+	public static final String									DOMAIN		= "net.thomasnardone.ui";
+
+	private static final ConcurrentMap<String, TableMetrics>	services	= new ConcurrentHashMap<>();
+
+	private final AtomicLong[]									bytesIn;
+	private final AtomicLong[]									bytesOut;
+	private final AtomicLong[]									calls;
+	private final AtomicLong[]									errors;
+	private final LatencyHistogram[][]							histograms;
+	private final String										host;
+	private final AtomicLong[]									rawBytesIn;
+	private final AtomicLong[]									rawBytesOut;
+	private JMException											registrationError;
+	private final String										serviceName;
+	private final String										servletName;
+
+	private TableMetrics(final String host, final String servletName, final String serviceName) {
+		this.host = host;
+		this.servletName = servletName;
+		this.serviceName = serviceName;
+		final int operations = TableOperation.values().length;
+		histograms = new LatencyHistogram[operations][Phase.values().length];
+		for (LatencyHistogram[] phases : histograms) {
+			for (int i = 0; i < phases.length; i++) {
+				phases[i] = new LatencyHistogram();
+			}
+		}
+		bytesIn = counters(operations);
+		bytesOut = counters(operations);
+		calls = counters(operations);
+		errors = counters(operations);
+		rawBytesIn = counters(operations);
+		rawBytesOut = counters(operations);
+	}
+
+	/**
+	 * @param host
+	 *            As given to {@link net.thomasnardone.ui.rest.AutoTableClient}, so services of the same name on different servers
+	 *            are measured apart.
+	 */
+	public static TableMetrics forService(final String host, final String servletName, final String serviceName) {
+		final String key = host + "/" + servletName + "/" + serviceName;
+		TableMetrics metrics = services.get(key);
+		if (metrics == null) {
+			TableMetrics created = new TableMetrics(host, servletName, serviceName);
+			metrics = services.putIfAbsent(key, created);
+			if (metrics == null) {
+				metrics = created;
+				metrics.register();
+			}
+		}
+		return metrics;
+	}
+
+	public static Collection<TableMetrics> getAll() {
+		return Collections.unmodifiableCollection(services.values());
+	}
+
+	private static AtomicLong[] counters(final int size) {
+		AtomicLong[] counters = new AtomicLong[size];
+		for (int i = 0; i < size; i++) {
+			counters[i] = new AtomicLong();
+		}
+		return counters;
+	}
+
+	public LatencyHistogram getHistogram(final TableOperation operation, final Phase phase) {
+		return histograms[operation.ordinal()][phase.ordinal()];
+	}
+
+	@Override
+	public String getHost() {
+		return host;
+	}
+
+	@Override
+	public List<OperationStats> getOperations() {
+		List<OperationStats> stats = new ArrayList<>();
+		for (TableOperation operation : TableOperation.values()) {
+			final int i = operation.ordinal();
+			stats.add(new OperationStats(operation.name(), calls[i].get(), errors[i].get(), bytesIn[i].get(), bytesOut[i].get(),
+					rawBytesIn[i].get(), rawBytesOut[i].get()));
+		}
+		return stats;
+	}
+
+	@Override
+	public List<PhaseStats> getPhases() {
+		List<PhaseStats> stats = new ArrayList<>();
+		for (TableOperation operation : TableOperation.values()) {
+			for (Phase phase : Phase.values()) {
+				stats.add(new PhaseStats(operation, phase, getHistogram(operation, phase)));
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * @return Why these metrics couldn't be registered with the platform MBean server, or <tt>null</tt> if they were.
+	 */
+	public synchronized JMException getRegistrationError() {
+		return registrationError;
+	}
+
+	@Override
+	public String getServiceName() {
+		return serviceName;
+	}
+
+	@Override
+	public String getServletName() {
+		return servletName;
+	}
+
+	public void record(final TableOperation operation, final Phase phase, final long nanos) {
+		getHistogram(operation, phase).record(nanos);
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram[] phases : histograms) {
+			for (LatencyHistogram histogram : phases) {
+				histogram.reset();
+			}
+		}
+		for (AtomicLong[] counters : new AtomicLong[][] { bytesIn, bytesOut, calls, errors, rawBytesIn, rawBytesOut }) {
+			for (AtomicLong counter : counters) {
+				counter.set(0);
+			}
+		}
+	}
+
+	public MetricsSnapshot snapshot() {
+		return new MetricsSnapshot(serviceName, getOperations(), getPhases());
+	}
+
+	/**
+	 * Begin timing a call; hand the trace to a {@link MetricsFilter} on the call's resource.
+	 */
+	public RequestTrace start(final TableOperation operation) {
+		return new RequestTrace(this, operation);
+	}
+
+	void recordCall(final TableOperation operation, final boolean success, final long in, final long out, final long rawIn,
+			final long rawOut) {
+		final int i = operation.ordinal();
+		calls[i].incrementAndGet();
+		if (!success) {
+			errors[i].incrementAndGet();
+		}
+		bytesIn[i].addAndGet(in);
+		bytesOut[i].addAndGet(out);
+		rawBytesIn[i].addAndGet(rawIn);
+		rawBytesOut[i].addAndGet(rawOut);
+	}
+
+	private synchronized void register() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+					new ObjectName(DOMAIN + ":type=TableMetrics,host=" + ObjectName.quote(host) + ",servlet="
+							+ ObjectName.quote(servletName) + ",service=" + ObjectName.quote(serviceName)));
+		} catch (JMException e) {
+			registrationError = e;
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package net.thomasnardone.ui.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of a service's {@link TableMetrics}, registered as
+ * <tt>net.thomasnardone.ui:type=TableMetrics,host=...,servlet=...,service=...</tt>.
+ */
+public interface TableMetricsMXBean {
+	String getHost();
+
+	List<OperationStats> getOperations();
+
+	List<PhaseStats> getPhases();
+
+	String getServiceName();
+
+	String getServletName();
+
+	void reset();
+}
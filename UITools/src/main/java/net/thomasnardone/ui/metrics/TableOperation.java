@@ -0,0 +1,9 @@
+package net.thomasnardone.ui.metrics;
+
+/**
+ * What a timing was recorded for: one of the client's calls, or {@link #Paint} for repainting the table, which has only a
+ * {@link Phase#Render} phase.
+ */
+public enum TableOperation {
+	GetData, GetPage, GetTableInfo, GetValues, Paint, UpdateTable
+}
@@ -1,24 +1,63 @@
 package net.thomasnardone.ui.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 
 import javax.ws.rs.core.MediaType;
 
+import net.thomasnardone.ui.metrics.MetricsFilter;
+import net.thomasnardone.ui.metrics.RequestTrace;
+import net.thomasnardone.ui.metrics.TableMetrics;
+import net.thomasnardone.ui.metrics.TableOperation;
+import net.thomasnardone.ui.util.SingleFlight;
+
 import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.UniformInterfaceException;
 import com.sun.jersey.api.client.WebResource;
-import com.sun.jersey.api.client.config.ClientConfig;
-import com.sun.jersey.api.client.config.DefaultClientConfig;
-import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
-import com.sun.jersey.api.json.JSONConfiguration;
 
 public class AutoTableClient extends TableClient {
-	private final Client	client;
-	private final String	host;
-	private final String	servletName;
+	/** Header of a <tt>data</tt> response carrying the change-log version the rows were read at. */
+	public static final String								CHANGE_VERSION		= "X-Change-Version";
+	public static final int									DEFAULT_CHUNK_SIZE	= 500;
+	public static final int									DEFAULT_RETRIES		= 3;
+	/** Header carrying the key a server uses to recognize a re-sent update chunk. */
+	public static final String								IDEMPOTENCY_KEY		= "Idempotency-Key";
+	private static final long								MAX_POLL_DELAY		= 30000;
+	private static final long								RETRY_DELAY			= 500;
+
+	private static final SingleFlight<String, String[][]>	dataCalls			= new DataFlight();
+	private static final SingleFlight<String, TableInfo>	infoCalls			= new SingleFlight<>();
+	private static final ConcurrentMap<String, SharedLoad>	loads				= new ConcurrentHashMap<>();
+
+	private volatile int									chunkSize;
+	private final Client									client;
+	private volatile int									compressionLevel;
+	/** The connection's key in the {@link TableClientRegistry}, which tells apart both host and credentials. */
+	private final String									connectionKey;
+	private final String									host;
+	private volatile int									maxRetries;
+	private volatile Compression							requestCompression;
+	private final String									servletName;
 
 	/**
-	 * Create a client for a table's corresponding service.
-	 * 
+	 * Create a client for a table's corresponding service. The underlying connection is shared with every other client for the
+	 * same host and user; prefer {@link TableClientRegistry#getClient(String, String, String, String)} to share the client itself.
+	 *
 	 * @param host
 	 *            Hostname, with port if needed. Must include schema (e.g. http:// or https://)
 	 * @param servletName
@@ -27,47 +66,535 @@ public class AutoTableClient extends TableClient {
 	public AutoTableClient(final String host, final String servletName, final String username, final String password) {
 		this.host = host;
 		this.servletName = servletName;
-		ClientConfig clientConfig = new DefaultClientConfig();
-		clientConfig.getFeatures().put(JSONConfiguration.FEATURE_POJO_MAPPING, Boolean.TRUE);
-		client = Client.create(clientConfig);
-		client.addFilter(new HTTPBasicAuthFilter(username, password));
+		connectionKey = TableClientRegistry.connectionKey(host, username, password);
+		client = TableClientRegistry.getConnection(host, username, password);
+		chunkSize = DEFAULT_CHUNK_SIZE;
+		maxRetries = DEFAULT_RETRIES;
+		requestCompression = Compression.Identity;
+		compressionLevel = Deflater.DEFAULT_COMPRESSION;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
 	}
 
 	/**
-	 * Get the table data from the given service.
-	 * 
+	 * Get the table data from the given service. Concurrent requests for the same service share a single download; each caller
+	 * still gets its own copy of the rows.
+	 *
 	 * @param serviceName
 	 *            The service name, set with an <code>@Path()</code> definition on the service class.
 	 */
 	@Override
 	public String[][] getData(final String serviceName) {
-		return getResource(serviceName, "data").get(String[][].class);
+		return dataCalls.execute(flightKey(serviceName, "data"), new Callable<String[][]>() {
+			@Override
+			public String[][] call() {
+				RequestTrace trace = getMetrics(serviceName).start(TableOperation.GetData);
+				try {
+					String[][] data = getResource(serviceName, "data", trace).get(String[][].class);
+					trace.finish();
+					return data;
+				} catch (RuntimeException e) {
+					trace.fail();
+					throw e;
+				}
+			}
+		});
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * @return The metrics of calls to the given service on this client's host and servlet.
+	 */
+	public TableMetrics getMetrics(final String serviceName) {
+		return TableMetrics.forService(host, servletName, serviceName);
+	}
+
+	/**
+	 * Get one page of the table, sorted and cut by the server, so only the page is sent.
+	 *
+	 * @param serviceName
+	 *            The service name, set with an <code>@Path()</code> definition on the service class.
+	 */
+	@Override
+	public Page getPage(final String serviceName, final PageRequest request) {
+		RequestTrace trace = getMetrics(serviceName).start(TableOperation.GetPage);
+		final ClientResponse response;
+		try {
+			response = getResource(serviceName, "page", trace).post(ClientResponse.class, request);
+		} catch (RuntimeException e) {
+			trace.fail();
+			throw e;
+		}
+		if (response.getStatus() >= 300) {
+			trace.fail();
+			if (response.getStatus() == 400) {
+				throw new IllegalArgumentException(response.getEntity(String.class));
+			}
+			throw new UniformInterfaceException(response);
+		}
+		try {
+			Page page = response.getEntity(Page.class);
+			trace.finish();
+			return page;
+		} catch (RuntimeException e) {
+			trace.fail();
+			throw e;
+		}
+	}
+
+	public Compression getRequestCompression() {
+		return requestCompression;
 	}
 
 	/**
-	 * Get the table info - columns, filters, and formats
-	 * 
+	 * Get the table info - columns, filters, and formats. Concurrent requests for the same service share a single call.
+	 *
 	 * @param serviceName
 	 *            The service name, set with an <code>@Path()</code> definition on the service class.
 	 */
 	@Override
 	public TableInfo getTableInfo(final String serviceName) {
-		return getResource(serviceName, "info").get(TableInfo.class);
+		return infoCalls.execute(flightKey(serviceName, "info"), new Callable<TableInfo>() {
+			@Override
+			public TableInfo call() {
+				RequestTrace trace = getMetrics(serviceName).start(TableOperation.GetTableInfo);
+				try {
+					TableInfo info = getResource(serviceName, "info", trace).get(TableInfo.class);
+					trace.finish();
+					return info;
+				} catch (RuntimeException e) {
+					trace.fail();
+					throw e;
+				}
+			}
+		});
 	}
 
 	/**
-	 * Update the table data on the server.
-	 * 
+	 * Look values up by prefix with the service's <tt>values</tt> call, for columns sent with
+	 * {@link ColumnInfo#isRemoteValues()}.
+	 *
 	 * @param serviceName
 	 *            The service name, set with an <code>@Path()</code> definition on the service class.
 	 */
 	@Override
-	public boolean updateTable(final String serviceName, final List<UpdateInfo> update) {
-		return getResource(serviceName, "update").post(Boolean.class, update);
+	public List<String> getValues(final String serviceName, final String column, final String prefix, final int limit) {
+		RequestTrace trace = getMetrics(serviceName).start(TableOperation.GetValues);
+		final ClientResponse response;
+		try {
+			WebResource resource = client.resource(host).path(servletName).path(serviceName).path("values")
+					.queryParam("column", column).queryParam("prefix", prefix == null ? "" : prefix)
+					.queryParam("limit", Integer.toString(limit));
+			response = getResource(resource, trace).get(ClientResponse.class);
+		} catch (RuntimeException e) {
+			trace.fail();
+			throw e;
+		}
+		if (response.getStatus() >= 300) {
+			trace.fail();
+			if (response.getStatus() == 400) {
+				throw new IllegalArgumentException(response.getEntity(String.class));
+			}
+			throw new UniformInterfaceException(response);
+		}
+		try {
+			List<String> values = Arrays.asList(response.getEntity(String[].class));
+			trace.finish();
+			return values;
+		} catch (RuntimeException e) {
+			trace.fail();
+			throw e;
+		}
 	}
 
-	private WebResource.Builder getResource(final String serviceName, final String function) {
-		return client.resource(host).path(servletName).path(serviceName).path(function).type(MediaType.APPLICATION_JSON)
-				.accept(MediaType.APPLICATION_JSON);
+	/**
+	 * Stream the table data from the given service into <tt>sink</tt>, decoding each cell as it arrives. Concurrent loads of the
+	 * same service share one download when the first caller's sink is a {@link ReplayableDataSink}: the rows are streamed into it
+	 * and then replayed into the sinks of callers that joined meanwhile, before any of them returns.
+	 *
+	 * @param serviceName
+	 *            The service name, set with an <code>@Path()</code> definition on the service class.
+	 * @return The version sent in the response's {@link #CHANGE_VERSION} header, or -1 if the server sent none.
+	 */
+	@Override
+	public long loadData(final String serviceName, final TableDataSink sink) {
+		final String key = flightKey(serviceName, "data");
+		while (true) {
+			final SharedLoad load = new SharedLoad();
+			final SharedLoad existing = loads.putIfAbsent(key, load);
+			if (existing == null) {
+				final long version;
+				try {
+					version = streamData(serviceName, sink);
+				} catch (RuntimeException e) {
+					loads.remove(key, load);
+					load.finish(null, -1, e);
+					throw e;
+				}
+				loads.remove(key, load);
+				load.finish(sink, version, null);
+				return version;
+			}
+			if (existing.join(sink)) {
+				if (!existing.await(sink)) {
+					return streamData(serviceName, sink);
+				}
+				return existing.getVersion();
+			}
+			// that load stopped taking followers on its way out; start or join another
+		}
+	}
+
+	/**
+	 * @param chunkSize
+	 *            The most {@link UpdateInfo}s sent in one request by {@link #updateTable(String, List)}.
+	 */
+	public void setChunkSize(final int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param maxRetries
+	 *            How many times a chunk is re-sent after a network error or server-side (5xx) failure.
+	 */
+	public void setMaxRetries(final int maxRetries) {
+		this.maxRetries = Math.max(0, maxRetries);
+	}
+
+	/**
+	 * Compress update bodies. Responses are always compressed if the server offers it, as every call sends an
+	 * <tt>Accept-Encoding</tt>; request bodies can't be negotiated, so only set this for servers known to accept the coding.
+	 *
+	 * @param level
+	 *            {@link Deflater} level - {@link Deflater#BEST_SPEED} for the least CPU.
+	 */
+	public void setRequestCompression(final Compression compression, final int level) {
+		requestCompression = compression;
+		compressionLevel = level;
+	}
+
+	/**
+	 * Long-poll the service's <tt>changes</tt> call for rows changed by others. Each poll passes the last version seen as
+	 * <tt>since</tt> and the server answers once it has newer changes, or when its hold time runs out. Failed polls are reported
+	 * to <tt>listener</tt> and back off up to 30 seconds.
+	 *
+	 * @param serviceName
+	 *            The service name, set with an <code>@Path()</code> definition on the service class.
+	 */
+	@Override
+	public Subscription subscribe(final String serviceName, final long since, final RowChangeListener listener) {
+		LongPoll poll = new LongPoll(serviceName, since, listener);
+		poll.start();
+		return poll;
+	}
+
+	/**
+	 * Update the table data on the server. The update is split into chunks of at most {@link #getChunkSize()} rows which are
+	 * sent in parallel. Each chunk carries its own {@link #IDEMPOTENCY_KEY}, kept across retries, so the server can recognize a
+	 * chunk it already applied.
+	 *
+	 * @param serviceName
+	 *            The service name, set with an <code>@Path()</code> definition on the service class.
+	 * @return Which rows of <tt>update</tt> the server acknowledged.
+	 */
+	@Override
+	public UpdateResult updateTable(final String serviceName, final List<UpdateInfo> update) {
+		final int size = chunkSize;
+		if (update.size() <= size) {
+			return new ChunkUpload(serviceName, update).call();
+		}
+		List<Future<UpdateResult>> futures = new ArrayList<>();
+		for (int start = 0; start < update.size(); start += size) {
+			List<UpdateInfo> chunk = new ArrayList<>(update.subList(start, Math.min(start + size, update.size())));
+			futures.add(TableClientRegistry.getUpdateExecutor().submit(new ChunkUpload(serviceName, chunk)));
+		}
+		RowStatus[] statuses = new RowStatus[update.size()];
+		String message = null;
+		for (int i = 0; i < futures.size(); i++) {
+			UpdateResult chunkResult;
+			try {
+				chunkResult = futures.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				chunkResult = UpdateResult.of(0, false, "Interrupted");
+			} catch (ExecutionException e) {
+				chunkResult = UpdateResult.of(0, false, String.valueOf(e.getCause()));
+			}
+			final int offset = i * size;
+			for (int j = 0; (j < size) && ((offset + j) < statuses.length); j++) {
+				statuses[offset + j] = chunkResult.getStatus(j);
+			}
+			if ((chunkResult.getMessage() != null) && (message == null)) {
+				message = chunkResult.getMessage();
+			}
+		}
+		return UpdateResult.of(statuses, message);
+	}
+
+	private String flightKey(final String serviceName, final String function) {
+		return connectionKey + "/" + servletName + "/" + serviceName + "/" + function;
+	}
+
+	private long streamData(final String serviceName, final TableDataSink sink) {
+		RequestTrace trace = getMetrics(serviceName).start(TableOperation.GetData);
+		try {
+			ClientResponse response = getResource(serviceName, "data", trace).get(ClientResponse.class);
+			if (response.getStatus() >= 300) {
+				throw new UniformInterfaceException(response);
+			}
+			final String version = response.getHeaders().getFirst(CHANGE_VERSION);
+			try (InputStream input = response.getEntityInputStream()) {
+				TableDataDecoder.decode(input, sink);
+			}
+			trace.finish();
+			return version == null ? -1 : Long.parseLong(version);
+		} catch (IOException e) {
+			trace.fail();
+			throw new ClientHandlerException(e);
+		} catch (RuntimeException e) {
+			trace.fail();
+			throw e;
+		}
+	}
+
+	private WebResource.Builder getResource(final String serviceName, final String function, final RequestTrace trace) {
+		return getResource(client.resource(host).path(servletName).path(serviceName).path(function), trace);
+	}
+
+	private WebResource.Builder getResource(final WebResource resource, final RequestTrace trace) {
+		resource.addFilter(new MetricsFilter(trace));
+		resource.addFilter(new CompressionFilter(requestCompression, compressionLevel, trace));
+		return resource.type(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+	}
+
+	private final class ChunkUpload implements Callable<UpdateResult> {
+		private final List<UpdateInfo>	chunk;
+		private final String			idempotencyKey;
+		private final String			serviceName;
+
+		public ChunkUpload(final String serviceName, final List<UpdateInfo> chunk) {
+			this.serviceName = serviceName;
+			this.chunk = chunk;
+			idempotencyKey = UUID.randomUUID().toString();
+		}
+
+		@Override
+		public UpdateResult call() {
+			String message = null;
+			for (int attempt = 0; attempt <= maxRetries; attempt++) {
+				if (attempt > 0) {
+					try {
+						Thread.sleep(RETRY_DELAY << (attempt - 1));
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+				RequestTrace trace = getMetrics(serviceName).start(TableOperation.UpdateTable);
+				try {
+					ClientResponse response = getResource(serviceName, "update", trace).header(IDEMPOTENCY_KEY, idempotencyKey)
+							.post(ClientResponse.class, chunk);
+					final int status = response.getStatus();
+					if (status < 300) {
+						UpdateResult result = response.getEntity(UpdateResult.class);
+						trace.finish();
+						if ((result.getAcknowledged() == null) || (result.getAcknowledged().length != chunk.size())) {
+							return UpdateResult.of(chunk.size(), false, "Malformed update response: " + result);
+						}
+						return result;
+					}
+					message = "HTTP " + status + " from update";
+					response.close();
+					trace.fail();
+					if (!isRetryable(status)) {
+						break;
+					}
+				} catch (ClientHandlerException e) {
+					trace.fail();
+					message = String.valueOf(e.getCause() == null ? e : e.getCause());
+				}
+			}
+			return UpdateResult.of(chunk.size(), false, message);
+		}
+
+		private boolean isRetryable(final int status) {
+			return (status >= 500) || (status == 408) || (status == 429);
+		}
+	}
+
+	private final class LongPoll extends Thread implements Subscription {
+		private volatile boolean			active;
+		private final RowChangeListener		listener;
+		private final String				serviceName;
+		private final long					since;
+
+		public LongPoll(final String serviceName, final long since, final RowChangeListener listener) {
+			super("table-changes-" + serviceName);
+			this.serviceName = serviceName;
+			this.since = since;
+			this.listener = listener;
+			active = true;
+			setDaemon(true);
+		}
+
+		@Override
+		public void cancel() {
+			active = false;
+			interrupt();
+		}
+
+		@Override
+		public boolean isActive() {
+			return active;
+		}
+
+		@Override
+		public void run() {
+			long version = since;
+			long delay = 0;
+			while (active) {
+				try {
+					if (delay > 0) {
+						Thread.sleep(delay);
+					}
+					ChangeSet changes = client.resource(host).path(servletName).path(serviceName).path("changes")
+							.queryParam("since", Long.toString(version)).accept(MediaType.APPLICATION_JSON).get(ChangeSet.class);
+					if (active && changes.isReset()) {
+						listener.changesLost(serviceName);
+					} else if (active && (changes.getChanges() != null) && !changes.getChanges().isEmpty()) {
+						listener.rowsChanged(serviceName, changes.getChanges());
+					}
+					version = changes.getVersion();
+					delay = 0;
+				} catch (InterruptedException e) {
+					break;
+				} catch (ClientHandlerException | UniformInterfaceException e) {
+					if (active) {
+						delay = Math.min(MAX_POLL_DELAY, Math.max(RETRY_DELAY, delay * 2));
+						listener.feedFailed(serviceName, e, delay);
+					}
+				}
+			}
+			active = false;
+		}
+	}
+
+	/**
+	 * One in-flight {@link #loadData(String, TableDataSink)} and the sinks of the callers waiting on it.
+	 */
+	private static final class SharedLoad {
+		private final CountDownLatch					done;
+		private RuntimeException						error;
+		private final Map<TableDataSink, RuntimeException>	followers;
+		private boolean									open;
+		private boolean									replayed;
+		private long									version;
+
+		public SharedLoad() {
+			done = new CountDownLatch(1);
+			followers = new IdentityHashMap<>();
+			open = true;
+		}
+
+		/**
+		 * Wait for the load <tt>sink</tt> joined.
+		 *
+		 * @return <tt>false</tt> if the rows couldn't be replayed, so the caller has to load them itself.
+		 * @throws RuntimeException
+		 *             Whatever failed the shared download or the replay into <tt>sink</tt>.
+		 */
+		public boolean await(final TableDataSink sink) {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					done.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			synchronized (this) {
+				if (error != null) {
+					throw error;
+				}
+				if (followers.get(sink) != null) {
+					throw followers.get(sink);
+				}
+				return replayed;
+			}
+		}
+
+		/**
+		 * Hand the loaded rows, or the failure, to every follower. No more followers are taken afterwards.
+		 *
+		 * @param loadedVersion
+		 *            The change-log version <tt>loaded</tt> was read at.
+		 */
+		public void finish(final TableDataSink loaded, final long loadedVersion, final RuntimeException failure) {
+			final TableDataSink[] sinks;
+			synchronized (this) {
+				open = false;
+				error = failure;
+				version = loadedVersion;
+				replayed = loaded instanceof ReplayableDataSink;
+				sinks = followers.keySet().toArray(new TableDataSink[followers.size()]);
+			}
+			if (replayed) {
+				for (TableDataSink sink : sinks) {
+					try {
+						((ReplayableDataSink) loaded).replay(sink);
+					} catch (RuntimeException e) {
+						synchronized (this) {
+							followers.put(sink, e);
+						}
+					}
+				}
+			}
+			done.countDown();
+		}
+
+		public synchronized long getVersion() {
+			return version;
+		}
+
+		/**
+		 * @return <tt>false</tt> if the load already finished.
+		 */
+		public synchronized boolean join(final TableDataSink sink) {
+			if (open) {
+				followers.put(sink, null);
+			}
+			return open;
+		}
+	}
+
+	/**
+	 * Table rows are edited in place by {@link net.thomasnardone.ui.table.AutoTableModel}, so callers that joined another
+	 * caller's download get their own copy.
+	 */
+	private static final class DataFlight extends SingleFlight<String, String[][]> {
+		@Override
+		protected String[][] share(final String[][] value) {
+			String[][] copy = new String[value.length][];
+			for (int i = 0; i < value.length; i++) {
+				copy[i] = value[i].clone();
+			}
+			return copy;
+		}
 	}
 }
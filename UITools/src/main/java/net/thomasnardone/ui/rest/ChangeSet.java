@@ -0,0 +1,60 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Answer to a change-feed poll: the changes made after the version polled for, and the version they bring the table to. A
+ * {@link #isReset() reset} answer means those changes are no longer known, and the table has to be read again.
+ */
+@XmlRootElement
+public class ChangeSet {
+	private List<RowChange>	changes;
+	private boolean			reset;
+	private long			version;
+
+	public ChangeSet() {}
+
+	public ChangeSet(final long version, final List<RowChange> changes) {
+		this.version = version;
+		this.changes = changes;
+	}
+
+	/**
+	 * @return An answer without changes telling the poller it missed some, and should read the table again.
+	 */
+	public static ChangeSet reset(final long version) {
+		ChangeSet reset = new ChangeSet(version, new ArrayList<RowChange>());
+		reset.setReset(true);
+		return reset;
+	}
+
+	public List<RowChange> getChanges() {
+		return changes;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return Whether changes after the version polled for were lost, so applying later ones would leave the table stale.
+	 */
+	public boolean isReset() {
+		return reset;
+	}
+
+	public void setChanges(final List<RowChange> changes) {
+		this.changes = changes;
+	}
+
+	public void setReset(final boolean reset) {
+		this.reset = reset;
+	}
+
+	public void setVersion(final long version) {
+		this.version = version;
+	}
+}
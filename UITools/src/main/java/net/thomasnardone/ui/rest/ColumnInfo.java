@@ -13,11 +13,22 @@ public class ColumnInfo {
 	private String				displayName;
 	private EditType			editType;
 	private String				name;
+	private boolean				remoteValues;
 	private transient String	valueQuery;
 	private List<String>		values;
 
 	public ColumnInfo() {}
 
+	public ColumnInfo(final ColumnInfo other) {
+		dataType = other.dataType;
+		displayName = other.displayName;
+		editType = other.editType;
+		name = other.name;
+		remoteValues = other.remoteValues;
+		valueQuery = other.valueQuery;
+		values = other.values;
+	}
+
 	public DataType getDataType() {
 		return dataType;
 	}
@@ -34,6 +45,14 @@ public class ColumnInfo {
 		return name;
 	}
 
+	/**
+	 * @return Whether the column's values were left out of {@link #getValues()} as too many to send, and must be looked up by
+	 *         prefix through {@link TableClient#getValues(String, String, String, int)}.
+	 */
+	public boolean isRemoteValues() {
+		return remoteValues;
+	}
+
 	public String getValueQuery() {
 		return valueQuery;
 	}
@@ -58,6 +77,10 @@ public class ColumnInfo {
 		this.name = name;
 	}
 
+	public void setRemoteValues(final boolean remoteValues) {
+		this.remoteValues = remoteValues;
+	}
+
 	public void setValueQuery(final String valueQuery) {
 		this.valueQuery = valueQuery;
 	}
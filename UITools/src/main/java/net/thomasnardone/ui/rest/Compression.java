@@ -0,0 +1,132 @@
+package net.thomasnardone.ui.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP content codings understood by the table client and {@link net.thomasnardone.ui.server.LocalTableServer}. Both use the
+ * JDK's zlib; pass {@link Deflater#BEST_SPEED} as the level to trade ratio for CPU.
+ *
+ * @author Thomas Nardone
+ */
+public enum Compression {
+	Deflate("deflate"), Gzip("gzip"), Identity("identity");
+
+	/** The <tt>Accept-Encoding</tt> value sent with every call. */
+	public static final String	ACCEPT_ENCODING	= "gzip, deflate";
+
+	private final String		encoding;
+
+	private Compression(final String encoding) {
+		this.encoding = encoding;
+	}
+
+	/**
+	 * @return The coding for a <tt>Content-Encoding</tt> header, {@link #Identity} if there is none, or <tt>null</tt> if it is not
+	 *         supported.
+	 */
+	public static Compression forEncoding(final String contentEncoding) {
+		if ((contentEncoding == null) || contentEncoding.trim().isEmpty()) {
+			return Identity;
+		}
+		for (Compression compression : values()) {
+			if (compression.encoding.equalsIgnoreCase(contentEncoding.trim())) {
+				return compression;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return The best coding allowed by an <tt>Accept-Encoding</tt> header - gzip, then deflate, then identity.
+	 */
+	public static Compression negotiate(final String acceptEncoding) {
+		Compression best = Identity;
+		if (acceptEncoding != null) {
+			for (String part : acceptEncoding.split(",")) {
+				final String[] params = part.split(";");
+				if (isRefused(params)) {
+					continue;
+				}
+				final String token = params[0].trim();
+				if (Gzip.encoding.equalsIgnoreCase(token) || "*".equals(token)) {
+					return Gzip;
+				} else if (Deflate.encoding.equalsIgnoreCase(token)) {
+					best = Deflate;
+				}
+			}
+		}
+		return best;
+	}
+
+	private static boolean isRefused(final String[] params) {
+		for (int i = 1; i < params.length; i++) {
+			final String param = params[i].trim();
+			if (param.startsWith("q=")) {
+				try {
+					return Double.parseDouble(param.substring(2)) <= 0;
+				} catch (NumberFormatException e) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return A stream that reads <tt>input</tt> decompressed.
+	 */
+	public InputStream decode(final InputStream input) throws IOException {
+		switch (this) {
+			case Deflate:
+				return new InflaterInputStream(input);
+
+			case Gzip:
+				return new GZIPInputStream(input);
+
+			default:
+				return input;
+		}
+	}
+
+	/**
+	 * @return A stream that compresses what is written to it into <tt>output</tt>. It must be closed to finish the data.
+	 * @param level
+	 *            A {@link Deflater} compression level.
+	 */
+	public OutputStream encode(final OutputStream output, final int level) throws IOException {
+		switch (this) {
+			case Deflate:
+				return new DeflaterOutputStream(output, new Deflater(level)) {
+					@Override
+					public void close() throws IOException {
+						try {
+							super.close();
+						} finally {
+							def.end();
+						}
+					}
+				};
+
+			case Gzip:
+				return new GZIPOutputStream(output) {
+					{
+						def.setLevel(level);
+					}
+				};
+
+			default:
+				return output;
+		}
+	}
+
+	public String getEncoding() {
+		return encoding;
+	}
+}
@@ -0,0 +1,74 @@
+package net.thomasnardone.ui.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import net.thomasnardone.ui.metrics.MetricsFilter;
+import net.thomasnardone.ui.metrics.RequestTrace;
+
+import com.sun.jersey.api.client.AbstractClientRequestAdapter;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientRequestAdapter;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * Negotiates compressed responses, compresses the request body if asked to, and feeds the compressed and uncompressed sizes into
+ * the call's {@link RequestTrace}. Add it to the call's {@link com.sun.jersey.api.client.WebResource} after the
+ * {@link MetricsFilter}, so that filter sees the bytes on the wire.
+ *
+ * @author Thomas Nardone
+ */
+public class CompressionFilter extends ClientFilter {
+	private final int			level;
+	private final Compression	requestCompression;
+	private final RequestTrace	trace;
+
+	/**
+	 * @param requestCompression
+	 *            Coding for the request body; the server must understand it.
+	 * @param level
+	 *            {@link java.util.zip.Deflater} level for the request body.
+	 */
+	public CompressionFilter(final Compression requestCompression, final int level, final RequestTrace trace) {
+		this.requestCompression = requestCompression;
+		this.level = level;
+		this.trace = trace;
+	}
+
+	@Override
+	public ClientResponse handle(final ClientRequest request) throws ClientHandlerException {
+		if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+			request.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, Compression.ACCEPT_ENCODING);
+		}
+		if ((request.getEntity() != null) && !Compression.Identity.equals(requestCompression)) {
+			request.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, requestCompression.getEncoding());
+			request.setAdapter(new EncodingAdapter(request.getAdapter()));
+		}
+		ClientResponse response = getNext().handle(request);
+		final Compression coding = Compression.forEncoding(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		if (response.hasEntity() && (coding != null) && !Compression.Identity.equals(coding)) {
+			response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+			try {
+				response.setEntityInputStream(trace.wrapDecoded(coding.decode(response.getEntityInputStream())));
+			} catch (IOException e) {
+				throw new ClientHandlerException(e);
+			}
+		}
+		return response;
+	}
+
+	private final class EncodingAdapter extends AbstractClientRequestAdapter {
+		public EncodingAdapter(final ClientRequestAdapter adapter) {
+			super(adapter);
+		}
+
+		@Override
+		public OutputStream adapt(final ClientRequest request, final OutputStream out) throws IOException {
+			return getAdapter().adapt(request, trace.wrapEncoder(requestCompression.encode(out, level)));
+		}
+	}
+}
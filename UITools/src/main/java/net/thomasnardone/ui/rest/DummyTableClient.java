@@ -1,21 +1,56 @@
 package net.thomasnardone.ui.rest;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.thomasnardone.ui.DataType;
+import net.thomasnardone.ui.server.SyntheticTableGenerator;
+import net.thomasnardone.ui.table.TableConfigRegistry;
 import net.thomasnardone.ui.table.TableManager;
 
 public class DummyTableClient extends TableClient {
+	private static final String										CONFIG_FILE	= "src/main/config/request_table.properties";
 
-	public DummyTableClient() {}
+	private final int												generatedRows;
+	private final ConcurrentMap<String, SyntheticTableGenerator>	generators;
+	private final LocalChangePublisher								publisher;
+
+	/**
+	 * Serve the same small, fixed table for every service.
+	 */
+	public DummyTableClient() {
+		this(0);
+	}
+
+	/**
+	 * Serve every service a generated table of <tt>generatedRows</tt> rows, or the small fixed table if 0.
+	 *
+	 * @see SyntheticTableGenerator
+	 */
+	public DummyTableClient(final int generatedRows) {
+		this.generatedRows = generatedRows;
+		generators = new ConcurrentHashMap<>();
+		publisher = new LocalChangePublisher();
+	}
+
+	/**
+	 * @return The publisher whose changes are fed to {@link #subscribe(String, long, RowChangeListener)}.
+	 */
+	public LocalChangePublisher getChangePublisher() {
+		return publisher;
+	}
 
 	@Override
 	public String[][] getData(final String serviceName) {
+		SyntheticTableGenerator generator = getGenerator(serviceName);
+		if (generator != null) {
+			return generator.toArray();
+		}
 		return new String[][] { { "BlewLabel Perennials", "Achillea", "Apricot Delight", "#1", "Centerton", "800", "32" },
 				{ "BlewLabel Perennials", "Achillea", "Apricot Delight", "#2", "Centerton", "1600", "32" },
 				{ "BlewLabel Perennials", "Achillea", "Peachy Seduction", "#1", "Aris", "800", "32" },
@@ -124,16 +159,14 @@ public class DummyTableClient extends TableClient {
 
 		formats.add(formatInfo(DataType.Integer, "#,##0"));
 
-		Properties props = new Properties();
-		try {
-			props.load(new FileInputStream("src/main/config/request_table.properties"));
-		} catch (IOException e) {
-			e.printStackTrace();
+		SyntheticTableGenerator generator = getGenerator(serviceName);
+		if (generator != null) {
+			TableInfo info = generator.getTableInfo();
+			info.setFormats(formats);
+			return info;
 		}
-		TableManager mgr = new TableManager(props);
-
-		List<ColumnInfo> columns = mgr.getColumns();
-		for (ColumnInfo column : columns) {
+		TableInfo info = loadConfig().getTableInfo();
+		for (ColumnInfo column : info.getColumns()) {
 			if ("source".equals(column.getName())) {
 				column.setValues(Arrays.asList("Aris", "Ball Dar.", "Centerton", "Ednie", "KubePack", "North Creek", "Pioneer",
 						"Seed", "Walters"));
@@ -145,23 +178,46 @@ public class DummyTableClient extends TableClient {
 				column.setValues(weeks);
 			}
 		}
-		List<FilterInfo> filters = mgr.getFilters();
-		for (FilterInfo filter : filters) {
+		for (FilterInfo filter : info.getFilters()) {
 			if ("size".equals(filter.getColumnName())) {
 				filter.setValues(Arrays.asList("#1", "#2"));
 			}
 		}
-
-		TableInfo info = new TableInfo();
-		info.setColumns(columns);
 		info.setFormats(formats);
-		info.setFilters(filters);
 		return info;
 	}
 
+	/**
+	 * Stream the rows of a generated table without building them all first.
+	 */
+	@Override
+	public long loadData(final String serviceName, final TableDataSink sink) {
+		SyntheticTableGenerator generator = getGenerator(serviceName);
+		if (generator == null) {
+			return super.loadData(serviceName, sink);
+		}
+		generator.generate(sink);
+		return -1;
+	}
+
+	/**
+	 * Serve the table from <tt>generator</tt> for the given service.
+	 */
+	public void setGenerator(final String serviceName, final SyntheticTableGenerator generator) {
+		generators.put(serviceName, generator);
+	}
+
+	/**
+	 * Changes are published in-process and aren't versioned, so <tt>since</tt> is ignored.
+	 */
 	@Override
-	public boolean updateTable(final String serviceName, final List<UpdateInfo> update) {
-		return true;
+	public Subscription subscribe(final String serviceName, final long since, final RowChangeListener listener) {
+		return publisher.subscribe(serviceName, listener);
+	}
+
+	@Override
+	public UpdateResult updateTable(final String serviceName, final List<UpdateInfo> update) {
+		return UpdateResult.of(update.size(), true, null);
 	}
 
 	private FormatInfo formatInfo(final DataType dataType, final String format) {
@@ -170,4 +226,24 @@ public class DummyTableClient extends TableClient {
 		info.setFormat(format);
 		return info;
 	}
+
+	private SyntheticTableGenerator getGenerator(final String serviceName) {
+		SyntheticTableGenerator generator = generators.get(serviceName);
+		if ((generator == null) && (generatedRows > 0)) {
+			generators.putIfAbsent(serviceName, new SyntheticTableGenerator(loadConfig(), generatedRows));
+			generator = generators.get(serviceName);
+		}
+		return generator;
+	}
+
+	/**
+	 * @return The current version of the request table config, compiled once and reloaded when the file changes.
+	 */
+	private TableManager loadConfig() {
+		try {
+			return TableConfigRegistry.getDefault().get(Paths.get(CONFIG_FILE)).getManager();
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to load " + CONFIG_FILE, e);
+		}
+	}
 }
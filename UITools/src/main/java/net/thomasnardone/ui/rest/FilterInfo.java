@@ -11,12 +11,23 @@ public class FilterInfo {
 	private int				column;
 	private String			columnName;
 	private String			displayName;
+	private boolean			remoteValues;
 	private int				row;
 	private FilterType		type;
 	private List<String>	values;
 
 	public FilterInfo() {}
 
+	public FilterInfo(final FilterInfo other) {
+		column = other.column;
+		columnName = other.columnName;
+		displayName = other.displayName;
+		remoteValues = other.remoteValues;
+		row = other.row;
+		type = other.type;
+		values = other.values;
+	}
+
 	public int getColumn() {
 		return column;
 	}
@@ -41,6 +52,14 @@ public class FilterInfo {
 		return values;
 	}
 
+	/**
+	 * @return Whether the filter's values were left out of {@link #getValues()} as too many to send, and must be looked up by
+	 *         prefix through {@link TableClient#getValues(String, String, String, int)}.
+	 */
+	public boolean isRemoteValues() {
+		return remoteValues;
+	}
+
 	public void setColumn(final int column) {
 		this.column = column;
 	}
@@ -53,6 +72,10 @@ public class FilterInfo {
 		this.displayName = displayName;
 	}
 
+	public void setRemoteValues(final boolean remoteValues) {
+		this.remoteValues = remoteValues;
+	}
+
 	public void setRow(final int row) {
 		this.row = row;
 	}
@@ -0,0 +1,63 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in for a server's change feed. Changes handed to {@link #publish(String, List)} are delivered to every
+ * subscriber of the service on a separate thread, as they would be by a remote feed.
+ *
+ * @author Thomas Nardone
+ */
+public class LocalChangePublisher {
+	private final ExecutorService								dispatcher;
+	private final ConcurrentMap<String, Set<RowChangeListener>>	listeners;
+
+	public LocalChangePublisher() {
+		listeners = new ConcurrentHashMap<>();
+		dispatcher = Executors.newSingleThreadExecutor(new TableClientRegistry.DaemonThreadFactory("local-changes"));
+	}
+
+	public void publish(final String serviceName, final List<RowChange> changes) {
+		final Set<RowChangeListener> subscribers = listeners.get(serviceName);
+		if ((subscribers == null) || subscribers.isEmpty() || changes.isEmpty()) {
+			return;
+		}
+		final List<RowChange> published = new ArrayList<>(changes);
+		dispatcher.execute(new Runnable() {
+			@Override
+			public void run() {
+				for (RowChangeListener listener : subscribers) {
+					listener.rowsChanged(serviceName, published);
+				}
+			}
+		});
+	}
+
+	public Subscription subscribe(final String serviceName, final RowChangeListener listener) {
+		Set<RowChangeListener> subscribers = listeners.get(serviceName);
+		if (subscribers == null) {
+			listeners.putIfAbsent(serviceName, new CopyOnWriteArraySet<RowChangeListener>());
+			subscribers = listeners.get(serviceName);
+		}
+		subscribers.add(listener);
+		final Set<RowChangeListener> subscribed = subscribers;
+		return new Subscription() {
+			@Override
+			public void cancel() {
+				subscribed.remove(listener);
+			}
+
+			@Override
+			public boolean isActive() {
+				return subscribed.contains(listener);
+			}
+		};
+	}
+}
@@ -0,0 +1,45 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * One page of a table, answering a {@link PageRequest}.
+ */
+@XmlRootElement
+public class Page {
+	private Map<String, String>	next;
+	private String[][]			rows;
+
+	public Page() {}
+
+	public Page(final String[][] rows, final Map<String, String> next) {
+		this.rows = rows;
+		this.next = next;
+	}
+
+	/**
+	 * @return The sort and key values of this page's last row, to pass as the next request's <tt>after</tt>, or <tt>null</tt> if
+	 *         this is the last page.
+	 */
+	public Map<String, String> getNext() {
+		return next;
+	}
+
+	public String[][] getRows() {
+		return rows;
+	}
+
+	public boolean hasNext() {
+		return next != null;
+	}
+
+	public void setNext(final Map<String, String> next) {
+		this.next = next;
+	}
+
+	public void setRows(final String[][] rows) {
+		this.rows = rows;
+	}
+}
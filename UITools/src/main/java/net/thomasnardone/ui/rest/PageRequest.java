@@ -0,0 +1,58 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Asks for one page of a table in a given sort order. Pages are found by seeking past the previous page's last row rather than by
+ * offset: <tt>after</tt> is the {@link Page#getNext()} of the previous page, or <tt>null</tt> for the first page.
+ */
+@XmlRootElement
+public class PageRequest {
+	private Map<String, String>	after;
+	private int					limit;
+	private List<SortSpec>		sort;
+
+	public PageRequest() {}
+
+	/**
+	 * @param limit
+	 *            The most rows to return, or 0 for every row after <tt>after</tt>.
+	 */
+	public PageRequest(final List<SortSpec> sort, final Map<String, String> after, final int limit) {
+		this.sort = sort;
+		this.after = after;
+		this.limit = limit;
+	}
+
+	public Map<String, String> getAfter() {
+		return after;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public List<SortSpec> getSort() {
+		return sort;
+	}
+
+	public void setAfter(final Map<String, String> after) {
+		this.after = after;
+	}
+
+	public void setLimit(final int limit) {
+		this.limit = limit;
+	}
+
+	public void setSort(final List<SortSpec> sort) {
+		this.sort = sort;
+	}
+
+	@Override
+	public String toString() {
+		return "PageRequest [sort=" + sort + ", after=" + after + ", limit=" + limit + "]";
+	}
+}
@@ -0,0 +1,11 @@
+package net.thomasnardone.ui.rest;
+
+/**
+ * A {@link TableDataSink} that keeps what it receives and can hand it on, so one download can fill several sinks.
+ */
+public interface ReplayableDataSink extends TableDataSink {
+	/**
+	 * Send every row received so far to <tt>target</tt>, cell by cell.
+	 */
+	void replay(TableDataSink target);
+}
@@ -0,0 +1,55 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import net.thomasnardone.ui.ChangeType;
+
+/**
+ * A change to one row, made by someone else. <tt>keys</tt> identify the row as it was before the change, by the table's
+ * <tt>keyFields</tt>; <tt>values</tt> hold the changed (or, for an insert, all) column values.
+ */
+@XmlRootElement
+public class RowChange {
+	private Map<String, String>	keys;
+	private ChangeType			type;
+	private Map<String, String>	values;
+
+	public RowChange() {}
+
+	public RowChange(final ChangeType type, final Map<String, String> keys, final Map<String, String> values) {
+		this.type = type;
+		this.keys = keys;
+		this.values = values;
+	}
+
+	public Map<String, String> getKeys() {
+		return keys;
+	}
+
+	public ChangeType getType() {
+		return type;
+	}
+
+	public Map<String, String> getValues() {
+		return values;
+	}
+
+	public void setKeys(final Map<String, String> keys) {
+		this.keys = keys;
+	}
+
+	public void setType(final ChangeType type) {
+		this.type = type;
+	}
+
+	public void setValues(final Map<String, String> values) {
+		this.values = values;
+	}
+
+	@Override
+	public String toString() {
+		return "RowChange [type=" + type + ", keys=" + keys + ", values=" + values + "]";
+	}
+}
@@ -0,0 +1,25 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.List;
+
+public interface RowChangeListener {
+	/**
+	 * Called when the feed can't follow on from the version it was at - changes were dropped from the server's log or the server
+	 * restarted - from the subscription's own thread. Read the data again and subscribe from its version; the feed itself goes on
+	 * from the server's current version.
+	 */
+	void changesLost(String serviceName);
+
+	/**
+	 * Called when a poll of the feed failed, from the subscription's own thread. The feed keeps trying.
+	 *
+	 * @param retryDelay
+	 *            Milliseconds until the next attempt.
+	 */
+	void feedFailed(String serviceName, RuntimeException cause, long retryDelay);
+
+	/**
+	 * Called from the subscription's own thread, never the EDT.
+	 */
+	void rowsChanged(String serviceName, List<RowChange> changes);
+}
@@ -0,0 +1,171 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.thomasnardone.ui.DataType;
+
+/**
+ * The full order of a {@link PageRequest}: the requested sort columns followed by the table's key fields, so no two rows tie and
+ * a page boundary is always well defined. A table without key fields breaks ties on every column. Integer and Double columns
+ * compare numerically, everything else as strings; <tt>null</tt> sorts before any value, so it comes first ascending and last
+ * descending.
+ * <p>
+ * Sort columns are checked against the table's columns, so an order is safe to turn into SQL.
+ *
+ * @author Thomas Nardone
+ */
+public class RowOrder implements Comparator<String[]> {
+	private final int[]				columns;
+	private final List<SortSpec>	order;
+	private final DataType[]		types;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If <tt>sort</tt> names a column the table doesn't have.
+	 */
+	public RowOrder(final List<ColumnInfo> tableColumns, final List<SortSpec> sort, final List<String> keyFields) {
+		order = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+		if (sort != null) {
+			for (SortSpec spec : sort) {
+				add(tableColumns, indexes, spec.getColumn(), spec.isDescending(), true);
+			}
+		}
+		List<String> tieBreakers = new ArrayList<>();
+		if (keyFields != null) {
+			for (String key : keyFields) {
+				if ((key != null) && !key.trim().isEmpty()) {
+					tieBreakers.add(key.trim());
+				}
+			}
+		}
+		if (tieBreakers.isEmpty()) {
+			for (ColumnInfo column : tableColumns) {
+				tieBreakers.add(column.getName());
+			}
+		}
+		for (String key : tieBreakers) {
+			add(tableColumns, indexes, key, false, false);
+		}
+		columns = new int[indexes.size()];
+		types = new DataType[indexes.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = indexes.get(i);
+			final DataType type = tableColumns.get(columns[i]).getDataType();
+			types[i] = type == null ? DataType.String : type;
+		}
+	}
+
+	@Override
+	public int compare(final String[] row1, final String[] row2) {
+		for (int i = 0; i < columns.length; i++) {
+			final int result = compare(i, row1[columns[i]], row2[columns[i]]);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return How <tt>row</tt> compares to the row <tt>cursor</tt> was taken from.
+	 */
+	public int compareToCursor(final String[] row, final Map<String, String> cursor) {
+		for (int i = 0; i < columns.length; i++) {
+			final int result = compare(i, row[columns[i]], cursor.get(order.get(i).getColumn()));
+			if (result != 0) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return The values of <tt>row</tt> in each column of the order, to seek past it.
+	 */
+	public Map<String, String> cursorFor(final String[] row) {
+		Map<String, String> cursor = new LinkedHashMap<>();
+		for (int i = 0; i < columns.length; i++) {
+			cursor.put(order.get(i).getColumn(), row[columns[i]]);
+		}
+		return cursor;
+	}
+
+	/**
+	 * @return Every column of the order, sort columns first, then tie-breakers ascending.
+	 */
+	public List<SortSpec> getOrder() {
+		return Collections.unmodifiableList(order);
+	}
+
+	/**
+	 * Sort a copy of <tt>rows</tt> and cut the requested page from it.
+	 */
+	public Page page(final String[][] rows, final PageRequest request) {
+		final String[][] sorted = rows.clone();
+		Arrays.sort(sorted, this);
+		int start = 0;
+		if (request.getAfter() != null) {
+			int end = sorted.length;
+			while (start < end) {
+				final int mid = (start + end) >>> 1;
+				if (compareToCursor(sorted[mid], request.getAfter()) <= 0) {
+					start = mid + 1;
+				} else {
+					end = mid;
+				}
+			}
+		}
+		final int remaining = sorted.length - start;
+		final int count = request.getLimit() > 0 ? Math.min(request.getLimit(), remaining) : remaining;
+		final String[][] page = Arrays.copyOfRange(sorted, start, start + count);
+		return new Page(page, count < remaining ? cursorFor(page[count - 1]) : null);
+	}
+
+	private void add(final List<ColumnInfo> tableColumns, final List<Integer> indexes, final String name, final boolean descending,
+			final boolean requested) {
+		for (int i = 0; i < tableColumns.size(); i++) {
+			if (tableColumns.get(i).getName().equals(name)) {
+				if (!indexes.contains(i)) {
+					indexes.add(i);
+					order.add(new SortSpec(name, descending));
+				} else if (requested) {
+					throw new IllegalArgumentException("Column sorted twice: " + name);
+				}
+				return;
+			}
+		}
+		throw new IllegalArgumentException("No column " + name);
+	}
+
+	private int compare(final int column, final String value1, final String value2) {
+		int result;
+		if ((value1 == null) || (value2 == null)) {
+			result = value1 == value2 ? 0 : value1 == null ? -1 : 1;
+		} else {
+			try {
+				switch (types[column]) {
+					case Integer:
+						result = Long.compare(Long.parseLong(value1.trim()), Long.parseLong(value2.trim()));
+						break;
+
+					case Double:
+						result = Double.compare(Double.parseDouble(value1.trim()), Double.parseDouble(value2.trim()));
+						break;
+
+					default:
+						result = value1.compareTo(value2);
+				}
+			} catch (NumberFormatException e) {
+				result = value1.compareTo(value2);
+			}
+		}
+		return order.get(column).isDescending() ? -result : result;
+	}
+}
@@ -0,0 +1,20 @@
+package net.thomasnardone.ui.rest;
+
+import javax.xml.bind.annotation.XmlEnum;
+
+/**
+ * What became of one {@link UpdateInfo} sent to the server.
+ */
+@XmlEnum
+public enum RowStatus {
+	/** The row was updated. */
+	Applied,
+	/** The update could not be run, e.g. the database rejected it. */
+	Failed,
+	/** The update names a column or key the table doesn't allow, or a value of the wrong type. */
+	Invalid,
+	/** No row matched the keys. */
+	NotFound,
+	/** Another row in the same request failed, so the whole request was rolled back. */
+	RolledBack
+}
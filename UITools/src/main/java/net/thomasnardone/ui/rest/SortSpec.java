@@ -0,0 +1,40 @@
+package net.thomasnardone.ui.rest;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * One column of a {@link PageRequest}'s sort order.
+ */
+@XmlRootElement
+public class SortSpec {
+	private String	column;
+	private boolean	descending;
+
+	public SortSpec() {}
+
+	public SortSpec(final String column, final boolean descending) {
+		this.column = column;
+		this.descending = descending;
+	}
+
+	public String getColumn() {
+		return column;
+	}
+
+	public boolean isDescending() {
+		return descending;
+	}
+
+	public void setColumn(final String column) {
+		this.column = column;
+	}
+
+	public void setDescending(final boolean descending) {
+		this.descending = descending;
+	}
+
+	@Override
+	public String toString() {
+		return column + (descending ? " desc" : " asc");
+	}
+}
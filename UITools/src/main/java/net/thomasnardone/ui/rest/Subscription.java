@@ -0,0 +1,10 @@
+package net.thomasnardone.ui.rest;
+
+/**
+ * Handle on a change feed opened with {@link TableClient#subscribe(String, RowChangeListener)}.
+ */
+public interface Subscription {
+	void cancel();
+
+	boolean isActive();
+}
@@ -8,7 +8,76 @@ public abstract class TableClient {
 
 	public abstract String[][] getData(String serviceName);
 
+	/**
+	 * Get one page of the table in the requested order, seeking past <tt>request</tt>'s <tt>after</tt> row. Clients whose server
+	 * can sort and page should override this; the default sorts every row of {@link #getData(String)}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the request sorts by a column the table doesn't have.
+	 */
+	public Page getPage(final String serviceName, final PageRequest request) {
+		final TableInfo info = getTableInfo(serviceName);
+		return new RowOrder(info.getColumns(), request.getSort(), info.getKeyFields()).page(getData(serviceName), request);
+	}
+
 	public abstract TableInfo getTableInfo(String serviceName);
 
-	public abstract boolean updateTable(String serviceName, List<UpdateInfo> update);
+	/**
+	 * Get the values of a combo column or filter starting with <tt>prefix</tt>, ignoring case, for columns whose values are too
+	 * many to send with the table info. Clients whose server can look values up should override this; the default searches the
+	 * list in {@link #getTableInfo(String)}.
+	 *
+	 * @param limit
+	 *            Most values returned, or 0 for all.
+	 * @throws IllegalArgumentException
+	 *             If the column has no value list.
+	 */
+	public List<String> getValues(final String serviceName, final String column, final String prefix, final int limit) {
+		final List<String> values = ValueIndex.valuesOf(getTableInfo(serviceName), column);
+		if (values == null) {
+			throw new IllegalArgumentException("No values for column " + column);
+		}
+		return new ValueIndex(values).find(prefix, limit);
+	}
+
+	/**
+	 * Deliver the table data to <tt>sink</tt>, row by row. Clients that can decode the response incrementally should override
+	 * this; the default hands over the rows of {@link #getData(String)}.
+	 *
+	 * @return The version of the change feed the data was read at, to {@link #subscribe(String, long, RowChangeListener)
+	 *         subscribe} from so no change made since is missed, or -1 if unknown.
+	 */
+	public long loadData(final String serviceName, final TableDataSink sink) {
+		for (String[] row : getData(serviceName)) {
+			for (String value : row) {
+				sink.addCell(value);
+			}
+			sink.endRow();
+		}
+		return -1;
+	}
+
+	/**
+	 * Start listening for rows changed by others from now on.
+	 *
+	 * @see #subscribe(String, long, RowChangeListener)
+	 */
+	public Subscription subscribe(final String serviceName, final RowChangeListener listener) {
+		return subscribe(serviceName, -1, listener);
+	}
+
+	/**
+	 * Start listening for rows changed by others. Changes are keyed by the table's <tt>keyFields</tt>.
+	 *
+	 * @param since
+	 *            Version returned by {@link #loadData(String, TableDataSink)}, to be told of every change made after the data
+	 *            was read, or -1 for changes from now on. Changes the data already holds may be repeated.
+	 * @throws UnsupportedOperationException
+	 *             If this client has no change feed.
+	 */
+	public Subscription subscribe(final String serviceName, final long since, final RowChangeListener listener) {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not publish changes");
+	}
+
+	public abstract UpdateResult updateTable(String serviceName, List<UpdateInfo> update);
 }
@@ -0,0 +1,153 @@
+package net.thomasnardone.ui.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
+import com.sun.jersey.api.json.JSONConfiguration;
+
+/**
+ * Shares {@link AutoTableClient}s, and the Jersey {@link Client}s underneath them, between every table talking to the same host.
+ * <p>
+ * Jersey's default handler sits on {@link java.net.HttpURLConnection}, which keeps idle connections alive and reuses them per
+ * destination. Sharing one {@link Client} per host and user means every table draws from the same keep-alive pool instead of
+ * opening its own sockets. The pool keeps at most <tt>http.maxConnections</tt> idle connections per destination, 5 by default.
+ * The JDK reads that property once, the first time any connection is kept alive, so applications with many tables should set
+ * it at startup, e.g. <tt>-Dhttp.maxConnections=20</tt>.
+ *
+ * @author Thomas Nardone
+ */
+public class TableClientRegistry {
+	public static final int										CONNECT_TIMEOUT	= 10000;
+	public static final int										READ_TIMEOUT	= 120000;
+	public static final int										UPDATE_THREADS	= 4;
+
+	private static final ConcurrentMap<String, AutoTableClient>	clients			= new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, Client>			connections		= new ConcurrentHashMap<>();
+	/** Mixed into credential digests, so a key can't be matched against digests of guessed passwords. */
+	private static final byte[]									salt			= new byte[16];
+	private static final ThreadPoolExecutor						updateExecutor;
+
+	static {
+		new SecureRandom().nextBytes(salt);
+		updateExecutor = new ThreadPoolExecutor(UPDATE_THREADS, UPDATE_THREADS, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory("table-update"));
+		updateExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Get the shared client for a servlet, creating it on first use.
+	 *
+	 * @see AutoTableClient#AutoTableClient(String, String, String, String)
+	 */
+	public static AutoTableClient getClient(final String host, final String servletName, final String username,
+			final String password) {
+		final String key = connectionKey(host, username, password) + "/" + servletName;
+		AutoTableClient client = clients.get(key);
+		if (client == null) {
+			client = new AutoTableClient(host, servletName, username, password);
+			AutoTableClient existing = clients.putIfAbsent(key, client);
+			if (existing != null) {
+				client = existing;
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * Release every shared connection. Clients handed out earlier must not be used afterwards.
+	 */
+	public static void shutdown() {
+		clients.clear();
+		for (Client client : connections.values()) {
+			client.destroy();
+		}
+		connections.clear();
+	}
+
+	/**
+	 * @return A key telling apart connections to <tt>host</tt> by their credentials without holding the password itself: the
+	 *         username and a salted SHA-256 digest of both credentials.
+	 */
+	static String connectionKey(final String host, final String username, final String password) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+		digest.update(salt);
+		// length-prefixed, so no username/password split collides with another
+		digest.update((username == null ? "-1" : username.length() + ":" + username).getBytes(StandardCharsets.UTF_8));
+		digest.update((":" + password).getBytes(StandardCharsets.UTF_8));
+		StringBuilder key = new StringBuilder(String.valueOf(username)).append(':');
+		for (byte b : digest.digest()) {
+			key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return key.append('@').append(host).toString();
+	}
+
+	static Client getConnection(final String host, final String username, final String password) {
+		final String key = connectionKey(host, username, password);
+		Client client = connections.get(key);
+		if (client == null) {
+			Client created = createConnection(username, password);
+			client = connections.putIfAbsent(key, created);
+			if (client == null) {
+				client = created;
+			} else {
+				created.destroy();
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * @return The pool update chunks are sent from. Its size bounds how many chunks are in flight at once, across all tables.
+	 */
+	static ExecutorService getUpdateExecutor() {
+		return updateExecutor;
+	}
+
+	private static Client createConnection(final String username, final String password) {
+		ClientConfig clientConfig = new DefaultClientConfig();
+		clientConfig.getFeatures().put(JSONConfiguration.FEATURE_POJO_MAPPING, Boolean.TRUE);
+		clientConfig.getProperties().put(ClientConfig.PROPERTY_CONNECT_TIMEOUT, CONNECT_TIMEOUT);
+		clientConfig.getProperties().put(ClientConfig.PROPERTY_READ_TIMEOUT, READ_TIMEOUT);
+		Client client = Client.create(clientConfig);
+		client.addFilter(new HTTPBasicAuthFilter(username, password));
+		return client;
+	}
+
+	private TableClientRegistry() {}
+
+	static final class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger	count;
+		private final String		prefix;
+
+		public DaemonThreadFactory(final String prefix) {
+			this.prefix = prefix;
+			count = new AtomicInteger();
+		}
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
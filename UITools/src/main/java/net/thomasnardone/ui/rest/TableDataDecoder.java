@@ -0,0 +1,50 @@
+package net.thomasnardone.ui.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+/**
+ * Incrementally decodes the <tt>String[][]</tt> JSON returned by a table's data call, handing each cell to a
+ * {@link TableDataSink} as soon as it is parsed instead of building the whole array first.
+ *
+ * @author Thomas Nardone
+ */
+public class TableDataDecoder {
+	private static final JsonFactory	factory	= new JsonFactory();
+
+	public static void decode(final InputStream input, final TableDataSink sink) throws IOException {
+		JsonParser parser = factory.createJsonParser(input);
+		try {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new JsonParseException("Expected an array of rows", parser.getCurrentLocation());
+			}
+			JsonToken token;
+			while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_ARRAY) {
+					throw new JsonParseException("Expected a row array, found " + token, parser.getCurrentLocation());
+				}
+				while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+					if (token == null) {
+						throw new JsonParseException("Unexpected end of data", parser.getCurrentLocation());
+					} else if (token == JsonToken.VALUE_NULL) {
+						sink.addCell(null);
+					} else if (token.isScalarValue()) {
+						sink.addCell(parser.getText());
+					} else {
+						throw new JsonParseException("Expected a cell value, found " + token, parser.getCurrentLocation());
+					}
+				}
+				sink.endRow();
+			}
+		} finally {
+			parser.close();
+		}
+	}
+
+	private TableDataDecoder() {}
+}
@@ -0,0 +1,16 @@
+package net.thomasnardone.ui.rest;
+
+/**
+ * Receives table data one cell at a time, row by row, as it is decoded.
+ */
+public interface TableDataSink {
+	/**
+	 * Append a cell to the current row.
+	 */
+	void addCell(String value);
+
+	/**
+	 * Finish the current row; the next cell starts a new one.
+	 */
+	void endRow();
+}
@@ -0,0 +1,108 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.Arrays;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Per-row outcome of an update - <tt>acknowledged[i]</tt> tells whether the i-th {@link UpdateInfo} sent was applied. Servers
+ * that can tell why a row wasn't applied also send <tt>statuses</tt>.
+ */
+@XmlRootElement
+public class UpdateResult {
+	private boolean[]	acknowledged;
+	private String		message;
+	private RowStatus[]	statuses;
+
+	public UpdateResult() {}
+
+	public UpdateResult(final boolean[] acknowledged, final String message) {
+		this.acknowledged = acknowledged;
+		this.message = message;
+	}
+
+	/**
+	 * @return A result with every one of <tt>rowCount</tt> rows acknowledged (or none of them).
+	 */
+	public static UpdateResult of(final int rowCount, final boolean success, final String message) {
+		boolean[] acknowledged = new boolean[rowCount];
+		Arrays.fill(acknowledged, success);
+		return new UpdateResult(acknowledged, message);
+	}
+
+	/**
+	 * @return A result acknowledging the rows whose status is {@link RowStatus#Applied}.
+	 */
+	public static UpdateResult of(final RowStatus[] statuses, final String message) {
+		boolean[] acknowledged = new boolean[statuses.length];
+		for (int i = 0; i < statuses.length; i++) {
+			acknowledged[i] = RowStatus.Applied.equals(statuses[i]);
+		}
+		UpdateResult result = new UpdateResult(acknowledged, message);
+		result.statuses = statuses;
+		return result;
+	}
+
+	public boolean acknowledged(final int row) {
+		return (acknowledged != null) && (row < acknowledged.length) && acknowledged[row];
+	}
+
+	public int acknowledgedCount() {
+		int count = 0;
+		if (acknowledged != null) {
+			for (boolean ack : acknowledged) {
+				if (ack) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	public boolean allAcknowledged() {
+		return (acknowledged != null) && (acknowledgedCount() == acknowledged.length);
+	}
+
+	public boolean[] getAcknowledged() {
+		return acknowledged;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return The row's status, or if the server didn't say, {@link RowStatus#Applied} or {@link RowStatus#Failed}.
+	 */
+	public RowStatus getStatus(final int row) {
+		if ((statuses != null) && (row < statuses.length)) {
+			return statuses[row];
+		}
+		return acknowledged(row) ? RowStatus.Applied : RowStatus.Failed;
+	}
+
+	/**
+	 * @return Each row's status, or <tt>null</tt> if the server didn't say.
+	 */
+	public RowStatus[] getStatuses() {
+		return statuses;
+	}
+
+	public void setAcknowledged(final boolean[] acknowledged) {
+		this.acknowledged = acknowledged;
+	}
+
+	public void setMessage(final String message) {
+		this.message = message;
+	}
+
+	public void setStatuses(final RowStatus[] statuses) {
+		this.statuses = statuses;
+	}
+
+	@Override
+	public String toString() {
+		return "UpdateResult [acknowledged=" + acknowledgedCount() + "/" + (acknowledged == null ? 0 : acknowledged.length)
+				+ ", message=" + message + "]";
+	}
+}
@@ -0,0 +1,92 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The distinct values of a combo column in case-insensitive order, so the values starting with a typed prefix are found by binary
+ * search. Values differing only in case are all kept.
+ *
+ * @author Thomas Nardone
+ */
+public class ValueIndex {
+	private final Collection<String>	source;
+	private final String[]				values;
+
+	/**
+	 * @param values
+	 *            Values in any order; <tt>null</tt>s and duplicates are dropped.
+	 */
+	public ValueIndex(final Collection<String> values) {
+		source = values;
+		TreeSet<String> distinct = new TreeSet<>();
+		for (String value : values) {
+			if (value != null) {
+				distinct.add(value);
+			}
+		}
+		this.values = distinct.toArray(new String[distinct.size()]);
+		Arrays.sort(this.values, String.CASE_INSENSITIVE_ORDER);
+	}
+
+	/**
+	 * @return The value list <tt>info</tt> carries for the column, from the column itself or else from a filter on it, or
+	 *         <tt>null</tt>.
+	 */
+	public static List<String> valuesOf(final TableInfo info, final String column) {
+		for (ColumnInfo columnInfo : info.getColumns()) {
+			if (columnInfo.getName().equals(column) && (columnInfo.getValues() != null)) {
+				return columnInfo.getValues();
+			}
+		}
+		for (FilterInfo filter : info.getFilters()) {
+			if (filter.getColumnName().equals(column) && (filter.getValues() != null)) {
+				return filter.getValues();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param limit
+	 *            Most values returned, or 0 for all.
+	 * @return Up to <tt>limit</tt> values starting with <tt>prefix</tt>, ignoring case, in case-insensitive order.
+	 */
+	public List<String> find(final String prefix, final int limit) {
+		final String start = prefix == null ? "" : prefix;
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (String.CASE_INSENSITIVE_ORDER.compare(values[mid], start) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		List<String> found = new ArrayList<>();
+		for (int i = low; (i < values.length) && ((limit <= 0) || (found.size() < limit)); i++) {
+			if (!values[i].regionMatches(true, 0, start, 0, start.length())) {
+				break;
+			}
+			found.add(values[i]);
+		}
+		return Collections.unmodifiableList(found);
+	}
+
+	/**
+	 * @return Whether this index was built from exactly <tt>values</tt>, the same instance, so a cached index can be reused while
+	 *         its source list is.
+	 */
+	public boolean isOf(final Collection<String> values) {
+		return source == values;
+	}
+
+	public int size() {
+		return values.length;
+	}
+}
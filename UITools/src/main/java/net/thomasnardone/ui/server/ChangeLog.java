@@ -0,0 +1,68 @@
+package net.thomasnardone.ui.server;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.thomasnardone.ui.rest.ChangeSet;
+import net.thomasnardone.ui.rest.RowChange;
+
+/**
+ * Bounded, versioned log of a service's row changes, answering long polls.
+ */
+public class ChangeLog {
+	private final int					capacity;
+	private final LinkedList<RowChange>	changes;
+	private long						version;
+
+	public ChangeLog(final int capacity) {
+		this.capacity = capacity;
+		changes = new LinkedList<>();
+	}
+
+	public synchronized void append(final List<RowChange> appended) {
+		for (RowChange change : appended) {
+			changes.addLast(change);
+			if (changes.size() > capacity) {
+				changes.removeFirst();
+			}
+			version++;
+		}
+		if (!appended.isEmpty()) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * @return The version of the last change appended.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Wait up to <tt>timeout</tt> milliseconds for changes after <tt>since</tt>. Polling with <tt>-1</tt> answers at once with
+	 * the current version and no changes. So does polling with a version the log can't follow on from, one that has fallen out
+	 * of it or is ahead of it, but that answer is marked {@link ChangeSet#isReset() reset}, as is one whose changes overflowed
+	 * the log during the wait.
+	 */
+	public synchronized ChangeSet poll(final long since, final long timeout) throws InterruptedException {
+		if (since < 0) {
+			return new ChangeSet(version, new ArrayList<RowChange>());
+		}
+		if ((since < (version - changes.size())) || (since > version)) {
+			return ChangeSet.reset(version);
+		}
+		final long deadline = System.currentTimeMillis() + timeout;
+		long remaining = timeout;
+		while ((version == since) && (remaining > 0)) {
+			wait(remaining);
+			remaining = deadline - System.currentTimeMillis();
+		}
+		final int skip = (int) (since - (version - changes.size()));
+		if (skip < 0) {
+			return ChangeSet.reset(version);
+		}
+		return new ChangeSet(version, new ArrayList<>(changes.subList(skip, changes.size())));
+	}
+}
@@ -0,0 +1,13 @@
+package net.thomasnardone.ui.server;
+
+/**
+ * How a {@link SyntheticTableGenerator} column picks among its distinct values.
+ */
+public enum Distribution {
+	/** Row <i>n</i> gets value <i>n mod cardinality</i>, which keeps key columns unique. */
+	Sequential,
+	/** Every value is equally likely. */
+	Uniform,
+	/** Value <i>k</i> is picked with weight <i>1 / (k + 1)^s</i>, so a few values dominate as in most real tables. */
+	Zipf
+}
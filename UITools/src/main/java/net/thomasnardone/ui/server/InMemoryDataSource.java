@@ -0,0 +1,197 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.thomasnardone.ui.EditType;
+import net.thomasnardone.ui.FilterType;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowOrder;
+import net.thomasnardone.ui.rest.RowStatus;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.rest.ValueIndex;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * {@link TableDataSource} holding each service's rows in memory. Combo columns and filters are given the distinct values found in
+ * the data.
+ *
+ * @author Thomas Nardone
+ */
+public class InMemoryDataSource implements TableDataSource {
+	private final ConcurrentMap<String, List<String[]>>	tables;
+
+	public InMemoryDataSource() {
+		tables = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public Page getPage(final String serviceName, final TableManager config, final PageRequest request) {
+		final RowOrder order = new RowOrder(config.getColumns(), request.getSort(), Arrays.asList(config.getKeyFields()));
+		return order.page(getRows(serviceName), request);
+	}
+
+	public String[][] getRows(final String serviceName) {
+		List<String[]> rows = getTable(serviceName);
+		synchronized (rows) {
+			String[][] copy = new String[rows.size()][];
+			for (int i = 0; i < copy.length; i++) {
+				copy[i] = rows.get(i).clone();
+			}
+			return copy;
+		}
+	}
+
+	@Override
+	public TableInfo getTableInfo(final String serviceName, final TableManager config) {
+		TableInfo info = config.getTableInfo();
+		for (ColumnInfo column : info.getColumns()) {
+			if (EditType.Combo.equals(column.getEditType())) {
+				column.setValues(distinctValues(serviceName, config, column.getName()));
+			}
+		}
+		for (FilterInfo filter : info.getFilters()) {
+			if (FilterType.Combo.equals(filter.getType())) {
+				filter.setValues(distinctValues(serviceName, config, filter.getColumnName()));
+			}
+		}
+		return info;
+	}
+
+	@Override
+	public List<String> getValues(final String serviceName, final TableManager config, final String column, final String prefix,
+			final int limit) {
+		if (indexOf(config.getColumns(), column) < 0) {
+			throw new IllegalArgumentException("No values for column " + column);
+		}
+		return new ValueIndex(distinctValues(serviceName, config, column)).find(prefix, limit);
+	}
+
+	public void setRows(final String serviceName, final String[][] rows) {
+		List<String[]> table = new ArrayList<>(rows.length);
+		for (String[] row : rows) {
+			table.add(row.clone());
+		}
+		tables.put(serviceName, table);
+	}
+
+	@Override
+	public UpdateResult update(final String serviceName, final TableManager config, final List<UpdateInfo> updates) {
+		final List<ColumnInfo> columns = config.getColumns();
+		final List<String[]> rows = getTable(serviceName);
+		RowStatus[] statuses = new RowStatus[updates.size()];
+		final List<String> keyFields = Arrays.asList(config.getKeyFields());
+		synchronized (rows) {
+			for (int i = 0; i < statuses.length; i++) {
+				if (!isValid(columns, keyFields, updates.get(i))) {
+					statuses[i] = RowStatus.Invalid;
+					continue;
+				}
+				String[] row = find(rows, columns, updates.get(i).getKeys());
+				if (row != null) {
+					for (Map.Entry<String, String> update : updates.get(i).getUpdates().entrySet()) {
+						row[indexOf(columns, update.getKey())] = update.getValue();
+					}
+					statuses[i] = RowStatus.Applied;
+				} else {
+					statuses[i] = RowStatus.NotFound;
+				}
+			}
+		}
+		return UpdateResult.of(statuses, null);
+	}
+
+	@Override
+	public void writeData(final String serviceName, final TableManager config, final RowWriter out) throws IOException {
+		for (String[] row : getRows(serviceName)) {
+			out.writeRow(row);
+		}
+	}
+
+	private List<String> distinctValues(final String serviceName, final TableManager config, final String columnName) {
+		final int column = indexOf(config.getColumns(), columnName);
+		TreeSet<String> values = new TreeSet<>();
+		if (column > -1) {
+			List<String[]> rows = getTable(serviceName);
+			synchronized (rows) {
+				for (String[] row : rows) {
+					if ((column < row.length) && (row[column] != null)) {
+						values.add(row[column]);
+					}
+				}
+			}
+		}
+		return new ArrayList<>(values);
+	}
+
+	private String[] find(final List<String[]> rows, final List<ColumnInfo> columns, final Map<String, String> keys) {
+		final int[] keyColumns = new int[keys.size()];
+		final String[] keyValues = new String[keys.size()];
+		int k = 0;
+		for (Map.Entry<String, String> key : keys.entrySet()) {
+			keyColumns[k] = indexOf(columns, key.getKey());
+			keyValues[k++] = key.getValue();
+		}
+		rows: for (String[] row : rows) {
+			for (int i = 0; i < keyColumns.length; i++) {
+				if ((keyColumns[i] < 0) || !Objects.equals(keyValues[i], row[keyColumns[i]])) {
+					continue rows;
+				}
+			}
+			return row;
+		}
+		return null;
+	}
+
+	private List<String[]> getTable(final String serviceName) {
+		List<String[]> rows = tables.get(serviceName);
+		if (rows == null) {
+			tables.putIfAbsent(serviceName, new ArrayList<String[]>());
+			rows = tables.get(serviceName);
+		}
+		return rows;
+	}
+
+	private int indexOf(final List<ColumnInfo> columns, final String name) {
+		for (int i = 0; i < columns.size(); i++) {
+			if (columns.get(i).getName().equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return Whether <tt>update</tt> only sets columns of the table and names its row by key fields, as JDBC services require.
+	 */
+	private boolean isValid(final List<ColumnInfo> columns, final List<String> keyFields, final UpdateInfo update) {
+		final Map<String, String> values = update.getUpdates();
+		final Map<String, String> keys = update.getKeys();
+		if ((values == null) || values.isEmpty() || (keys == null) || keys.isEmpty()) {
+			return false;
+		}
+		for (String column : values.keySet()) {
+			if (indexOf(columns, column) < 0) {
+				return false;
+			}
+		}
+		for (String key : keys.keySet()) {
+			if (!keyFields.contains(key) || (indexOf(columns, key) < 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
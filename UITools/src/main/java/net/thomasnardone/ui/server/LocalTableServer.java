@@ -0,0 +1,478 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import net.thomasnardone.ui.ChangeType;
+import net.thomasnardone.ui.rest.AutoTableClient;
+import net.thomasnardone.ui.rest.ChangeSet;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.Compression;
+import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowChange;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.table.TableManager;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server answering the <tt>info</tt>, <tt>data</tt>, <tt>page</tt>, <tt>values</tt>, <tt>update</tt> and
+ * <tt>changes</tt> calls made by {@link AutoTableClient}, for load and integration testing on one machine. Each service is a
+ * {@link TableManager} config served from a pluggable {@link TableDataSource}. Latency, bandwidth and failures can be injected.
+ * Responses are compressed as the request's <tt>Accept-Encoding</tt> allows, and compressed request bodies are accepted.
+ * <p>
+ * Requests are answered at <tt>http://localhost:port/servletName/serviceName/function</tt>; credentials are not checked.
+ *
+ * @author Thomas Nardone
+ */
+public class LocalTableServer {
+	/** Changes kept per service for the change feed, unless set otherwise with {@link #setChangeLogSize(int)}. */
+	public static final int									DEFAULT_CHANGE_LOG_SIZE	= 10000;
+	/** Longest value list sent with a table's info; longer ones are left for clients to look up by prefix. */
+	public static final int									DEFAULT_MAX_VALUES		= 1000;
+	/** Values returned by a <tt>values</tt> call without a <tt>limit</tt>. */
+	public static final int									DEFAULT_VALUE_LIMIT		= 50;
+	private static final long								CHANGE_POLL_TIMEOUT		= 25000;
+	private static final int								IDEMPOTENCY_CACHE		= 1000;
+	private static final TypeReference<PageRequest>			PAGE_REQUEST			= new TypeReference<PageRequest>() {};
+	private static final TypeReference<List<UpdateInfo>>	UPDATE_LIST				= new TypeReference<List<UpdateInfo>>() {};
+
+	private volatile long									bandwidth;
+	private final ConcurrentMap<String, ChangeLog>			changeLogs;
+	private volatile int									changeLogSize;
+	/** Updates by idempotency key, entered before they're applied so a retry racing the first attempt waits for its result. */
+	private final Map<String, Future<UpdateResult>>			completedUpdates;
+	private volatile int									compressionLevel;
+	private final ConcurrentMap<String, TableManager>		configs;
+	private volatile double									errorRate;
+	private ExecutorService									executor;
+	private volatile long									jitter;
+	private volatile long									latency;
+	private volatile double									lostResponseRate;
+	private final ObjectMapper								mapper;
+	private volatile int									maxInlineValues;
+	private final int										port;
+	private final Random									random;
+	private HttpServer										server;
+	private final String									servletName;
+	private final TableDataSource							source;
+
+	/**
+	 * @param port
+	 *            Port to listen on, or 0 to pick a free one.
+	 */
+	public LocalTableServer(final int port, final String servletName, final TableDataSource source) {
+		this.port = port;
+		this.servletName = servletName;
+		this.source = source;
+		configs = new ConcurrentHashMap<>();
+		changeLogs = new ConcurrentHashMap<>();
+		completedUpdates = Collections.synchronizedMap(new LinkedHashMap<String, Future<UpdateResult>>() {
+			private static final long	serialVersionUID	= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Future<UpdateResult>> eldest) {
+				return size() > IDEMPOTENCY_CACHE;
+			}
+		});
+		mapper = new ObjectMapper();
+		random = new Random();
+		compressionLevel = Deflater.DEFAULT_COMPRESSION;
+		maxInlineValues = DEFAULT_MAX_VALUES;
+		changeLogSize = DEFAULT_CHANGE_LOG_SIZE;
+	}
+
+	public void addService(final String serviceName, final TableManager config) {
+		configs.put(serviceName, config);
+		changeLogs.putIfAbsent(serviceName, new ChangeLog(changeLogSize));
+	}
+
+	/**
+	 * @return The host to hand to {@link AutoTableClient}, including the bound port.
+	 */
+	public String getHost() {
+		return "http://localhost:" + getPort();
+	}
+
+	public int getPort() {
+		return server == null ? port : server.getAddress().getPort();
+	}
+
+	public String getServletName() {
+		return servletName;
+	}
+
+	/**
+	 * @param bytesPerSecond
+	 *            Cap on response throughput per request, or 0 for none.
+	 */
+	public void setBandwidth(final long bytesPerSecond) {
+		bandwidth = bytesPerSecond;
+	}
+
+	/**
+	 * @param size
+	 *            Changes kept for the change feed of services added from now on. A client that falls further behind is told to
+	 *            read the table again.
+	 */
+	public void setChangeLogSize(final int size) {
+		changeLogSize = size;
+	}
+
+	/**
+	 * @param level
+	 *            {@link Deflater} level for responses; {@link Deflater#NO_COMPRESSION} turns response compression off.
+	 */
+	public void setCompressionLevel(final int level) {
+		compressionLevel = level;
+	}
+
+	/**
+	 * @param errorRate
+	 *            Fraction of requests, 0 to 1, rejected with a 503 before doing anything.
+	 */
+	public void setErrorRate(final double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * @param latency
+	 *            Milliseconds to wait before answering each request.
+	 * @param jitter
+	 *            Up to this many further milliseconds, chosen at random per request.
+	 */
+	public void setLatency(final long latency, final long jitter) {
+		this.latency = latency;
+		this.jitter = jitter;
+	}
+
+	/**
+	 * @param lostResponseRate
+	 *            Fraction of updates, 0 to 1, that are applied but answered with a 503, as if the response was lost.
+	 */
+	public void setLostResponseRate(final double lostResponseRate) {
+		this.lostResponseRate = lostResponseRate;
+	}
+
+	/**
+	 * @param maxValues
+	 *            Longest value list sent with a table's info. Columns and filters with more values are sent with
+	 *            {@link ColumnInfo#isRemoteValues()} set and no values, for clients to look up with the <tt>values</tt> call.
+	 */
+	public void setMaxInlineValues(final int maxValues) {
+		maxInlineValues = maxValues;
+	}
+
+	public synchronized void start() throws IOException {
+		if (server != null) {
+			return;
+		}
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger	count	= new AtomicInteger();
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				Thread thread = new Thread(r, "local-table-server-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+		server.createContext("/" + servletName + "/", new TableHandler());
+		server.start();
+	}
+
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	private boolean chance(final double rate) {
+		return (rate > 0) && (random.nextDouble() < rate);
+	}
+
+	private void handle(final HttpExchange exchange, final String serviceName, final String function, final TableManager config)
+			throws IOException, InterruptedException {
+		switch (function) {
+			case "info":
+				sendJson(exchange, clientView(source.getTableInfo(serviceName, config)));
+				break;
+
+			case "data":
+				sendData(exchange, serviceName, config);
+				break;
+
+			case "page":
+				page(exchange, serviceName, config);
+				break;
+
+			case "values":
+				values(exchange, serviceName, config);
+				break;
+
+			case "update":
+				update(exchange, serviceName, config);
+				break;
+
+			case "changes":
+				String since = queryParam(exchange.getRequestURI(), "since");
+				ChangeSet changes = changeLogs.get(serviceName).poll(since == null ? -1 : Long.parseLong(since),
+						CHANGE_POLL_TIMEOUT);
+				sendJson(exchange, changes);
+				break;
+
+			default:
+				sendError(exchange, 404, "Unknown function " + function);
+		}
+	}
+
+	/**
+	 * Strip what clients shouldn't see from <tt>info</tt>: value queries, and value lists too long to send.
+	 */
+	private TableInfo clientView(final TableInfo info) {
+		final int max = maxInlineValues;
+		for (ColumnInfo column : info.getColumns()) {
+			column.setValueQuery(null);
+			if ((column.getValues() != null) && (column.getValues().size() > max)) {
+				column.setValues(null);
+				column.setRemoteValues(true);
+			}
+		}
+		for (FilterInfo filter : info.getFilters()) {
+			if ((filter.getValues() != null) && (filter.getValues().size() > max)) {
+				filter.setValues(null);
+				filter.setRemoteValues(true);
+			}
+		}
+		return info;
+	}
+
+	private OutputStream openBody(final HttpExchange exchange) throws IOException {
+		final int level = compressionLevel;
+		final Compression coding = level == Deflater.NO_COMPRESSION ? Compression.Identity : Compression.negotiate(exchange
+				.getRequestHeaders().getFirst("Accept-Encoding"));
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+		if (!Compression.Identity.equals(coding)) {
+			exchange.getResponseHeaders().set("Content-Encoding", coding.getEncoding());
+		}
+		exchange.sendResponseHeaders(200, 0);
+		OutputStream body = exchange.getResponseBody();
+		final long limit = bandwidth;
+		return coding.encode(limit > 0 ? new ThrottledOutputStream(body, limit) : body, level);
+	}
+
+	private void page(final HttpExchange exchange, final String serviceName, final TableManager config) throws IOException {
+		final PageRequest request = readBody(exchange, PAGE_REQUEST);
+		if (request == null) {
+			return;
+		}
+		final Page page;
+		try {
+			page = source.getPage(serviceName, config, request);
+		} catch (IllegalArgumentException e) {
+			sendError(exchange, 400, e.getMessage());
+			return;
+		}
+		sendJson(exchange, page);
+	}
+
+	private String queryParam(final URI uri, final String name) throws IOException {
+		String query = uri.getRawQuery();
+		if (query != null) {
+			for (String param : query.split("&")) {
+				if (param.startsWith(name + "=")) {
+					return URLDecoder.decode(param.substring(name.length() + 1), "UTF-8");
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return The decoded request body, or <tt>null</tt> if its coding isn't supported, in which case the request was answered.
+	 */
+	private <T> T readBody(final HttpExchange exchange, final TypeReference<T> type) throws IOException {
+		final Compression coding = Compression.forEncoding(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+		if (coding == null) {
+			sendError(exchange, 415, "Unsupported Content-Encoding");
+			return null;
+		}
+		try (InputStream body = coding.decode(exchange.getRequestBody())) {
+			return mapper.readValue(body, type);
+		}
+	}
+
+	private void sendData(final HttpExchange exchange, final String serviceName, final TableManager config) throws IOException {
+		// read before the rows, so a feed started from it can only repeat changes the rows already hold, never miss one
+		final long version = changeLogs.get(serviceName).getVersion();
+		exchange.getResponseHeaders().set(AutoTableClient.CHANGE_VERSION, Long.toString(version));
+		try (OutputStream body = openBody(exchange)) {
+			final JsonGenerator json = mapper.getJsonFactory().createJsonGenerator(body, JsonEncoding.UTF8);
+			json.writeStartArray();
+			source.writeData(serviceName, config, new RowWriter() {
+				@Override
+				public void writeRow(final String[] values) throws IOException {
+					json.writeStartArray();
+					for (String value : values) {
+						json.writeString(value);
+					}
+					json.writeEndArray();
+				}
+			});
+			json.writeEndArray();
+			json.close();
+		}
+	}
+
+	private void sendError(final HttpExchange exchange, final int status, final String message) throws IOException {
+		byte[] bytes = message.getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", "text/plain");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream body = exchange.getResponseBody()) {
+			body.write(bytes);
+		}
+	}
+
+	private void sendJson(final HttpExchange exchange, final Object value) throws IOException {
+		try (OutputStream body = openBody(exchange)) {
+			mapper.writeValue(body, value);
+		}
+	}
+
+	private void update(final HttpExchange exchange, final String serviceName, final TableManager config) throws IOException,
+			InterruptedException {
+		final List<UpdateInfo> updates = readBody(exchange, UPDATE_LIST);
+		if (updates == null) {
+			return;
+		}
+		final FutureTask<UpdateResult> apply = new FutureTask<>(new Callable<UpdateResult>() {
+			@Override
+			public UpdateResult call() {
+				UpdateResult result = source.update(serviceName, config, updates);
+				List<RowChange> changes = new ArrayList<>();
+				for (int i = 0; i < updates.size(); i++) {
+					if (result.acknowledged(i)) {
+						changes.add(new RowChange(ChangeType.Update, updates.get(i).getKeys(), updates.get(i).getUpdates()));
+					}
+				}
+				changeLogs.get(serviceName).append(changes);
+				return result;
+			}
+		});
+		final String header = exchange.getRequestHeaders().getFirst(AutoTableClient.IDEMPOTENCY_KEY);
+		final String key = header == null ? null : serviceName + "/" + header;
+		Future<UpdateResult> applied = apply;
+		if (key != null) {
+			// reserve the key before applying, so a concurrent retry finds it
+			synchronized (completedUpdates) {
+				applied = completedUpdates.get(key);
+				if (applied == null) {
+					applied = apply;
+					completedUpdates.put(key, apply);
+				}
+			}
+		}
+		if (applied == apply) {
+			apply.run();
+		}
+		final UpdateResult result;
+		try {
+			result = applied.get();
+		} catch (ExecutionException e) {
+			if (key != null) {
+				completedUpdates.remove(key); // nothing was applied, so a retry may try again
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		if ((applied == apply) && chance(lostResponseRate)) {
+			sendError(exchange, 503, "Injected lost response");
+			return;
+		}
+		sendJson(exchange, result);
+	}
+
+	private void values(final HttpExchange exchange, final String serviceName, final TableManager config) throws IOException {
+		final URI uri = exchange.getRequestURI();
+		final List<String> values;
+		try {
+			final String limit = queryParam(uri, "limit");
+			values = source.getValues(serviceName, config, queryParam(uri, "column"), queryParam(uri, "prefix"),
+					limit == null ? DEFAULT_VALUE_LIMIT : Integer.parseInt(limit));
+		} catch (IllegalArgumentException e) {
+			sendError(exchange, 400, String.valueOf(e.getMessage()));
+			return;
+		}
+		sendJson(exchange, values);
+	}
+
+	private final class TableHandler implements HttpHandler {
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException {
+			try {
+				final String[] path = exchange.getRequestURI().getPath().substring(servletName.length() + 2).split("/");
+				final TableManager config = path.length == 2 ? configs.get(path[0]) : null;
+				if (config == null) {
+					sendError(exchange, 404, "No service at " + exchange.getRequestURI().getPath());
+					return;
+				}
+				final long delay = latency + (jitter > 0 ? (long) (random.nextDouble() * jitter) : 0);
+				if (delay > 0) {
+					Thread.sleep(delay);
+				}
+				if (chance(errorRate)) {
+					sendError(exchange, 503, "Injected failure");
+					return;
+				}
+				LocalTableServer.this.handle(exchange, path[0], path[1], config);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				sendError(exchange, 500, String.valueOf(e));
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+
+/**
+ * Receives a table's rows, in column order, as a {@link TableDataSource} produces them.
+ */
+public interface RowWriter {
+	void writeRow(String[] values) throws IOException;
+}
@@ -0,0 +1,80 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowOrder;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.rest.ValueIndex;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * {@link TableDataSource} serving each service a {@link SyntheticTableGenerator} table built from its config. Rows are generated
+ * as they are written, so tables of any size can be served. The data is fixed; updates are acknowledged but not kept.
+ *
+ * @author Thomas Nardone
+ */
+public class SyntheticDataSource implements TableDataSource {
+	private final ConcurrentMap<String, SyntheticTableGenerator>	generators;
+
+	public SyntheticDataSource() {
+		generators = new ConcurrentHashMap<>();
+	}
+
+	public SyntheticTableGenerator getGenerator(final String serviceName, final TableManager config) {
+		SyntheticTableGenerator generator = generators.get(serviceName);
+		if (generator == null) {
+			generators.putIfAbsent(serviceName, new SyntheticTableGenerator(config));
+			generator = generators.get(serviceName);
+		}
+		return generator;
+	}
+
+	/**
+	 * Generates and sorts the whole table for each page, so is only fit for tables that fit in memory.
+	 */
+	@Override
+	public Page getPage(final String serviceName, final TableManager config, final PageRequest request) {
+		final RowOrder order = new RowOrder(config.getColumns(), request.getSort(), Arrays.asList(config.getKeyFields()));
+		return order.page(getGenerator(serviceName, config).toArray(), request);
+	}
+
+	@Override
+	public TableInfo getTableInfo(final String serviceName, final TableManager config) {
+		return getGenerator(serviceName, config).getTableInfo();
+	}
+
+	@Override
+	public List<String> getValues(final String serviceName, final TableManager config, final String column, final String prefix,
+			final int limit) {
+		final List<String> values = ValueIndex.valuesOf(getTableInfo(serviceName, config), column);
+		if (values == null) {
+			throw new IllegalArgumentException("No values for column " + column);
+		}
+		return new ValueIndex(values).find(prefix, limit);
+	}
+
+	/**
+	 * Use <tt>generator</tt> for the service, e.g. to serve a row count other than the config's.
+	 */
+	public void setGenerator(final String serviceName, final SyntheticTableGenerator generator) {
+		generators.put(serviceName, generator);
+	}
+
+	@Override
+	public UpdateResult update(final String serviceName, final TableManager config, final List<UpdateInfo> updates) {
+		return UpdateResult.of(updates.size(), true, null);
+	}
+
+	@Override
+	public void writeData(final String serviceName, final TableManager config, final RowWriter out) throws IOException {
+		getGenerator(serviceName, config).writeRows(out);
+	}
+}
@@ -0,0 +1,318 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+import net.thomasnardone.ui.DataType;
+import net.thomasnardone.ui.EditType;
+import net.thomasnardone.ui.FilterType;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.rest.TableDataSink;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * Deterministic, seeded table data for a {@link TableManager} config, of any size. Every cell is computed from its row, column
+ * and the seed alone, so rows can be streamed or looked up in any order without holding the table in memory, and the same seed
+ * always gives the same table.
+ * <p>
+ * Besides the usual table properties, these are read from the config:
+ * <ul>
+ * <li><tt>synthetic.rows</tt> - row count, 1000 by default.</li>
+ * <li><tt>synthetic.seed</tt> - seed, 0 by default.</li>
+ * <li><tt>column.<i>name</i>.cardinality</tt> - number of distinct values, 100 by default or the row count for key fields.</li>
+ * <li><tt>column.<i>name</i>.distribution</tt> - a {@link Distribution}, <tt>Uniform</tt> by default or <tt>Sequential</tt>
+ * for key fields.</li>
+ * <li><tt>column.<i>name</i>.zipfExponent</tt> - skew of a <tt>Zipf</tt> column, 1 by default.</li>
+ * <li><tt>column.<i>name</i>.nullRate</tt> - fraction of cells left null, 0 by default.</li>
+ * <li><tt>column.<i>name</i>.minLength</tt>, <tt>maxLength</tt> - length of <tt>String</tt> values, 4 to 12 by default.</li>
+ * <li><tt>column.<i>name</i>.min</tt> - smallest <tt>Integer</tt> or <tt>Double</tt> value, or for a <tt>Date</tt> the days
+ * after 2000-01-01, 0 by default.</li>
+ * </ul>
+ *
+ * @author Thomas Nardone
+ */
+public class SyntheticTableGenerator {
+	public static final String	CARDINALITY			= "cardinality";
+	public static final String	DISTRIBUTION		= "distribution";
+	public static final String	MAX_LENGTH			= "maxLength";
+	public static final String	MIN					= "min";
+	public static final String	MIN_LENGTH			= "minLength";
+	public static final String	NULL_RATE			= "nullRate";
+	public static final String	ROWS				= "synthetic.rows";
+	public static final String	SEED				= "synthetic.seed";
+	public static final String	ZIPF_EXPONENT		= "zipfExponent";
+
+	/** Columns with at most this many distinct values keep them, and offer them as combo values. */
+	private static final int	CACHED_VALUES		= 4096;
+	private static final int	DEFAULT_CARDINALITY	= 100;
+	private static final long	GOLDEN_GAMMA		= 0x9E3779B97F4A7C15L;
+	private static final long	MILLIS_PER_DAY		= 24L * 60 * 60 * 1000;
+	/** 2000-01-01, the first generated date. */
+	private static final long	START_DATE			= 946684800000L;
+
+	private final ColumnGenerator[]	columns;
+	private final TableManager		config;
+	private final int				rowCount;
+
+	public SyntheticTableGenerator(final TableManager config) {
+		this(config, Integer.parseInt(config.getProperty(ROWS, "1000")));
+	}
+
+	public SyntheticTableGenerator(final TableManager config, final int rowCount) {
+		if (rowCount < 0) {
+			throw new IllegalArgumentException("Negative row count: " + rowCount);
+		}
+		this.config = config;
+		this.rowCount = rowCount;
+		final long seed = Long.parseLong(config.getProperty(SEED, "0"));
+		final List<String> keyFields = Arrays.asList(config.getKeyFields());
+		final List<ColumnInfo> columnInfo = config.getColumns();
+		columns = new ColumnGenerator[columnInfo.size()];
+		for (int i = 0; i < columns.length; i++) {
+			final ColumnInfo column = columnInfo.get(i);
+			columns[i] = new ColumnGenerator(column, keyFields.contains(column.getName()), mix(seed + (GOLDEN_GAMMA * (i + 1))));
+		}
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static double unit(final long hash) {
+		return (hash >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Stream every row into <tt>sink</tt>.
+	 */
+	public void generate(final TableDataSink sink) {
+		for (int row = 0; row < rowCount; row++) {
+			for (ColumnGenerator column : columns) {
+				sink.addCell(column.valueAt(row));
+			}
+			sink.endRow();
+		}
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public TableManager getConfig() {
+		return config;
+	}
+
+	public String[] getRow(final int row) {
+		String[] values = new String[columns.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = columns[i].valueAt(row);
+		}
+		return values;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return The config's table info, with combo columns and filters given their distinct values where there are few enough to
+	 *         list.
+	 */
+	public TableInfo getTableInfo() {
+		TableInfo info = config.getTableInfo();
+		for (ColumnInfo column : info.getColumns()) {
+			if (EditType.Combo.equals(column.getEditType())) {
+				column.setValues(distinctValues(column.getName()));
+			}
+		}
+		for (FilterInfo filter : info.getFilters()) {
+			if (FilterType.Combo.equals(filter.getType())) {
+				filter.setValues(distinctValues(filter.getColumnName()));
+			}
+		}
+		return info;
+	}
+
+	public String getValue(final int row, final int column) {
+		return columns[column].valueAt(row);
+	}
+
+	/**
+	 * @return Every row, in memory - only sensible for tables that fit.
+	 */
+	public String[][] toArray() {
+		String[][] data = new String[rowCount][];
+		for (int row = 0; row < rowCount; row++) {
+			data[row] = getRow(row);
+		}
+		return data;
+	}
+
+	/**
+	 * Write every row to <tt>out</tt>. The array passed to {@link RowWriter#writeRow(String[])} is reused for the next row.
+	 */
+	public void writeRows(final RowWriter out) throws IOException {
+		String[] values = new String[columns.length];
+		for (int row = 0; row < rowCount; row++) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = columns[i].valueAt(row);
+			}
+			out.writeRow(values);
+		}
+	}
+
+	private List<String> distinctValues(final String columnName) {
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i].name.equals(columnName)) {
+				return columns[i].distinctValues();
+			}
+		}
+		return new ArrayList<>();
+	}
+
+	private final class ColumnGenerator {
+		private final String[]			cache;
+		private final int				cardinality;
+		private final double[]			cumulative;
+		private final DataType			dataType;
+		private final SimpleDateFormat	dateFormat;
+		private final Distribution		distribution;
+		private final int				maxLength;
+		private final long				min;
+		private final int				minLength;
+		private final String			name;
+		private final double			nullRate;
+		private final long				salt;
+
+		public ColumnGenerator(final ColumnInfo column, final boolean key, final long salt) {
+			this.salt = salt;
+			name = column.getName();
+			dataType = column.getDataType() == null ? DataType.String : column.getDataType();
+			final String prefix = TableManager.COLUMN_PREFIX + name + ".";
+			cardinality = Math.max(1, Integer.parseInt(config.getProperty(prefix + CARDINALITY,
+					Integer.toString(key ? Math.max(1, rowCount) : DEFAULT_CARDINALITY))));
+			distribution = Distribution.valueOf(config.getProperty(prefix + DISTRIBUTION,
+					(key ? Distribution.Sequential : Distribution.Uniform).name()));
+			nullRate = Double.parseDouble(config.getProperty(prefix + NULL_RATE, "0"));
+			min = Long.parseLong(config.getProperty(prefix + MIN, "0"));
+			minLength = Math.max(1, Integer.parseInt(config.getProperty(prefix + MIN_LENGTH, "4")));
+			maxLength = Math.max(minLength, Integer.parseInt(config.getProperty(prefix + MAX_LENGTH, "12")));
+			cache = cardinality <= CACHED_VALUES ? new String[cardinality] : null;
+			if (Distribution.Zipf.equals(distribution)) {
+				final double exponent = Double.parseDouble(config.getProperty(prefix + ZIPF_EXPONENT, "1"));
+				cumulative = new double[cardinality];
+				double total = 0;
+				for (int k = 0; k < cardinality; k++) {
+					total += 1 / Math.pow(k + 1, exponent);
+					cumulative[k] = total;
+				}
+				for (int k = 0; k < cardinality; k++) {
+					cumulative[k] /= total;
+				}
+			} else {
+				cumulative = null;
+			}
+			if (DataType.Date.equals(dataType)) {
+				dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+				dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+			} else {
+				dateFormat = null;
+			}
+		}
+
+		public List<String> distinctValues() {
+			if (cache == null) {
+				return new ArrayList<>();
+			}
+			TreeSet<String> values = new TreeSet<>();
+			for (int i = 0; i < cardinality; i++) {
+				values.add(value(i));
+			}
+			return new ArrayList<>(values);
+		}
+
+		public String valueAt(final int row) {
+			final long hash = mix(salt + row);
+			if ((nullRate > 0) && (unit(hash) < nullRate)) {
+				return null;
+			}
+			final int index;
+			switch (distribution) {
+				case Sequential:
+					index = row % cardinality;
+					break;
+
+				case Zipf:
+					final int found = Arrays.binarySearch(cumulative, unit(mix(hash)));
+					index = Math.min(cardinality - 1, found < 0 ? -found - 1 : found);
+					break;
+
+				default:
+					index = (int) (unit(mix(hash)) * cardinality);
+			}
+			return value(index);
+		}
+
+		private String format(final int index) {
+			final long hash = mix(~salt + index);
+			switch (dataType) {
+				case Date:
+					synchronized (dateFormat) {
+						return dateFormat.format(new Date(START_DATE + ((min + index) * MILLIS_PER_DAY)));
+					}
+
+				case Double:
+					return Double.toString(min + index + (Math.floor(unit(hash) * 100) / 100));
+
+				case Integer:
+					return Long.toString(min + index);
+
+				default:
+					return randomString(index, hash);
+			}
+		}
+
+		/**
+		 * Random letters, ending in <tt>index</tt> written in base 26 so distinct indexes never give equal strings.
+		 */
+		private String randomString(final int index, long hash) {
+			int digits = 1;
+			for (int rest = cardinality - 1; rest >= 26; rest /= 26) {
+				digits++;
+			}
+			final int length = Math.max(digits, minLength + (int) ((hash >>> 1) % ((maxLength - minLength) + 1)));
+			char[] chars = new char[length];
+			for (int i = 0; i < (length - digits); i++) {
+				hash = mix(hash);
+				chars[i] = (char) ('a' + ((hash >>> 1) % 26));
+			}
+			for (int i = length - 1, rest = index; i >= (length - digits); i--, rest /= 26) {
+				chars[i] = (char) ('a' + (rest % 26));
+			}
+			chars[0] = Character.toUpperCase(chars[0]);
+			return new String(chars);
+		}
+
+		private String value(final int index) {
+			if (cache == null) {
+				return format(index);
+			}
+			String value = cache[index];
+			if (value == null) {
+				value = format(index);
+				cache[index] = value;
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+import java.util.List;
+
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.rest.ValueIndex;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * Backing store for a table service. <tt>config</tt> is the service's table definition.
+ */
+public interface TableDataSource {
+	/**
+	 * @return One page of the table in the order of a {@link net.thomasnardone.ui.rest.RowOrder} for the request and the config's
+	 *         key fields.
+	 * @throws IllegalArgumentException
+	 *             If the request sorts by a column the table doesn't have, or seeks past values of the wrong type.
+	 */
+	Page getPage(String serviceName, TableManager config, PageRequest request);
+
+	/**
+	 * @return The table info for the service, with value lists filled in.
+	 */
+	TableInfo getTableInfo(String serviceName, TableManager config);
+
+	/**
+	 * @param limit
+	 *            Most values returned, or 0 for all.
+	 * @return Values of the combo column starting with <tt>prefix</tt>, ignoring case, as a {@link ValueIndex} finds them.
+	 * @throws IllegalArgumentException
+	 *             If the column has no value list.
+	 */
+	List<String> getValues(String serviceName, TableManager config, String column, String prefix, int limit);
+
+	/**
+	 * Apply <tt>updates</tt>, reporting which were applied.
+	 */
+	UpdateResult update(String serviceName, TableManager config, List<UpdateInfo> updates);
+
+	/**
+	 * Write every row of the table to <tt>out</tt>, without holding them all in memory where the store allows.
+	 */
+	void writeData(String serviceName, TableManager config, RowWriter out) throws IOException;
+}
@@ -0,0 +1,52 @@
+package net.thomasnardone.ui.server;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Limits the rate bytes are written at, to imitate a slow link.
+ */
+public class ThrottledOutputStream extends FilterOutputStream {
+	private static final int	SLICE	= 1024;
+
+	private final long			bytesPerSecond;
+	private final long			start;
+	private long				written;
+
+	public ThrottledOutputStream(final OutputStream out, final long bytesPerSecond) {
+		super(out);
+		this.bytesPerSecond = bytesPerSecond;
+		start = System.nanoTime();
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		for (int pos = 0; pos < len; pos += SLICE) {
+			final int slice = Math.min(SLICE, len - pos);
+			out.write(b, off + pos, slice);
+			throttle(slice);
+		}
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		out.write(b);
+		throttle(1);
+	}
+
+	private void throttle(final int bytes) throws IOException {
+		written += bytes;
+		final long due = (written * 1000000000L) / bytesPerSecond;
+		final long ahead = due - (System.nanoTime() - start);
+		if (ahead > 1000000) {
+			try {
+				Thread.sleep(ahead / 1000000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Small fixed-size pool of {@link PooledConnection}s, so their prepared statements outlive a single call. Connections are kept
+ * out of auto-commit; every borrower must end its transaction before releasing.
+ *
+ * @author Thomas Nardone
+ */
+public class ConnectionPool {
+	private static final long						BORROW_TIMEOUT	= 30000;
+	/** How long a waiting borrower sleeps before checking whether a failed connection freed a slot. */
+	private static final long						WAIT_INTERVAL	= 100;
+
+	private volatile boolean						closed;
+	private final DataSource						dataSource;
+	private final BlockingQueue<PooledConnection>	idle;
+	private final int								maxConnections;
+	private final AtomicInteger						open;
+	private final int								statementCacheSize;
+
+	public ConnectionPool(final DataSource dataSource, final int maxConnections, final int statementCacheSize) {
+		this.dataSource = dataSource;
+		this.maxConnections = maxConnections;
+		this.statementCacheSize = statementCacheSize;
+		idle = new LinkedBlockingQueue<>();
+		open = new AtomicInteger();
+	}
+
+	/**
+	 * Close every idle connection. Connections still borrowed are closed when released, and no more can be borrowed.
+	 */
+	public void close() {
+		closed = true;
+		for (PooledConnection connection = idle.poll(); connection != null; connection = idle.poll()) {
+			discard(connection);
+		}
+	}
+
+	public int getOpenCount() {
+		return open.get();
+	}
+
+	PooledConnection borrow() throws SQLException {
+		final long deadline = System.currentTimeMillis() + BORROW_TIMEOUT;
+		while (true) {
+			if (closed) {
+				throw new SQLException("Connection pool is closed");
+			}
+			PooledConnection connection = idle.poll();
+			if (connection != null) {
+				return connection;
+			}
+			if (open.incrementAndGet() <= maxConnections) {
+				try {
+					Connection raw = dataSource.getConnection();
+					raw.setAutoCommit(false);
+					return new PooledConnection(raw, statementCacheSize);
+				} catch (SQLException | RuntimeException e) {
+					open.decrementAndGet();
+					throw e;
+				}
+			}
+			open.decrementAndGet();
+			final long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				throw new SQLException("No connection free after " + BORROW_TIMEOUT + "ms");
+			}
+			try {
+				connection = idle.poll(Math.min(remaining, WAIT_INTERVAL), TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted waiting for a connection", e);
+			}
+			if (connection != null) {
+				return connection;
+			}
+		}
+	}
+
+	/**
+	 * Return a borrowed connection, or close it if it failed or the pool is closed.
+	 */
+	void release(final PooledConnection connection, final boolean broken) {
+		if (broken || closed) {
+			discard(connection);
+			return;
+		}
+		idle.offer(connection);
+		if (closed && idle.remove(connection)) {
+			discard(connection); // the pool closed while it was offered
+		}
+	}
+
+	private void discard(final PooledConnection connection) {
+		open.decrementAndGet();
+		connection.close();
+	}
+}
@@ -0,0 +1,340 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.sql.DataSource;
+
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowOrder;
+import net.thomasnardone.ui.rest.RowStatus;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.rest.ValueIndex;
+import net.thomasnardone.ui.server.RowWriter;
+import net.thomasnardone.ui.server.TableDataSource;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * {@link TableDataSource} running a {@link TableManager}'s <tt>query</tt>, <tt>valueQuery</tt>s and <tt>updateTable</tt> against
+ * a JDBC {@link DataSource}. Query results are streamed to the response row by row, fetched from the database in batches of
+ * {@link #getFetchSize()} rows. Connections are pooled here so each keeps its prepared statements between calls.
+ * <p>
+ * Serve it with {@link net.thomasnardone.ui.server.LocalTableServer}, or call it from any other HTTP layer.
+ *
+ * @author Thomas Nardone
+ */
+public class JdbcTableService implements TableDataSource {
+	public static final int							DEFAULT_BATCH_SIZE		= 500;
+	public static final int							DEFAULT_CONNECTIONS		= 8;
+	public static final int							DEFAULT_FETCH_SIZE		= 1000;
+	/** SQL:2008 row limit, understood by H2, PostgreSQL, Oracle 12c and DB2. */
+	public static final String						DEFAULT_LIMIT_CLAUSE	= "fetch first ? rows only";
+	public static final int							DEFAULT_STATEMENT_CACHE	= 64;
+
+	private volatile int							batchSize;
+	private volatile int							fetchSize;
+	private volatile String							limitClause;
+	private volatile boolean						nullsClauses;
+	private final boolean							ownsPool;
+	private final ConnectionPool					pool;
+	private final ConcurrentMap<String, ValueIndex>	valueIndexes;
+	private final ValueListResolver					valueLists;
+
+	public JdbcTableService(final DataSource dataSource) {
+		this(dataSource, DEFAULT_CONNECTIONS, DEFAULT_STATEMENT_CACHE);
+	}
+
+	/**
+	 * @param statementCacheSize
+	 *            Prepared statements kept open per connection.
+	 */
+	public JdbcTableService(final DataSource dataSource, final int maxConnections, final int statementCacheSize) {
+		this(new ConnectionPool(dataSource, maxConnections, statementCacheSize), null, true);
+	}
+
+	/**
+	 * Create a service sharing another's connections and value lists, e.g. one for each group of services with its own settings.
+	 */
+	public JdbcTableService(final JdbcTableService shared) {
+		this(shared.pool, shared.valueLists, false);
+	}
+
+	private JdbcTableService(final ConnectionPool pool, final ValueListResolver valueLists, final boolean ownsPool) {
+		this.pool = pool;
+		this.valueLists = valueLists == null ? new ValueListResolver(pool) : valueLists;
+		this.ownsPool = ownsPool;
+		valueIndexes = new ConcurrentHashMap<>();
+		fetchSize = DEFAULT_FETCH_SIZE;
+		batchSize = DEFAULT_BATCH_SIZE;
+		limitClause = DEFAULT_LIMIT_CLAUSE;
+		nullsClauses = true;
+	}
+
+	/**
+	 * Close the pooled connections, unless they belong to the service this one was created from.
+	 */
+	public void close() {
+		if (ownsPool) {
+			valueLists.shutdown();
+			pool.close();
+		}
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	public String getLimitClause() {
+		return limitClause;
+	}
+
+	/**
+	 * Run the config's query for one page: wrapped in the request's order, a seek predicate starting after the cursor row, and
+	 * {@link #getLimitClause()}. The sort columns are checked against the config, and the key fields are added to the order so
+	 * pages never overlap.
+	 */
+	@Override
+	public Page getPage(final String serviceName, final TableManager config, final PageRequest request) {
+		final RowOrder order = new RowOrder(config.getColumns(), request.getSort(), Arrays.asList(config.getKeyFields()));
+		final PageQuery query = new PageQuery(config, order, request, limitClause, nullsClauses);
+		PooledConnection connection = borrow();
+		boolean broken = true;
+		try {
+			PreparedStatement statement = connection.prepare(query.getSql());
+			query.bind(statement);
+			statement.setFetchSize(query.getLimit() > 0 ? Math.min(fetchSize, query.getLimit() + 1) : fetchSize);
+			final List<String[]> rows = new ArrayList<>();
+			try (ResultSet results = statement.executeQuery()) {
+				final int columns = results.getMetaData().getColumnCount();
+				while (results.next()) {
+					final String[] row = new String[columns];
+					for (int i = 0; i < columns; i++) {
+						row[i] = results.getString(i + 1);
+					}
+					rows.add(row);
+				}
+			}
+			connection.getConnection().commit();
+			broken = false;
+			if ((query.getLimit() > 0) && (rows.size() > query.getLimit())) {
+				rows.subList(query.getLimit(), rows.size()).clear();
+				return new Page(rows.toArray(new String[rows.size()][]), order.cursorFor(rows.get(rows.size() - 1)));
+			}
+			return new Page(rows.toArray(new String[rows.size()][]), null);
+		} catch (IllegalArgumentException e) {
+			broken = false;
+			throw e;
+		} catch (SQLException e) {
+			throw new IllegalStateException("Page query for " + serviceName + " failed", e);
+		} finally {
+			if (broken) {
+				rollback(connection);
+			}
+			pool.release(connection, broken);
+		}
+	}
+
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return The table info, with every column and combo filter that has a <tt>valueQuery</tt> given its values. The value
+	 *         queries run concurrently and are cached by {@link #getValueLists()}.
+	 */
+	@Override
+	public TableInfo getTableInfo(final String serviceName, final TableManager config) {
+		TableInfo info = config.getTableInfo();
+		List<String> queries = new ArrayList<>();
+		for (ColumnInfo column : config.getColumns()) {
+			if (column.getValueQuery() != null) {
+				queries.add(column.getValueQuery());
+			}
+		}
+		final Map<String, List<String>> values;
+		try {
+			values = valueLists.resolve(queries);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to load values for " + serviceName, e);
+		}
+		for (ColumnInfo column : info.getColumns()) {
+			final String valueQuery = config.getColumn(column.getName()).getValueQuery();
+			if (valueQuery != null) {
+				column.setValues(values.get(valueQuery));
+			}
+		}
+		for (FilterInfo filter : info.getFilters()) {
+			final ColumnInfo column = config.getColumn(filter.getColumnName());
+			if ((column != null) && (column.getValueQuery() != null)) {
+				filter.setValues(values.get(column.getValueQuery()));
+			}
+		}
+		return info;
+	}
+
+	public ValueListResolver getValueLists() {
+		return valueLists;
+	}
+
+	/**
+	 * Looks the prefix up in the column's cached value list, indexing the list once for as long as the cache keeps it.
+	 */
+	@Override
+	public List<String> getValues(final String serviceName, final TableManager config, final String column, final String prefix,
+			final int limit) {
+		final ColumnInfo columnInfo = config.getColumn(column);
+		if ((columnInfo == null) || (columnInfo.getValueQuery() == null)) {
+			throw new IllegalArgumentException("No values for column " + column);
+		}
+		final String query = columnInfo.getValueQuery();
+		final List<String> values;
+		try {
+			values = valueLists.resolve(Collections.singletonList(query)).get(query);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to load values for " + serviceName, e);
+		}
+		ValueIndex index = valueIndexes.get(query);
+		if ((index == null) || !index.isOf(values)) {
+			index = new ValueIndex(values);
+			valueIndexes.put(query, index);
+		}
+		return index.find(prefix, limit);
+	}
+
+	public boolean isNullsClauses() {
+		return nullsClauses;
+	}
+
+	/**
+	 * @param batchSize
+	 *            Updates sent to the database in one JDBC batch.
+	 */
+	public void setBatchSize(final int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param fetchSize
+	 *            Rows fetched from the database at a time while streaming the table.
+	 */
+	public void setFetchSize(final int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * @param limitClause
+	 *            Appended to page queries to cut the page, with a <tt>?</tt> for the row count - e.g. <tt>limit ?</tt> for MySQL.
+	 */
+	public void setLimitClause(final String limitClause) {
+		this.limitClause = limitClause;
+	}
+
+	/**
+	 * @param nullsClauses
+	 *            Whether page queries spell out <tt>nulls first</tt> and <tt>nulls last</tt>, on by default. Turn it off for
+	 *            databases without that syntax, such as SQL Server and MySQL, which already sort nulls first ascending.
+	 */
+	public void setNullsClauses(final boolean nullsClauses) {
+		this.nullsClauses = nullsClauses;
+	}
+
+	/**
+	 * Apply the updates to the config's <tt>updateTable</tt> in one transaction, matching rows by the key fields. Updates are sent
+	 * in JDBC batches of {@link #getBatchSize()} rows, one prepared statement for each set of columns updated. If any row fails
+	 * the transaction is rolled back.
+	 */
+	@Override
+	public UpdateResult update(final String serviceName, final TableManager config, final List<UpdateInfo> updates) {
+		if (config.getUpdateTable() == null) {
+			return UpdateResult.of(updates.size(), false, serviceName + " is read only");
+		}
+		PooledConnection connection = borrow();
+		boolean broken = true;
+		try {
+			final RowStatus[] statuses = new UpdateExecutor(config, batchSize).execute(connection, updates);
+			if (Arrays.asList(statuses).contains(RowStatus.Failed)) {
+				connection.getConnection().rollback();
+				for (int i = 0; i < statuses.length; i++) {
+					if (RowStatus.Applied.equals(statuses[i])) {
+						statuses[i] = RowStatus.RolledBack;
+					}
+				}
+				broken = false;
+				return UpdateResult.of(statuses, "Update of " + serviceName + " failed and was rolled back");
+			}
+			connection.getConnection().commit();
+			broken = false;
+			if (Arrays.asList(statuses).contains(RowStatus.Applied)) {
+				valueLists.invalidateTable(config.getUpdateTable());
+			}
+			return UpdateResult.of(statuses, null);
+		} catch (SQLException e) {
+			rollback(connection);
+			return UpdateResult.of(updates.size(), false, String.valueOf(e));
+		} finally {
+			pool.release(connection, broken);
+		}
+	}
+
+	@Override
+	public void writeData(final String serviceName, final TableManager config, final RowWriter out) throws IOException {
+		PooledConnection connection = borrow();
+		boolean broken = true;
+		try {
+			PreparedStatement statement = connection.prepare(config.getQuery());
+			statement.setFetchSize(fetchSize);
+			try (ResultSet results = statement.executeQuery()) {
+				final String[] row = new String[results.getMetaData().getColumnCount()];
+				while (results.next()) {
+					for (int i = 0; i < row.length; i++) {
+						row[i] = results.getString(i + 1);
+					}
+					out.writeRow(row);
+				}
+			}
+			connection.getConnection().commit();
+			broken = false;
+		} catch (SQLException e) {
+			throw new IOException("Query for " + serviceName + " failed", e);
+		} finally {
+			if (broken) {
+				rollback(connection);
+			}
+			pool.release(connection, broken);
+		}
+	}
+
+	private PooledConnection borrow() {
+		try {
+			return pool.borrow();
+		} catch (SQLException e) {
+			throw new IllegalStateException("No database connection", e);
+		}
+	}
+
+	private void rollback(final PooledConnection connection) {
+		try {
+			connection.getConnection().rollback();
+		} catch (SQLException e) {
+			// the connection is discarded anyway
+		}
+	}
+}
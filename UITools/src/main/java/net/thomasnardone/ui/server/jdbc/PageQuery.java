@@ -0,0 +1,160 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowOrder;
+import net.thomasnardone.ui.rest.SortSpec;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * Wraps a {@link TableManager}'s <tt>query</tt> to fetch one page of a {@link PageRequest}: ordered by the {@link RowOrder},
+ * starting after the request's cursor row with a seek predicate, and cut by the limit clause. Nothing is skipped by offset, so
+ * a page deep into the table costs the same as the first when the database has an index on the order.
+ * <p>
+ * Nulls sort first ascending and last descending, as in {@link RowOrder}, spelled out with <tt>nulls first</tt> and
+ * <tt>nulls last</tt> unless the database is known to sort them that way itself. Key fields are taken to never be null. A cursor
+ * of <tt>(a, b, k)</tt> becomes <tt>a &gt;= ? and (a &gt; ? or (a = ? and b &gt; ?) or (a = ? and b = ? and k &gt; ?))</tt>, with
+ * the comparisons flipped for descending columns. The leading bound on <tt>a</tt> is what an index on the first sort column can
+ * seek on; descending, it is <tt>(a &lt;= ? or a is null)</tt> as the nulls follow, unless <tt>a</tt> is a key field.
+ *
+ * @author Thomas Nardone
+ */
+class PageQuery {
+	private final int				limit;
+	private final List<ColumnInfo>	paramColumns;
+	private final List<String>		paramValues;
+	private final String			sql;
+
+	/**
+	 * @param limitClause
+	 *            Appended to cut the page, with a <tt>?</tt> for the row count.
+	 * @param nullsClauses
+	 *            Whether to add <tt>nulls first</tt> / <tt>nulls last</tt> to the order; leave them out for databases without
+	 *            that syntax, which must then sort nulls low themselves.
+	 * @throws IllegalArgumentException
+	 *             If the request's cursor is missing a column of the order.
+	 */
+	PageQuery(final TableManager config, final RowOrder order, final PageRequest request, final String limitClause,
+			final boolean nullsClauses) {
+		paramColumns = new ArrayList<>();
+		paramValues = new ArrayList<>();
+		limit = request.getLimit();
+		final Set<String> keyFields = new HashSet<>();
+		for (String key : config.getKeyFields()) {
+			keyFields.add(key.trim());
+		}
+		final List<SortSpec> specs = order.getOrder();
+
+		StringBuilder query = new StringBuilder("select * from (").append(config.getQuery()).append(") paged");
+		final Map<String, String> after = request.getAfter();
+		if (after != null) {
+			for (SortSpec spec : specs) {
+				if (!after.containsKey(spec.getColumn())) {
+					throw new IllegalArgumentException("Cursor has no value for " + spec.getColumn());
+				}
+			}
+			query.append(" where ");
+			final SortSpec first = specs.get(0);
+			final String column = first.getColumn();
+			if (after.get(column) == null) {
+				if (first.isDescending()) {
+					query.append(column).append(" is null and ");
+				}
+			} else if (!first.isDescending()) {
+				query.append(column).append(" >= ? and ");
+				param(config, column, after);
+			} else if (keyFields.contains(column)) {
+				query.append(column).append(" <= ? and ");
+				param(config, column, after);
+			} else {
+				query.append("(").append(column).append(" <= ? or ").append(column).append(" is null) and ");
+				param(config, column, after);
+			}
+			query.append("(");
+			boolean any = false;
+			for (int i = 0; i < specs.size(); i++) {
+				final SortSpec spec = specs.get(i);
+				final String value = after.get(spec.getColumn());
+				if (spec.isDescending() && (value == null)) {
+					continue;
+				}
+				query.append(any ? " or (" : "(");
+				any = true;
+				for (SortSpec equal : specs.subList(0, i)) {
+					if (after.get(equal.getColumn()) == null) {
+						query.append(equal.getColumn()).append(" is null and ");
+					} else {
+						query.append(equal.getColumn()).append(" = ? and ");
+						param(config, equal.getColumn(), after);
+					}
+				}
+				if (value == null) {
+					query.append(spec.getColumn()).append(" is not null");
+				} else if (!spec.isDescending()) {
+					query.append(spec.getColumn()).append(" > ?");
+					param(config, spec.getColumn(), after);
+				} else if (keyFields.contains(spec.getColumn())) {
+					query.append(spec.getColumn()).append(" < ?");
+					param(config, spec.getColumn(), after);
+				} else {
+					query.append("(").append(spec.getColumn()).append(" < ? or ").append(spec.getColumn()).append(" is null)");
+					param(config, spec.getColumn(), after);
+				}
+				query.append(")");
+			}
+			query.append(any ? ")" : "1 = 0)");
+		}
+		query.append(" order by ");
+		for (int i = 0; i < specs.size(); i++) {
+			final SortSpec spec = specs.get(i);
+			query.append(i == 0 ? "" : ", ").append(spec.getColumn()).append(spec.isDescending() ? " desc" : "");
+			if (nullsClauses && !keyFields.contains(spec.getColumn())) {
+				query.append(spec.isDescending() ? " nulls last" : " nulls first");
+			}
+		}
+		if (limit > 0) {
+			query.append(" ").append(limitClause);
+		}
+		sql = query.toString();
+	}
+
+	/**
+	 * Bind the cursor values and limit. One more row than the limit is asked for, to tell whether there is a next page.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If a cursor value is not a number for an Integer or Double column.
+	 */
+	void bind(final PreparedStatement statement) throws SQLException {
+		int index = 1;
+		for (int i = 0; i < paramColumns.size(); i++) {
+			if (!UpdateExecutor.bind(statement, index++, paramColumns.get(i), paramValues.get(i))) {
+				throw new IllegalArgumentException("Cursor value for " + paramColumns.get(i).getName() + " is not a number: "
+						+ paramValues.get(i));
+			}
+		}
+		if (limit > 0) {
+			statement.setInt(index, limit + 1);
+		}
+	}
+
+	int getLimit() {
+		return limit;
+	}
+
+	String getSql() {
+		return sql;
+	}
+
+	private void param(final TableManager config, final String column, final Map<String, String> after) {
+		paramColumns.add(config.getColumn(column));
+		paramValues.add(after.get(column));
+	}
+}
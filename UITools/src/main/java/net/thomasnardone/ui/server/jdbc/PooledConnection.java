@@ -0,0 +1,72 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A connection held by a {@link ConnectionPool}, with its prepared statements cached by SQL. Once there are more than the
+ * capacity, the least recently used statement is closed.
+ *
+ * @author Thomas Nardone
+ */
+class PooledConnection {
+	private final Connection						connection;
+	private final Map<String, PreparedStatement>	statements;
+
+	PooledConnection(final Connection connection, final int capacity) {
+		this.connection = connection;
+		statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long	serialVersionUID	= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+				if (size() > capacity) {
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	private static void closeQuietly(final AutoCloseable closeable) {
+		try {
+			closeable.close();
+		} catch (Exception e) {
+			// already broken or closed
+		}
+	}
+
+	public void close() {
+		for (PreparedStatement statement : statements.values()) {
+			closeQuietly(statement);
+		}
+		statements.clear();
+		closeQuietly(connection);
+	}
+
+	public Connection getConnection() {
+		return connection;
+	}
+
+	public int getStatementCount() {
+		return statements.size();
+	}
+
+	/**
+	 * @return The cached statement for <tt>sql</tt>, prepared now if there is none. Its parameters are cleared.
+	 */
+	public PreparedStatement prepare(final String sql) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if ((statement == null) || statement.isClosed()) {
+			statement = connection.prepareStatement(sql);
+			statements.put(sql, statement);
+		} else {
+			statement.clearParameters();
+		}
+		return statement;
+	}
+}
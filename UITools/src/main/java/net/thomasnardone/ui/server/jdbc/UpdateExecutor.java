@@ -0,0 +1,220 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.thomasnardone.ui.DataType;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.RowStatus;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.table.TableManager;
+
+/**
+ * Applies a list of {@link UpdateInfo}s to a {@link TableManager}'s <tt>updateTable</tt> with JDBC batches. Updates are grouped by
+ * the columns they set and the keys they match on; each group is one prepared statement, sent <tt>batchSize</tt> rows at a time.
+ * Groups run in the order they first appear, so two updates to the same row with different columns may apply out of order - the
+ * table model never sends more than one update per row.
+ * <p>
+ * Column names are checked against the config, never copied into SQL from the request. The caller owns the transaction.
+ *
+ * @author Thomas Nardone
+ */
+class UpdateExecutor {
+	private final int			batchSize;
+	private final TableManager	config;
+	private final List<String>	keyFields;
+
+	UpdateExecutor(final TableManager config, final int batchSize) {
+		this.config = config;
+		this.batchSize = Math.max(1, batchSize);
+		keyFields = Arrays.asList(config.getKeyFields());
+	}
+
+	/**
+	 * Bind <tt>value</tt> as the column's data type.
+	 *
+	 * @return <tt>false</tt> if the value is not a number for an Integer or Double column.
+	 */
+	static boolean bind(final PreparedStatement statement, final int index, final ColumnInfo column, final String value)
+			throws SQLException {
+		final DataType type = column.getDataType() == null ? DataType.String : column.getDataType();
+		try {
+			switch (type) {
+				case Integer:
+					if (value == null) {
+						statement.setNull(index, Types.BIGINT);
+					} else {
+						statement.setLong(index, Long.parseLong(value.trim()));
+					}
+					break;
+
+				case Double:
+					if (value == null) {
+						statement.setNull(index, Types.DOUBLE);
+					} else {
+						statement.setDouble(index, Double.parseDouble(value.trim()));
+					}
+					break;
+
+				default:
+					statement.setString(index, value);
+			}
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Run the updates. If any row comes back {@link RowStatus#Failed} the rest are not attempted, but marked
+	 * {@link RowStatus#RolledBack}, and the caller should roll back.
+	 *
+	 * @return Each row's status.
+	 */
+	RowStatus[] execute(final PooledConnection connection, final List<UpdateInfo> updates) throws SQLException {
+		final RowStatus[] statuses = new RowStatus[updates.size()];
+		final Map<String, Group> groups = new LinkedHashMap<>();
+		for (int row = 0; row < statuses.length; row++) {
+			final Group shape = shapeOf(updates.get(row));
+			if (shape == null) {
+				statuses[row] = RowStatus.Invalid;
+				continue;
+			}
+			Group group = groups.get(shape.sql);
+			if (group == null) {
+				group = shape;
+				groups.put(group.sql, group);
+			}
+			group.rows.add(row);
+		}
+		for (Group group : groups.values()) {
+			if (!executeGroup(connection, group, updates, statuses)) {
+				for (int row = 0; row < statuses.length; row++) {
+					if (statuses[row] == null) {
+						statuses[row] = RowStatus.RolledBack;
+					}
+				}
+				break;
+			}
+		}
+		return statuses;
+	}
+
+	/**
+	 * @return Whether the group ran without error.
+	 */
+	private boolean executeGroup(final PooledConnection connection, final Group group, final List<UpdateInfo> updates,
+			final RowStatus[] statuses) throws SQLException {
+		final PreparedStatement statement = connection.prepare(group.sql);
+		final int[] batch = new int[batchSize];
+		int batched = 0;
+		for (int row : group.rows) {
+			final UpdateInfo update = updates.get(row);
+			int index = 1;
+			boolean valid = true;
+			for (ColumnInfo column : group.setColumns) {
+				valid &= bind(statement, index++, column, update.getUpdates().get(column.getName()));
+			}
+			for (ColumnInfo column : group.keyColumns) {
+				valid &= bind(statement, index++, column, update.getKeys().get(column.getName()));
+			}
+			if (!valid) {
+				statuses[row] = RowStatus.Invalid;
+				statement.clearParameters();
+				continue;
+			}
+			statement.addBatch();
+			batch[batched++] = row;
+			if (batched == batchSize) {
+				if (!flush(statement, batch, batched, statuses)) {
+					return false;
+				}
+				batched = 0;
+			}
+		}
+		return (batched == 0) || flush(statement, batch, batched, statuses);
+	}
+
+	private boolean flush(final PreparedStatement statement, final int[] batch, final int batched, final RowStatus[] statuses)
+			throws SQLException {
+		int[] counts;
+		boolean success = true;
+		try {
+			counts = statement.executeBatch();
+		} catch (BatchUpdateException e) {
+			statement.clearBatch();
+			counts = e.getUpdateCounts() == null ? new int[0] : e.getUpdateCounts();
+			success = false;
+		}
+		for (int i = 0; i < batched; i++) {
+			if (i >= counts.length) {
+				// a driver that stops at the failing row only counts the rows before it; the rest never ran
+				statuses[batch[i]] = i == counts.length ? RowStatus.Failed : RowStatus.RolledBack;
+				success = false;
+				continue;
+			}
+			final int count = counts[i];
+			if (count == Statement.EXECUTE_FAILED) {
+				statuses[batch[i]] = RowStatus.Failed;
+			} else {
+				statuses[batch[i]] = (count > 0) || (count == Statement.SUCCESS_NO_INFO) ? RowStatus.Applied : RowStatus.NotFound;
+			}
+		}
+		return success;
+	}
+
+	/**
+	 * @return An empty group for the update's columns and keys, or <tt>null</tt> if it names something not allowed.
+	 */
+	private Group shapeOf(final UpdateInfo update) {
+		final Map<String, String> values = update.getUpdates();
+		final Map<String, String> keys = update.getKeys();
+		if ((values == null) || values.isEmpty() || (keys == null) || keys.isEmpty()) {
+			return null;
+		}
+		Group group = new Group();
+		StringBuilder sql = new StringBuilder("update ").append(config.getUpdateTable()).append(" set ");
+		for (String name : new TreeMap<>(values).keySet()) {
+			final ColumnInfo column = config.getColumn(name);
+			if (column == null) {
+				return null;
+			}
+			sql.append(group.setColumns.isEmpty() ? "" : ", ").append(column.getName()).append(" = ?");
+			group.setColumns.add(column);
+		}
+		sql.append(" where ");
+		boolean first = true;
+		for (Map.Entry<String, String> key : new TreeMap<>(keys).entrySet()) {
+			final ColumnInfo column = config.getColumn(key.getKey());
+			if ((column == null) || !keyFields.contains(column.getName())) {
+				return null;
+			}
+			sql.append(first ? "" : " and ").append(column.getName());
+			first = false;
+			if (key.getValue() == null) {
+				sql.append(" is null");
+			} else {
+				sql.append(" = ?");
+				group.keyColumns.add(column);
+			}
+		}
+		group.sql = sql.toString();
+		return group;
+	}
+
+	private static final class Group {
+		final List<ColumnInfo>	keyColumns	= new ArrayList<>();
+		final List<Integer>		rows		= new ArrayList<>();
+		final List<ColumnInfo>	setColumns	= new ArrayList<>();
+		String					sql;
+	}
+}
@@ -0,0 +1,230 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.thomasnardone.ui.util.SingleFlight;
+
+/**
+ * Runs <tt>valueQuery</tt>s for combo columns and filters. A table's queries run concurrently, results are cached by query text
+ * for a time-to-live, and concurrent misses for the same query share one execution. Share one resolver between every
+ * {@link JdbcTableService} on the same database so every service and user reuses the same lists.
+ * <p>
+ * Cached lists are dropped early by {@link #invalidateTable(String)}, which {@link JdbcTableService} calls after updating a table.
+ * The tables a query reads are taken from the names following <tt>from</tt> and <tt>join</tt>.
+ *
+ * @author Thomas Nardone
+ */
+public class ValueListResolver {
+	public static final long							DEFAULT_TTL	= 60000;
+	private static final Pattern						TABLE_NAME	= Pattern.compile("\\b(?:from|join)\\s+([\\w.$\"`\\[\\]]+)",
+																			Pattern.CASE_INSENSITIVE);
+	private static final int							THREADS		= 4;
+
+	private final ConcurrentMap<String, CachedValues>	cache;
+	private final ExecutorService						executor;
+	private final SingleFlight<String, List<String>>	loads;
+	private final ConnectionPool						pool;
+	private final ConcurrentMap<String, AtomicLong>		tableVersions;
+	private volatile long								ttl;
+
+	public ValueListResolver(final ConnectionPool pool) {
+		this.pool = pool;
+		cache = new ConcurrentHashMap<>();
+		loads = new SingleFlight<>();
+		tableVersions = new ConcurrentHashMap<>();
+		ttl = DEFAULT_TTL;
+		executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+			private final AtomicInteger	count	= new AtomicInteger();
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				Thread thread = new Thread(r, "value-lists-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * @return The lower-cased, unquoted names of the tables <tt>query</tt> reads, with and without any schema.
+	 */
+	static Set<String> tablesIn(final String query) {
+		Set<String> tables = new HashSet<>();
+		Matcher matcher = TABLE_NAME.matcher(query);
+		while (matcher.find()) {
+			tables.addAll(names(matcher.group(1)));
+		}
+		return tables;
+	}
+
+	private static List<String> names(final String tableName) {
+		final String name = tableName.replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ENGLISH);
+		final int dot = name.lastIndexOf('.');
+		return dot < 0 ? Collections.singletonList(name) : Arrays.asList(name, name.substring(dot + 1));
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * Drop every cached list read from <tt>tableName</tt>, including lists being loaded right now.
+	 */
+	public void invalidateTable(final String tableName) {
+		final List<String> names = names(tableName);
+		for (String table : names) {
+			version(table).incrementAndGet();
+		}
+		for (Map.Entry<String, CachedValues> entry : cache.entrySet()) {
+			if (!Collections.disjoint(entry.getValue().tables, names)) {
+				cache.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * @return The values of each query, by query. Queries not cached are run concurrently.
+	 * @throws SQLException
+	 *             If any query failed.
+	 */
+	public Map<String, List<String>> resolve(final Collection<String> queries) throws SQLException {
+		final long now = System.currentTimeMillis();
+		Map<String, List<String>> values = new LinkedHashMap<>();
+		Map<String, Future<List<String>>> pending = new LinkedHashMap<>();
+		for (final String query : new LinkedHashSet<>(queries)) {
+			CachedValues cached = cache.get(query);
+			if ((cached != null) && (cached.expires > now)) {
+				values.put(query, cached.values);
+			} else {
+				pending.put(query, executor.submit(new Callable<List<String>>() {
+					@Override
+					public List<String> call() throws SQLException {
+						return loads.execute(query, new Load(query));
+					}
+				}));
+			}
+		}
+		for (Map.Entry<String, Future<List<String>>> entry : pending.entrySet()) {
+			try {
+				values.put(entry.getKey(), entry.getValue().get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted resolving " + entry.getKey(), e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof SQLException) {
+					throw (SQLException) e.getCause();
+				} else if ((e.getCause() instanceof RuntimeException) && (e.getCause().getCause() instanceof SQLException)) {
+					throw (SQLException) e.getCause().getCause();
+				}
+				throw new SQLException("Unable to resolve " + entry.getKey(), e.getCause());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @param ttl
+	 *            Milliseconds a list is served from the cache.
+	 */
+	public void setTtl(final long ttl) {
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Stop the query threads.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private AtomicLong version(final String table) {
+		AtomicLong version = tableVersions.get(table);
+		if (version == null) {
+			tableVersions.putIfAbsent(table, new AtomicLong());
+			version = tableVersions.get(table);
+		}
+		return version;
+	}
+
+	private static final class CachedValues {
+		final long			expires;
+		final Set<String>	tables;
+		final List<String>	values;
+
+		CachedValues(final List<String> values, final Set<String> tables, final long expires) {
+			this.values = values;
+			this.tables = tables;
+			this.expires = expires;
+		}
+	}
+
+	private final class Load implements Callable<List<String>> {
+		private final String	query;
+
+		public Load(final String query) {
+			this.query = query;
+		}
+
+		@Override
+		public List<String> call() throws SQLException {
+			final Set<String> tables = tablesIn(query);
+			final Map<String, Long> versions = new LinkedHashMap<>();
+			for (String table : tables) {
+				versions.put(table, version(table).get());
+			}
+			final List<String> values = Collections.unmodifiableList(query());
+			// cached before checking, so an invalidation either changes a version seen below or finds the entry to drop
+			final CachedValues entry = new CachedValues(values, tables, System.currentTimeMillis() + ttl);
+			cache.put(query, entry);
+			for (String table : tables) {
+				if (version(table).get() != versions.get(table)) {
+					cache.remove(query, entry);
+					break;
+				}
+			}
+			return values;
+		}
+
+		private List<String> query() throws SQLException {
+			PooledConnection connection = pool.borrow();
+			boolean broken = true;
+			try {
+				List<String> values = new ArrayList<>();
+				try (ResultSet results = connection.prepare(query).executeQuery()) {
+					while (results.next()) {
+						values.add(results.getString(1));
+					}
+				}
+				connection.getConnection().commit();
+				broken = false;
+				return values;
+			} finally {
+				pool.release(connection, broken);
+			}
+		}
+	}
+}
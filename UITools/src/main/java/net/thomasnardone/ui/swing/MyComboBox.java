@@ -7,6 +7,7 @@ import javax.swing.JComboBox;
 
 /**
  * JComboBox that returns E on getSelectedItem(), rather than Object. This can result in errors if the combo box is made editable.
+ * Type-ahead uses a {@link PrefixKeySelectionManager}, so it stays fast for long lists.
  * 
  * @author Thomas Nardone
  */
@@ -15,18 +16,22 @@ public class MyComboBox<E> extends JComboBox<E> {
 
 	public MyComboBox() {
 		super();
+		setKeySelectionManager(new PrefixKeySelectionManager());
 	}
 
 	public MyComboBox(final ComboBoxModel<E> aModel) {
 		super(aModel);
+		setKeySelectionManager(new PrefixKeySelectionManager());
 	}
 
 	public MyComboBox(final E[] items) {
 		super(items);
+		setKeySelectionManager(new PrefixKeySelectionManager());
 	}
 
 	public MyComboBox(final Vector<E> items) {
 		super(items);
+		setKeySelectionManager(new PrefixKeySelectionManager());
 	}
 
 	@SuppressWarnings("unchecked")
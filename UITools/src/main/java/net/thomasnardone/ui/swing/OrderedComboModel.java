@@ -1,14 +1,24 @@
 package net.thomasnardone.ui.swing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import javax.swing.AbstractListModel;
 import javax.swing.ComboBoxModel;
 
+/**
+ * Combo model kept in the order items were added. Lookups go through an index of each item's first position, built on the first
+ * lookup and rebuilt after a removal.
+ */
 public class OrderedComboModel<T> extends AbstractListModel<T> implements ComboBoxModel<T> {
 	private static final long	serialVersionUID	= 1L;
 
+	private Map<T, Integer>		index;
 	private final List<T>		items;
 	private T					selectedItem;
 
@@ -16,24 +26,30 @@ public class OrderedComboModel<T> extends AbstractListModel<T> implements ComboB
 		this.items = new ArrayList<>();
 	}
 
-	public OrderedComboModel(final List<T> items) {
-		this();
-		if (items != null) {
-			for (T item : items) {
-				addItem(item);
-			}
-		}
+	public OrderedComboModel(final Collection<? extends T> items) {
+		this.items = items == null ? new ArrayList<T>() : new ArrayList<T>(items);
 	}
 
 	public OrderedComboModel(final T[] items) {
-		this();
-		for (T item : items) {
-			addItem(item);
+		this(Arrays.asList(items));
+	}
+
+	public void addAll(final Collection<? extends T> added) {
+		if (added.isEmpty()) {
+			return;
 		}
+		final int oldSize = items.size();
+		items.addAll(added);
+		index = null;
+		fireIntervalAdded(this, oldSize, items.size() - 1);
 	}
 
 	public void addItem(final T item) {
 		items.add(item);
+		if ((index != null) && !index.containsKey(item)) {
+			index.put(item, items.size() - 1);
+		}
+		fireIntervalAdded(this, items.size() - 1, items.size() - 1);
 	}
 
 	@Override
@@ -51,13 +67,53 @@ public class OrderedComboModel<T> extends AbstractListModel<T> implements ComboB
 		return items.size();
 	}
 
+	/**
+	 * @return Index of the first item equal to the given one, or -1.
+	 */
+	public int indexOf(final Object item) {
+		if (index == null) {
+			index = new HashMap<>(Math.max(16, items.size() * 2));
+			for (int i = 0; i < items.size(); i++) {
+				if (!index.containsKey(items.get(i))) {
+					index.put(items.get(i), i);
+				}
+			}
+		}
+		final Integer pos = index.get(item);
+		return pos == null ? -1 : pos;
+	}
+
 	public void removeItem(final T item) {
-		items.remove(item);
+		final int pos = indexOf(item);
+		if (pos > -1) {
+			items.remove(pos);
+			index = null;
+			fireIntervalRemoved(this, pos, pos);
+		}
+	}
+
+	/**
+	 * Replace every item.
+	 */
+	public void setItems(final Collection<? extends T> replacement) {
+		final int oldSize = items.size();
+		items.clear();
+		index = null;
+		if (oldSize > 0) {
+			fireIntervalRemoved(this, 0, oldSize - 1);
+		}
+		items.addAll(replacement);
+		if (!items.isEmpty()) {
+			fireIntervalAdded(this, 0, items.size() - 1);
+		}
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public void setSelectedItem(final Object anItem) {
-		selectedItem = (T) anItem;
+		if (!Objects.equals(selectedItem, anItem)) {
+			selectedItem = (T) anItem;
+			fireContentsChanged(this, -1, -1);
+		}
 	}
 }
@@ -0,0 +1,138 @@
+package net.thomasnardone.ui.swing;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Type-ahead for combo boxes with many items. Keys typed in quick succession build up a prefix, which is found by binary search
+ * in a sorted index of the items' lower-case text; typing the same letter again cycles through the items starting with it, as
+ * Swing's default manager does. The index is built on the first key press and dropped whenever the model changes.
+ *
+ * @author Thomas Nardone
+ */
+public class PrefixKeySelectionManager implements JComboBox.KeySelectionManager, ListDataListener {
+	/** Keys typed within this long of each other make up one prefix. */
+	public static final long	TYPE_AHEAD_MILLIS	= 1000;
+
+	private Entry[]				entries;
+	private long				lastKeyTime;
+	private ComboBoxModel<?>	model;
+	private String				prefix;
+
+	public PrefixKeySelectionManager() {
+		prefix = "";
+	}
+
+	private static String key(final Object item) {
+		return item == null ? "" : item.toString().toLowerCase();
+	}
+
+	@Override
+	public void contentsChanged(final ListDataEvent e) {
+		if (e.getIndex0() >= 0) { // -1 is only the selection changing
+			entries = null;
+		}
+	}
+
+	@Override
+	public void intervalAdded(final ListDataEvent e) {
+		entries = null;
+	}
+
+	@Override
+	public void intervalRemoved(final ListDataEvent e) {
+		entries = null;
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public int selectionForKey(final char aKey, final ComboBoxModel aModel) {
+		return selectionForKey(aKey, aModel, System.currentTimeMillis());
+	}
+
+	int selectionForKey(final char aKey, final ComboBoxModel<?> aModel, final long time) {
+		if (aModel != model) {
+			if (model != null) {
+				model.removeListDataListener(this);
+			}
+			model = aModel;
+			model.addListDataListener(this);
+			entries = null;
+		}
+		if (entries == null) {
+			entries = new Entry[model.getSize()];
+			for (int i = 0; i < entries.length; i++) {
+				entries[i] = new Entry(key(model.getElementAt(i)), i);
+			}
+			Arrays.sort(entries);
+		}
+		final String typed = Character.toString(Character.toLowerCase(aKey));
+		prefix = (time - lastKeyTime) < TYPE_AHEAD_MILLIS ? prefix + typed : typed;
+		lastKeyTime = time;
+		final boolean cycle = prefix.replace(typed, "").isEmpty();
+		final String search = cycle ? typed : prefix;
+
+		int pos = lowerBound(new Entry(search, -1));
+		if (cycle) {
+			final int selected = selectedEntry();
+			if ((selected >= 0) && entries[selected].key.startsWith(search)) {
+				pos = ((selected + 1) < entries.length) && entries[selected + 1].key.startsWith(search) ? selected + 1 : pos;
+			}
+		}
+		return (pos < entries.length) && entries[pos].key.startsWith(search) ? entries[pos].index : -1;
+	}
+
+	private int lowerBound(final Entry target) {
+		int low = 0;
+		int high = entries.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (entries[mid].compareTo(target) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return Position in {@link #entries} of the selected item, or -1.
+	 */
+	private int selectedEntry() {
+		final Object selected = model.getSelectedItem();
+		if (selected == null) {
+			return -1;
+		}
+		final String selectedKey = key(selected);
+		int pos = lowerBound(new Entry(selectedKey, -1));
+		while ((pos < entries.length) && entries[pos].key.equals(selectedKey)) {
+			if (Objects.equals(selected, model.getElementAt(entries[pos].index))) {
+				return pos;
+			}
+			pos++;
+		}
+		return -1;
+	}
+
+	private static final class Entry implements Comparable<Entry> {
+		private final int		index;
+		private final String	key;
+
+		private Entry(final String key, final int index) {
+			this.key = key;
+			this.index = index;
+		}
+
+		@Override
+		public int compareTo(final Entry o) {
+			final int diff = key.compareTo(o.key);
+			return diff != 0 ? diff : Integer.compare(index, o.index);
+		}
+	}
+}
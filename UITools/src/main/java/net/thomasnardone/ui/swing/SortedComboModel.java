@@ -1,49 +1,66 @@
 package net.thomasnardone.ui.swing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import javax.swing.AbstractListModel;
 import javax.swing.ComboBoxModel;
 
+/**
+ * Combo model kept in natural order. Items given up front or through {@link #addAll(Collection)} are sorted once, and not until
+ * an item is first looked up, so a combo that is never opened never pays for sorting.
+ */
 public final class SortedComboModel<T extends Comparable<T>> extends AbstractListModel<T> implements ComboBoxModel<T> {
 	private static final long	serialVersionUID	= 1L;
 
 	private final List<T>		items;
 	private T					selectedItem;
+	private boolean				sorted;
 
 	public SortedComboModel() {
 		this.items = new ArrayList<>();
+		sorted = true;
 	}
 
-	public SortedComboModel(final List<T> items) {
-		this();
-		if (items != null) {
-			for (T item : items) {
-				addItem(item);
-			}
-		}
+	public SortedComboModel(final Collection<? extends T> items) {
+		this.items = items == null ? new ArrayList<T>() : new ArrayList<T>(items);
+		sorted = this.items.size() < 2;
 	}
 
 	public SortedComboModel(final T[] items) {
-		this();
-		for (T item : items) {
-			addItem(item);
+		this(Arrays.asList(items));
+	}
+
+	public void addAll(final Collection<? extends T> added) {
+		if (added.isEmpty()) {
+			return;
+		}
+		final int oldSize = items.size();
+		items.addAll(added);
+		sorted = false;
+		fireIntervalAdded(this, oldSize, items.size() - 1);
+		if (oldSize > 0) {
+			fireContentsChanged(this, 0, oldSize - 1);
 		}
 	}
 
 	public void addItem(final T item) {
+		sort();
 		int pos = Collections.binarySearch(items, item);
 		if (pos < 0) {
-			items.add((pos + 1) * -1, item);
-		} else {
-			items.add(pos, item);
+			pos = (pos + 1) * -1;
 		}
+		items.add(pos, item);
+		fireIntervalAdded(this, pos, pos);
 	}
 
 	@Override
 	public T getElementAt(final int index) {
+		sort();
 		return items.get(index);
 	}
 
@@ -57,16 +74,35 @@ public final class SortedComboModel<T extends Comparable<T>> extends AbstractLis
 		return items.size();
 	}
 
+	/**
+	 * @return Index of an item equal to the given one, or -1.
+	 */
+	public int indexOf(final T item) {
+		sort();
+		return Math.max(-1, Collections.binarySearch(items, item));
+	}
+
 	public void removeItem(final T item) {
-		int pos = Collections.binarySearch(items, item);
+		final int pos = indexOf(item);
 		if (pos > -1) {
 			items.remove(pos);
+			fireIntervalRemoved(this, pos, pos);
 		}
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public void setSelectedItem(final Object anItem) {
-		selectedItem = (T) anItem;
+		if (!Objects.equals(selectedItem, anItem)) {
+			selectedItem = (T) anItem;
+			fireContentsChanged(this, -1, -1);
+		}
+	}
+
+	private void sort() {
+		if (!sorted) {
+			Collections.sort(items);
+			sorted = true;
+		}
 	}
-}
\ No newline at end of file
+}
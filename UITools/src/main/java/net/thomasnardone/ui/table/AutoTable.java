@@ -4,57 +4,114 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Font;
+import java.awt.Graphics;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 
+import net.thomasnardone.ui.metrics.EdtWatchdog;
+import net.thomasnardone.ui.metrics.Phase;
+import net.thomasnardone.ui.metrics.TableMetrics;
+import net.thomasnardone.ui.metrics.TableOperation;
 import net.thomasnardone.ui.rest.AutoTableClient;
 import net.thomasnardone.ui.rest.ColumnInfo;
 import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.rest.RowChange;
+import net.thomasnardone.ui.rest.RowChangeListener;
+import net.thomasnardone.ui.rest.Subscription;
 import net.thomasnardone.ui.rest.TableInfo;
 import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
 import net.thomasnardone.ui.swing.CenterPanel;
 import net.thomasnardone.ui.table.filter.AbstractFilter;
 import net.thomasnardone.ui.table.filter.FilterFactory;
 import net.thomasnardone.ui.table.filter.FilterListener;
 
 import org.jdesktop.swingx.JXTable;
+import org.jdesktop.swingx.renderer.ComponentProvider;
+import org.jdesktop.swingx.renderer.DefaultTableRenderer;
+import org.jdesktop.swingx.renderer.LabelProvider;
+import org.jdesktop.swingx.renderer.StringValue;
+import org.jdesktop.swingx.renderer.StringValues;
 
 public class AutoTable extends JPanel implements FilterListener {
+	/** Most times per second changes from the feed are applied. */
+	public static final int				CHANGE_FRAME_RATE	= 30;
+	/** Default for {@link #setEventFrameRate(int)}. */
+	public static final int				EVENT_FRAME_RATE	= 60;
 	private static final long			serialVersionUID	= 1L;
 
+	private final AtomicBoolean			changesScheduled;
+	private final Timer					changeTimer;
 	private final AutoTableClient		client;
+	/** Change-feed version of the loaded data, or -1 if unknown. */
+	private long						dataVersion;
+	private DisplayStringCache			displayCache;
+	private int							eventFrameRate;
+	private volatile RuntimeException	feedError;
 	private final List<AbstractFilter>	filters;
+	private UpdateResult				lastSaveResult;
+	private boolean						liveUpdates;
+	private boolean						loaded;
+	private final TableMetrics			metrics;
 
 	private AutoTableModel				model;
+	private final Queue<RowChange>		pendingChanges;
 	private final CenterPanel			progressPanel;
 	private final Set<SaveListener>		saveListeners;
 	private JScrollPane					scrollPane;
 
 	private final String				serviceName;
+	/** Set when the feed lost changes while there were unsaved edits, so the data is read again after the next save. */
+	private boolean						staleData;
+	private Subscription				subscription;
 
 	private final JXTable				table;
+	private final ColumnWidthEstimator	widthEstimator;
 
 	public AutoTable(final AutoTableClient client, final String serviceName) {
 		this.client = client;
 		this.serviceName = serviceName;
+		metrics = client.getMetrics(serviceName);
 		saveListeners = new LinkedHashSet<>();
 		progressPanel = new CenterPanel();
 		filters = new LinkedList<>();
-		table = new JXTable();
+		pendingChanges = new ConcurrentLinkedQueue<>();
+		changesScheduled = new AtomicBoolean();
+		eventFrameRate = EVENT_FRAME_RATE;
+		dataVersion = -1;
+		changeTimer = new Timer(1000 / CHANGE_FRAME_RATE, new ActionListener() {
+			@Override
+			public void actionPerformed(final ActionEvent e) {
+				applyPendingChanges();
+			}
+		});
+		changeTimer.setRepeats(false);
+		widthEstimator = new ColumnWidthEstimator();
+		table = new MeteredTable();
 		table.setAutoResizeMode(JXTable.AUTO_RESIZE_OFF);
 		setLayout(new BorderLayout());
 		reloadAll();
@@ -72,7 +129,32 @@ public class AutoTable extends JPanel implements FilterListener {
 
 	@Override
 	public void filterChanged() {
-		model.fireTableDataChanged();
+		final EdtWatchdog.Activity activity = EdtWatchdog.begin(serviceName, "filterChanged");
+		try {
+			model.fireTableDataChanged();
+		} finally {
+			activity.close();
+		}
+	}
+
+	/**
+	 * @return The last failure of the change feed, which keeps retrying, or <tt>null</tt> if it hasn't failed since live updates
+	 *         were turned on.
+	 */
+	public RuntimeException getFeedError() {
+		return feedError;
+	}
+
+	/**
+	 * @return The outcome of the last save, with the server's message if it sent one, or <tt>null</tt> before the first save
+	 *         completes. Read it from {@link SaveListener} callbacks to tell the user why rows weren't saved.
+	 */
+	public UpdateResult getLastSaveResult() {
+		return lastSaveResult;
+	}
+
+	public boolean isLiveUpdates() {
+		return liveUpdates;
 	}
 
 	public void reload() {
@@ -91,6 +173,53 @@ public class AutoTable extends JPanel implements FilterListener {
 		new SaveWorker().execute();
 	}
 
+	/**
+	 * Most times per second the table is told about updated cells, see {@link AutoTableModel#setEventFrameRate(int)}; 0 repaints
+	 * on every change.
+	 */
+	public void setEventFrameRate(final int frameRate) {
+		eventFrameRate = frameRate;
+		if (model != null) {
+			model.setEventFrameRate(frameRate);
+		}
+	}
+
+	/**
+	 * Follow the service's change feed, applying rows changed by others as they arrive. Changes are batched and applied at most
+	 * {@link #CHANGE_FRAME_RATE} times per second; cells with unsaved edits are never overwritten. The feed starts from the
+	 * version of the loaded data, and restarts from each reload's, so no change made after the data was read is missed.
+	 */
+	public void setLiveUpdates(final boolean live) {
+		liveUpdates = live;
+		if (live && loaded && (subscription == null)) {
+			subscribe(dataVersion);
+		} else if (!live && (subscription != null)) {
+			subscription.cancel();
+			subscription = null;
+			pendingChanges.clear();
+		}
+	}
+
+	private void applyPendingChanges() {
+		changesScheduled.set(false);
+		if (!loaded) {
+			return; // picked up once the data is loaded
+		}
+		List<RowChange> changes = new ArrayList<>();
+		RowChange change;
+		while ((change = pendingChanges.poll()) != null) {
+			changes.add(change);
+		}
+		if (!changes.isEmpty()) {
+			final EdtWatchdog.Activity activity = EdtWatchdog.begin(serviceName, "applyChanges");
+			try {
+				model.applyChanges(changes);
+			} finally {
+				activity.close();
+			}
+		}
+	}
+
 	private void fireSaveFailed() {
 		for (SaveListener listener : saveListeners.toArray(new SaveListener[saveListeners.size()])) {
 			listener.saveFailed();
@@ -105,11 +234,17 @@ public class AutoTable extends JPanel implements FilterListener {
 
 	private void initTable(final TableInfo info) {
 		model = new AutoTableModel(info.getColumns(), info.getFormats(), info.getKeyFields());
+		displayCache = new DisplayStringCache(DisplayStringCache.DEFAULT_MAX_ENTRIES);
+		model.addTableModelListener(displayCache);
+		model.setEventFrameRate(eventFrameRate);
 		table.setModel(model);
+		final Map<String, ValueLookup> lookups = new HashMap<>();
 		for (int i = 0; i < table.getColumnCount(); i++) {
 			final TableColumn column = table.getColumn(i);
-			column.setCellEditor(EditorFactory.getEditor(info.getColumns().get(i), model.getFormat(i)));
-			column.setCellRenderer(new CellRenderer(info.getColumns().get(i)));
+			final ColumnInfo columnInfo = info.getColumns().get(i);
+			column.setCellEditor(EditorFactory.getEditor(columnInfo, model.getFormat(i),
+					columnInfo.isRemoteValues() ? valueLookup(lookups, columnInfo.getName()) : null));
+			column.setCellRenderer(new CellRenderer(columnInfo));
 		}
 		JPanel filterPanel = new JPanel(new GridBagLayout());
 		GridBagConstraints cons = new GridBagConstraints();
@@ -119,7 +254,8 @@ public class AutoTable extends JPanel implements FilterListener {
 		for (FilterInfo filterInfo : info.getFilters()) {
 			cons.gridy = filterInfo.getRow();
 			cons.gridx = filterInfo.getColumn();
-			final AbstractFilter filter = FilterFactory.getFilter(filterInfo);
+			final AbstractFilter filter = FilterFactory.getFilter(filterInfo,
+					filterInfo.isRemoteValues() ? valueLookup(lookups, filterInfo.getColumnName()) : null);
 			filter.addFilterListener(this);
 			filterPanel.add(filter, cons);
 			filters.add(filter);
@@ -130,20 +266,65 @@ public class AutoTable extends JPanel implements FilterListener {
 		invalidate();
 	}
 
+	/**
+	 * Follow the change feed from <tt>since</tt>, restarting it if it's running. A running feed is kept if <tt>since</tt> is
+	 * unknown, as a new one would only see changes from now on.
+	 */
+	private void subscribe(final long since) {
+		if (subscription != null) {
+			if (since < 0) {
+				return;
+			}
+			subscription.cancel();
+			pendingChanges.clear();
+		}
+		feedError = null;
+		subscription = client.subscribe(serviceName, since, new ChangeReceiver());
+	}
+
+	/**
+	 * @return The lookup for a column's values, shared by its editor and filter so they share answers.
+	 */
+	private ValueLookup valueLookup(final Map<String, ValueLookup> lookups, final String column) {
+		ValueLookup lookup = lookups.get(column);
+		if (lookup == null) {
+			lookup = new ValueLookup(client, serviceName, column);
+			lookups.put(column, lookup);
+		}
+		return lookup;
+	}
+
 	public interface SaveListener {
 		void saveFailed();
 
 		void saveSuccessful();
 	}
 
+	/**
+	 * Formats with the table's default renderer for the column's type, and shows the text with a plain renderer aligned the same
+	 * way. The text is kept in the {@link DisplayStringCache}, so each cell's value is only formatted once until it changes.
+	 */
 	private final class CellRenderer implements TableCellRenderer {
 		private final Color				bgColor;
 		private final Font				italicFont;
 		private final Font				normalFont;
 		private final TableCellRenderer	renderer;
+		private final StringValue		stringValue;
 
 		public CellRenderer(final ColumnInfo columnInfo) {
-			renderer = table.getDefaultRenderer(columnInfo.getDataType().getJavaClass());
+			final TableCellRenderer typeRenderer = table.getDefaultRenderer(columnInfo.getDataType().getJavaClass());
+			ComponentProvider<?> provider = null;
+			if (typeRenderer instanceof DefaultTableRenderer) {
+				provider = ((DefaultTableRenderer) typeRenderer).getComponentProvider();
+			}
+			if (provider instanceof LabelProvider) {
+				// formatted text can't go back through a number or date format, so it's shown as is
+				stringValue = provider.getStringValue();
+				renderer = new DefaultTableRenderer(StringValues.TO_STRING, provider.getHorizontalAlignment());
+			} else {
+				stringValue = null;
+				renderer = typeRenderer;
+			}
 			normalFont = getFont().deriveFont(Font.PLAIN);
 			italicFont = getFont().deriveFont(Font.ITALIC);
 			bgColor = new Color(144, 187, 230);
@@ -152,8 +333,18 @@ public class AutoTable extends JPanel implements FilterListener {
 		@Override
 		public Component getTableCellRendererComponent(final JTable table, final Object value, final boolean isSelected,
 				final boolean hasFocus, final int row, final int column) {
-			final JLabel comp = (JLabel) renderer.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-			final boolean dirty = model.isDirty(row, column);
+			final int modelRow = row < 0 ? row : table.convertRowIndexToModel(row);
+			final int modelColumn = table.convertColumnIndexToModel(column);
+			Object text = value;
+			if ((stringValue != null) && (modelRow > -1)) {
+				text = displayCache.get(modelRow, modelColumn);
+				if (text == null) {
+					text = stringValue.getString(value);
+					displayCache.put(modelRow, modelColumn, (String) text);
+				}
+			}
+			final JLabel comp = (JLabel) renderer.getTableCellRendererComponent(table, text, isSelected, hasFocus, row, column);
+			final boolean dirty = (modelRow > -1) && model.isDirty(modelRow, modelColumn);
 			if (dirty) {
 				comp.setOpaque(true);
 				comp.setBackground(bgColor);
@@ -165,8 +356,51 @@ public class AutoTable extends JPanel implements FilterListener {
 		}
 	}
 
-	private final class DataWorker extends SwingWorker<String[][], Void> {
+	private final class ChangeReceiver implements RowChangeListener {
+		@Override
+		public void changesLost(final String changedService) {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					if (!liveUpdates || !loaded) {
+						return; // a reload in progress subscribes from its own version
+					}
+					if (model.getChangedRows().length > 0) {
+						staleData = true;
+					} else {
+						reload();
+					}
+				}
+			});
+		}
+
+		@Override
+		public void feedFailed(final String changedService, final RuntimeException cause, final long retryDelay) {
+			feedError = cause;
+		}
+
+		@Override
+		public void rowsChanged(final String changedService, final List<RowChange> changes) {
+			pendingChanges.addAll(changes);
+			if (changesScheduled.compareAndSet(false, true)) {
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						changeTimer.start();
+					}
+				});
+			}
+		}
+	}
+
+	private final class DataWorker extends SwingWorker<AutoTableModel.DataLoader, Void> {
+		private final AutoTableModel	loadModel;
+		private volatile long			version;
+
 		public DataWorker() {
+			loadModel = model;
+			loaded = false;
+			staleData = false;
 			JProgressBar dataBar = new JProgressBar();
 			dataBar.setString("Loading table data");
 			dataBar.setStringPainted(true);
@@ -181,15 +415,36 @@ public class AutoTable extends JPanel implements FilterListener {
 		}
 
 		@Override
-		protected String[][] doInBackground() throws Exception {
-			return client.getData(serviceName);
+		protected AutoTableModel.DataLoader doInBackground() throws Exception {
+			AutoTableModel.DataLoader loader = loadModel.newLoader();
+			version = client.loadData(serviceName, loader);
+			return loader;
 		}
 
 		@Override
 		protected void done() {
 			try {
-				model.setData(get());
-				table.packAll();
+				AutoTableModel.DataLoader loader = get();
+				final long start = System.nanoTime();
+				final EdtWatchdog.Activity setData = EdtWatchdog.begin(serviceName, "setData");
+				try {
+					loadModel.setData(loader);
+				} finally {
+					setData.close();
+				}
+				loaded = true;
+				dataVersion = version;
+				if (liveUpdates) {
+					subscribe(version);
+				}
+				applyPendingChanges();
+				final EdtWatchdog.Activity columnWidths = EdtWatchdog.begin(serviceName, "columnWidths");
+				try {
+					widthEstimator.apply(serviceName, table);
+				} finally {
+					columnWidths.close();
+				}
+				metrics.record(TableOperation.GetData, Phase.ModelBuild, System.nanoTime() - start);
 				scrollPane = new JScrollPane(table);
 				remove(progressPanel);
 				add(scrollPane, BorderLayout.CENTER);
@@ -224,7 +479,12 @@ public class AutoTable extends JPanel implements FilterListener {
 		protected void done() {
 			try {
 				TableInfo info = get();
-				initTable(info);
+				final EdtWatchdog.Activity activity = EdtWatchdog.begin(serviceName, "initTable");
+				try {
+					initTable(info);
+				} finally {
+					activity.close();
+				}
 				reload();
 			} catch (InterruptedException | ExecutionException | IllegalArgumentException e) {
 				e.printStackTrace();
@@ -234,30 +494,57 @@ public class AutoTable extends JPanel implements FilterListener {
 		}
 	}
 
-	private class SaveWorker extends SwingWorker<Boolean, Void> {
+	private final class MeteredTable extends JXTable {
+		private static final long	serialVersionUID	= 1L;
+
+		@Override
+		protected void paintComponent(final Graphics g) {
+			final long start = System.nanoTime();
+			final EdtWatchdog.Activity activity = EdtWatchdog.begin(serviceName, "paint");
+			try {
+				super.paintComponent(g);
+			} finally {
+				activity.close();
+			}
+			metrics.record(TableOperation.Paint, Phase.Render, System.nanoTime() - start);
+		}
+	}
+
+	private class SaveWorker extends SwingWorker<UpdateResult, Void> {
 		private final List<UpdateInfo>	changes;
+		private final AutoTableModel	saveModel;
 
 		public SaveWorker() {
-			changes = model.getChanges();
+			saveModel = model;
+			changes = saveModel.getChanges();
 		}
 
 		@Override
-		protected Boolean doInBackground() throws Exception {
+		protected UpdateResult doInBackground() throws Exception {
 			return client.updateTable(serviceName, changes);
 		}
 
 		@Override
 		protected void done() {
-			Boolean success;
+			boolean success;
 			try {
-				success = get();
+				lastSaveResult = get();
+				final EdtWatchdog.Activity activity = EdtWatchdog.begin(serviceName, "acknowledge");
+				try {
+					success = saveModel.acknowledge(changes, lastSaveResult);
+				} finally {
+					activity.close();
+				}
 			} catch (InterruptedException | ExecutionException e) {
 				e.printStackTrace();
+				lastSaveResult = UpdateResult.of(changes.size(), false, String.valueOf(e.getCause() == null ? e : e.getCause()));
 				success = false;
 			}
 			if (success) {
-				model.resetDirty();
 				fireSaveSuccessful();
+				if (staleData) {
+					reload();
+				}
 			} else {
 				fireSaveFailed();
 			}
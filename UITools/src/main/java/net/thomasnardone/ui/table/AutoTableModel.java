@@ -4,31 +4,57 @@ import java.text.Format;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 
+import net.thomasnardone.ui.ChangeType;
 import net.thomasnardone.ui.DataType;
 import net.thomasnardone.ui.EditType;
 import net.thomasnardone.ui.FormatFactory;
 import net.thomasnardone.ui.rest.ColumnInfo;
 import net.thomasnardone.ui.rest.FormatInfo;
+import net.thomasnardone.ui.rest.ReplayableDataSink;
+import net.thomasnardone.ui.rest.RowChange;
+import net.thomasnardone.ui.rest.TableDataSink;
 import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
 
+/**
+ * Table model backed by one <tt>String[]</tt> per column. Dirty cells are tracked with one {@link BitSet} per column, and the key
+ * values the server knows a row by are only kept separately for rows whose key columns were edited.
+ */
 public class AutoTableModel extends AbstractTableModel {
-	private static final long	serialVersionUID	= 1L;
-	private final ColumnInfo[]	columns;
-	private final Format[]		formats;
-	private final String[]		keyFields;
-	private final int[]			keyMap;
-	private Row[]				rows;
+	private static final int				INITIAL_CAPACITY	= 1024;
+	/** Stop de-duplicating a column's strings once it has shown this many distinct values. */
+	private static final int				MAX_SHARED_VALUES	= 4096;
+	private static final long				serialVersionUID	= 1L;
+	private final Map<String, Integer>		columnIndex;
+	private final ColumnInfo[]				columns;
+	private transient TableEventCoalescer	coalescer;
+	private String[][]						data;
+	private BitSet[]						dirty;
+	private final Format[]					formats;
+	private final String[]					keyFields;
+	private Map<List<String>, Integer>		keyIndex;
+	private final int[]						keyMap;
+	private int[]							longestRows;
+	private final Map<Integer, String[]>	originalKeys;
+	private int								rowCount;
 
 	public AutoTableModel(final List<ColumnInfo> columns, final List<FormatInfo> formats, final List<String> keyFields) {
 		this.columns = columns.toArray(new ColumnInfo[columns.size()]);
 		this.formats = new Format[columns.size()];
 		this.keyFields = keyFields.toArray(new String[keyFields.size()]);
+		columnIndex = new HashMap<>();
+		for (int i = 0; i < this.columns.length; i++) {
+			columnIndex.put(this.columns[i].getName(), i);
+		}
 		keyMap = new int[keyFields.size()];
 		for (int i = 0; i < keyFields.size(); i++) {
 			keyMap[i] = -1;
@@ -50,15 +76,131 @@ public class AutoTableModel extends AbstractTableModel {
 		for (int i = 0; i < this.columns.length; i++) {
 			this.formats[i] = formatMap.get(this.columns[i].getDataType());
 		}
+		originalKeys = new HashMap<>();
+		data = new String[this.columns.length][0];
+		longestRows = new int[this.columns.length];
+		Arrays.fill(longestRows, -1);
+		dirty = newDirty();
 	}
 
-	public List<UpdateInfo> getChanges() {
-		List<UpdateInfo> changes = new ArrayList<>();
-		for (Row row : rows) {
-			if (row.isDirty()) {
-				changes.add(row.getUpdateInfo());
+	/**
+	 * Clear the dirty state of cells the server acknowledged. A cell edited again since <tt>changes</tt> were taken stays dirty.
+	 * Rows are found by the keys each update was sent with, so rows added or deleted by others in the meantime don't matter; a
+	 * row that was deleted, or whose key others changed, stays dirty.
+	 *
+	 * @param changes
+	 *            The updates sent, as returned by {@link #getChanges(int[])}.
+	 * @return <tt>true</tt> if every update was acknowledged.
+	 */
+	public boolean acknowledge(final List<UpdateInfo> changes, final UpdateResult result) {
+		List<Integer> rows = new ArrayList<>(changes.size());
+		for (int i = 0; i < changes.size(); i++) {
+			if (result.acknowledged(i)) {
+				// resolve every row before acknowledging any, as that may re-key rows
+				rows.add(getKeyIndex().get(keyOf(changes.get(i).getKeys())));
+			} else {
+				rows.add(null);
+			}
+		}
+		int first = Integer.MAX_VALUE;
+		int last = -1;
+		for (int i = 0; i < changes.size(); i++) {
+			final Integer row = rows.get(i);
+			if (row != null) {
+				acknowledge(row, changes.get(i));
+				first = Math.min(first, row);
+				last = Math.max(last, row);
 			}
 		}
+		if (last > -1) {
+			fireTableRowsUpdated(first, last);
+		}
+		return result.acknowledgedCount() == changes.size();
+	}
+
+	/**
+	 * Apply rows changed by others. Cells with unsaved local edits are left alone, as are rows with unsaved edits that were
+	 * deleted remotely. An insert for a key already present is applied as an update. Fires one event for the whole batch.
+	 */
+	public void applyChanges(final List<RowChange> changes) {
+		final int oldCount = rowCount;
+		BitSet deleted = new BitSet();
+		int first = Integer.MAX_VALUE;
+		int last = -1;
+		for (RowChange change : changes) {
+			Integer row = getKeyIndex().get(keyOf(change.getKeys()));
+			if (change.getType() == ChangeType.Delete) {
+				if ((row != null) && !isDirty(row)) {
+					deleted.set(row);
+					keyIndex.remove(keyOf(change.getKeys()));
+				}
+			} else if (row != null) {
+				if (applyValues(row, change.getValues())) {
+					first = Math.min(first, row);
+					last = Math.max(last, row);
+				}
+			} else if (change.getType() == ChangeType.Insert) {
+				appendRow(change.getValues());
+			}
+		}
+		if (!deleted.isEmpty()) {
+			removeRows(deleted);
+			fireTableDataChanged();
+		} else {
+			if (last > -1) {
+				fireTableRowsUpdated(first, last);
+			}
+			if (rowCount > oldCount) {
+				fireTableRowsInserted(oldCount, rowCount - 1);
+			}
+		}
+	}
+
+	/**
+	 * @return Indexes of rows with unsaved changes.
+	 */
+	public int[] getChangedRows() {
+		BitSet changed = new BitSet(rowCount);
+		for (BitSet column : dirty) {
+			changed.or(column);
+		}
+		int[] rows = new int[changed.cardinality()];
+		for (int i = 0, row = changed.nextSetBit(0); row >= 0; row = changed.nextSetBit(row + 1)) {
+			rows[i++] = row;
+		}
+		return rows;
+	}
+
+	/**
+	 * Send update events held back by {@link #setEventFrameRate(int)} to listeners now.
+	 */
+	public void flushEvents() {
+		if (coalescer != null) {
+			coalescer.flush();
+		}
+	}
+
+	/**
+	 * Goes through the coalescer when one is set, see {@link #setEventFrameRate(int)}.
+	 */
+	@Override
+	public void fireTableChanged(final TableModelEvent e) {
+		if (coalescer == null) {
+			super.fireTableChanged(e);
+		} else {
+			coalescer.post(e);
+		}
+	}
+
+	public List<UpdateInfo> getChanges() {
+		return getChanges(getChangedRows());
+	}
+
+	public List<UpdateInfo> getChanges(final int[] changedRows) {
+		List<UpdateInfo> changes = new ArrayList<>(changedRows.length);
+		for (int row : changedRows) {
+			changes.add(getUpdateInfo(row));
+		}
 		return changes;
 	}
 
@@ -85,19 +227,35 @@ public class AutoTableModel extends AbstractTableModel {
 		return formats[column];
 	}
 
+	/**
+	 * @return The row holding the longest unparsed value in the column when the data was loaded, or -1 if the column was empty.
+	 *         Later edits are not tracked.
+	 */
+	public int getLongestRow(final int column) {
+		return column < longestRows.length ? longestRows[column] : -1;
+	}
+
 	@Override
 	public int getRowCount() {
-		return rows == null ? 0 : rows.length;
+		return rowCount;
+	}
+
+	/**
+	 * @return The unparsed value of a cell.
+	 */
+	public String getStringAt(final int rowIndex, final int columnIndex) {
+		return data[columnIndex][rowIndex];
 	}
 
 	@Override
 	public Object getValueAt(final int rowIndex, final int columnIndex) {
 		Format format = formats[columnIndex];
-		if (format == null) {
-			return rows[rowIndex].getValue(columnIndex);
+		String value = data[columnIndex][rowIndex];
+		if ((format == null) || (value == null)) {
+			return value;
 		} else {
 			try {
-				return format.parseObject(rows[rowIndex].getValue(columnIndex));
+				return format.parseObject(value);
 			} catch (ParseException e) {
 				e.printStackTrace();
 				// TODO error handling
@@ -113,22 +271,67 @@ public class AutoTableModel extends AbstractTableModel {
 	}
 
 	public boolean isDirty(final int row, final int column) {
-		return rows[row].dirty[column];
+		return dirty[column].get(row);
+	}
+
+	/**
+	 * @return A sink that decodes rows into fresh column storage for this model. Filling it does not touch the model, so it may
+	 *         be done off the EDT; pass it to {@link #setData(DataLoader)} when complete.
+	 */
+	public DataLoader newLoader() {
+		return new DataLoader();
 	}
 
 	public void resetDirty() {
-		for (Row row : rows) {
-			row.resetDirty();
+		dirty = newDirty();
+		originalKeys.clear();
+		keyIndex = null;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Replace the table contents with rows loaded through {@link #newLoader()}. The loader's column arrays are trimmed to the row
+	 * count and then owned by the model.
+	 */
+	public void setData(final DataLoader loader) {
+		data = loader.data;
+		for (int i = 0; i < data.length; i++) {
+			if (data[i].length != loader.rowCount) {
+				data[i] = Arrays.copyOf(data[i], loader.rowCount);
+			}
 		}
+		rowCount = loader.rowCount;
+		longestRows = loader.longestRows;
+		dirty = newDirty();
+		originalKeys.clear();
+		keyIndex = null;
 		fireTableDataChanged();
 	}
 
 	public void setData(final String[][] data) {
-		rows = new Row[data.length];
-		for (int i = 0; i < rows.length; i++) {
-			rows[i] = new Row(data[i]);
+		DataLoader loader = new DataLoader(data.length, false);
+		for (String[] row : data) {
+			for (String value : row) {
+				loader.addCell(value);
+			}
+			loader.endRow();
 		}
-		fireTableDataChanged();
+		setData(loader);
+	}
+
+	/**
+	 * Hold back cell and row update events and deliver them merged, at most <tt>frameRate</tt> times a second, so a burst of
+	 * changes repaints the table once. Edits made through {@link #setValueAt(Object, int, int)} are delivered immediately. Only
+	 * call from the EDT.
+	 *
+	 * @param frameRate
+	 *            Most deliveries per second, or 0 to send every event as it happens.
+	 */
+	public void setEventFrameRate(final int frameRate) {
+		if (coalescer != null) {
+			coalescer.flush();
+		}
+		coalescer = frameRate > 0 ? new TableEventCoalescer(this, frameRate) : null;
 	}
 
 	@Override
@@ -143,69 +346,285 @@ public class AutoTableModel extends AbstractTableModel {
 			}
 			newValue = format.format(aValue);
 		}
-		rows[rowIndex].setValue(columnIndex, newValue);
+		if (newValue.equals(data[columnIndex][rowIndex])) {
+			return;
+		}
+		if (!originalKeys.containsKey(rowIndex) && isKeyColumn(columnIndex)) {
+			originalKeys.put(rowIndex, currentKeys(rowIndex));
+		}
+		data[columnIndex][rowIndex] = newValue;
+		dirty[columnIndex].set(rowIndex);
 		fireTableCellUpdated(rowIndex, columnIndex);
+		flushEvents();
 	}
 
-	private class Row {
-		boolean[]	dirty;
-		String[]	keyValues;
-		String[]	values;
+	/**
+	 * Deliver an event to listeners, bypassing the coalescer.
+	 */
+	void dispatch(final TableModelEvent e) {
+		super.fireTableChanged(e);
+	}
 
-		public Row(final String[] values) {
-			this.values = values;
-			keyValues = new String[keyMap.length];
+	private void acknowledge(final int row, final UpdateInfo sent) {
+		for (Map.Entry<String, String> update : sent.getUpdates().entrySet()) {
+			Integer column = columnIndex.get(update.getKey());
+			if ((column != null) && Objects.equals(update.getValue(), data[column][row])) {
+				dirty[column].clear(row);
+			}
+		}
+		// the server now knows the row by its updated key values
+		String[] keys = originalKeys.get(row);
+		if (keys != null) {
 			for (int i = 0; i < keyMap.length; i++) {
-				keyValues[i] = values[keyMap[i]];
+				String sentKey = sent.getUpdates().get(keyFields[i]);
+				if (sentKey != null) {
+					keys[i] = sentKey;
+				}
+			}
+			if (Arrays.equals(keys, currentKeys(row))) {
+				originalKeys.remove(row);
+			}
+			keyIndex = null;
+		}
+	}
+
+	private void appendRow(final Map<String, String> values) {
+		final int row = rowCount;
+		for (int i = 0; i < columns.length; i++) {
+			if (row == data[i].length) {
+				data[i] = Arrays.copyOf(data[i], row + (row >> 1) + 1);
 			}
-			dirty = new boolean[values.length];
-			Arrays.fill(dirty, false);
+			data[i][row] = values.get(columns[i].getName());
 		}
+		rowCount++;
+		getKeyIndex().put(Arrays.asList(currentKeys(row)), row);
+	}
 
-		public UpdateInfo getUpdateInfo() {
-			UpdateInfo info = new UpdateInfo();
-			Map<String, String> keyMap = new HashMap<>();
-			Map<String, String> valueMap = new HashMap<>();
-			for (int i = 0; i < keyValues.length; i++) {
-				keyMap.put(keyFields[i], keyValues[i]);
+	/**
+	 * @return <tt>true</tt> if any cell changed.
+	 */
+	private boolean applyValues(final int row, final Map<String, String> values) {
+		boolean changed = false;
+		boolean keyChanged = false;
+		for (Map.Entry<String, String> value : values.entrySet()) {
+			Integer column = columnIndex.get(value.getKey());
+			if ((column != null) && !dirty[column].get(row) && !Objects.equals(value.getValue(), data[column][row])) {
+				data[column][row] = value.getValue();
+				changed = true;
+				keyChanged |= isKeyColumn(column);
 			}
-			info.setKeys(keyMap);
-			for (int i = 0; i < dirty.length; i++) {
-				if (dirty[i]) {
-					valueMap.put(columns[i].getName(), values[i]);
+		}
+		if (keyChanged) {
+			String[] keys = originalKeys.get(row);
+			if (keys != null) {
+				for (int i = 0; i < keyMap.length; i++) {
+					if (values.containsKey(keyFields[i])) {
+						keys[i] = values.get(keyFields[i]);
+					}
 				}
 			}
-			info.setUpdates(valueMap);
-			return info;
+			keyIndex = null;
 		}
+		return changed;
+	}
 
-		public String getValue(final int i) {
-			return values[i];
+	private String[] currentKeys(final int row) {
+		String[] keys = new String[keyMap.length];
+		for (int i = 0; i < keyMap.length; i++) {
+			keys[i] = data[keyMap[i]][row];
 		}
+		return keys;
+	}
 
-		public boolean isDirty() {
-			for (boolean element : dirty) {
-				if (element) {
-					return true;
+	/**
+	 * @return Row indexes by the key values the server knows them by, built on first use.
+	 */
+	private Map<List<String>, Integer> getKeyIndex() {
+		if (keyIndex == null) {
+			keyIndex = new HashMap<>(rowCount * 2);
+			for (int row = 0; row < rowCount; row++) {
+				String[] keys = originalKeys.get(row);
+				keyIndex.put(Arrays.asList(keys == null ? currentKeys(row) : keys), row);
+			}
+		}
+		return keyIndex;
+	}
+
+	private UpdateInfo getUpdateInfo(final int row) {
+		UpdateInfo info = new UpdateInfo();
+		Map<String, String> keyValues = new HashMap<>();
+		Map<String, String> valueMap = new HashMap<>();
+		String[] keys = originalKeys.get(row);
+		if (keys == null) {
+			keys = currentKeys(row);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			keyValues.put(keyFields[i], keys[i]);
+		}
+		info.setKeys(keyValues);
+		for (int i = 0; i < columns.length; i++) {
+			if (dirty[i].get(row)) {
+				valueMap.put(columns[i].getName(), data[i][row]);
+			}
+		}
+		info.setUpdates(valueMap);
+		return info;
+	}
+
+	private boolean isDirty(final int row) {
+		for (BitSet column : dirty) {
+			if (column.get(row)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isKeyColumn(final int column) {
+		for (int key : keyMap) {
+			if (key == column) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<String> keyOf(final Map<String, String> keys) {
+		String[] values = new String[keyFields.length];
+		for (int i = 0; i < keyFields.length; i++) {
+			values[i] = keys.get(keyFields[i]);
+		}
+		return Arrays.asList(values);
+	}
+
+	private BitSet[] newDirty() {
+		BitSet[] bits = new BitSet[columns.length];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = new BitSet();
+		}
+		return bits;
+	}
+
+	/**
+	 * Compact the column storage, dropping <tt>removed</tt> rows in a single pass.
+	 */
+	private void removeRows(final BitSet removed) {
+		int[] newIndex = new int[rowCount];
+		int kept = 0;
+		for (int row = 0; row < rowCount; row++) {
+			newIndex[row] = removed.get(row) ? -1 : kept++;
+		}
+		for (int i = 0; i < columns.length; i++) {
+			String[] column = data[i];
+			for (int row = 0; row < rowCount; row++) {
+				if (newIndex[row] > -1) {
+					column[newIndex[row]] = column[row];
 				}
 			}
-			return false;
+			Arrays.fill(column, kept, rowCount, null);
+			BitSet moved = new BitSet();
+			for (int row = dirty[i].nextSetBit(0); row >= 0; row = dirty[i].nextSetBit(row + 1)) {
+				moved.set(newIndex[row]);
+			}
+			dirty[i] = moved;
 		}
+		Map<Integer, String[]> keys = new HashMap<>(originalKeys);
+		originalKeys.clear();
+		for (Map.Entry<Integer, String[]> entry : keys.entrySet()) {
+			originalKeys.put(newIndex[entry.getKey()], entry.getValue());
+		}
+		rowCount = kept;
+		keyIndex = null;
+	}
 
-		public void resetDirty() {
-			Arrays.fill(dirty, false);
-			// update key values to current values
-			for (int i = 0; i < keyMap.length; i++) {
-				keyValues[i] = values[keyMap[i]];
+	/**
+	 * Writes decoded cells straight into column arrays, so a load never holds more than the final columns plus the decoder's
+	 * buffer. Repeated values within a column share one {@link String} instance until the column proves to have high
+	 * cardinality. Cells beyond the model's column count are dropped, missing trailing cells are left <tt>null</tt>. The row with
+	 * the longest value in each column is noted on the way, for {@link ColumnWidthEstimator}.
+	 */
+	public final class DataLoader implements ReplayableDataSink {
+		private int									cell;
+		private final String[][]					data;
+		private final int[]							longest;
+		private final int[]							longestRows;
+		private int									rowCount;
+		private final List<Map<String, String>>		shared;
+
+		private DataLoader() {
+			this(INITIAL_CAPACITY, true);
+		}
+
+		private DataLoader(final int capacity, final boolean dedupe) {
+			data = new String[columns.length][Math.max(capacity, 1)];
+			longest = new int[columns.length];
+			longestRows = new int[columns.length];
+			Arrays.fill(longestRows, -1);
+			shared = new ArrayList<>(columns.length);
+			for (int i = 0; i < columns.length; i++) {
+				shared.add(dedupe ? new HashMap<String, String>() : null);
 			}
 		}
 
-		public void setValue(final int i, final String value) {
-			if (value.equals(values[i])) {
-				return;
+		@Override
+		public void addCell(final String value) {
+			if (cell < data.length) {
+				if (rowCount == data[cell].length) {
+					data[cell] = Arrays.copyOf(data[cell], rowCount + (rowCount >> 1) + 1);
+				}
+				data[cell][rowCount] = share(cell, value);
+				if ((value != null) && ((longestRows[cell] < 0) || (value.length() > longest[cell]))) {
+					longest[cell] = value.length();
+					longestRows[cell] = rowCount;
+				}
+			}
+			cell++;
+		}
+
+		@Override
+		public void endRow() {
+			for (; cell < data.length; cell++) {
+				if (rowCount == data[cell].length) {
+					data[cell] = Arrays.copyOf(data[cell], rowCount + (rowCount >> 1) + 1);
+				}
+			}
+			rowCount++;
+			cell = 0;
+		}
+
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		/**
+		 * Send the rows loaded so far to <tt>target</tt>; only call before the loader is passed to {@link #setData(DataLoader)}.
+		 * Cells beyond the model's column count were already dropped.
+		 */
+		@Override
+		public void replay(final TableDataSink target) {
+			for (int row = 0; row < rowCount; row++) {
+				for (int i = 0; i < data.length; i++) {
+					target.addCell(data[i][row]);
+				}
+				target.endRow();
+			}
+		}
+
+		private String share(final int column, final String value) {
+			Map<String, String> values = shared.get(column);
+			if ((values == null) || (value == null)) {
+				return value;
+			}
+			String existing = values.get(value);
+			if (existing != null) {
+				return existing;
+			}
+			if (values.size() < MAX_SHARED_VALUES) {
+				values.put(value, value);
+			} else {
+				shared.set(column, null);
 			}
-			values[i] = value;
-			dirty[i] = true;
+			return value;
 		}
 	}
-}
\ No newline at end of file
+}
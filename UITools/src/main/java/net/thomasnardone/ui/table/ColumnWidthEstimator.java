@@ -0,0 +1,164 @@
+package net.thomasnardone.ui.table;
+
+import java.awt.Component;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableColumn;
+
+import org.jdesktop.swingx.JXTable;
+
+/**
+ * Sizes an {@link AutoTable}'s columns from a sample of rows rather than every cell, as {@link JXTable#packAll()} does. Each
+ * column is measured over the first rows, up to {@link #getSampleRows()} rows spread evenly through the rest, and the row
+ * {@link AutoTableModel} found to hold its longest value.
+ * <p>
+ * Widths are kept per service along with a fingerprint of what was measured - the columns, the font, and the lengths of the
+ * sampled and longest values. A reload that leaves the fingerprint alone reuses the widths without rendering anything.
+ *
+ * @author Thomas Nardone
+ */
+public class ColumnWidthEstimator {
+	public static final int									DEFAULT_SAMPLE_ROWS	= 200;
+	/** Rows always measured from the top of the table, as they are the first on screen. */
+	private static final int								LEADING_ROWS		= 50;
+
+	private static final ConcurrentMap<String, Estimate>	estimates			= new ConcurrentHashMap<>();
+
+	private int												measureCount;
+	private final int										sampleRows;
+
+	public ColumnWidthEstimator() {
+		this(DEFAULT_SAMPLE_ROWS);
+	}
+
+	/**
+	 * @param sampleRows
+	 *            Rows measured beyond the first few and the longest of each column.
+	 */
+	public ColumnWidthEstimator(final int sampleRows) {
+		this.sampleRows = Math.max(0, sampleRows);
+	}
+
+	/**
+	 * Set the preferred width of every column of <tt>table</tt>, which must show an {@link AutoTableModel}.
+	 */
+	public void apply(final String serviceName, final JXTable table) {
+		final int[] widths = estimate(serviceName, table, (AutoTableModel) table.getModel());
+		for (int i = 0; i < table.getColumnCount(); i++) {
+			table.getColumn(i).setPreferredWidth(widths[table.convertColumnIndexToModel(i)]);
+		}
+	}
+
+	/**
+	 * @return The width of each model column, measured or reused from the last estimate for the service.
+	 */
+	public int[] estimate(final String serviceName, final JXTable table, final AutoTableModel model) {
+		final int[] rows = sample(model.getRowCount());
+		final String fingerprint = fingerprint(table, model, rows);
+		Estimate estimate = estimates.get(serviceName);
+		if ((estimate == null) || !estimate.fingerprint.equals(fingerprint)) {
+			estimate = new Estimate(fingerprint, measure(table, model, rows));
+			estimates.put(serviceName, estimate);
+		}
+		return estimate.widths.clone();
+	}
+
+	public int getSampleRows() {
+		return sampleRows;
+	}
+
+	/**
+	 * @return How many times this estimator has rendered cells to measure them, rather than reusing widths.
+	 */
+	int getMeasureCount() {
+		return measureCount;
+	}
+
+	private String fingerprint(final JXTable table, final AutoTableModel model, final int[] rows) {
+		StringBuilder fingerprint = new StringBuilder().append(table.getFont());
+		for (int column = 0; column < model.getColumnCount(); column++) {
+			int longest = 0;
+			long total = 0;
+			for (int row : rows) {
+				final String value = model.getStringAt(row, column);
+				final int length = value == null ? 0 : value.length();
+				longest = Math.max(longest, length);
+				total += length;
+			}
+			final long mean = rows.length == 0 ? 0 : Math.round((double) total / rows.length);
+			final int longestRow = model.getLongestRow(column);
+			final String longestValue = (longestRow > -1) && (longestRow < model.getRowCount()) ? model.getStringAt(longestRow,
+					column) : null;
+			fingerprint.append('|').append(model.getColumnId(column)).append(',').append(model.getColumnName(column));
+			fingerprint.append(',').append(longest).append(',').append(mean);
+			fingerprint.append(',').append(longestValue == null ? 0 : longestValue.length());
+		}
+		return fingerprint.toString();
+	}
+
+	private int[] measure(final JXTable table, final AutoTableModel model, final int[] rows) {
+		measureCount++;
+		final int margin = table.getColumnFactory().getDefaultPackMargin();
+		final int[] widths = new int[model.getColumnCount()];
+		for (int column = 0; column < widths.length; column++) {
+			final int viewColumn = table.convertColumnIndexToView(column);
+			TableCellRenderer header = null;
+			if (viewColumn > -1) {
+				final TableColumn tableColumn = table.getColumn(viewColumn);
+				header = tableColumn.getHeaderRenderer();
+			}
+			if ((header == null) && (table.getTableHeader() != null)) {
+				header = table.getTableHeader().getDefaultRenderer();
+			}
+			int width = 0;
+			if (header != null) {
+				width = header.getTableCellRendererComponent(table, model.getColumnName(column), false, false, -1,
+						Math.max(viewColumn, 0)).getPreferredSize().width;
+			}
+			final TableCellRenderer renderer = table.getDefaultRenderer(model.getColumnClass(column));
+			final int longestRow = model.getLongestRow(column);
+			if ((longestRow > -1) && (longestRow < model.getRowCount())) {
+				width = Math.max(width, measure(table, renderer, model.getValueAt(longestRow, column), viewColumn));
+			}
+			for (int row : rows) {
+				width = Math.max(width, measure(table, renderer, model.getValueAt(row, column), viewColumn));
+			}
+			widths[column] = width + (2 * margin);
+		}
+		return widths;
+	}
+
+	private int measure(final JXTable table, final TableCellRenderer renderer, final Object value, final int viewColumn) {
+		final Component component = renderer.getTableCellRendererComponent(table, value, false, false, 0,
+				Math.max(viewColumn, 0));
+		return component.getPreferredSize().width;
+	}
+
+	/**
+	 * @return The first {@link #LEADING_ROWS} rows, then up to {@link #sampleRows} spread evenly over the rest, in order.
+	 */
+	private int[] sample(final int rowCount) {
+		final int leading = Math.min(LEADING_ROWS, rowCount);
+		final int spread = Math.min(sampleRows, rowCount - leading);
+		final int[] rows = new int[leading + spread];
+		for (int i = 0; i < leading; i++) {
+			rows[i] = i;
+		}
+		for (int i = 0; i < spread; i++) {
+			rows[leading + i] = leading + (int) (((long) i * (rowCount - leading)) / spread);
+		}
+		return rows;
+	}
+
+	private static final class Estimate {
+		final String	fingerprint;
+		final int[]		widths;
+
+		Estimate(final String fingerprint, final int[] widths) {
+			this.fingerprint = fingerprint;
+			this.widths = widths;
+		}
+	}
+}
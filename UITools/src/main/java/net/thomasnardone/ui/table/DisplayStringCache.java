@@ -0,0 +1,83 @@
+package net.thomasnardone.ui.table;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+/**
+ * Least-recently-used cache of the text shown in each cell, keyed by model row and column, so painting a cell that has not
+ * changed skips formatting its value. Add it as a listener to the model it caches: cells are dropped when the model reports them
+ * updated, and everything is dropped when rows are inserted or deleted or the whole table changes. Only touched from the EDT.
+ *
+ * @author Thomas Nardone
+ */
+class DisplayStringCache implements TableModelListener {
+	/** Enough for several screens of a wide table. */
+	static final int				DEFAULT_MAX_ENTRIES	= 20000;
+	/** Updates to more rows than this clear the cache rather than removing cells one by one. */
+	private static final int		MAX_REMOVED_ROWS	= 64;
+
+	private final Map<Long, String>	entries;
+	private final int				maxEntries;
+
+	DisplayStringCache(final int maxEntries) {
+		this.maxEntries = maxEntries;
+		entries = new LinkedHashMap<Long, String>(Math.min(maxEntries, 1024), 0.75f, true) {
+			private static final long	serialVersionUID	= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, String> eldest) {
+				return size() > DisplayStringCache.this.maxEntries;
+			}
+		};
+	}
+
+	private static Long key(final int row, final int column) {
+		return ((long) row << 32) | (column & 0xFFFFFFFFL);
+	}
+
+	void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return The cached text of a cell, or <tt>null</tt>.
+	 */
+	String get(final int row, final int column) {
+		return entries.get(key(row, column));
+	}
+
+	void put(final int row, final int column, final String text) {
+		entries.put(key(row, column), text);
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	@Override
+	public void tableChanged(final TableModelEvent e) {
+		final int first = e.getFirstRow();
+		final int last = e.getLastRow();
+		if ((e.getType() != TableModelEvent.UPDATE) || (first == TableModelEvent.HEADER_ROW)
+				|| ((last - first) >= MAX_REMOVED_ROWS)) {
+			entries.clear();
+			return;
+		}
+		final int columnCount = e.getSource() instanceof AutoTableModel ? ((AutoTableModel) e.getSource()).getColumnCount() : 0;
+		for (int row = first; row <= last; row++) {
+			if (e.getColumn() != TableModelEvent.ALL_COLUMNS) {
+				entries.remove(key(row, e.getColumn()));
+			} else if (columnCount == 0) {
+				entries.clear();
+				return;
+			} else {
+				for (int column = 0; column < columnCount; column++) {
+					entries.remove(key(row, column));
+				}
+			}
+		}
+	}
+}
@@ -16,8 +16,19 @@ import org.jdesktop.swingx.table.NumberEditorExt;
 
 public class EditorFactory {
 	public static TableCellEditor getEditor(final ColumnInfo columnInfo, final Format format) {
+		return getEditor(columnInfo, format, null);
+	}
+
+	/**
+	 * @param lookup
+	 *            Finds the values of a combo column sent without them, see {@link ColumnInfo#isRemoteValues()}.
+	 */
+	public static TableCellEditor getEditor(final ColumnInfo columnInfo, final Format format, final ValueLookup lookup) {
 		switch (columnInfo.getEditType()) {
 			case Combo:
+				if (columnInfo.isRemoteValues() && (lookup != null)) {
+					return new DefaultCellEditor(new TypeAheadCombo(lookup));
+				}
 				MyComboBox<String> combo = new MyComboBox<String>(new OrderedComboModel<>(columnInfo.getValues()));
 				return new DefaultCellEditor(combo);
 			case Date:
@@ -0,0 +1,74 @@
+package net.thomasnardone.ui.table;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+
+import net.thomasnardone.ui.rest.TableInfo;
+
+/**
+ * One compiled, validated version of a table definition file, as loaded by {@link TableConfigRegistry}. A version never changes;
+ * an edit to the file produces a new one.
+ *
+ * @author Thomas Nardone
+ */
+public final class TableConfig {
+	private final Object		fileKey;
+	private final TableManager	manager;
+	private final FileTime		modified;
+	private final Path			path;
+	private final long			size;
+	private final long			version;
+
+	TableConfig(final Path path, final BasicFileAttributes attributes, final TableManager manager, final long version) {
+		this.path = path;
+		this.manager = manager;
+		this.version = version;
+		fileKey = attributes.fileKey();
+		modified = attributes.lastModifiedTime();
+		size = attributes.size();
+	}
+
+	/**
+	 * @return A copy of the parsed definition, so changes to it don't reach other readers of this version.
+	 */
+	public TableManager getManager() {
+		return new TableManager(manager);
+	}
+
+	public FileTime getModified() {
+		return modified;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return A new copy of the table info, free to be given values.
+	 */
+	public TableInfo getTableInfo() {
+		return manager.getTableInfo();
+	}
+
+	/**
+	 * @return Counts the versions loaded from this file, starting at 1.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return Whether the file described by <tt>attributes</tt> is the one this version was loaded from, unchanged.
+	 */
+	boolean isCurrent(final BasicFileAttributes attributes) {
+		return Objects.equals(fileKey, attributes.fileKey()) && modified.equals(attributes.lastModifiedTime())
+				&& (size == attributes.size());
+	}
+
+	@Override
+	public String toString() {
+		return "TableConfig [path=" + path + ", version=" + version + ", modified=" + modified + "]";
+	}
+}
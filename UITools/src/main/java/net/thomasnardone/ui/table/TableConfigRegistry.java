@@ -0,0 +1,223 @@
+package net.thomasnardone.ui.table;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads table definition files into {@link TableConfig}s, each compiled and validated once, and reloads them when they change.
+ * Files are watched by directory; a change, or a new file moved over the old one, is compiled in the background and swapped in
+ * whole. Readers see the current version without locking.
+ * <p>
+ * A file that no longer parses or validates, or is deleted, leaves the last good version in use. Files are told apart by their
+ * real path, and a version by the file's identity, modification time and size, so an event that changes nothing reloads
+ * nothing. Reloads, rejected edits and directories that can't be watched are reported to {@link ReloadListener}s.
+ *
+ * @author Thomas Nardone
+ */
+public class TableConfigRegistry {
+	private static final TableConfigRegistry						DEFAULT	= new TableConfigRegistry();
+
+	private final ConcurrentMap<Path, AtomicReference<TableConfig>>	configs;
+	private final ConcurrentMap<Path, WatchKey>						directories;
+	private final Set<ReloadListener>								listeners;
+	private WatchService											watchService;
+
+	public TableConfigRegistry() {
+		configs = new ConcurrentHashMap<>();
+		directories = new ConcurrentHashMap<>();
+		listeners = new CopyOnWriteArraySet<>();
+	}
+
+	/**
+	 * @return The registry shared by everything in this JVM.
+	 */
+	public static TableConfigRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Compile and validate a table definition file.
+	 *
+	 * @throws IOException
+	 *             If the file can't be read, or does not hold a valid table definition.
+	 */
+	static TableConfig compile(final Path path, final long version) throws IOException {
+		final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		final TableManager manager;
+		try (InputStream input = Files.newInputStream(path)) {
+			manager = new TableManager(input);
+			manager.validate();
+		} catch (RuntimeException e) {
+			throw new IOException("Invalid table config " + path + ": " + e.getMessage(), e);
+		}
+		return new TableConfig(path, attributes, manager, version);
+	}
+
+	public void addReloadListener(final ReloadListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Stop watching for changes. Configs already loaded stay available, but are no longer reloaded.
+	 */
+	public synchronized void close() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				// nothing left to release
+			}
+			watchService = null;
+			directories.clear();
+		}
+	}
+
+	/**
+	 * @return The current version of the file, loading and starting to watch it on first use.
+	 * @throws IOException
+	 *             If the file has never loaded successfully.
+	 */
+	public TableConfig get(final Path file) throws IOException {
+		final Path path = file.toRealPath();
+		AtomicReference<TableConfig> current = configs.get(path);
+		if (current == null) {
+			watch(path.getParent());
+			final TableConfig config = compile(path, 1);
+			current = configs.putIfAbsent(path, new AtomicReference<>(config));
+			if (current == null) {
+				return config;
+			}
+		}
+		return current.get();
+	}
+
+	/**
+	 * Reload the file now if it has changed since the current version, rather than waiting for the watcher.
+	 *
+	 * @return The current version - the old one if the file could not be loaded.
+	 */
+	public TableConfig reload(final Path file) throws IOException {
+		final Path path = file.toRealPath();
+		final AtomicReference<TableConfig> current = configs.get(path);
+		if (current == null) {
+			return get(path);
+		}
+		refresh(path, current);
+		return current.get();
+	}
+
+	public void removeReloadListener(final ReloadListener listener) {
+		listeners.remove(listener);
+	}
+
+	private void refresh(final Path path, final AtomicReference<TableConfig> current) {
+		final TableConfig old = current.get();
+		try {
+			if (!old.isCurrent(Files.readAttributes(path, BasicFileAttributes.class))) {
+				final TableConfig config = compile(path, old.getVersion() + 1);
+				if (current.compareAndSet(old, config)) {
+					for (ReloadListener listener : listeners) {
+						listener.configReloaded(config);
+					}
+				}
+			}
+		} catch (IOException e) {
+			for (ReloadListener listener : listeners) {
+				listener.configRejected(old, e);
+			}
+		}
+	}
+
+	private synchronized void watch(final Path directory) {
+		if (directories.containsKey(directory)) {
+			return;
+		}
+		try {
+			if (watchService == null) {
+				watchService = FileSystems.getDefault().newWatchService();
+				new Watcher(watchService).start();
+			}
+			directories.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+		} catch (IOException e) {
+			for (ReloadListener listener : listeners) {
+				listener.watchFailed(directory, e);
+			}
+		}
+	}
+
+	/**
+	 * Told what happened to watched files, from the watcher's thread or the thread calling {@link #reload(Path)}.
+	 */
+	public interface ReloadListener {
+		/**
+		 * A changed file was loaded and is now the current version.
+		 */
+		void configReloaded(TableConfig config);
+
+		/**
+		 * A changed file could not be read or is not a valid table definition; <tt>kept</tt> stays in use.
+		 */
+		void configRejected(TableConfig kept, IOException cause);
+
+		/**
+		 * The directory's files are loaded but won't be reloaded when they change.
+		 */
+		void watchFailed(Path directory, IOException cause);
+	}
+
+	private final class Watcher extends Thread {
+		private final WatchService	service;
+
+		public Watcher(final WatchService service) {
+			super("table-config-watcher");
+			this.service = service;
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					final WatchKey key = service.take();
+					final Path directory = (Path) key.watchable();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (OVERFLOW.equals(event.kind())) {
+							for (Map.Entry<Path, AtomicReference<TableConfig>> entry : configs.entrySet()) {
+								if (entry.getKey().getParent().equals(directory)) {
+									refresh(entry.getKey(), entry.getValue());
+								}
+							}
+						} else {
+							final Path path = directory.resolve((Path) event.context());
+							final AtomicReference<TableConfig> current = configs.get(path);
+							if (current != null) {
+								refresh(path, current);
+							}
+						}
+					}
+					key.reset();
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				// closed
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package net.thomasnardone.ui.table;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.BitSet;
+
+import javax.swing.Timer;
+import javax.swing.event.TableModelEvent;
+
+/**
+ * Holds back an {@link AutoTableModel}'s cell and row update events and delivers them at most once per frame, merged into as few
+ * row ranges as possible. Inserts, deletes and whole-table changes can't wait - the model's row count already differs from what
+ * listeners last saw - so they flush what is pending and go out at once; a whole-table change replaces any pending updates.
+ * Events keep their order, so listeners see the same table they would have without coalescing.
+ * <p>
+ * Only used from the EDT.
+ *
+ * @author Thomas Nardone
+ */
+class TableEventCoalescer implements ActionListener {
+	/** More separate row ranges than this are sent as one range. */
+	private static final int		MAX_RANGES	= 16;
+	private static final int		NONE		= -2;
+
+	private int						column;
+	private final AutoTableModel	model;
+	private final BitSet			rows;
+	private final Timer				timer;
+
+	/**
+	 * @param frameRate
+	 *            Most flushes per second.
+	 */
+	TableEventCoalescer(final AutoTableModel model, final int frameRate) {
+		this.model = model;
+		rows = new BitSet();
+		column = NONE;
+		timer = new Timer(1000 / Math.max(1, frameRate), this);
+		timer.setRepeats(false);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		flush();
+	}
+
+	/**
+	 * Deliver pending updates now.
+	 */
+	void flush() {
+		timer.stop();
+		if (rows.isEmpty()) {
+			return;
+		}
+		int ranges = 0;
+		for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(rows.nextClearBit(row))) {
+			ranges++;
+		}
+		final int updated = column;
+		if (ranges > MAX_RANGES) {
+			final int first = rows.nextSetBit(0);
+			final int last = rows.length() - 1;
+			clear();
+			model.dispatch(new TableModelEvent(model, first, last, updated));
+		} else {
+			final BitSet pending = (BitSet) rows.clone();
+			clear();
+			for (int row = pending.nextSetBit(0); row >= 0; row = pending.nextSetBit(row)) {
+				final int end = pending.nextClearBit(row);
+				model.dispatch(new TableModelEvent(model, row, end - 1, updated));
+				row = end;
+			}
+		}
+	}
+
+	void post(final TableModelEvent e) {
+		final boolean wholeTable = (e.getFirstRow() == TableModelEvent.HEADER_ROW) || (e.getLastRow() == Integer.MAX_VALUE);
+		if ((e.getType() == TableModelEvent.UPDATE) && !wholeTable) {
+			rows.set(e.getFirstRow(), e.getLastRow() + 1);
+			column = (column == NONE) || (column == e.getColumn()) ? e.getColumn() : TableModelEvent.ALL_COLUMNS;
+			if (!timer.isRunning()) {
+				timer.start();
+			}
+			return;
+		}
+		if (wholeTable && (e.getType() == TableModelEvent.UPDATE)) {
+			timer.stop();
+			clear();
+		} else {
+			flush();
+		}
+		model.dispatch(e);
+	}
+
+	private void clear() {
+		rows.clear();
+		column = NONE;
+	}
+}
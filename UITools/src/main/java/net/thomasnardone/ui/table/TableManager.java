@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +15,8 @@ import net.thomasnardone.ui.EditType;
 import net.thomasnardone.ui.FilterType;
 import net.thomasnardone.ui.rest.ColumnInfo;
 import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.rest.FormatInfo;
+import net.thomasnardone.ui.rest.TableInfo;
 
 /**
  * Manages conversion of column properties to Java entities.
@@ -39,6 +42,7 @@ public class TableManager {
 	private final List<ColumnInfo>			columns;
 	private final List<FilterInfo>			filters;
 	private String[]						keyFields;
+	private final Properties				properties;
 	private String							query;
 	private String							updateTable;
 
@@ -54,6 +58,25 @@ public class TableManager {
 		loadProperties(props);
 	}
 
+	/**
+	 * Create a copy of <tt>other</tt>, with its own columns and filters.
+	 */
+	public TableManager(final TableManager other) {
+		this();
+		for (ColumnInfo column : other.columns) {
+			ColumnInfo copy = new ColumnInfo(column);
+			columns.add(copy);
+			columnMap.put(copy.getName(), copy);
+		}
+		for (FilterInfo filter : other.filters) {
+			filters.add(new FilterInfo(filter));
+		}
+		keyFields = other.keyFields.clone();
+		properties.putAll(other.properties);
+		query = other.query;
+		updateTable = other.updateTable;
+	}
+
 	/**
 	 * Create a {@link TableManager} from <tt>props</tt>.
 	 * 
@@ -80,6 +103,7 @@ public class TableManager {
 		columns = new ArrayList<>();
 		columnMap = new HashMap<>();
 		filters = new ArrayList<>();
+		properties = new Properties();
 	}
 
 	public ColumnInfo getColumn(final String name) {
@@ -87,21 +111,55 @@ public class TableManager {
 	}
 
 	public List<ColumnInfo> getColumns() {
-		return columns;
+		return Collections.unmodifiableList(columns);
 	}
 
 	public List<FilterInfo> getFilters() {
-		return filters;
+		return Collections.unmodifiableList(filters);
 	}
 
 	public String[] getKeyFields() {
 		return keyFields;
 	}
 
+	/**
+	 * @return A raw property of the table definition, for settings this class does not interpret itself.
+	 */
+	public String getProperty(final String key, final String defaultValue) {
+		return properties.getProperty(key, defaultValue);
+	}
+
 	public String getQuery() {
 		return query;
 	}
 
+	/**
+	 * @return A new {@link TableInfo} for this table, with its own copies of the columns and filters so it can be given values
+	 *         without touching this manager. Formats are left empty.
+	 */
+	public TableInfo getTableInfo() {
+		List<ColumnInfo> columnCopies = new ArrayList<>(columns.size());
+		for (ColumnInfo column : columns) {
+			columnCopies.add(new ColumnInfo(column));
+		}
+		List<FilterInfo> filterCopies = new ArrayList<>(filters.size());
+		for (FilterInfo filter : filters) {
+			filterCopies.add(new FilterInfo(filter));
+		}
+		List<String> keys = new ArrayList<>();
+		for (String key : keyFields) {
+			if (!key.trim().isEmpty()) {
+				keys.add(key.trim());
+			}
+		}
+		TableInfo info = new TableInfo();
+		info.setColumns(columnCopies);
+		info.setFilters(filterCopies);
+		info.setFormats(new ArrayList<FormatInfo>());
+		info.setKeyFields(keys);
+		return info;
+	}
+
 	public String getUpdateTable() {
 		return updateTable;
 	}
@@ -110,8 +168,41 @@ public class TableManager {
 		this.query = query;
 	}
 
+	/**
+	 * Check that the key fields and filters name columns of the table, and that an updatable table has key fields.
+	 *
+	 * @throws IllegalArgumentException
+	 *             Listing every problem found.
+	 */
+	public void validate() {
+		List<String> problems = new ArrayList<>();
+		List<String> keys = getTableInfo().getKeyFields();
+		for (String key : keys) {
+			if (!columnMap.containsKey(key)) {
+				problems.add("key field " + key + " is not a column");
+			}
+		}
+		for (FilterInfo filter : filters) {
+			if (!columnMap.containsKey(filter.getColumnName())) {
+				problems.add("filter " + filter.getColumnName() + " is not a column");
+			}
+		}
+		if ((updateTable != null) && keys.isEmpty()) {
+			problems.add("updateTable " + updateTable + " has no key fields");
+		}
+		if (!problems.isEmpty()) {
+			throw new IllegalArgumentException("Invalid table config: " + problems);
+		}
+	}
+
 	private void loadProperties(final Properties props) {
-		String[] columnSplit = props.getProperty(COLUMNS).split(" ");
+		if (props.getProperty(COLUMNS, "").trim().isEmpty()) {
+			throw new IllegalArgumentException("No " + COLUMNS + " defined");
+		}
+		for (String key : props.stringPropertyNames()) {
+			properties.setProperty(key, props.getProperty(key));
+		}
+		String[] columnSplit = props.getProperty(COLUMNS).trim().split(" +");
 		for (String column : columnSplit) {
 			ColumnInfo info = new ColumnInfo();
 			info.setName(column);
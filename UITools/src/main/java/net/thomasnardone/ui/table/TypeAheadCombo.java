@@ -0,0 +1,129 @@
+package net.thomasnardone.ui.table;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.JTextComponent;
+
+import net.thomasnardone.ui.swing.DocumentAdapter;
+import net.thomasnardone.ui.swing.MyComboBox;
+import net.thomasnardone.ui.swing.OrderedComboModel;
+
+/**
+ * Editable combo box whose list is filled from a {@link ValueLookup} as the user types, so no value list is needed up front.
+ * Refreshing the list doesn't fire action events; choosing a value or pressing enter does, as usual.
+ *
+ * @author Thomas Nardone
+ */
+public class TypeAheadCombo extends MyComboBox<String> {
+	private static final long				serialVersionUID	= 1L;
+
+	private ValueLookup						lookup;
+	private final OrderedComboModel<String>	model;
+	private boolean							selecting;
+	private boolean							updating;
+	private final ValueLookup.Callback		valueCallback;
+
+	public TypeAheadCombo(final ValueLookup lookup) {
+		this(new OrderedComboModel<String>());
+		this.lookup = lookup;
+	}
+
+	private TypeAheadCombo(final OrderedComboModel<String> model) {
+		super(model);
+		this.model = model;
+		valueCallback = new ValueLookup.Callback() {
+			@Override
+			public void lookupFailed(final String prefix, final Exception cause) {
+				showValues(prefix, Collections.<String> emptyList());
+			}
+
+			@Override
+			public void valuesFound(final String prefix, final List<String> values) {
+				showValues(prefix, values);
+			}
+		};
+		setEditable(true);
+		getTextField().getDocument().addDocumentListener(new DocumentAdapter() {
+			@Override
+			public void insertUpdate(final DocumentEvent e) {
+				textChanged();
+			}
+
+			@Override
+			public void removeUpdate(final DocumentEvent e) {
+				textChanged();
+			}
+		});
+	}
+
+	public ValueLookup getValueLookup() {
+		return lookup;
+	}
+
+	@Override
+	public void setSelectedItem(final Object anObject) {
+		selecting = true;
+		try {
+			super.setSelectedItem(anObject);
+		} finally {
+			selecting = false;
+		}
+	}
+
+	public void setValueLookup(final ValueLookup lookup) {
+		if (this.lookup != null) {
+			this.lookup.cancel();
+		}
+		this.lookup = lookup;
+	}
+
+	@Override
+	protected void fireActionEvent() {
+		if (!updating) {
+			super.fireActionEvent();
+		}
+	}
+
+	private JTextComponent getTextField() {
+		return (JTextComponent) getEditor().getEditorComponent();
+	}
+
+	private void showValues(final String prefix, final List<String> values) {
+		if (!prefix.equals(getTextField().getText())) {
+			return; // typed on since
+		}
+		updating = true;
+		try {
+			// the list events make the UI reset the editor to the selected item, so select the typed text first
+			model.setSelectedItem(prefix);
+			model.setItems(values);
+		} finally {
+			updating = false;
+		}
+		if (isShowing() && getTextField().isFocusOwner()) {
+			if (values.isEmpty() || ((values.size() == 1) && values.get(0).equals(prefix))) {
+				hidePopup();
+			} else {
+				showPopup();
+			}
+		}
+	}
+
+	private void textChanged() {
+		if (updating || selecting || (lookup == null)) {
+			return;
+		}
+		// not from inside the document's notification, as a cached answer updates the editor at once
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				if (lookup != null) {
+					lookup.lookup(getTextField().getText(), valueCallback);
+				}
+			}
+		});
+	}
+}
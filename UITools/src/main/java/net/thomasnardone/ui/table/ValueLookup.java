@@ -0,0 +1,160 @@
+package net.thomasnardone.ui.table;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import net.thomasnardone.ui.rest.TableClient;
+
+/**
+ * Finds values of one combo column by prefix through {@link TableClient#getValues(String, String, String, int)}, for columns
+ * whose values are too many to send with the table info. A lookup waits until typing pauses for {@link #DEBOUNCE_MILLIS}, and is
+ * dropped if a newer one is asked for first. Answers are cached, and a prefix is answered without a call when a shorter one
+ * already returned every value it matched. Only used from the EDT.
+ *
+ * @author Thomas Nardone
+ */
+public class ValueLookup {
+	public static final int					DEBOUNCE_MILLIS	= 150;
+	public static final int					DEFAULT_LIMIT	= 100;
+	private static final int				CACHE_SIZE		= 64;
+
+	private final Map<String, List<String>>	cache;
+	private Callback						callback;
+	private final TableClient				client;
+	private final String					column;
+	private final Timer						debounce;
+	private final int						limit;
+	private String							prefix;
+	private final String					serviceName;
+	private SwingWorker<List<String>, Void>	worker;
+
+	public ValueLookup(final TableClient client, final String serviceName, final String column) {
+		this(client, serviceName, column, DEFAULT_LIMIT);
+	}
+
+	/**
+	 * @param limit
+	 *            Most values asked for in one lookup.
+	 */
+	public ValueLookup(final TableClient client, final String serviceName, final String column, final int limit) {
+		this.client = client;
+		this.serviceName = serviceName;
+		this.column = column;
+		this.limit = limit;
+		cache = new LinkedHashMap<String, List<String>>(CACHE_SIZE, 0.75f, true) {
+			private static final long	serialVersionUID	= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, List<String>> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		};
+		debounce = new Timer(DEBOUNCE_MILLIS, new ActionListener() {
+			@Override
+			public void actionPerformed(final ActionEvent e) {
+				start();
+			}
+		});
+		debounce.setRepeats(false);
+	}
+
+	/**
+	 * Drop the pending or running lookup, if any.
+	 */
+	public void cancel() {
+		debounce.stop();
+		callback = null;
+		if (worker != null) {
+			worker.cancel(true);
+			worker = null;
+		}
+	}
+
+	public String getColumn() {
+		return column;
+	}
+
+	/**
+	 * Find the values starting with <tt>prefix</tt>, ignoring case, and pass them to <tt>callback</tt> - at once if cached,
+	 * otherwise once the lookup completes, or report why it failed. Replaces any earlier lookup still pending.
+	 */
+	public void lookup(final String prefix, final Callback callback) {
+		cancel();
+		final List<String> cached = cached(prefix);
+		if (cached != null) {
+			callback.valuesFound(prefix, cached);
+			return;
+		}
+		this.prefix = prefix;
+		this.callback = callback;
+		debounce.restart();
+	}
+
+	/**
+	 * @return The values for <tt>prefix</tt> known without asking the server, or <tt>null</tt>.
+	 */
+	List<String> cached(final String prefix) {
+		final String key = prefix.toLowerCase();
+		List<String> values = cache.get(key);
+		for (int length = key.length() - 1; (values == null) && (length >= 0); length--) {
+			final List<String> shorter = cache.get(key.substring(0, length));
+			if ((shorter != null) && ((limit <= 0) || (shorter.size() < limit))) {
+				values = new ArrayList<>();
+				for (String value : shorter) {
+					if (value.regionMatches(true, 0, prefix, 0, prefix.length())) {
+						values.add(value);
+					}
+				}
+				cache.put(key, values);
+			}
+		}
+		return values;
+	}
+
+	private void start() {
+		final String query = prefix;
+		final Callback target = callback;
+		worker = new SwingWorker<List<String>, Void>() {
+			@Override
+			protected List<String> doInBackground() {
+				return client.getValues(serviceName, column, query, limit);
+			}
+
+			@Override
+			protected void done() {
+				if (isCancelled() || (worker != this)) {
+					return;
+				}
+				worker = null;
+				try {
+					final List<String> values = get();
+					cache.put(query.toLowerCase(), values);
+					target.valuesFound(query, values);
+				} catch (InterruptedException | ExecutionException e) {
+					target.lookupFailed(query, (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e);
+				}
+			}
+		};
+		worker.execute();
+	}
+
+	public interface Callback {
+		/**
+		 * Called on the EDT when the lookup for <tt>prefix</tt> fails. Nothing is cached, so asking again retries.
+		 */
+		void lookupFailed(String prefix, Exception cause);
+
+		/**
+		 * Called on the EDT with the values found for <tt>prefix</tt>.
+		 */
+		void valuesFound(String prefix, List<String> values);
+	}
+}
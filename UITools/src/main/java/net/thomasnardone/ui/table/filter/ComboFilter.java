@@ -5,16 +5,30 @@ import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
 
+import net.thomasnardone.ui.metrics.EdtWatchdog;
 import net.thomasnardone.ui.rest.FilterInfo;
 import net.thomasnardone.ui.swing.MyComboBox;
 import net.thomasnardone.ui.swing.OrderedComboModel;
+import net.thomasnardone.ui.table.TypeAheadCombo;
+import net.thomasnardone.ui.table.ValueLookup;
 
 @SuppressWarnings("serial")
 public class ComboFilter extends AbstractFilter {
 	private MyComboBox<String>	combo;
 
 	public ComboFilter(final FilterInfo filterInfo) {
+		this(filterInfo, null);
+	}
+
+	/**
+	 * @param lookup
+	 *            Finds the filter's values as the user types, when they were sent without them.
+	 */
+	public ComboFilter(final FilterInfo filterInfo, final ValueLookup lookup) {
 		super(filterInfo);
+		if (combo instanceof TypeAheadCombo) {
+			((TypeAheadCombo) combo).setValueLookup(lookup);
+		}
 	}
 
 	@Override
@@ -25,10 +39,11 @@ public class ComboFilter extends AbstractFilter {
 
 	@Override
 	public boolean include(final String value) {
-		if ("".equals(combo.getSelectedItem())) {
+		final String item = combo.getSelectedItem();
+		if ((item == null) || "".equals(item)) {
 			return true;
 		}
-		return combo.getSelectedItem().equals(value);
+		return item.equals(value);
 	}
 
 	@Override
@@ -39,7 +54,7 @@ public class ComboFilter extends AbstractFilter {
 
 	@Override
 	protected void setupFilter() {
-		add(combo = new MyComboBox<>());
+		add(combo = getFilterInfo().isRemoteValues() ? new TypeAheadCombo(null) : new MyComboBox<String>());
 		reloadItems();
 		combo.addActionListener(new ActionListener() {
 			@Override
@@ -50,6 +65,9 @@ public class ComboFilter extends AbstractFilter {
 	}
 
 	private void reloadItems() {
+		if (combo instanceof TypeAheadCombo) {
+			return; // filled as the user types
+		}
 		String item = combo.getSelectedItem();
 		final List<String> values = new ArrayList<>();
 		values.add("");
@@ -57,7 +75,12 @@ public class ComboFilter extends AbstractFilter {
 		if (filterValues != null) {
 			values.addAll(filterValues);
 		}
-		combo.setModel(new OrderedComboModel<String>(values));
+		final EdtWatchdog.Activity activity = EdtWatchdog.begin(null, "comboRebuild");
+		try {
+			combo.setModel(new OrderedComboModel<String>(values));
+		} finally {
+			activity.close();
+		}
 		if (item != null) {
 			combo.setSelectedItem(item);
 		} else {
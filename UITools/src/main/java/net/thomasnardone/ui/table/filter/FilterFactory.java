@@ -1,13 +1,22 @@
 package net.thomasnardone.ui.table.filter;
 
 import net.thomasnardone.ui.rest.FilterInfo;
+import net.thomasnardone.ui.table.ValueLookup;
 
 public class FilterFactory {
 
 	public static AbstractFilter getFilter(final FilterInfo filterInfo) {
+		return getFilter(filterInfo, null);
+	}
+
+	/**
+	 * @param lookup
+	 *            Finds the values of a combo filter sent without them, see {@link FilterInfo#isRemoteValues()}.
+	 */
+	public static AbstractFilter getFilter(final FilterInfo filterInfo, final ValueLookup lookup) {
 		switch (filterInfo.getType()) {
 			case Combo:
-				return new ComboFilter(filterInfo);
+				return new ComboFilter(filterInfo, filterInfo.isRemoteValues() ? lookup : null);
 			case Text:
 				return new TextFilter(filterInfo);
 			default:
@@ -0,0 +1,82 @@
+package net.thomasnardone.ui.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution. The first caller for a key runs the {@link Callable};
+ * every caller that arrives while it is still running waits for, and receives, the same result. Once the call completes the key
+ * is forgotten, so later calls execute again - this is de-duplication, not caching.
+ *
+ * @author Thomas Nardone
+ */
+public class SingleFlight<K, V> {
+	private final ConcurrentMap<K, FutureTask<V>>	calls;
+
+	public SingleFlight() {
+		calls = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Run <tt>call</tt>, unless a call for <tt>key</tt> is already in flight, in which case wait for that one instead.
+	 *
+	 * @throws RuntimeException
+	 *             Whatever the call threw, unchecked exceptions are rethrown as-is and checked ones wrapped.
+	 */
+	public V execute(final K key, final Callable<V> call) {
+		FutureTask<V> task = new FutureTask<>(call);
+		FutureTask<V> existing = calls.putIfAbsent(key, task);
+		if (existing == null) {
+			try {
+				task.run();
+			} finally {
+				calls.remove(key, task);
+			}
+			return await(task);
+		} else {
+			return share(await(existing));
+		}
+	}
+
+	/**
+	 * @return The number of calls currently in flight.
+	 */
+	public int getInFlightCount() {
+		return calls.size();
+	}
+
+	/**
+	 * Hook for callers that joined another caller's flight. Override to hand out a defensive copy when the result is mutable.
+	 */
+	protected V share(final V value) {
+		return value;
+	}
+
+	private V await(final FutureTask<V> task) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package net.thomasnardone.ui.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+public class EdtWatchdogTest extends TestCase {
+	private EdtWatchdog	watchdog;
+
+	public void testStallAttributed() throws Exception {
+		final List<EdtStall> reported = new ArrayList<>();
+		watchdog.addStallListener(new EdtWatchdog.StallListener() {
+			@Override
+			public void stalled(final EdtStall stall) {
+				reported.add(stall);
+			}
+		});
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				final EdtWatchdog.Activity table = EdtWatchdog.begin("people", "filterChanged");
+				final EdtWatchdog.Activity combo = EdtWatchdog.begin(null, "comboRebuild");
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					combo.close();
+					table.close();
+				}
+			}
+		});
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// quick dispatch, not a stall
+			}
+		});
+
+		assertEquals(1, reported.size());
+		EdtStall stall = reported.get(0);
+		assertEquals(watchdog.getRecentStalls(), reported);
+		assertEquals("people", stall.getServiceName());
+		assertEquals("comboRebuild", stall.getOperation());
+		assertTrue(stall.getDurationNanos() >= 300000000L);
+		assertFalse(stall.getSamples().isEmpty());
+		assertEquals("sleep", stall.getHotFrame().getMethodName());
+		assertTrue(watchdog.getDispatchLatency().getCount() >= 1);
+	}
+
+	@Override
+	protected void setUp() {
+		watchdog = EdtWatchdog.install(50);
+	}
+
+	@Override
+	protected void tearDown() {
+		watchdog.uninstall();
+	}
+}
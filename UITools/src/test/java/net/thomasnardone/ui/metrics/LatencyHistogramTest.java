@@ -0,0 +1,33 @@
+package net.thomasnardone.ui.metrics;
+
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest extends TestCase {
+
+	public void testBucketBounds() {
+		for (long micros = 0; micros < 100000; micros++) {
+			final int bucket = LatencyHistogram.bucket(micros);
+			assertTrue(micros <= LatencyHistogram.upperBound(bucket));
+			if (bucket > 0) {
+				assertTrue(micros > LatencyHistogram.upperBound(bucket - 1));
+			}
+		}
+	}
+
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000000L);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(100000000L, histogram.getMaxNanos());
+		assertEquals(50500000.0, histogram.getMeanNanos(), 1);
+		final long p50 = histogram.getPercentileNanos(50);
+		assertTrue(p50 >= 50000000L && p50 <= 62500000L);
+		assertEquals(histogram.getMaxNanos(), histogram.getPercentileNanos(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentileNanos(99));
+	}
+}
@@ -0,0 +1,44 @@
+package net.thomasnardone.ui.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import junit.framework.TestCase;
+
+public class CompressionTest extends TestCase {
+
+	public void testNegotiate() {
+		assertEquals(Compression.Identity, Compression.negotiate(null));
+		assertEquals(Compression.Identity, Compression.negotiate("br, identity"));
+		assertEquals(Compression.Gzip, Compression.negotiate("deflate, gzip"));
+		assertEquals(Compression.Deflate, Compression.negotiate("gzip;q=0, deflate;q=0.5"));
+		assertEquals(Compression.Gzip, Compression.negotiate("*"));
+		assertEquals(Compression.Deflate, Compression.forEncoding(" Deflate "));
+		assertNull(Compression.forEncoding("br"));
+	}
+
+	public void testRoundTrip() throws Exception {
+		byte[] data = new byte[50000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) ('a' + (i % 7));
+		}
+		for (Compression compression : Compression.values()) {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream out = compression.encode(compressed, Deflater.BEST_SPEED)) {
+				out.write(data);
+			}
+			ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+			try (InputStream in = compression.decode(new ByteArrayInputStream(compressed.toByteArray()))) {
+				byte[] buffer = new byte[4096];
+				for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+					decoded.write(buffer, 0, read);
+				}
+			}
+			assertTrue(compression.name(), Arrays.equals(data, decoded.toByteArray()));
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package net.thomasnardone.ui.rest;
+
+import junit.framework.TestCase;
+
+public class TableClientRegistryTest extends TestCase {
+
+	public void testConnectionKey() {
+		final String key = TableClientRegistry.connectionKey("http://host", "user", "secret");
+		assertFalse(key.contains("secret"));
+		assertEquals(key, TableClientRegistry.connectionKey("http://host", "user", "secret"));
+		assertFalse(key.equals(TableClientRegistry.connectionKey("http://host", "user", "other")));
+		assertFalse(key.equals(TableClientRegistry.connectionKey("http://other", "user", "secret")));
+		assertFalse(TableClientRegistry.connectionKey("h", "a:b", "c").equals(TableClientRegistry.connectionKey("h", "a", "b:c")));
+	}
+}
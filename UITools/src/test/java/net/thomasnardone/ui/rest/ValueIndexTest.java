@@ -0,0 +1,23 @@
+package net.thomasnardone.ui.rest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class ValueIndexTest extends TestCase {
+
+	public void testFind() {
+		List<String> source = Arrays.asList("bob", "alice", "BOBBY", null, "Bob", "carol", "bob");
+		ValueIndex index = new ValueIndex(source);
+		assertEquals(5, index.size());
+		assertEquals(Arrays.asList("Bob", "bob", "BOBBY"), index.find("bo", 0));
+		assertEquals(Arrays.asList("Bob", "bob"), index.find("BO", 2));
+		assertEquals(Collections.singletonList("BOBBY"), index.find("bobb", 0));
+		assertEquals(Arrays.asList("alice", "Bob"), index.find("", 2));
+		assertTrue(index.find("d", 0).isEmpty());
+		assertTrue(index.isOf(source));
+		assertFalse(index.isOf(Arrays.asList("bob")));
+	}
+}
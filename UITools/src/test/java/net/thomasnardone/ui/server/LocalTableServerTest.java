@@ -0,0 +1,346 @@
+package net.thomasnardone.ui.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.metrics.OperationStats;
+import net.thomasnardone.ui.metrics.Phase;
+import net.thomasnardone.ui.metrics.TableMetrics;
+import net.thomasnardone.ui.metrics.TableOperation;
+import net.thomasnardone.ui.rest.AutoTableClient;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.Compression;
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowChange;
+import net.thomasnardone.ui.rest.RowChangeListener;
+import net.thomasnardone.ui.rest.RowStatus;
+import net.thomasnardone.ui.rest.SortSpec;
+import net.thomasnardone.ui.rest.Subscription;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.table.AutoTableModel;
+import net.thomasnardone.ui.table.TableManager;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+public class LocalTableServerTest extends TestCase {
+	private final AtomicInteger	applied	= new AtomicInteger();
+	private AutoTableClient		client;
+	private InMemoryDataSource	source;
+	private LocalTableServer	server;
+	private volatile long		updateDelay;
+
+	public void testChangesSinceLoad() throws InterruptedException {
+		TableInfo info = client.getTableInfo("people");
+		AutoTableModel model = new AutoTableModel(info.getColumns(), info.getFormats(), info.getKeyFields());
+		final long version = client.loadData("people", model.newLoader());
+		assertTrue(version >= 0);
+		// committed after the data was read but before the feed started
+		assertTrue(client.updateTable("people", Collections.singletonList(update("bob", "admin"))).allAcknowledged());
+
+		final BlockingQueue<RowChange> received = new LinkedBlockingQueue<>();
+		Subscription subscription = client.subscribe("people", version, new RowChangeListener() {
+			@Override
+			public void changesLost(final String serviceName) {}
+
+			@Override
+			public void feedFailed(final String serviceName, final RuntimeException cause, final long retryDelay) {}
+
+			@Override
+			public void rowsChanged(final String serviceName, final List<RowChange> changes) {
+				received.addAll(changes);
+			}
+		});
+		try {
+			RowChange change = received.poll(5, TimeUnit.SECONDS);
+			assertNotNull(change);
+			assertEquals("bob", change.getKeys().get("name"));
+			assertEquals("admin", change.getValues().get("role"));
+		} finally {
+			subscription.cancel();
+		}
+	}
+
+	public void testCompressedTransfer() {
+		String[][] rows = new String[2000][];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = new String[] { "person" + i, "user" };
+		}
+		source.setRows("people", rows);
+		List<UpdateInfo> updates = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			updates.add(update("person" + i, "admin"));
+		}
+		TableMetrics metrics = client.getMetrics("people");
+		metrics.reset();
+		client.setRequestCompression(Compression.Gzip, Deflater.BEST_SPEED);
+
+		assertEquals(2000, client.getData("people").length);
+		assertTrue(client.updateTable("people", updates).allAcknowledged());
+		assertEquals("admin", source.getRows("people")[199][1]);
+		OperationStats data = metrics.snapshot().getOperation(TableOperation.GetData);
+		assertTrue(data.toString(), data.getRawBytesIn() > (3 * data.getBytesIn()));
+		OperationStats update = metrics.snapshot().getOperation(TableOperation.UpdateTable);
+		assertTrue(update.toString(), update.getRawBytesOut() > (3 * update.getBytesOut()));
+		assertEquals(1, metrics.snapshot().getPhase(TableOperation.GetData, Phase.Compression).getCount());
+		assertEquals(1, metrics.snapshot().getPhase(TableOperation.UpdateTable, Phase.Compression).getCount());
+	}
+
+	public void testConcurrentRetriesApplyOnce() throws Exception {
+		updateDelay = 300;
+		final byte[] body = new ObjectMapper().writeValueAsBytes(Collections.singletonList(update("bob", "admin")));
+		final int[] statuses = new int[2];
+		Thread[] threads = new Thread[statuses.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						HttpURLConnection connection = (HttpURLConnection) new URL(server.getHost() + "/"
+								+ server.getServletName() + "/people/update").openConnection();
+						connection.setDoOutput(true);
+						connection.setRequestProperty("Content-Type", "application/json");
+						connection.setRequestProperty(AutoTableClient.IDEMPOTENCY_KEY, "same-chunk");
+						try (OutputStream out = connection.getOutputStream()) {
+							out.write(body);
+						}
+						statuses[index] = connection.getResponseCode();
+					} catch (IOException e) {
+						statuses[index] = -1;
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(200, statuses[0]);
+		assertEquals(200, statuses[1]);
+		assertEquals(1, applied.get());
+	}
+
+	public void testInfoAndData() {
+		TableInfo info = client.getTableInfo("people");
+		assertEquals(2, info.getColumns().size());
+		assertNull(info.getColumns().get(1).getValueQuery());
+		assertEquals(Collections.singletonList("name"), info.getKeyFields());
+		assertEquals(2, info.getColumns().get(1).getValues().size());
+
+		String[][] data = client.getData("people");
+		assertEquals(3, data.length);
+		assertEquals("bob", data[1][0]);
+	}
+
+	public void testInvalidUpdate() {
+		UpdateInfo unknownColumn = update("bob", "admin");
+		unknownColumn.getUpdates().put("nobody", "x");
+		UpdateInfo nonKey = update("carol", "admin");
+		nonKey.getKeys().put("role", "guest");
+		UpdateResult result = client.updateTable("people", Arrays.asList(unknownColumn, nonKey, update("alice", "admin")));
+
+		assertTrue(Arrays.equals(new RowStatus[] { RowStatus.Invalid, RowStatus.Invalid, RowStatus.Applied },
+				result.getStatuses()));
+		assertEquals("user", source.getRows("people")[1][1]);
+		assertEquals("guest", source.getRows("people")[2][1]);
+		assertEquals("admin", source.getRows("people")[0][1]);
+	}
+
+	public void testLostChangesReset() throws InterruptedException {
+		server.setChangeLogSize(2);
+		source.setRows("crowd", new String[][] { { "alice", "user" }, { "bob", "user" }, { "carol", "guest" } });
+		server.addService("crowd", peopleConfig());
+		TableInfo info = client.getTableInfo("crowd");
+		AutoTableModel model = new AutoTableModel(info.getColumns(), info.getFormats(), info.getKeyFields());
+		final long version = client.loadData("crowd", model.newLoader());
+		List<UpdateInfo> updates = Arrays.asList(update("alice", "admin"), update("bob", "admin"), update("carol", "admin"));
+		// three changes through a log of two drop the first one made after the data was read
+		assertTrue(client.updateTable("crowd", updates).allAcknowledged());
+
+		final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+		Subscription subscription = client.subscribe("crowd", version, new RowChangeListener() {
+			@Override
+			public void changesLost(final String serviceName) {
+				events.add("lost");
+			}
+
+			@Override
+			public void feedFailed(final String serviceName, final RuntimeException cause, final long retryDelay) {}
+
+			@Override
+			public void rowsChanged(final String serviceName, final List<RowChange> changes) {
+				events.add(changes.size() + " changed");
+			}
+		});
+		try {
+			assertEquals("lost", events.poll(5, TimeUnit.SECONDS));
+			// the feed goes on from the current version, and overflowing the log again while it waits is reported too
+			Thread.sleep(200);
+			assertTrue(client.updateTable("crowd", updates).allAcknowledged());
+			assertEquals("lost", events.poll(5, TimeUnit.SECONDS));
+			assertTrue(client.updateTable("crowd", Collections.singletonList(update("bob", "user"))).allAcknowledged());
+			assertEquals("1 changed", events.poll(5, TimeUnit.SECONDS));
+		} finally {
+			subscription.cancel();
+		}
+	}
+
+	public void testPages() {
+		List<SortSpec> sort = Collections.singletonList(new SortSpec("role", true));
+		Page first = client.getPage("people", new PageRequest(sort, null, 2));
+		assertEquals(2, first.getRows().length);
+		assertEquals("alice", first.getRows()[0][0]);
+		assertEquals("bob", first.getRows()[1][0]);
+		assertTrue(first.hasNext());
+
+		Page second = client.getPage("people", new PageRequest(sort, first.getNext(), 2));
+		assertTrue(Arrays.equals(new String[] { "carol", "guest" }, second.getRows()[0]));
+		assertFalse(second.hasNext());
+		try {
+			client.getPage("people", new PageRequest(Collections.singletonList(new SortSpec("password", false)), null, 2));
+			fail("Sorted by a column the table doesn't have");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testRemoteValues() {
+		server.setMaxInlineValues(1);
+		ColumnInfo role = client.getTableInfo("people").getColumns().get(1);
+		assertTrue(role.isRemoteValues());
+		assertNull(role.getValues());
+
+		assertEquals(Collections.singletonList("guest"), client.getValues("people", "role", "G", 10));
+		assertEquals(Collections.singletonList("guest"), client.getValues("people", "role", "", 1));
+		assertEquals(Arrays.asList("guest", "user"), client.getValues("people", "role", "", 0));
+		assertTrue(client.getValues("people", "role", "u&limit=0 %", 10).isEmpty());
+		try {
+			client.getValues("people", "password", "", 10);
+			fail("Looked up a column the table doesn't have");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testRetryAfterLostResponseIsNotReapplied() {
+		server.setLostResponseRate(1);
+		client.setMaxRetries(1);
+		UpdateResult result = client.updateTable("people", Collections.singletonList(update("bob", "admin")));
+
+		assertTrue(result.allAcknowledged());
+		assertEquals("admin", source.getRows("people")[1][1]);
+	}
+
+	public void testSharedLoad() throws InterruptedException {
+		TableInfo info = client.getTableInfo("people");
+		final AutoTableModel model = new AutoTableModel(info.getColumns(), info.getFormats(), info.getKeyFields());
+		TableMetrics metrics = client.getMetrics("people");
+		metrics.reset();
+		server.setLatency(300, 0);
+		final AutoTableModel.DataLoader[] loaders = new AutoTableModel.DataLoader[3];
+		Thread[] threads = new Thread[loaders.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			loaders[i] = model.newLoader();
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					client.loadData("people", loaders[index]);
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(1, metrics.snapshot().getOperation(TableOperation.GetData).getCalls());
+		for (AutoTableModel.DataLoader loader : loaders) {
+			assertEquals(3, loader.getRowCount());
+		}
+		model.setData(loaders[2]);
+		assertEquals("carol", model.getStringAt(2, 0));
+	}
+
+	public void testUpdateInChunks() {
+		client.setChunkSize(1);
+		List<UpdateInfo> updates = new ArrayList<>();
+		updates.add(update("alice", "admin"));
+		updates.add(update("nobody", "admin"));
+		updates.add(update("carol", "admin"));
+		UpdateResult result = client.updateTable("people", updates);
+
+		assertTrue(result.acknowledged(0));
+		assertFalse(result.acknowledged(1));
+		assertTrue(result.acknowledged(2));
+		assertEquals("admin", source.getRows("people")[2][1]);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		source = new InMemoryDataSource() {
+			@Override
+			public UpdateResult update(final String serviceName, final TableManager config, final List<UpdateInfo> updates) {
+				applied.incrementAndGet();
+				try {
+					Thread.sleep(updateDelay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.update(serviceName, config, updates);
+			}
+		};
+		source.setRows("people", new String[][] { { "alice", "user" }, { "bob", "user" }, { "carol", "guest" } });
+		server = new LocalTableServer(0, "test", source);
+		server.addService("people", peopleConfig());
+		server.start();
+		client = new AutoTableClient(server.getHost(), server.getServletName(), "user", "pw");
+	}
+
+	@Override
+	protected void tearDown() {
+		server.stop();
+	}
+
+	private TableManager peopleConfig() {
+		Properties props = new Properties();
+		props.setProperty(TableManager.COLUMNS, "name role");
+		props.setProperty("column.name.dataType", "String");
+		props.setProperty("column.name.editType", "Text");
+		props.setProperty("column.role.dataType", "String");
+		props.setProperty("column.role.editType", "Combo");
+		props.setProperty("column.role.valueQuery", "select distinct role from people");
+		props.setProperty(TableManager.KEY_FIELDS, "name");
+		return new TableManager(props);
+	}
+
+	private UpdateInfo update(final String name, final String role) {
+		Map<String, String> keys = new HashMap<>();
+		keys.put("name", name);
+		Map<String, String> values = new HashMap<>();
+		values.put("role", role);
+		UpdateInfo info = new UpdateInfo();
+		info.setKeys(keys);
+		info.setUpdates(values);
+		return info;
+	}
+}
@@ -0,0 +1,95 @@
+package net.thomasnardone.ui.server;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.rest.TableDataSink;
+import net.thomasnardone.ui.table.TableManager;
+
+public class SyntheticTableGeneratorTest extends TestCase {
+
+	public void testColumnSettings() {
+		SyntheticTableGenerator generator = new SyntheticTableGenerator(config(20000));
+		int nulls = 0;
+		int topLevel = 0;
+		Set<String> levels = new HashSet<>();
+		for (int row = 0; row < generator.getRowCount(); row++) {
+			String[] values = generator.getRow(row);
+			assertTrue(values[1].length() >= 3 && values[1].length() <= 5);
+			if (values[2] == null) {
+				nulls++;
+			}
+			levels.add(values[3]);
+			if ("1".equals(values[3])) {
+				topLevel++;
+			}
+		}
+		assertEquals(2000, nulls, 300);
+		assertEquals(10, levels.size());
+		// the most common of 10 Zipf values gets about a third of the rows
+		assertEquals(6800, topLevel, 500);
+		assertEquals(10, generator.getTableInfo().getColumns().get(3).getValues().size());
+	}
+
+	public void testDeterministic() {
+		SyntheticTableGenerator first = new SyntheticTableGenerator(config(500));
+		SyntheticTableGenerator second = new SyntheticTableGenerator(config(500));
+		assertTrue(Arrays.deepEquals(first.toArray(), second.toArray()));
+		assertTrue(Arrays.equals(first.getRow(321), second.getRow(321)));
+
+		Properties props = new Properties();
+		props.setProperty(SyntheticTableGenerator.SEED, "7");
+		assertFalse(Arrays.equals(first.getRow(1), new SyntheticTableGenerator(config(500, props)).getRow(1)));
+	}
+
+	public void testStreamsUniqueKeys() {
+		final Set<String> keys = new HashSet<>();
+		final int[] rows = new int[1];
+		new SyntheticTableGenerator(config(0), 50000).generate(new TableDataSink() {
+			private int	column;
+
+			@Override
+			public void addCell(final String value) {
+				if (column++ == 0) {
+					keys.add(value);
+				}
+			}
+
+			@Override
+			public void endRow() {
+				rows[0]++;
+				column = 0;
+			}
+		});
+		assertEquals(50000, rows[0]);
+		assertEquals(50000, keys.size());
+	}
+
+	private TableManager config(final int rows) {
+		return config(rows, new Properties());
+	}
+
+	private TableManager config(final int rows, final Properties props) {
+		props.setProperty(TableManager.COLUMNS, "id name amount level");
+		props.setProperty(TableManager.KEY_FIELDS, "id");
+		props.setProperty(SyntheticTableGenerator.ROWS, Integer.toString(rows));
+		props.setProperty("column.id.dataType", "String");
+		props.setProperty("column.id.editType", "ReadOnly");
+		props.setProperty("column.name.dataType", "String");
+		props.setProperty("column.name.editType", "Text");
+		props.setProperty("column.name.minLength", "3");
+		props.setProperty("column.name.maxLength", "5");
+		props.setProperty("column.amount.dataType", "Double");
+		props.setProperty("column.amount.editType", "Text");
+		props.setProperty("column.amount.nullRate", "0.1");
+		props.setProperty("column.level.dataType", "Integer");
+		props.setProperty("column.level.editType", "Combo");
+		props.setProperty("column.level.min", "1");
+		props.setProperty("column.level.cardinality", "10");
+		props.setProperty("column.level.distribution", "Zipf");
+		return new TableManager(props);
+	}
+}
@@ -0,0 +1,325 @@
+package net.thomasnardone.ui.server.jdbc;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.rest.Page;
+import net.thomasnardone.ui.rest.PageRequest;
+import net.thomasnardone.ui.rest.RowOrder;
+import net.thomasnardone.ui.rest.RowStatus;
+import net.thomasnardone.ui.rest.SortSpec;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+import net.thomasnardone.ui.server.RowWriter;
+import net.thomasnardone.ui.table.TableManager;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+public class JdbcTableServiceTest extends TestCase {
+	private TableManager		config;
+	private JdbcDataSource		dataSource;
+	private JdbcTableService	service;
+
+	public void testBatchedUpdate() throws Exception {
+		service.setBatchSize(2);
+		List<UpdateInfo> updates = new ArrayList<>();
+		updates.add(update("Achillea", "request", "1"));
+		updates.add(update("Astilbe", "source", "Walters"));
+		updates.add(update("Aster", "request", "3"));
+		updates.add(update("Coreopsis", "request", "four"));
+		updates.add(update("Delosperma", "request", "5"));
+		updates.add(update("Nobody", "request", "6"));
+		UpdateResult result = service.update("plants", config, updates);
+
+		assertTrue(Arrays.equals(new RowStatus[] { RowStatus.Applied, RowStatus.Applied, RowStatus.Applied, RowStatus.Invalid,
+				RowStatus.Applied, RowStatus.NotFound }, result.getStatuses()));
+		assertEquals(5, requestFor("Delosperma"));
+		PooledConnection connection = service.getPool().borrow();
+		assertEquals(2, connection.getStatementCount());
+		service.getPool().release(connection, false);
+	}
+
+	public void testCloseWhileBorrowed() throws Exception {
+		PooledConnection connection = service.getPool().borrow();
+		service.close();
+		assertEquals(1, service.getPool().getOpenCount());
+		service.getPool().release(connection, false);
+		assertEquals(0, service.getPool().getOpenCount());
+		try {
+			service.getPool().borrow();
+			fail("Borrowed from a closed pool");
+		} catch (SQLException e) {
+			assertEquals(0, service.getPool().getOpenCount());
+		}
+	}
+
+	public void testFailedRowRollsBack() throws Exception {
+		List<UpdateInfo> updates = new ArrayList<>();
+		updates.add(update("Achillea", "request", "1"));
+		updates.add(update("Aster", "source", "A source name far too long for the forty character column"));
+		updates.add(update("Coreopsis", "request", "3"));
+		UpdateResult result = service.update("plants", config, updates);
+
+		assertEquals(RowStatus.Failed, result.getStatus(1));
+		assertEquals(RowStatus.RolledBack, result.getStatus(0));
+		assertEquals(RowStatus.RolledBack, result.getStatus(2));
+		assertEquals(0, result.acknowledgedCount());
+		assertEquals(800, requestFor("Achillea"));
+	}
+
+	public void testFailedRowStopsBatch() throws Exception {
+		service.close();
+		service = new JdbcTableService((DataSource) StopAtFirstFailure.wrap(dataSource, DataSource.class), 2, 8);
+		List<UpdateInfo> updates = new ArrayList<>();
+		updates.add(update("Achillea", "request", "1"));
+		updates.add(update("Aster", "request", "2"));
+		updates.add(update("Coreopsis", "source", "A source name far too long for the forty character column"));
+		updates.add(update("Delosperma", "source", "Aris"));
+		updates.add(update("Delosperma", "source", "Centerton"));
+		UpdateResult result = service.update("plants", config, updates);
+
+		assertTrue(Arrays.equals(new RowStatus[] { RowStatus.RolledBack, RowStatus.RolledBack, RowStatus.Failed,
+				RowStatus.RolledBack, RowStatus.RolledBack }, result.getStatuses()));
+		assertEquals(800, requestFor("Achillea"));
+	}
+
+	public void testInfoHasValueLists() {
+		TableInfo info = service.getTableInfo("plants", config);
+		assertEquals(Arrays.asList("Aris", "Centerton"), info.getColumns().get(1).getValues());
+		assertEquals(Arrays.asList("Aris", "Centerton"), info.getFilters().get(0).getValues());
+		assertNull(info.getColumns().get(0).getValues());
+	}
+
+	public void testPagesMatchInMemoryOrder() throws Exception {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("insert into plant values ('Baptisia', null, 800), ('Echinacea', 'Aris', 1100), "
+					+ "('Gaillardia', null, null)");
+		}
+		final List<String[]> all = new ArrayList<>();
+		service.writeData("plants", config, new RowWriter() {
+			@Override
+			public void writeRow(final String[] values) {
+				all.add(values.clone());
+			}
+		});
+		for (int i = 0; i < 4; i++) {
+			final boolean descending = (i & 1) != 0;
+			service.setNullsClauses(i < 2); // H2 sorts nulls low without them too
+			List<SortSpec> sort = Arrays.asList(new SortSpec("source", descending), new SortSpec("request", !descending));
+			String[][] expected = new RowOrder(config.getColumns(), sort, Arrays.asList("genus")).page(
+					all.toArray(new String[all.size()][]), new PageRequest(sort, null, 0)).getRows();
+			List<String[]> paged = new ArrayList<>();
+			Map<String, String> after = null;
+			do {
+				Page page = service.getPage("plants", config, new PageRequest(sort, after, 3));
+				assertTrue(page.getRows().length <= 3);
+				paged.addAll(Arrays.asList(page.getRows()));
+				after = page.getNext();
+			} while (after != null);
+			assertTrue(Arrays.deepEquals(expected, paged.toArray(new String[paged.size()][])));
+		}
+		try {
+			List<SortSpec> sort = Arrays.asList(new SortSpec("genus; drop table plant", false));
+			service.getPage("plants", config, new PageRequest(sort, null, 3));
+			fail("Sorted by a column the table doesn't have");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testSeekUsesIndex() throws Exception {
+		Map<String, String> after = new HashMap<>();
+		after.put("genus", "Aster");
+		after.put("request", "500");
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("create index plant_request on plant (request)");
+			String plan = explain(connection, new SortSpec("request", false), after);
+			assertTrue(plan, plan.matches("(?s).*PLANT_REQUEST: REQUEST >= \\?.*"));
+			plan = explain(connection, new SortSpec("genus", true), after);
+			assertTrue(plan, plan.matches("(?s).*PRIMARY_KEY_\\w*: GENUS <= \\?.*"));
+		}
+		List<SortSpec> sort = Collections.singletonList(new SortSpec("request", true));
+		PageQuery descending = new PageQuery(config, new RowOrder(config.getColumns(), sort, Arrays.asList("genus")),
+				new PageRequest(sort, after, 3), JdbcTableService.DEFAULT_LIMIT_CLAUSE, true);
+		assertTrue(descending.getSql().contains(" where (request <= ? or request is null) and "));
+		assertTrue(descending.getSql().endsWith(" order by request desc nulls last, genus fetch first ? rows only"));
+	}
+
+	public void testStreamsRows() throws IOException {
+		service.setFetchSize(2);
+		final List<String[]> rows = new ArrayList<>();
+		service.writeData("plants", config, new RowWriter() {
+			@Override
+			public void writeRow(final String[] values) {
+				rows.add(values.clone());
+			}
+		});
+		assertEquals(5, rows.size());
+		assertTrue(Arrays.equals(new String[] { "Astilbe", "Aris", "1100" }, rows.get(2)));
+		assertNull(rows.get(4)[2]);
+	}
+
+	public void testUpdate() throws Exception {
+		List<UpdateInfo> updates = new ArrayList<>();
+		updates.add(update("Achillea", "request", "900"));
+		updates.add(update("Nobody", "request", "1"));
+		updates.add(update("Coreopsis", "source; drop table plant", "x"));
+		updates.add(update("Coreopsis", "request", "2500"));
+		UpdateResult result = service.update("plants", config, updates);
+
+		assertTrue(Arrays.equals(new boolean[] { true, false, false, true }, result.getAcknowledged()));
+		assertEquals(900, requestFor("Achillea"));
+		assertEquals(2500, requestFor("Coreopsis"));
+
+		service.update("plants", config, Arrays.asList(update("Aster", "request", "10")));
+		PooledConnection connection = service.getPool().borrow();
+		assertEquals(1, service.getPool().getOpenCount());
+		assertEquals(1, connection.getStatementCount());
+		service.getPool().release(connection, false);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1");
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("create table plant (genus varchar(40) primary key, source varchar(40), request int)");
+			statement.execute("insert into plant values ('Achillea', 'Centerton', 800), ('Astilbe', 'Aris', 1100), "
+					+ "('Aster', 'Centerton', 500), ('Coreopsis', 'Centerton', 3000), ('Delosperma', 'Aris', null)");
+		}
+		Properties props = new Properties();
+		props.setProperty(TableManager.COLUMNS, "genus source request");
+		props.setProperty("column.genus.dataType", "String");
+		props.setProperty("column.genus.editType", "ReadOnly");
+		props.setProperty("column.source.dataType", "String");
+		props.setProperty("column.source.editType", "Combo");
+		props.setProperty("column.source.valueQuery", "select distinct source from plant order by source");
+		props.setProperty("column.request.dataType", "Integer");
+		props.setProperty("column.request.editType", "Text");
+		props.setProperty(TableManager.FILTER_ROWS, "1");
+		props.setProperty("filter.row0", "source");
+		props.setProperty("filter.source.type", "Combo");
+		props.setProperty(TableManager.QUERY, "select genus, source, request from plant order by genus");
+		props.setProperty(TableManager.UPDATE_TABLE, "plant");
+		props.setProperty(TableManager.KEY_FIELDS, "genus");
+		config = new TableManager(props);
+		service = new JdbcTableService(dataSource, 2, 8);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		service.close();
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("drop all objects");
+		}
+	}
+
+	public void testValueListsCachedUntilTableUpdated() throws Exception {
+		service.getTableInfo("plants", config);
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("insert into plant values ('Baptisia', 'Walters', 800)");
+		}
+		JdbcTableService other = new JdbcTableService(service);
+		assertEquals(2, other.getTableInfo("other", config).getColumns().get(1).getValues().size());
+
+		service.update("plants", config, Arrays.asList(update("Aster", "request", "600")));
+		assertEquals(Arrays.asList("Aris", "Centerton", "Walters"), other.getTableInfo("other", config).getColumns().get(1)
+				.getValues());
+		assertEquals(new HashSet<>(Arrays.asList("dbo.plant", "plant", "detail")),
+				ValueListResolver.tablesIn("select x from \"dbo\".plant p join DETAIL d on p.id = d.id"));
+	}
+
+	/**
+	 * @return H2's plan for the page after <tt>after</tt> in the given order.
+	 */
+	private String explain(final Connection connection, final SortSpec spec, final Map<String, String> after)
+			throws SQLException {
+		List<SortSpec> sort = Collections.singletonList(spec);
+		PageQuery query = new PageQuery(config, new RowOrder(config.getColumns(), sort, Arrays.asList("genus")), new PageRequest(
+				sort, after, 3), JdbcTableService.DEFAULT_LIMIT_CLAUSE, true);
+		try (PreparedStatement statement = connection.prepareStatement("explain " + query.getSql())) {
+			query.bind(statement);
+			try (ResultSet results = statement.executeQuery()) {
+				results.next();
+				return results.getString(1);
+			}
+		}
+	}
+
+	private int requestFor(final String genus) throws Exception {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+				ResultSet results = statement.executeQuery("select request from plant where genus = '" + genus + "'")) {
+			results.next();
+			return results.getInt(1);
+		}
+	}
+
+	private UpdateInfo update(final String genus, final String column, final String value) {
+		Map<String, String> keys = new HashMap<>();
+		keys.put("genus", genus);
+		Map<String, String> values = new HashMap<>();
+		values.put(column, value);
+		UpdateInfo info = new UpdateInfo();
+		info.setKeys(keys);
+		info.setUpdates(values);
+		return info;
+	}
+
+	/**
+	 * Acts like a driver that stops a batch at its first failing row, so the exception only counts the rows before it.
+	 */
+	private static final class StopAtFirstFailure implements InvocationHandler {
+		private final Object	target;
+
+		private StopAtFirstFailure(final Object target) {
+			this.target = target;
+		}
+
+		public static Object wrap(final Object target, final Class<?> type) {
+			return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new StopAtFirstFailure(target));
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			final Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				if (!(e.getCause() instanceof BatchUpdateException)) {
+					throw e.getCause();
+				}
+				final int[] counts = ((BatchUpdateException) e.getCause()).getUpdateCounts();
+				int ran = 0;
+				while ((ran < counts.length) && (counts[ran] != Statement.EXECUTE_FAILED)) {
+					ran++;
+				}
+				throw new BatchUpdateException(Arrays.copyOf(counts, ran), e.getCause());
+			}
+			if (result instanceof PreparedStatement) {
+				return wrap(result, PreparedStatement.class);
+			}
+			return result instanceof Connection ? wrap(result, Connection.class) : result;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package net.thomasnardone.ui.swing;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class PrefixKeySelectionManagerTest extends TestCase {
+	public void testCycleSameLetter() {
+		OrderedComboModel<String> model = new OrderedComboModel<>(Arrays.asList("", "bravo", "alpha", "beta", "apple"));
+		PrefixKeySelectionManager manager = new PrefixKeySelectionManager();
+		assertEquals(2, select(manager, 'a', model, 0));
+		assertEquals(4, select(manager, 'a', model, 100));
+		assertEquals(2, select(manager, 'a', model, 200));
+		assertEquals(3, select(manager, 'b', model, 5000));
+	}
+
+	public void testPrefix() {
+		OrderedComboModel<String> model = new OrderedComboModel<>(Arrays.asList("", "Carol", "carl", "Bob", "Alice", "Cara"));
+		PrefixKeySelectionManager manager = new PrefixKeySelectionManager();
+		assertEquals(5, select(manager, 'c', model, 0));
+		assertEquals(5, select(manager, 'a', model, 100));
+		assertEquals(5, select(manager, 'r', model, 200));
+		assertEquals(1, select(manager, 'o', model, 300));
+		assertEquals(-1, select(manager, 'x', model, 400));
+		assertEquals(4, select(manager, 'a', model, 2000));
+
+		model.addItem("Aaron");
+		assertEquals(6, select(manager, 'a', model, 5000));
+	}
+
+	private int select(final PrefixKeySelectionManager manager, final char key, final OrderedComboModel<String> model,
+			final long time) {
+		final int index = manager.selectionForKey(key, model, time);
+		if (index >= 0) {
+			model.setSelectedItem(model.getElementAt(index));
+		}
+		return index;
+	}
+}
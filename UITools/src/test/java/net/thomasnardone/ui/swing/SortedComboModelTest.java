@@ -0,0 +1,79 @@
+package net.thomasnardone.ui.swing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import junit.framework.TestCase;
+
+public class SortedComboModelTest extends TestCase {
+	private final List<String>	events	= new ArrayList<>();
+
+	public void testBulkLoadSortedOnce() {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 100000; i > 0; i--) {
+			values.add(i);
+		}
+		SortedComboModel<Integer> model = new SortedComboModel<>(values);
+		assertEquals(100000, model.getSize());
+		assertEquals(Integer.valueOf(1), model.getElementAt(0));
+		assertEquals(41, model.indexOf(42));
+		assertEquals(-1, model.indexOf(0));
+	}
+
+	public void testEvents() {
+		SortedComboModel<String> model = new SortedComboModel<>(Arrays.asList("m", "c"));
+		model.addListDataListener(new Recorder());
+		model.addItem("f");
+		model.addAll(Arrays.asList("z", "a"));
+		model.removeItem("c");
+		model.setSelectedItem("m");
+		model.setSelectedItem("m");
+		assertEquals(Arrays.asList("1:1-1", "1:3-4", "0:0-2", "2:1-1", "0:-1--1"), events);
+		assertEquals(Arrays.asList("a", "f", "m", "z"), contents(model));
+	}
+
+	public void testOrderedModel() {
+		OrderedComboModel<String> model = new OrderedComboModel<>(Arrays.asList("b", "a", "b"));
+		model.addListDataListener(new Recorder());
+		assertEquals(0, model.indexOf("b"));
+		model.addItem("c");
+		assertEquals(3, model.indexOf("c"));
+		model.removeItem("b");
+		assertEquals(1, model.indexOf("b"));
+		assertEquals(-1, model.indexOf("x"));
+		assertEquals(Arrays.asList("1:3-3", "2:0-0"), events);
+	}
+
+	private List<String> contents(final SortedComboModel<String> model) {
+		List<String> items = new ArrayList<>();
+		for (int i = 0; i < model.getSize(); i++) {
+			items.add(model.getElementAt(i));
+		}
+		return items;
+	}
+
+	private class Recorder implements ListDataListener {
+		@Override
+		public void contentsChanged(final ListDataEvent e) {
+			record(e);
+		}
+
+		@Override
+		public void intervalAdded(final ListDataEvent e) {
+			record(e);
+		}
+
+		@Override
+		public void intervalRemoved(final ListDataEvent e) {
+			record(e);
+		}
+
+		private void record(final ListDataEvent e) {
+			events.add(e.getType() + ":" + e.getIndex0() + "-" + e.getIndex1());
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package net.thomasnardone.ui.table;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.ChangeType;
+import net.thomasnardone.ui.DataType;
+import net.thomasnardone.ui.EditType;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.FormatInfo;
+import net.thomasnardone.ui.rest.RowChange;
+import net.thomasnardone.ui.rest.TableDataDecoder;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+
+public class AutoTableModelTest extends TestCase {
+
+	public void testAcknowledgeKeepsNewerEdits() {
+		AutoTableModel model = newModel();
+		model.setData(new String[][] { { "a", "1" }, { "b", "2" } });
+		model.setValueAt("5", 0, 1);
+		model.setValueAt("c", 1, 0);
+		int[] rows = model.getChangedRows();
+		List<UpdateInfo> changes = model.getChanges(rows);
+		assertEquals("b", changes.get(1).getKeys().get("name"));
+		model.setValueAt("6", 0, 1);
+
+		assertTrue(model.acknowledge(changes, UpdateResult.of(2, true, null)));
+		assertTrue(model.isDirty(0, 1));
+		assertFalse(model.isDirty(1, 0));
+		assertEquals(1, model.getChangedRows().length);
+		assertEquals("a", model.getChanges().get(0).getKeys().get("name"));
+		model.setValueAt("9", 1, 1);
+		assertEquals("c", model.getChanges().get(1).getKeys().get("name"));
+	}
+
+	public void testAcknowledgeNullValue() {
+		AutoTableModel model = newModel();
+		model.setData(new String[][] { { "a", "1" } });
+		model.setValueAt("5", 0, 1);
+		int[] rows = model.getChangedRows();
+		List<UpdateInfo> changes = model.getChanges(rows);
+		changes.get(0).getUpdates().put("count", null);
+
+		assertTrue(model.acknowledge(changes, UpdateResult.of(1, true, null)));
+		assertTrue(model.isDirty(0, 1));
+	}
+
+	public void testAcknowledgeAfterRemoteDelete() {
+		AutoTableModel model = newModel();
+		model.setData(new String[][] { { "a", "1" }, { "b", "2" }, { "c", "3" } });
+		model.setValueAt("5", 2, 1);
+		List<UpdateInfo> changes = model.getChanges();
+		model.setValueAt("6", 1, 1);
+		model.applyChanges(Collections.singletonList(change(ChangeType.Delete, "a", null, null)));
+		assertEquals("c", model.getStringAt(1, 0));
+
+		assertTrue(model.acknowledge(changes, UpdateResult.of(1, true, null)));
+		assertFalse(model.isDirty(1, 1));
+		assertTrue(model.isDirty(0, 1));
+		assertEquals("b", model.getChanges().get(0).getKeys().get("name"));
+	}
+
+	public void testApplyChanges() {
+		AutoTableModel model = newModel();
+		model.setData(new String[][] { { "a", "1" }, { "b", "2" }, { "c", "3" } });
+		model.setValueAt("5", 0, 1);
+		List<RowChange> changes = new ArrayList<>();
+		changes.add(change(ChangeType.Update, "a", "count", "7"));
+		changes.add(change(ChangeType.Update, "c", "count", "8"));
+		changes.add(change(ChangeType.Delete, "b", null, null));
+		changes.add(change(ChangeType.Insert, "d", "count", "9"));
+		model.applyChanges(changes);
+
+		assertEquals(3, model.getRowCount());
+		assertEquals("5", model.getStringAt(0, 1));
+		assertTrue(model.isDirty(0, 1));
+		assertEquals("c", model.getStringAt(1, 0));
+		assertEquals("8", model.getStringAt(1, 1));
+		assertEquals("d", model.getStringAt(2, 0));
+		assertEquals("9", model.getStringAt(2, 1));
+	}
+
+	public void testCoalescedEvents() {
+		AutoTableModel model = newModel();
+		String[][] rows = new String[10][];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = new String[] { "k" + i, "0" };
+		}
+		model.setData(rows);
+		final List<String> events = new ArrayList<>();
+		model.addTableModelListener(new TableModelListener() {
+			@Override
+			public void tableChanged(final TableModelEvent e) {
+				events.add(e.getType() + ":" + e.getFirstRow() + "-" + e.getLastRow() + ":" + e.getColumn());
+			}
+		});
+		model.setEventFrameRate(1);
+		model.fireTableCellUpdated(2, 1);
+		model.fireTableCellUpdated(3, 1);
+		model.fireTableRowsUpdated(7, 8);
+		model.fireTableCellUpdated(2, 1);
+		assertTrue(events.isEmpty());
+		model.flushEvents();
+		assertEquals(Arrays.asList("0:2-3:-1", "0:7-8:-1"), events);
+
+		events.clear();
+		model.fireTableCellUpdated(4, 1);
+		model.fireTableCellUpdated(5, 1);
+		model.fireTableRowsInserted(10, 10);
+		assertEquals(Arrays.asList("0:4-5:1", "1:10-10:-1"), events);
+
+		events.clear();
+		model.fireTableCellUpdated(1, 1);
+		model.fireTableDataChanged();
+		model.flushEvents();
+		assertEquals(Arrays.asList("0:0-" + Integer.MAX_VALUE + ":-1"), events);
+
+		events.clear();
+		model.fireTableCellUpdated(6, 0);
+		model.setValueAt("5", 1, 1);
+		assertEquals(Arrays.asList("0:1-1:-1", "0:6-6:-1"), events);
+	}
+
+	public void testDecodeIntoModel() throws Exception {
+		AutoTableModel model = newModel();
+		AutoTableModel.DataLoader loader = model.newLoader();
+		String json = "[[\"a\",\"1\"],[\"a\",null],[\"b\",3,\"extra\"],[\"c\"]]";
+		TableDataDecoder.decode(new ByteArrayInputStream(json.getBytes("UTF-8")), loader);
+		assertEquals(0, model.getRowCount());
+		model.setData(loader);
+
+		assertEquals(4, model.getRowCount());
+		assertEquals("a", model.getStringAt(1, 0));
+		assertSame(model.getStringAt(0, 0), model.getStringAt(1, 0));
+		assertNull(model.getStringAt(1, 1));
+		assertEquals("3", model.getStringAt(2, 1));
+		assertNull(model.getStringAt(3, 1));
+		assertEquals(0, model.getChangedRows().length);
+	}
+
+	public void testPartialAcknowledge() {
+		AutoTableModel model = newModel();
+		model.setData(new String[][] { { "a", "1" }, { "b", "2" } });
+		model.setValueAt("5", 0, 1);
+		model.setValueAt("6", 1, 1);
+		int[] rows = model.getChangedRows();
+		assertTrue(Arrays.equals(new int[] { 0, 1 }, rows));
+
+		assertFalse(model.acknowledge(model.getChanges(rows), new UpdateResult(new boolean[] { false, true }, null)));
+		assertTrue(Arrays.equals(new int[] { 0 }, model.getChangedRows()));
+	}
+
+	private RowChange change(final ChangeType type, final String key, final String column, final String value) {
+		Map<String, String> values = new HashMap<>();
+		values.put("name", key);
+		if (column != null) {
+			values.put(column, value);
+		}
+		return new RowChange(type, Collections.singletonMap("name", key), values);
+	}
+
+	private ColumnInfo column(final String name, final DataType type) {
+		ColumnInfo info = new ColumnInfo();
+		info.setName(name);
+		info.setDisplayName(name);
+		info.setDataType(type);
+		info.setEditType(EditType.Text);
+		return info;
+	}
+
+	private AutoTableModel newModel() {
+		List<ColumnInfo> columns = new ArrayList<>();
+		columns.add(column("name", DataType.String));
+		columns.add(column("count", DataType.String));
+		return new AutoTableModel(columns, Collections.<FormatInfo> emptyList(), Arrays.asList("name"));
+	}
+}
@@ -0,0 +1,78 @@
+package net.thomasnardone.ui.table;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.DataType;
+import net.thomasnardone.ui.EditType;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.FormatInfo;
+
+import org.jdesktop.swingx.JXTable;
+
+public class ColumnWidthEstimatorTest extends TestCase {
+	private AutoTableModel	model;
+	private JXTable			table;
+
+	public void testLongestValueMeasured() {
+		String[][] rows = rows(5000);
+		rows[3777][1] = "a far longer description than any other row of the table has";
+		model.setData(rows);
+		ColumnWidthEstimator estimator = new ColumnWidthEstimator(20);
+		int[] widths = estimator.estimate(getName(), table, model);
+
+		rows[3777][1] = "short";
+		model.setData(rows);
+		int[] narrower = estimator.estimate(getName(), table, model);
+		assertTrue(Arrays.toString(widths) + " vs " + Arrays.toString(narrower), widths[1] > (2 * narrower[1]));
+		assertEquals(widths[0], narrower[0]);
+		assertEquals(2, estimator.getMeasureCount());
+	}
+
+	public void testReusedUntilDataChanges() {
+		model.setData(rows(1000));
+		ColumnWidthEstimator estimator = new ColumnWidthEstimator(20);
+		estimator.apply(getName(), table);
+		int width = table.getColumn(1).getPreferredWidth();
+
+		model.setData(rows(1000));
+		estimator.apply(getName(), table);
+		new ColumnWidthEstimator(20).estimate(getName(), table, model);
+		assertEquals(1, estimator.getMeasureCount());
+		assertEquals(width, table.getColumn(1).getPreferredWidth());
+
+		String[][] wider = rows(1000);
+		for (String[] row : wider) {
+			row[1] += row[1];
+		}
+		model.setData(wider);
+		estimator.apply(getName(), table);
+		assertEquals(2, estimator.getMeasureCount());
+		assertTrue(table.getColumn(1).getPreferredWidth() > width);
+	}
+
+	@Override
+	protected void setUp() {
+		model = new AutoTableModel(Arrays.asList(column("id", DataType.Integer), column("description", DataType.String)),
+				Collections.<FormatInfo> emptyList(), Collections.singletonList("id"));
+		table = new JXTable(model);
+	}
+
+	private ColumnInfo column(final String name, final DataType dataType) {
+		ColumnInfo column = new ColumnInfo();
+		column.setName(name);
+		column.setDisplayName(name);
+		column.setDataType(dataType);
+		column.setEditType(EditType.Text);
+		return column;
+	}
+
+	private String[][] rows(final int count) {
+		String[][] rows = new String[count][];
+		for (int i = 0; i < count; i++) {
+			rows[i] = new String[] { Integer.toString(i % 100), "item " + (i % 7) };
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,55 @@
+package net.thomasnardone.ui.table;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.DataType;
+import net.thomasnardone.ui.EditType;
+import net.thomasnardone.ui.rest.ColumnInfo;
+import net.thomasnardone.ui.rest.FormatInfo;
+
+public class DisplayStringCacheTest extends TestCase {
+	public void testBounded() {
+		DisplayStringCache cache = new DisplayStringCache(100);
+		for (int row = 0; row < 1000; row++) {
+			cache.put(row, 0, "row " + row);
+			cache.get(0, 0);
+		}
+		assertEquals(100, cache.size());
+		assertEquals("row 0", cache.get(0, 0));
+		assertEquals("row 999", cache.get(999, 0));
+		assertNull(cache.get(500, 0));
+	}
+
+	public void testInvalidatedByModel() {
+		ColumnInfo name = new ColumnInfo();
+		name.setName("name");
+		name.setDataType(DataType.String);
+		name.setEditType(EditType.Text);
+		ColumnInfo role = new ColumnInfo(name);
+		role.setName("role");
+		AutoTableModel model = new AutoTableModel(Arrays.asList(name, role), Collections.<FormatInfo> emptyList(),
+				Collections.singletonList("name"));
+		model.setData(new String[][] { { "alice", "user" }, { "bob", "user" } });
+		DisplayStringCache cache = new DisplayStringCache(100);
+		model.addTableModelListener(cache);
+		for (int row = 0; row < 2; row++) {
+			for (int column = 0; column < 2; column++) {
+				cache.put(row, column, model.getStringAt(row, column));
+			}
+		}
+
+		model.setValueAt("admin", 1, 1);
+		assertNull(cache.get(1, 1));
+		assertEquals("bob", cache.get(1, 0));
+		assertEquals("user", cache.get(0, 1));
+
+		model.fireTableRowsUpdated(0, 0);
+		assertNull(cache.get(0, 0));
+		assertEquals("bob", cache.get(1, 0));
+
+		model.setData(new String[][] { { "carol", "guest" } });
+		assertEquals(0, cache.size());
+	}
+}
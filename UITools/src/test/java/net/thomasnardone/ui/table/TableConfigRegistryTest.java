@@ -0,0 +1,112 @@
+package net.thomasnardone.ui.table;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import junit.framework.TestCase;
+
+public class TableConfigRegistryTest extends TestCase {
+	private static final String	CONFIG	= "columns=name role\n" + "column.name.dataType=String\n" + "column.name.editType=Text\n"
+												+ "column.role.dataType=String\n" + "column.role.editType=Combo\n"
+												+ "keyFields=name\n";
+
+	private Path				directory;
+	private Path				file;
+	private final List<String>	reports	= new CopyOnWriteArrayList<>();
+	private TableConfigRegistry	registry;
+
+	public void testBadEditKeepsLastVersion() throws Exception {
+		TableConfig first = registry.get(file);
+		write(CONFIG + "column.role.dataType=Colour\n");
+		assertSame(first, registry.reload(file));
+		write(CONFIG + "keyFields=nobody\n");
+		assertSame(first, registry.reload(file));
+		assertFalse(reports.isEmpty()); // the watcher may report the same edits again
+		for (String report : reports) {
+			assertTrue(report, report.startsWith("rejected 1: Invalid table config"));
+		}
+		try {
+			new TableConfigRegistry().get(file);
+			fail("Loaded a config with a key field that is not a column");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("nobody"));
+		}
+	}
+
+	public void testCachedUntilChanged() throws Exception {
+		TableConfig first = registry.get(file);
+		assertSame(first, registry.get(directory.resolve(".").resolve(file.getFileName())));
+		assertSame(first, registry.reload(file));
+		assertEquals(2, first.getTableInfo().getColumns().size());
+		assertNotSame(first.getTableInfo().getColumns().get(0), first.getTableInfo().getColumns().get(0));
+
+		write(CONFIG + "column.size.dataType=String\ncolumn.size.editType=Text\ncolumns=name role size\n");
+		TableConfig second = registry.reload(file);
+		assertEquals(2, second.getVersion());
+		assertEquals(3, second.getManager().getColumns().size());
+		assertEquals("[reloaded 2]", reports.toString());
+
+		TableManager copy = second.getManager();
+		copy.setQuery("select * from elsewhere");
+		copy.getColumns().get(0).setValueQuery("select 1");
+		assertNull(second.getManager().getQuery());
+		assertNull(second.getManager().getColumn("name").getValueQuery());
+	}
+
+	public void testWatcherReloads() throws Exception {
+		registry.get(file);
+		Path edited = directory.resolve("edited.tmp");
+		Files.write(edited, (CONFIG + "updateTable=people\n").getBytes(StandardCharsets.ISO_8859_1));
+		Files.move(edited, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		final long deadline = System.currentTimeMillis() + 30000;
+		while ((registry.get(file).getVersion() == 1) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(50);
+		}
+		assertEquals("people", registry.get(file).getManager().getUpdateTable());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = Files.createTempDirectory("table-config");
+		file = directory.resolve("people.properties");
+		write(CONFIG);
+		registry = new TableConfigRegistry();
+		registry.addReloadListener(new TableConfigRegistry.ReloadListener() {
+			@Override
+			public void configRejected(final TableConfig kept, final IOException cause) {
+				reports.add("rejected " + kept.getVersion() + ": " + cause.getMessage());
+			}
+
+			@Override
+			public void configReloaded(final TableConfig config) {
+				reports.add("reloaded " + config.getVersion());
+			}
+
+			@Override
+			public void watchFailed(final Path watched, final IOException cause) {
+				reports.add("unwatched " + watched);
+			}
+		});
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		registry.close();
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(directory);
+	}
+
+	/**
+	 * Replace the config in one step, so the watcher never reads it half written.
+	 */
+	private void write(final String contents) throws IOException {
+		Path written = directory.resolve("written.tmp");
+		Files.write(written, contents.getBytes(StandardCharsets.ISO_8859_1));
+		Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
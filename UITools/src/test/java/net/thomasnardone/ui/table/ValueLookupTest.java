@@ -0,0 +1,189 @@
+package net.thomasnardone.ui.table;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+import net.thomasnardone.ui.rest.TableClient;
+import net.thomasnardone.ui.rest.TableInfo;
+import net.thomasnardone.ui.rest.UpdateInfo;
+import net.thomasnardone.ui.rest.UpdateResult;
+
+public class ValueLookupTest extends TestCase {
+	private static final List<String>	VALUES	= Arrays.asList("apple", "apricot", "avocado", "banana", "blueberry", "cherry",
+														"coconut");
+
+	private StubClient					client;
+	private final BlockingQueue<String>	found	= new LinkedBlockingQueue<>();
+
+	public void testCachedFromShorterCompleteAnswer() throws Exception {
+		ValueLookup lookup = new ValueLookup(client, "fruit", "name", 3);
+		lookup(lookup, "a");
+		assertEquals("a=[apple, apricot, avocado]", next());
+		lookup(lookup, "b");
+		assertEquals("b=[banana, blueberry]", next());
+		assertEquals(2, client.queries.size());
+
+		// "a" filled the limit, so it may have left values out
+		assertNull(cached(lookup, "ap"));
+		assertEquals(Collections.singletonList("blueberry"), cached(lookup, "BL"));
+		lookup(lookup, "blu");
+		assertEquals("blu=[blueberry]", found.poll());
+		assertEquals(2, client.queries.size());
+	}
+
+	public void testDebounceAndSupersede() throws Exception {
+		final ValueLookup lookup = new ValueLookup(client, "fruit", "name");
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				lookup.lookup("a", new Found());
+				lookup.lookup("ap", new Found());
+				lookup.lookup("apr", new Found());
+			}
+		});
+		assertEquals("apr=[apricot]", next());
+		assertEquals(Arrays.asList("apr"), client.queries);
+
+		// a lookup still running when a newer one is asked for is dropped
+		CountDownLatch blocked = new CountDownLatch(1);
+		client.blocked = blocked;
+		lookup(lookup, "c");
+		assertTrue(client.started.poll(5, TimeUnit.SECONDS));
+		lookup(lookup, "co");
+		assertEquals("co=[coconut]", next());
+		blocked.countDown();
+		assertNull(found.poll(ValueLookup.DEBOUNCE_MILLIS * 2, TimeUnit.MILLISECONDS));
+		assertEquals(Arrays.asList("apr", "c", "co"), client.queries);
+	}
+
+	public void testFailureNotCached() throws Exception {
+		ValueLookup lookup = new ValueLookup(client, "fruit", "name");
+		client.failing = true;
+		lookup(lookup, "ch");
+		assertEquals("ch failed: no values", next());
+		client.failing = false;
+		lookup(lookup, "ch");
+		assertEquals("ch=[cherry]", next());
+		assertEquals(2, client.queries.size());
+	}
+
+	public void testLeastRecentlyUsedEvicted() throws Exception {
+		ValueLookup lookup = new ValueLookup(client, "fruit", "name");
+		lookup(lookup, "c");
+		next();
+		lookup(lookup, "b");
+		next();
+		// each answer derived from "c" is cached and uses "c", so "b" becomes the eldest entry
+		for (int i = 0; i < 64; i++) {
+			assertEquals(Collections.emptyList(), cached(lookup, String.format("cx%02d", i)));
+		}
+		assertEquals(Collections.singletonList("cherry"), cached(lookup, "ch"));
+		assertNull(cached(lookup, "b"));
+		assertNull(cached(lookup, "bl"));
+		assertEquals(2, client.queries.size());
+	}
+
+	@Override
+	protected void setUp() {
+		client = new StubClient();
+	}
+
+	private List<String> cached(final ValueLookup lookup, final String prefix) throws InterruptedException,
+			InvocationTargetException {
+		final List<List<String>> values = new ArrayList<>();
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				values.add(lookup.cached(prefix));
+			}
+		});
+		return values.get(0);
+	}
+
+	private void lookup(final ValueLookup lookup, final String prefix) throws InterruptedException, InvocationTargetException {
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				lookup.lookup(prefix, new Found());
+			}
+		});
+	}
+
+	private String next() throws InterruptedException {
+		String next = found.poll(5, TimeUnit.SECONDS);
+		assertNotNull("No answer", next);
+		return next;
+	}
+
+	private final class Found implements ValueLookup.Callback {
+		@Override
+		public void lookupFailed(final String prefix, final Exception cause) {
+			found.add(prefix + " failed: " + cause.getMessage());
+		}
+
+		@Override
+		public void valuesFound(final String prefix, final List<String> values) {
+			found.add(prefix + "=" + values);
+		}
+	}
+
+	/**
+	 * Answers from {@link ValueLookupTest#VALUES}, recording each prefix asked for.
+	 */
+	private static final class StubClient extends TableClient {
+		volatile CountDownLatch				blocked;
+		volatile boolean					failing;
+		final List<String>					queries	= Collections.synchronizedList(new ArrayList<String>());
+		final BlockingQueue<Boolean>		started	= new LinkedBlockingQueue<>();
+
+		@Override
+		public String[][] getData(final String serviceName) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public TableInfo getTableInfo(final String serviceName) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<String> getValues(final String serviceName, final String column, final String prefix, final int limit) {
+			queries.add(prefix);
+			final CountDownLatch latch = blocked;
+			blocked = null;
+			if (latch != null) {
+				started.add(true);
+				try {
+					latch.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					// cancelled; answer anyway, as a client blocked on the network would
+				}
+			}
+			if (failing) {
+				throw new IllegalStateException("no values");
+			}
+			List<String> values = new ArrayList<>();
+			for (String value : VALUES) {
+				if (value.regionMatches(true, 0, prefix, 0, prefix.length()) && ((limit <= 0) || (values.size() < limit))) {
+					values.add(value);
+				}
+			}
+			return values;
+		}
+
+		@Override
+		public UpdateResult updateTable(final String serviceName, final List<UpdateInfo> update) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package net.thomasnardone.ui.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class SingleFlightTest extends TestCase {
+
+	public void testConcurrentCallsShareOneExecution() throws Exception {
+		final SingleFlight<String, Integer> flight = new SingleFlight<>();
+		final AtomicInteger executions = new AtomicInteger();
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final Callable<Integer> call = new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				started.countDown();
+				release.await();
+				return executions.incrementAndGet();
+			}
+		};
+		final int[] results = new int[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					results[index] = flight.execute("key", call);
+				}
+			};
+			threads[i].start();
+			if (i == 0) {
+				started.await();
+			}
+		}
+		while (!allWaiting(threads)) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1, executions.get());
+		for (int result : results) {
+			assertEquals(1, result);
+		}
+		assertEquals(0, flight.getInFlightCount());
+	}
+
+	public void testExceptionPropagates() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		try {
+			flight.execute("key", new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					throw new IllegalStateException("boom");
+				}
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("boom", e.getMessage());
+		}
+		assertEquals(0, flight.getInFlightCount());
+	}
+
+	private boolean allWaiting(final Thread[] threads) {
+		for (Thread thread : threads) {
+			Thread.State state = thread.getState();
+			if ((state != Thread.State.WAITING) && (state != Thread.State.TIMED_WAITING)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
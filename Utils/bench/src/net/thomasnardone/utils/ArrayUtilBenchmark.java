@@ -0,0 +1,150 @@
+package net.thomasnardone.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.thomasnardone.utils.primitive.IntList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the {@link ArrayUtil} kernels and set operations against the branching loops, scans and copying inserts they
+ * replace. Run with <tt>mvn -Pbench test-compile exec:exec</tt>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayUtilBenchmark {
+	private static final int	INSERTS	= 1000;
+
+	@Param({ "1000", "100000" })
+	public int					size;
+
+	private int[]				array;
+	private int[]				large;
+	private int[][]				parts;
+	private int[]				small;
+	private int					target;
+
+	/**
+	 * What {@link ArrayUtil#count(int[], int)} replaces: a branch per element.
+	 */
+	private static int branchingCount(final int[] array, final int value) {
+		int count = 0;
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] == value) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int[] sortedSet(final Random random, final int size, final int bound) {
+		IntList list = new IntList(size);
+		for (int i = 0; i < size; i++) {
+			list.add(random.nextInt(bound));
+		}
+		list.sort();
+		int[] values = list.toArray();
+		int n = 0;
+		for (int i = 0; i < values.length; i++) {
+			if ((n == 0) || (values[n - 1] != values[i])) {
+				values[n++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, n);
+	}
+
+	@Benchmark
+	public int count() {
+		return ArrayUtil.count(array, target);
+	}
+
+	@Benchmark
+	public int countBranching() {
+		return branchingCount(array, target);
+	}
+
+	@Benchmark
+	public int[] insertCopying() {
+		int[] values = new int[0];
+		for (int i = 0; i < INSERTS; i++) {
+			values = ArrayUtil.insert(i, values, values.length / 2);
+		}
+		return values;
+	}
+
+	@Benchmark
+	public IntList insertIntList() {
+		IntList values = new IntList();
+		for (int i = 0; i < INSERTS; i++) {
+			values.add(values.size() / 2, i);
+		}
+		return values;
+	}
+
+	@Benchmark
+	public int[] intersect() {
+		return ArrayUtil.intersect(small, large);
+	}
+
+	/**
+	 * Intersecting with the existing methods: an {@link ArrayUtil#find(int, int[])} in the large set per value of the small one.
+	 */
+	@Benchmark
+	public int[] intersectByFind() {
+		IntList found = new IntList();
+		for (int value : small) {
+			if (ArrayUtil.find(value, large) > -1) {
+				found.add(value);
+			}
+		}
+		return found.toArray();
+	}
+
+	@Benchmark
+	public int[] merge() {
+		return ArrayUtil.merge(parts);
+	}
+
+	@Benchmark
+	public int[] mergeBySorting() {
+		IntList all = new IntList();
+		for (int[] part : parts) {
+			all.addAll(part);
+		}
+		all.sort();
+		return all.toArray();
+	}
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(size);
+		array = new int[size];
+		for (int i = 0; i < size; i++) {
+			array[i] = random.nextInt(1000);
+		}
+		target = 1000;
+		array[size - 1] = target;
+		large = sortedSet(random, size, size * 4);
+		small = sortedSet(random, size / 64, size * 4);
+		parts = new int[8][];
+		for (int i = 0; i < parts.length; i++) {
+			parts[i] = sortedSet(random, size / parts.length, size * 4);
+		}
+	}
+}
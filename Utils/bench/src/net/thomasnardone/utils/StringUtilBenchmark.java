@@ -0,0 +1,80 @@
+package net.thomasnardone.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the {@link StringUtil} case conversions over a batch of field names, against the regular expressions they
+ * replace. Run with <tt>mvn -Pbench test-compile exec:exec -Dbench=StringUtilBenchmark</tt>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilBenchmark {
+	private static final String[]	NAMES		= { "id", "firstName", "lastName", "dateOfBirth", "XMLHttpRequest", "utf8Name",
+			"parseHTTP2Header", "isActive", "userID", "addressLine2" };
+	private static final String	SPLIT_REGEX	= "(?<=[A-Z])(?=[A-Z][a-z])|(?<=[^A-Z])(?=[A-Z])|(?<=[A-Za-z])(?=[^A-Za-z])";
+
+	private final StringBuilder	builder		= new StringBuilder();
+
+	@Benchmark
+	public int capitalize() {
+		int length = 0;
+		for (String name : NAMES) {
+			length += StringUtil.capitalize(name).length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int capitalizeByReplaceFirst() {
+		int length = 0;
+		for (String name : NAMES) {
+			length += name.replaceFirst(String.valueOf(name.charAt(0)), String.valueOf(Character.toUpperCase(name.charAt(0))))
+					.length();
+		}
+		return length;
+	}
+
+	/**
+	 * Every name converted into one reused builder, as a code generator writing a line would.
+	 */
+	@Benchmark
+	public int convertCaseIntoBuilder() {
+		builder.setLength(0);
+		for (String name : NAMES) {
+			StringUtil.convertCase(name, IdentifierCase.CONSTANT, builder).append(' ');
+		}
+		return builder.length();
+	}
+
+	@Benchmark
+	public int underscore() {
+		int length = 0;
+		for (String name : NAMES) {
+			length += StringUtil.underscore(name).length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int underscoreByRegex() {
+		int length = 0;
+		for (String name : NAMES) {
+			length += name.replaceAll(SPLIT_REGEX, "_").toLowerCase().length();
+		}
+		return length;
+	}
+}
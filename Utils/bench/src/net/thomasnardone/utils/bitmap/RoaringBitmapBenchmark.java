@@ -0,0 +1,111 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RoaringBitmap} against {@link BitSet} over ten million possible rows, for sparse and dense selections.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoaringBitmapBenchmark {
+	private static final int	ROWS	= 10000000;
+
+	/** Share of the rows in each set. */
+	@Param({ "0.001", "0.5" })
+	public double				density;
+
+	private BitSet				bitSetA;
+	private BitSet				bitSetB;
+	private RoaringBitmap		roaringA;
+	private RoaringBitmap		roaringB;
+
+	@Benchmark
+	public int bitSetAnd() {
+		BitSet and = (BitSet) bitSetA.clone();
+		and.and(bitSetB);
+		return and.cardinality();
+	}
+
+	@Benchmark
+	public int bitSetIterate() {
+		int sum = 0;
+		for (int row = bitSetA.nextSetBit(0); row >= 0; row = bitSetA.nextSetBit(row + 1)) {
+			sum += row;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int bitSetOr() {
+		BitSet or = (BitSet) bitSetA.clone();
+		or.or(bitSetB);
+		return or.cardinality();
+	}
+
+	@Benchmark
+	public long roaringAnd() {
+		RoaringBitmap and = roaringA.clone();
+		and.and(roaringB);
+		return and.cardinality();
+	}
+
+	@Benchmark
+	public long roaringAndCardinality() {
+		return roaringA.andCardinality(roaringB);
+	}
+
+	@Benchmark
+	public int roaringIterate() {
+		int sum = 0;
+		for (int row = roaringA.nextSetBit(0); row >= 0; row = roaringA.nextSetBit(row + 1)) {
+			sum += row;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long roaringOr() {
+		RoaringBitmap or = roaringA.clone();
+		or.or(roaringB);
+		return or.cardinality();
+	}
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(1);
+		bitSetA = new BitSet(ROWS);
+		bitSetB = new BitSet(ROWS);
+		roaringA = new RoaringBitmap();
+		roaringB = new RoaringBitmap();
+		final int count = (int) (ROWS * density);
+		for (int i = 0; i < count; i++) {
+			final int a = random.nextInt(ROWS);
+			final int b = random.nextInt(ROWS);
+			bitSetA.set(a);
+			bitSetB.set(b);
+			roaringA.add(a);
+			roaringB.add(b);
+		}
+		roaringA.runOptimize();
+		roaringB.runOptimize();
+		System.out.println("\nBitSet " + (bitSetA.size() / 8) + " bytes, RoaringBitmap " + roaringA.serializedSize() + " bytes");
+	}
+}
@@ -1,12 +1,68 @@
 package net.thomasnardone.utils;
 
+import java.util.Arrays;
+
+/**
+ * Operations on <tt>int</tt> arrays. The set operations take and return sorted sets: ascending arrays without duplicates.
+ * {@link #count(int[], int)} and {@link #fill(int[], int, int, int)} are counted loops without branches in the body, a shape the
+ * JIT can unroll and vectorize.
+ */
 public class ArrayUtil {
+	private static final int[]	EMPTY			= new int[0];
+	/** Intersections gallop through the larger array once it is this many times the size of the smaller. */
+	private static final int	GALLOP_RATIO	= 16;
+
+	/**
+	 * @return How many elements of <tt>array</tt> equal <tt>value</tt>.
+	 */
+	public static int count(final int[] array, final int value) {
+		int count = 0;
+		for (int i = 0; i < array.length; i++) {
+			count += array[i] == value ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * @return The values of sorted set <tt>a</tt> that aren't in sorted set <tt>b</tt>.
+	 */
+	public static int[] difference(final int[] a, final int[] b) {
+		final int[] out = new int[a.length];
+		int n = 0;
+		int j = 0;
+		for (int i = 0; i < a.length; i++) {
+			j = gallop(b, j, a[i]);
+			if ((j == b.length) || (b[j] != a[i])) {
+				out[n++] = a[i];
+			}
+		}
+		return trim(out, n);
+	}
+
+	/**
+	 * Set <tt>array[from]</tt> through <tt>array[to - 1]</tt> to <tt>value</tt>.
+	 */
+	public static void fill(final int[] array, final int from, final int to, final int value) {
+		if ((from < 0) || (to > array.length) || (from > to)) {
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + array.length);
+		}
+		for (int i = from; i < to; i++) {
+			array[i] = value;
+		}
+	}
+
 	/**
 	 * @return The first index whose value that matches <tt>value</tt>, or -1 if <tt>value</tt> is not found.
 	 */
 	public static int find(final int value, final int[] array) {
-		final int length = array.length;
-		for (int i = 0; i < length; i++) {
+		return indexOf(array, value);
+	}
+
+	/**
+	 * @return The first index holding <tt>value</tt>, or -1.
+	 */
+	public static int indexOf(final int[] array, final int value) {
+		for (int i = 0; i < array.length; i++) {
 			if (array[i] == value) {
 				return i;
 			}
@@ -29,6 +85,71 @@ public class ArrayUtil {
 		return newArray;
 	}
 
+	/**
+	 * @return The values in both sorted sets. When one is much larger, it is searched by galloping from the last match
+	 *         rather than scanned.
+	 */
+	public static int[] intersect(final int[] a, final int[] b) {
+		final int[] small = a.length <= b.length ? a : b;
+		final int[] large = small == a ? b : a;
+		final int[] out = new int[small.length];
+		int n = 0;
+		if (((long) small.length * GALLOP_RATIO) < large.length) {
+			int j = 0;
+			for (int i = 0; (i < small.length) && (j < large.length); i++) {
+				j = gallop(large, j, small[i]);
+				if ((j < large.length) && (large[j] == small[i])) {
+					out[n++] = small[i];
+					j++;
+				}
+			}
+		} else {
+			int i = 0;
+			int j = 0;
+			while ((i < small.length) && (j < large.length)) {
+				if (small[i] < large[j]) {
+					i++;
+				} else if (small[i] > large[j]) {
+					j++;
+				} else {
+					out[n++] = small[i];
+					i++;
+					j++;
+				}
+			}
+		}
+		return trim(out, n);
+	}
+
+	/**
+	 * Merge any number of sorted sets by unioning them in pairs, so each value is copied once per halving.
+	 *
+	 * @return The union of <tt>arrays</tt>.
+	 */
+	public static int[] merge(final int[]... arrays) {
+		if (arrays.length == 0) {
+			return EMPTY;
+		}
+		if (arrays.length == 1) {
+			return arrays[0].clone();
+		}
+		final int[][] merged = arrays.clone();
+		for (int n = merged.length; n > 1; n = (n + 1) / 2) {
+			for (int i = 0; i < n; i += 2) {
+				merged[i / 2] = (i + 1) < n ? union(merged[i], merged[i + 1]) : merged[i];
+			}
+		}
+		return merged[0];
+	}
+
+	/**
+	 * @return How many values of sorted set <tt>sorted</tt> are less than <tt>value</tt>.
+	 */
+	public static int rank(final int[] sorted, final int value) {
+		final int index = Arrays.binarySearch(sorted, value);
+		return index < 0 ? -index - 1 : index;
+	}
+
 	public static int[] remove(final int[] array, final int index) {
 		int[] newArray = new int[array.length - 1];
 		System.arraycopy(array, 0, newArray, 0, index);
@@ -36,6 +157,18 @@ public class ArrayUtil {
 		return newArray;
 	}
 
+	/**
+	 * The inverse of {@link #rank(int[], int)}.
+	 *
+	 * @return The value of sorted set <tt>sorted</tt> with <tt>rank</tt> smaller values.
+	 */
+	public static int select(final int[] sorted, final int rank) {
+		if ((rank < 0) || (rank >= sorted.length)) {
+			throw new IndexOutOfBoundsException("Rank " + rank + " of " + sorted.length + " values");
+		}
+		return sorted[rank];
+	}
+
 	/**
 	 * Swaps the values in indexes i and j
 	 */
@@ -49,4 +182,57 @@ public class ArrayUtil {
 		array[j] = temp;
 		return true;
 	}
+
+	/**
+	 * @return The values in either sorted set.
+	 */
+	public static int[] union(final int[] a, final int[] b) {
+		final int[] out = new int[a.length + b.length];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < a.length) && (j < b.length)) {
+			if (a[i] < b[j]) {
+				out[n++] = a[i++];
+			} else if (a[i] > b[j]) {
+				out[n++] = b[j++];
+			} else {
+				out[n++] = a[i++];
+				j++;
+			}
+		}
+		System.arraycopy(a, i, out, n, a.length - i);
+		n += a.length - i;
+		System.arraycopy(b, j, out, n, b.length - j);
+		n += b.length - j;
+		return trim(out, n);
+	}
+
+	/**
+	 * @return The first index from <tt>from</tt> on whose value is at least <tt>value</tt>, or <tt>sorted.length</tt>. Probes
+	 *         ahead in doubling steps, then binary searches the last step.
+	 */
+	private static int gallop(final int[] sorted, final int from, final int value) {
+		if ((from >= sorted.length) || (sorted[from] >= value)) {
+			return from;
+		}
+		int low = from;
+		int step = 1;
+		int high = from + 1;
+		while ((high < sorted.length) && (sorted[high] < value)) {
+			low = high;
+			step <<= 1;
+			high = from + step;
+		}
+		high = Math.min(high, sorted.length);
+		final int index = Arrays.binarySearch(sorted, low + 1, high, value);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	private static int[] trim(final int[] array, final int length) {
+		if (length == 0) {
+			return EMPTY;
+		}
+		return length == array.length ? array : Arrays.copyOf(array, length);
+	}
 }
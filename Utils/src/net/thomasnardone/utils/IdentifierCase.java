@@ -0,0 +1,30 @@
+package net.thomasnardone.utils;
+
+/**
+ * Ways of joining the words of an identifier, for {@link StringUtil#convertCase(CharSequence, IdentifierCase)}.
+ */
+public enum IdentifierCase {
+	/** <tt>fooBarBaz</tt> */
+	CAMEL(StringUtil.NO_SEPARATOR, false, true, false),
+	/** <tt>FOO_BAR_BAZ</tt> */
+	CONSTANT('_', true, true, true),
+	/** <tt>foo-bar-baz</tt> */
+	KEBAB('-', false, false, false),
+	/** <tt>foo_bar_baz</tt> */
+	SNAKE('_', false, false, false),
+	/** <tt>Foo Bar Baz</tt> */
+	TITLE(' ', true, true, false);
+
+	final char		separator;
+	final boolean	upperFirstInitial;
+	final boolean	upperInitials;
+	final boolean	upperRest;
+
+	private IdentifierCase(final char separator, final boolean upperFirstInitial, final boolean upperInitials,
+			final boolean upperRest) {
+		this.separator = separator;
+		this.upperFirstInitial = upperFirstInitial;
+		this.upperInitials = upperInitials;
+		this.upperRest = upperRest;
+	}
+}
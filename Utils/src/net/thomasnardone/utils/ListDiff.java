@@ -0,0 +1,55 @@
+package net.thomasnardone.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What changed between two lists compared as multisets, from {@link ListUtil#diff(java.util.Collection, java.util.Collection)}.
+ * Items are listed once each, in the order they first appear.
+ */
+public class ListDiff<T> {
+	private final List<T>			added;
+	private final Map<T, Integer>	countChanges;
+	private final List<T>			removed;
+
+	ListDiff(final List<T> added, final List<T> removed, final Map<T, Integer> countChanges) {
+		this.added = Collections.unmodifiableList(added);
+		this.removed = Collections.unmodifiableList(removed);
+		this.countChanges = Collections.unmodifiableMap(countChanges);
+	}
+
+	/**
+	 * @return Items only in the new list.
+	 */
+	public List<T> getAdded() {
+		return added;
+	}
+
+	/**
+	 * @return For items in both lists a different number of times, how many more times (or fewer, if negative) the new list
+	 *         holds them.
+	 */
+	public Map<T, Integer> getCountChanges() {
+		return countChanges;
+	}
+
+	/**
+	 * @return Items only in the old list.
+	 */
+	public List<T> getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * @return Whether the lists hold the same items the same number of times.
+	 */
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty() && countChanges.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "added " + added + ", removed " + removed + ", count changes " + countChanges;
+	}
+}
@@ -1,18 +1,193 @@
 package net.thomasnardone.utils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class ListUtil {
-	public static <T> boolean listsContainSameItems(final List<T> list1, final List<T> list2) {
-		if (list2.size() != list1.size()) {
+	/** Lists shorter than this are compared on the calling thread even when given an executor. */
+	public static final int	PARALLEL_THRESHOLD	= 100000;
+
+	/**
+	 * Compare two lists as multisets, in time linear in their sizes.
+	 */
+	public static <T> ListDiff<T> diff(final Collection<? extends T> before, final Collection<? extends T> after) {
+		Map<T, Count> counts = new LinkedHashMap<T, Count>(capacityFor(before.size() + after.size()));
+		for (T item : before) {
+			countOf(counts, item).before++;
+		}
+		for (T item : after) {
+			countOf(counts, item).after++;
+		}
+		List<T> added = new ArrayList<T>();
+		List<T> removed = new ArrayList<T>();
+		Map<T, Integer> countChanges = new LinkedHashMap<T, Integer>();
+		for (Map.Entry<T, Count> entry : counts.entrySet()) {
+			final Count count = entry.getValue();
+			if (count.before == 0) {
+				added.add(entry.getKey());
+			} else if (count.after == 0) {
+				removed.add(entry.getKey());
+			} else if (count.before != count.after) {
+				countChanges.put(entry.getKey(), count.after - count.before);
+			}
+		}
+		return new ListDiff<T>(added, removed, countChanges);
+	}
+
+	/**
+	 * @return Whether the lists hold the same items the same number of times, in any order. Counts the items of one list in a
+	 *         hash map, so items must have consistent <tt>equals</tt> and <tt>hashCode</tt>.
+	 */
+	public static <T> boolean listsContainSameItems(final Collection<? extends T> list1, final Collection<? extends T> list2) {
+		if (list1 == list2) {
+			return true;
+		}
+		if (list1.size() != list2.size()) {
 			return false;
-		} else {
-			for (T item : list2) {
-				if (!list1.contains(item)) {
-					return false;
-				}
+		}
+		Map<T, Count> counts = new HashMap<T, Count>(capacityFor(list1.size()));
+		for (T item : list1) {
+			countOf(counts, item).before++;
+		}
+		for (T item : list2) {
+			final Count count = counts.get(item);
+			if ((count == null) || (++count.after > count.before)) {
+				return false;
 			}
 		}
 		return true;
 	}
+
+	/**
+	 * Kept so code compiled against the <tt>List</tt> signature still links; see
+	 * {@link #listsContainSameItems(Collection, Collection)}.
+	 */
+	public static <T> boolean listsContainSameItems(final List<T> list1, final List<T> list2) {
+		return listsContainSameItems((Collection<? extends T>) list1, (Collection<? extends T>) list2);
+	}
+
+	/**
+	 * As {@link #listsContainSameItems(Collection, Collection)}, but for lists of at least {@link #PARALLEL_THRESHOLD} items the
+	 * work is split across <tt>executor</tt>: items are hashed in slices, then each task counts the items whose hash falls in its
+	 * partition, so no two tasks touch the same map.
+	 *
+	 * @param executor
+	 *            Runs the tasks; may be <tt>null</tt> to compare on the calling thread.
+	 */
+	public static <T> boolean listsContainSameItems(final Collection<? extends T> list1, final Collection<? extends T> list2,
+			final ExecutorService executor) {
+		if ((executor == null) || (list1 == list2) || (list1.size() != list2.size()) || (list1.size() < PARALLEL_THRESHOLD)) {
+			return listsContainSameItems(list1, list2);
+		}
+		final Object[] items1 = list1.toArray();
+		final Object[] items2 = list2.toArray();
+		final int[] hashes1 = new int[items1.length];
+		final int[] hashes2 = new int[items2.length];
+		final int parts = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+		List<Callable<Boolean>> hashing = new ArrayList<Callable<Boolean>>(parts);
+		for (int p = 0; p < parts; p++) {
+			final int from = (int) (((long) items1.length * p) / parts);
+			final int to = (int) (((long) items1.length * (p + 1)) / parts);
+			hashing.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					for (int i = from; i < to; i++) {
+						hashes1[i] = partitionHash(items1[i]);
+						hashes2[i] = partitionHash(items2[i]);
+					}
+					return true;
+				}
+			});
+		}
+		runAll(executor, hashing);
+
+		List<Callable<Boolean>> counting = new ArrayList<Callable<Boolean>>(parts);
+		for (int p = 0; p < parts; p++) {
+			final int part = p;
+			counting.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					Map<Object, Count> counts = new HashMap<Object, Count>(capacityFor(items1.length / parts));
+					int size1 = 0;
+					for (int i = 0; i < items1.length; i++) {
+						if ((hashes1[i] % parts) == part) {
+							countOf(counts, items1[i]).before++;
+							size1++;
+						}
+					}
+					int size2 = 0;
+					for (int i = 0; i < items2.length; i++) {
+						if ((hashes2[i] % parts) == part) {
+							final Count count = counts.get(items2[i]);
+							if ((count == null) || (++count.after > count.before)) {
+								return false;
+							}
+							size2++;
+						}
+					}
+					return size1 == size2;
+				}
+			});
+		}
+		return runAll(executor, counting);
+	}
+
+	private static int capacityFor(final int size) {
+		return Math.max(16, (int) (size / 0.75f) + 1);
+	}
+
+	private static <T> Count countOf(final Map<T, Count> counts, final T item) {
+		Count count = counts.get(item);
+		if (count == null) {
+			count = new Count();
+			counts.put(item, count);
+		}
+		return count;
+	}
+
+	/**
+	 * @return A non-negative hash of <tt>item</tt>, spread so that taking it modulo the partition count uses all its bits.
+	 */
+	private static int partitionHash(final Object item) {
+		final int hash = item == null ? 0 : item.hashCode();
+		return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return Whether every task returned <tt>true</tt>.
+	 */
+	private static boolean runAll(final ExecutorService executor, final List<Callable<Boolean>> tasks) {
+		try {
+			boolean all = true;
+			for (Future<Boolean> future : executor.invokeAll(tasks)) {
+				all &= future.get();
+			}
+			return all;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while comparing lists", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Unable to compare lists", e.getCause());
+		}
+	}
+
+	/**
+	 * Occurrences of one item in each of the two lists being compared.
+	 */
+	private static class Count {
+		int	after;
+		int	before;
+	}
 }
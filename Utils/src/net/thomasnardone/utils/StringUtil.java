@@ -1,5 +1,6 @@
 package net.thomasnardone.utils;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -11,8 +12,15 @@ public class StringUtil {
 	public static final int	COMPARE_ASCENDING_IGNORE_CASE	= 1;
 	public static final int	COMPARE_NUMBER_ASCENDING		= 2;
 
+	static final char		NO_SEPARATOR					= 0;
+
 	public static String capitalize(final String s) {
-		return s.replaceFirst(String.valueOf(s.charAt(0)), String.valueOf(Character.toUpperCase(s.charAt(0))));
+		if (s.isEmpty()) {
+			return s;
+		}
+		final char first = s.charAt(0);
+		final char upper = Character.toUpperCase(first);
+		return first == upper ? s : upper + s.substring(1);
 	}
 
 	public static Comparator<String> comparator() {
@@ -30,10 +38,68 @@ public class StringUtil {
 		}
 	}
 
+	/**
+	 * Rewrite an identifier in another case. Words are runs of letters and digits, split where {@link #splitCamelCase(String)}
+	 * would split them; everything else only separates words and is dropped. <tt>"XMLHttpRequest2"</tt> becomes
+	 * <tt>"xmlHttpRequest2"</tt>, <tt>"xml_http_request_2"</tt>, <tt>"Xml Http Request 2"</tt>, and so on.
+	 */
+	public static String convertCase(final CharSequence s, final IdentifierCase to) {
+		return convertCase(s, to, new StringBuilder(s.length() + 8)).toString();
+	}
+
+	/**
+	 * As {@link #convertCase(CharSequence, IdentifierCase)}, but appends to <tt>out</tt> in a single pass.
+	 *
+	 * @return <tt>out</tt>
+	 */
+	public static <A extends Appendable> A convertCase(final CharSequence s, final IdentifierCase to, final A out)
+			throws IOException {
+		final int length = s.length();
+		boolean inWord = false;
+		boolean firstWord = true;
+		for (int i = 0; i < length; i++) {
+			final char c = s.charAt(i);
+			if (!Character.isLetterOrDigit(c)) {
+				inWord = false;
+			} else if (inWord && !isWordBoundary(s, i)) {
+				out.append(to.upperRest ? Character.toUpperCase(c) : Character.toLowerCase(c));
+			} else {
+				if (!firstWord && (to.separator != NO_SEPARATOR)) {
+					out.append(to.separator);
+				}
+				final boolean upper = firstWord ? to.upperFirstInitial : to.upperInitials;
+				out.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+				inWord = true;
+				firstWord = false;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * As {@link #convertCase(CharSequence, IdentifierCase, Appendable)}, for a builder that can't throw.
+	 */
+	public static StringBuilder convertCase(final CharSequence s, final IdentifierCase to, final StringBuilder out) {
+		try {
+			convertCase(s, to, (Appendable) out);
+			return out;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	public static String deCapitalize(final String s) {
-		return s.replaceFirst(String.valueOf(s.charAt(0)), String.valueOf(Character.toLowerCase(s.charAt(0))));
+		if (s.isEmpty()) {
+			return s;
+		}
+		final char first = s.charAt(0);
+		final char lower = Character.toLowerCase(first);
+		return first == lower ? s : lower + s.substring(1);
 	}
 
+	/**
+	 * Split on commas, without quoting; use {@link net.thomasnardone.utils.io.CsvReader} for real CSV.
+	 */
 	public static String[] fromCsv(final String s) {
 		if ((s == null) || s.trim().isEmpty()) {
 			return new String[0];
@@ -49,17 +115,31 @@ public class StringUtil {
 		}
 	}
 
-	public static String splitCamelCase(String s) {
-		s = s.replaceAll(
-				String.format("%s|%s|%s", "(?<=[A-Z])(?=[A-Z][a-z])", "(?<=[^A-Z])(?=[A-Z])", "(?<=[A-Za-z])(?=[^A-Za-z])"), " ");
-		return capitalize(s);
+	/**
+	 * Put a space before each word of a camel-case identifier and capitalize it: <tt>"parseXMLFile2"</tt> becomes
+	 * <tt>"Parse XML File 2"</tt>. Characters already in <tt>s</tt> are kept.
+	 */
+	public static String splitCamelCase(final String s) {
+		final int length = s.length();
+		final StringBuilder sb = new StringBuilder(length + 8);
+		for (int i = 0; i < length; i++) {
+			final char c = s.charAt(i);
+			if (isWordBoundary(s, i)) {
+				sb.append(' ');
+			}
+			sb.append(i == 0 ? Character.toUpperCase(c) : c);
+		}
+		return sb.toString();
 	}
 
+	/**
+	 * Join with commas, without quoting; use {@link net.thomasnardone.utils.io.CsvWriter} for real CSV.
+	 */
 	public static String toCsv(final Collection<String> strings) {
 		if ((strings == null) || strings.isEmpty()) {
 			return "";
 		}
-		StringBuffer sb = new StringBuffer();
+		StringBuilder sb = new StringBuilder();
 		for (String s : strings) {
 			sb.append(s).append(",");
 		}
@@ -74,9 +154,46 @@ public class StringUtil {
 		return new ToStringComparator(comparator(type));
 	}
 
-	public static String underscore(String s) {
-		s = s.replaceAll(
-				String.format("%s|%s|%s", "(?<=[A-Z])(?=[A-Z][a-z])", "(?<=[^A-Z])(?=[A-Z])", "(?<=[A-Za-z])(?=[^A-Za-z])"), "_");
-		return s.toLowerCase();
+	/**
+	 * Put an underscore before each word of a camel-case identifier and lower-case it: <tt>"parseXMLFile2"</tt> becomes
+	 * <tt>"parse_xml_file_2"</tt>. Characters already in <tt>s</tt> are kept.
+	 */
+	public static String underscore(final String s) {
+		final int length = s.length();
+		final StringBuilder sb = new StringBuilder(length + 8);
+		for (int i = 0; i < length; i++) {
+			if (isWordBoundary(s, i)) {
+				sb.append('_');
+			}
+			sb.append(Character.toLowerCase(s.charAt(i)));
+		}
+		return sb.toString();
+	}
+
+	private static boolean isAsciiLetter(final char c) {
+		return isAsciiUpper(c) || ((c >= 'a') && (c <= 'z'));
+	}
+
+	private static boolean isAsciiUpper(final char c) {
+		return (c >= 'A') && (c <= 'Z');
+	}
+
+	/**
+	 * @return Whether a new word starts at <tt>i</tt>: an upper-case letter after anything else, the last capital of an
+	 *         acronym when a lower-case letter follows, or the first non-letter after a letter.
+	 */
+	private static boolean isWordBoundary(final CharSequence s, final int i) {
+		if (i == 0) {
+			return false;
+		}
+		final char previous = s.charAt(i - 1);
+		final char c = s.charAt(i);
+		if (isAsciiUpper(c)) {
+			if (!isAsciiUpper(previous)) {
+				return true;
+			}
+			return ((i + 1) < s.length()) && (s.charAt(i + 1) >= 'a') && (s.charAt(i + 1) <= 'z');
+		}
+		return isAsciiLetter(previous) && !isAsciiLetter(c);
 	}
 }
@@ -0,0 +1,221 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Up to {@link Container#MAX_ARRAY_SIZE} values kept as a sorted array.
+ */
+class ArrayContainer extends Container {
+	private int		size;
+	private char[]	values;
+
+	ArrayContainer(final char value) {
+		values = new char[] { value };
+		size = 1;
+	}
+
+	ArrayContainer(final char[] values, final int size) {
+		this.values = values;
+		this.size = size;
+	}
+
+	/**
+	 * @return Payload bytes of an array container holding <tt>cardinality</tt> values.
+	 */
+	static int bytesFor(final int cardinality) {
+		return 2 + (cardinality * 2);
+	}
+
+	static ArrayContainer read(final DataInput in) throws IOException {
+		final int size = in.readUnsignedShort();
+		final char[] values = new char[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = in.readChar();
+		}
+		return new ArrayContainer(values, size);
+	}
+
+	@Override
+	Container add(final char value) {
+		final int index = Arrays.binarySearch(values, 0, size, value);
+		if (index >= 0) {
+			return this;
+		}
+		if (size == MAX_ARRAY_SIZE) {
+			return toBitmapContainer().add(value);
+		}
+		final int insert = -index - 1;
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, size + (size >> 1))));
+		}
+		System.arraycopy(values, insert, values, insert + 1, size - insert);
+		values[insert] = value;
+		size++;
+		return this;
+	}
+
+	@Override
+	void andInto(final long[] words) {
+		final long[] mine = words();
+		for (int i = 0; i < WORDS; i++) {
+			words[i] &= mine[i];
+		}
+	}
+
+	@Override
+	void andNotInto(final long[] words) {
+		for (int i = 0; i < size; i++) {
+			words[values[i] >>> 6] &= ~(1L << values[i]);
+		}
+	}
+
+	@Override
+	int cardinality() {
+		return size;
+	}
+
+	@Override
+	boolean contains(final char value) {
+		return Arrays.binarySearch(values, 0, size, value) >= 0;
+	}
+
+	@Override
+	Container copy() {
+		return new ArrayContainer(Arrays.copyOf(values, size), size);
+	}
+
+	@Override
+	void forEach(final int high, final RoaringBitmap.Procedure procedure) {
+		for (int i = 0; i < size; i++) {
+			procedure.apply(high | values[i]);
+		}
+	}
+
+	@Override
+	int nextValue(final int from) {
+		if (from >= SPAN) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(values, 0, size, (char) from);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		return index < size ? values[index] : -1;
+	}
+
+	@Override
+	int numberOfRuns() {
+		int runs = 0;
+		for (int i = 0; i < size; i++) {
+			if ((i == 0) || (values[i] != (values[i - 1] + 1))) {
+				runs++;
+			}
+		}
+		return runs;
+	}
+
+	@Override
+	void orInto(final long[] words) {
+		for (int i = 0; i < size; i++) {
+			words[values[i] >>> 6] |= 1L << values[i];
+		}
+	}
+
+	@Override
+	Container remove(final char value) {
+		final int index = Arrays.binarySearch(values, 0, size, value);
+		if (index < 0) {
+			return this;
+		}
+		if (size == 1) {
+			return null;
+		}
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		return this;
+	}
+
+	@Override
+	int serializedSize() {
+		return 1 + bytesFor(size);
+	}
+
+	@Override
+	int toArray(final int[] array, final int offset, final int high) {
+		for (int i = 0; i < size; i++) {
+			array[offset + i] = high | values[i];
+		}
+		return offset + size;
+	}
+
+	@Override
+	ArrayContainer toArrayContainer() {
+		return this;
+	}
+
+	@Override
+	void write(final DataOutput out) throws IOException {
+		out.writeByte(ARRAY);
+		out.writeShort(size);
+		for (int i = 0; i < size; i++) {
+			out.writeChar(values[i]);
+		}
+	}
+
+	/**
+	 * @return How many of these values <tt>other</tt> holds.
+	 */
+	int countIn(final Container other) {
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (other.contains(values[i])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return The values that <tt>other</tt> holds if <tt>keep</tt>, else those it doesn't, or <tt>null</tt> if none.
+	 */
+	ArrayContainer filter(final Container other, final boolean keep) {
+		final char[] kept = new char[size];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (other.contains(values[i]) == keep) {
+				kept[n++] = values[i];
+			}
+		}
+		return n == 0 ? null : new ArrayContainer(kept, n);
+	}
+
+	/**
+	 * @return The union with <tt>other</tt>, which together hold at most {@link Container#MAX_ARRAY_SIZE} values.
+	 */
+	ArrayContainer merge(final ArrayContainer other) {
+		final char[] merged = new char[size + other.size];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < size) && (j < other.size)) {
+			if (values[i] < other.values[j]) {
+				merged[n++] = values[i++];
+			} else if (values[i] > other.values[j]) {
+				merged[n++] = other.values[j++];
+			} else {
+				merged[n++] = values[i++];
+				j++;
+			}
+		}
+		while (i < size) {
+			merged[n++] = values[i++];
+		}
+		while (j < other.size) {
+			merged[n++] = other.values[j++];
+		}
+		return new ArrayContainer(merged, n);
+	}
+}
@@ -0,0 +1,215 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * More than {@link Container#MAX_ARRAY_SIZE} values kept as a plain 65536-bit bitmap.
+ */
+class BitmapContainer extends Container {
+	private int				cardinality;
+	private final long[]	words;
+
+	BitmapContainer(final long[] words) {
+		this.words = words;
+		cardinality = count(words);
+	}
+
+	static int count(final long[] words) {
+		int count = 0;
+		for (int i = 0; i < words.length; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count;
+	}
+
+	static BitmapContainer read(final DataInput in) throws IOException {
+		final long[] words = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			words[i] = in.readLong();
+		}
+		return new BitmapContainer(words);
+	}
+
+	@Override
+	Container add(final char value) {
+		final long bit = 1L << value;
+		if ((words[value >>> 6] & bit) == 0) {
+			words[value >>> 6] |= bit;
+			cardinality++;
+		}
+		return this;
+	}
+
+	@Override
+	int andCardinality(final Container other) {
+		if (!(other instanceof BitmapContainer)) {
+			return super.andCardinality(other);
+		}
+		final long[] otherWords = ((BitmapContainer) other).words;
+		int count = 0;
+		for (int i = 0; i < WORDS; i++) {
+			count += Long.bitCount(words[i] & otherWords[i]);
+		}
+		return count;
+	}
+
+	@Override
+	void andInto(final long[] words) {
+		for (int i = 0; i < WORDS; i++) {
+			words[i] &= this.words[i];
+		}
+	}
+
+	@Override
+	void andNotInto(final long[] words) {
+		for (int i = 0; i < WORDS; i++) {
+			words[i] &= ~this.words[i];
+		}
+	}
+
+	@Override
+	int cardinality() {
+		return cardinality;
+	}
+
+	@Override
+	boolean contains(final char value) {
+		return (words[value >>> 6] & (1L << value)) != 0;
+	}
+
+	@Override
+	Container copy() {
+		return new BitmapContainer(words.clone());
+	}
+
+	@Override
+	void forEach(final int high, final RoaringBitmap.Procedure procedure) {
+		for (int i = 0; i < WORDS; i++) {
+			long word = words[i];
+			while (word != 0) {
+				procedure.apply(high | (i << 6) | Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+	}
+
+	@Override
+	Container iand(final Container other) {
+		if (other instanceof ArrayContainer) {
+			return and(other);
+		}
+		other.andInto(words);
+		return modified(other);
+	}
+
+	@Override
+	Container iandNot(final Container other) {
+		other.andNotInto(words);
+		return modified(other);
+	}
+
+	@Override
+	Container ior(final Container other) {
+		other.orInto(words);
+		return modified(other);
+	}
+
+	@Override
+	int nextValue(final int from) {
+		if (from >= SPAN) {
+			return -1;
+		}
+		int i = from >>> 6;
+		long word = words[i] & (-1L << from);
+		while (word == 0) {
+			if (++i == WORDS) {
+				return -1;
+			}
+			word = words[i];
+		}
+		return (i << 6) | Long.numberOfTrailingZeros(word);
+	}
+
+	@Override
+	int numberOfRuns() {
+		int runs = 0;
+		long previous = 0;
+		for (int i = 0; i < WORDS; i++) {
+			final long word = words[i];
+			// a run starts at each set bit whose lower neighbour, possibly in the previous word, is clear
+			runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+			previous = word;
+		}
+		return runs;
+	}
+
+	@Override
+	void orInto(final long[] words) {
+		for (int i = 0; i < WORDS; i++) {
+			words[i] |= this.words[i];
+		}
+	}
+
+	@Override
+	Container remove(final char value) {
+		final long bit = 1L << value;
+		if ((words[value >>> 6] & bit) == 0) {
+			return this;
+		}
+		words[value >>> 6] &= ~bit;
+		cardinality--;
+		return cardinality <= MAX_ARRAY_SIZE ? toArrayContainer() : this;
+	}
+
+	@Override
+	int serializedSize() {
+		return 1 + BITMAP_BYTES;
+	}
+
+	@Override
+	int toArray(final int[] array, final int offset, final int high) {
+		int n = offset;
+		for (int i = 0; i < WORDS; i++) {
+			long word = words[i];
+			while (word != 0) {
+				array[n++] = high | (i << 6) | Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return n;
+	}
+
+	@Override
+	BitmapContainer toBitmapContainer() {
+		return this;
+	}
+
+	@Override
+	long[] words() {
+		return words.clone();
+	}
+
+	@Override
+	void write(final DataOutput out) throws IOException {
+		out.writeByte(BITMAP);
+		for (int i = 0; i < WORDS; i++) {
+			out.writeLong(words[i]);
+		}
+	}
+
+	/**
+	 * @return This container, or a smaller kind holding its values, after its words were changed through <tt>other</tt>.
+	 */
+	private Container modified(final Container other) {
+		cardinality = count(words);
+		if (other instanceof RunContainer) {
+			return runOptimize();
+		}
+		if (cardinality == 0) {
+			return null;
+		}
+		return cardinality <= MAX_ARRAY_SIZE ? toArrayContainer() : this;
+	}
+}
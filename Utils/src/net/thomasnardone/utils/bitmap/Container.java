@@ -0,0 +1,267 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The low 16 bits of the values in a {@link RoaringBitmap} sharing the same high 16 bits. Mutators return the container to
+ * keep in its place - itself, a converted copy, or <tt>null</tt> once empty. Binary operations never change their operands.
+ */
+abstract class Container {
+	/** Bytes of a serialized {@link BitmapContainer}, which is also the most an array or run container may take. */
+	static final int	BITMAP_BYTES	= 8192;
+	/** Above this many values an {@link ArrayContainer} takes more room than a {@link BitmapContainer}. */
+	static final int	MAX_ARRAY_SIZE	= 4096;
+	/** Values one container covers. */
+	static final int	SPAN			= 1 << 16;
+	/** Longs in the bitmap of one container. */
+	static final int	WORDS			= SPAN / 64;
+
+	static final byte	ARRAY			= 0;
+	static final byte	BITMAP			= 1;
+	static final byte	RUN				= 2;
+
+	static void clearRange(final long[] words, final int from, final int to) {
+		if (from >= to) {
+			return;
+		}
+		final int first = from >>> 6;
+		final int last = (to - 1) >>> 6;
+		final long firstMask = -1L << from;
+		final long lastMask = -1L >>> -to;
+		if (first == last) {
+			words[first] &= ~(firstMask & lastMask);
+			return;
+		}
+		words[first] &= ~firstMask;
+		for (int i = first + 1; i < last; i++) {
+			words[i] = 0;
+		}
+		words[last] &= ~lastMask;
+	}
+
+	/**
+	 * @return A bitmap container holding <tt>words</tt>, turned into the smallest kind if <tt>tryRuns</tt> or else into an array
+	 *         container if sparse enough, or <tt>null</tt> if empty.
+	 */
+	static Container fromWords(final long[] words, final boolean tryRuns) {
+		final BitmapContainer bitmap = new BitmapContainer(words);
+		if (tryRuns) {
+			return bitmap.runOptimize();
+		}
+		if (bitmap.cardinality() == 0) {
+			return null;
+		}
+		return bitmap.cardinality() <= MAX_ARRAY_SIZE ? bitmap.toArrayContainer() : bitmap;
+	}
+
+	static Container read(final DataInput in) throws IOException {
+		final byte type = in.readByte();
+		switch (type) {
+			case ARRAY:
+				return ArrayContainer.read(in);
+			case BITMAP:
+				return BitmapContainer.read(in);
+			case RUN:
+				return RunContainer.read(in);
+			default:
+				throw new IOException("Unknown container type " + type);
+		}
+	}
+
+	static void setRange(final long[] words, final int from, final int to) {
+		if (from >= to) {
+			return;
+		}
+		final int first = from >>> 6;
+		final int last = (to - 1) >>> 6;
+		final long firstMask = -1L << from;
+		final long lastMask = -1L >>> -to;
+		if (first == last) {
+			words[first] |= firstMask & lastMask;
+			return;
+		}
+		words[first] |= firstMask;
+		for (int i = first + 1; i < last; i++) {
+			words[i] = -1L;
+		}
+		words[last] |= lastMask;
+	}
+
+	abstract Container add(char value);
+
+	Container and(final Container other) {
+		if (this instanceof ArrayContainer) {
+			return ((ArrayContainer) this).filter(other, true);
+		}
+		if (other instanceof ArrayContainer) {
+			return ((ArrayContainer) other).filter(this, true);
+		}
+		final long[] words = words();
+		other.andInto(words);
+		return fromWords(words, (this instanceof RunContainer) || (other instanceof RunContainer));
+	}
+
+	int andCardinality(final Container other) {
+		if (this instanceof ArrayContainer) {
+			return ((ArrayContainer) this).countIn(other);
+		}
+		if (other instanceof ArrayContainer) {
+			return ((ArrayContainer) other).countIn(this);
+		}
+		final long[] words = words();
+		other.andInto(words);
+		return BitmapContainer.count(words);
+	}
+
+	/**
+	 * Clear the bits in <tt>words</tt> that aren't values of this container.
+	 */
+	abstract void andInto(long[] words);
+
+	Container andNot(final Container other) {
+		if (this instanceof ArrayContainer) {
+			return ((ArrayContainer) this).filter(other, false);
+		}
+		final long[] words = words();
+		other.andNotInto(words);
+		return fromWords(words, (this instanceof RunContainer) || (other instanceof RunContainer));
+	}
+
+	/**
+	 * Clear the bits in <tt>words</tt> that are values of this container.
+	 */
+	abstract void andNotInto(long[] words);
+
+	abstract int cardinality();
+
+	abstract boolean contains(char value);
+
+	/**
+	 * Like {@link #and(Container)}, but may reuse this container for the result.
+	 */
+	Container iand(final Container other) {
+		return and(other);
+	}
+
+	/**
+	 * Like {@link #andNot(Container)}, but may reuse this container for the result.
+	 */
+	Container iandNot(final Container other) {
+		return andNot(other);
+	}
+
+	/**
+	 * Like {@link #or(Container)}, but may reuse this container for the result.
+	 */
+	Container ior(final Container other) {
+		return or(other);
+	}
+
+	abstract Container copy();
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Container)) {
+			return false;
+		}
+		Container other = (Container) obj;
+		return (cardinality() == other.cardinality()) && (andCardinality(other) == cardinality());
+	}
+
+	/**
+	 * Pass each value, with <tt>high</tt> as its top 16 bits, to <tt>procedure</tt> in ascending order.
+	 */
+	abstract void forEach(int high, RoaringBitmap.Procedure procedure);
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int value = nextValue(0); value >= 0; value = nextValue(value + 1)) {
+			hash = (31 * hash) + value;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return The least value not below <tt>from</tt>, or -1.
+	 */
+	abstract int nextValue(int from);
+
+	abstract int numberOfRuns();
+
+	Container or(final Container other) {
+		if ((this instanceof ArrayContainer) && (other instanceof ArrayContainer)
+				&& ((cardinality() + other.cardinality()) <= MAX_ARRAY_SIZE)) {
+			return ((ArrayContainer) this).merge((ArrayContainer) other);
+		}
+		final long[] words = words();
+		other.orInto(words);
+		return fromWords(words, (this instanceof RunContainer) || (other instanceof RunContainer));
+	}
+
+	/**
+	 * Set the bits in <tt>words</tt> that are values of this container.
+	 */
+	abstract void orInto(long[] words);
+
+	abstract Container remove(char value);
+
+	/**
+	 * @return This container's values in the kind that serializes smallest, or <tt>null</tt> if empty.
+	 */
+	Container runOptimize() {
+		final int cardinality = cardinality();
+		if (cardinality == 0) {
+			return null;
+		}
+		final int plainBytes = cardinality <= MAX_ARRAY_SIZE ? ArrayContainer.bytesFor(cardinality) : BITMAP_BYTES;
+		if (RunContainer.bytesFor(numberOfRuns()) < plainBytes) {
+			return this instanceof RunContainer ? this : RunContainer.from(this);
+		}
+		return cardinality <= MAX_ARRAY_SIZE ? toArrayContainer() : toBitmapContainer();
+	}
+
+	/**
+	 * @return Bytes {@link #write(DataOutput)} takes.
+	 */
+	abstract int serializedSize();
+
+	/**
+	 * Copy each value, with <tt>high</tt> as its top 16 bits, into <tt>array</tt> from <tt>offset</tt> on.
+	 *
+	 * @return The offset after the last value copied.
+	 */
+	abstract int toArray(int[] array, int offset, int high);
+
+	ArrayContainer toArrayContainer() {
+		final char[] values = new char[cardinality()];
+		int n = 0;
+		for (int value = nextValue(0); value >= 0; value = nextValue(value + 1)) {
+			values[n++] = (char) value;
+		}
+		return new ArrayContainer(values, n);
+	}
+
+	BitmapContainer toBitmapContainer() {
+		return new BitmapContainer(words());
+	}
+
+	/**
+	 * @return A fresh bitmap of this container's values.
+	 */
+	long[] words() {
+		final long[] words = new long[WORDS];
+		orInto(words);
+		return words;
+	}
+
+	/**
+	 * Write the type byte and then the values.
+	 */
+	abstract void write(DataOutput out) throws IOException;
+}
@@ -0,0 +1,429 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative <tt>int</tt>s, such as row indexes, in the manner of Roaring bitmaps. Values are grouped by
+ * their top 16 bits, and each group keeps its low 16 bits in whichever container suits it: a sorted array when sparse, a bitmap
+ * when dense, or runs after {@link #runOptimize()} or a range operation. Sparse sets take a few bytes per value rather than one
+ * bit per possible value, and AND/OR/ANDNOT skip whole groups and work a word at a time within them.
+ * <p>
+ * Like {@link java.util.BitSet}, the set operations modify this bitmap; {@link #clone()} first to keep it. Not thread-safe.
+ */
+public class RoaringBitmap implements Cloneable {
+	private static final int	SERIAL_COOKIE	= 0x524f4152;
+
+	private Container[]			containers;
+	/** Index of the container {@link #nextSetBit(int)} last returned from, tried before searching. */
+	private int					cursor;
+	private char[]				keys;
+	private int					size;
+
+	public RoaringBitmap() {
+		keys = new char[4];
+		containers = new Container[4];
+	}
+
+	public static RoaringBitmap of(final int... values) {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int value : values) {
+			bitmap.add(value);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Read a bitmap written by {@link #writeTo(DataOutput)}.
+	 */
+	public static RoaringBitmap readFrom(final DataInput in) throws IOException {
+		if (in.readInt() != SERIAL_COOKIE) {
+			throw new IOException("Not a serialized bitmap");
+		}
+		final int size = in.readInt();
+		if ((size < 0) || (size > (Container.SPAN / 2))) {
+			throw new IOException("Bad container count " + size);
+		}
+		RoaringBitmap bitmap = new RoaringBitmap();
+		bitmap.keys = new char[Math.max(4, size)];
+		bitmap.containers = new Container[bitmap.keys.length];
+		for (int i = 0; i < size; i++) {
+			bitmap.keys[i] = in.readChar();
+			bitmap.containers[i] = Container.read(in);
+		}
+		bitmap.size = size;
+		return bitmap;
+	}
+
+	/**
+	 * @return Whether <tt>value</tt> was added, i.e. wasn't already present.
+	 */
+	public boolean add(final int value) {
+		checkValue(value);
+		final char key = (char) (value >>> 16);
+		final int index = Arrays.binarySearch(keys, 0, size, key);
+		if (index < 0) {
+			insert(-index - 1, key, new ArrayContainer((char) value));
+			return true;
+		}
+		if (containers[index].contains((char) value)) {
+			return false;
+		}
+		containers[index] = containers[index].add((char) value);
+		return true;
+	}
+
+	/**
+	 * Add every value from <tt>from</tt> up to but not including <tt>to</tt>.
+	 */
+	public void add(final int from, final int to) {
+		checkRange(from, to);
+		for (int key = from >>> 16; (key <= ((to - 1) >>> 16)) && (from < to); key++) {
+			final Container range = rangeContainer(key, from, to);
+			final int index = Arrays.binarySearch(keys, 0, size, (char) key);
+			if (index < 0) {
+				insert(-index - 1, (char) key, range);
+			} else {
+				containers[index] = containers[index].ior(range);
+			}
+		}
+	}
+
+	/**
+	 * Keep only the values <tt>other</tt> also holds.
+	 */
+	public void and(final RoaringBitmap other) {
+		int n = 0;
+		int j = 0;
+		for (int i = 0; (i < size) && (j < other.size); i++) {
+			while ((j < other.size) && (other.keys[j] < keys[i])) {
+				j++;
+			}
+			if ((j < other.size) && (other.keys[j] == keys[i])) {
+				final Container and = containers[i].iand(other.containers[j]);
+				if (and != null) {
+					keys[n] = keys[i];
+					containers[n++] = and;
+				}
+			}
+		}
+		truncate(n);
+	}
+
+	/**
+	 * @return How many values this bitmap and <tt>other</tt> share, without building their intersection.
+	 */
+	public long andCardinality(final RoaringBitmap other) {
+		long cardinality = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < size) && (j < other.size)) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				cardinality += containers[i++].andCardinality(other.containers[j++]);
+			}
+		}
+		return cardinality;
+	}
+
+	/**
+	 * Remove the values <tt>other</tt> holds.
+	 */
+	public void andNot(final RoaringBitmap other) {
+		int n = 0;
+		int j = 0;
+		for (int i = 0; i < size; i++) {
+			while ((j < other.size) && (other.keys[j] < keys[i])) {
+				j++;
+			}
+			final Container kept = (j < other.size) && (other.keys[j] == keys[i]) ? containers[i].iandNot(other.containers[j])
+					: containers[i];
+			if (kept != null) {
+				keys[n] = keys[i];
+				containers[n++] = kept;
+			}
+		}
+		truncate(n);
+	}
+
+	public long cardinality() {
+		long cardinality = 0;
+		for (int i = 0; i < size; i++) {
+			cardinality += containers[i].cardinality();
+		}
+		return cardinality;
+	}
+
+	public void clear() {
+		truncate(0);
+	}
+
+	@Override
+	public RoaringBitmap clone() {
+		try {
+			RoaringBitmap clone = (RoaringBitmap) super.clone();
+			clone.keys = keys.clone();
+			clone.containers = new Container[containers.length];
+			for (int i = 0; i < size; i++) {
+				clone.containers[i] = containers[i].copy();
+			}
+			return clone;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public boolean contains(final int value) {
+		if (value < 0) {
+			return false;
+		}
+		final int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+		return (index >= 0) && containers[index].contains((char) value);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof RoaringBitmap)) {
+			return false;
+		}
+		RoaringBitmap other = (RoaringBitmap) obj;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if ((keys[i] != other.keys[i]) || !containers[i].equals(other.containers[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pass every value to <tt>procedure</tt> in ascending order. The bitmap mustn't be changed meanwhile.
+	 */
+	public void forEach(final Procedure procedure) {
+		for (int i = 0; i < size; i++) {
+			containers[i].forEach(keys[i] << 16, procedure);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = 0; i < size; i++) {
+			hash = (31 * hash) + (keys[i] ^ containers[i].hashCode());
+		}
+		return hash;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The least value not below <tt>from</tt>, or -1. Loops over the values as with
+	 *         {@link java.util.BitSet#nextSetBit(int)}.
+	 */
+	public int nextSetBit(final int from) {
+		if (from < 0) {
+			throw new IndexOutOfBoundsException("from < 0: " + from);
+		}
+		final char key = (char) (from >>> 16);
+		int index = (cursor < size) && (keys[cursor] == key) ? cursor : Arrays.binarySearch(keys, 0, size, key);
+		if (index >= 0) {
+			final int low = containers[index].nextValue(from & 0xffff);
+			if (low >= 0) {
+				cursor = index;
+				return (key << 16) | low;
+			}
+			index++;
+		} else {
+			index = -index - 1;
+		}
+		if (index == size) {
+			return -1;
+		}
+		cursor = index;
+		return (keys[index] << 16) | containers[index].nextValue(0);
+	}
+
+	/**
+	 * Add the values <tt>other</tt> holds.
+	 */
+	public void or(final RoaringBitmap other) {
+		final char[] mergedKeys = new char[size + other.size];
+		final Container[] merged = new Container[mergedKeys.length];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < size) || (j < other.size)) {
+			if ((j == other.size) || ((i < size) && (keys[i] < other.keys[j]))) {
+				mergedKeys[n] = keys[i];
+				merged[n++] = containers[i++];
+			} else if ((i == size) || (keys[i] > other.keys[j])) {
+				mergedKeys[n] = other.keys[j];
+				merged[n++] = other.containers[j++].copy();
+			} else {
+				mergedKeys[n] = keys[i];
+				merged[n++] = containers[i++].ior(other.containers[j++]);
+			}
+		}
+		keys = mergedKeys;
+		containers = merged;
+		size = n;
+	}
+
+	/**
+	 * @return Whether <tt>value</tt> was present.
+	 */
+	public boolean remove(final int value) {
+		if (value < 0) {
+			return false;
+		}
+		final int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+		if ((index < 0) || !containers[index].contains((char) value)) {
+			return false;
+		}
+		final Container kept = containers[index].remove((char) value);
+		if (kept == null) {
+			removeContainer(index);
+		} else {
+			containers[index] = kept;
+		}
+		return true;
+	}
+
+	/**
+	 * Remove every value from <tt>from</tt> up to but not including <tt>to</tt>.
+	 */
+	public void remove(final int from, final int to) {
+		checkRange(from, to);
+		for (int key = from >>> 16; (key <= ((to - 1) >>> 16)) && (from < to); key++) {
+			final int index = Arrays.binarySearch(keys, 0, size, (char) key);
+			if (index >= 0) {
+				final Container kept = containers[index].iandNot(rangeContainer(key, from, to));
+				if (kept == null) {
+					removeContainer(index);
+				} else {
+					containers[index] = kept;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Convert each container to whichever kind takes least room, using runs where values are mostly consecutive.
+	 */
+	public void runOptimize() {
+		for (int i = 0; i < size; i++) {
+			containers[i] = containers[i].runOptimize();
+		}
+	}
+
+	/**
+	 * @return Bytes {@link #writeTo(DataOutput)} takes.
+	 */
+	public int serializedSize() {
+		int bytes = 8;
+		for (int i = 0; i < size; i++) {
+			bytes += 2 + containers[i].serializedSize();
+		}
+		return bytes;
+	}
+
+	public int[] toArray() {
+		final long cardinality = cardinality();
+		if (cardinality > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Too many values for an array: " + cardinality);
+		}
+		final int[] array = new int[(int) cardinality];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			n = containers[i].toArray(array, n, keys[i] << 16);
+		}
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("{");
+		forEach(new Procedure() {
+			@Override
+			public void apply(final int value) {
+				if (sb.length() > 1) {
+					sb.append(", ");
+				}
+				sb.append(value);
+			}
+		});
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Write this bitmap in its current containers; {@link #runOptimize()} first for the smallest form.
+	 */
+	public void writeTo(final DataOutput out) throws IOException {
+		out.writeInt(SERIAL_COOKIE);
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeChar(keys[i]);
+			containers[i].write(out);
+		}
+	}
+
+	private static void checkRange(final int from, final int to) {
+		if ((from < 0) || (from > to)) {
+			throw new IllegalArgumentException("Bad range [" + from + ", " + to + ")");
+		}
+	}
+
+	private static void checkValue(final int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value: " + value);
+		}
+	}
+
+	/**
+	 * @return The part of <tt>[from, to)</tt> under <tt>key</tt>, as a run container.
+	 */
+	private static Container rangeContainer(final int key, final int from, final int to) {
+		final int start = (from >>> 16) == key ? from & 0xffff : 0;
+		final int end = ((to - 1) >>> 16) == key ? ((to - 1) & 0xffff) + 1 : Container.SPAN;
+		return RunContainer.ofRange(start, end);
+	}
+
+	private void insert(final int index, final char key, final Container container) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+			containers = Arrays.copyOf(containers, keys.length);
+		}
+		System.arraycopy(keys, index, keys, index + 1, size - index);
+		System.arraycopy(containers, index, containers, index + 1, size - index);
+		keys[index] = key;
+		containers[index] = container;
+		size++;
+	}
+
+	private void removeContainer(final int index) {
+		System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+		System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+		containers[--size] = null;
+	}
+
+	private void truncate(final int newSize) {
+		Arrays.fill(containers, newSize, size, null);
+		size = newSize;
+	}
+
+	public interface Procedure {
+		void apply(int value);
+	}
+}
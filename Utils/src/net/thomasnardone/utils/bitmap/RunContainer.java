@@ -0,0 +1,257 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Values kept as sorted, non-adjacent runs, each stored as its start and its length less one. Built by
+ * {@link Container#runOptimize()} and by range operations; single adds and removes split or join runs in place.
+ */
+class RunContainer extends Container {
+	private int		count;
+	private char[]	runs;
+
+	private RunContainer(final char[] runs, final int count) {
+		this.runs = runs;
+		this.count = count;
+	}
+
+	/**
+	 * @return Payload bytes of a run container holding <tt>runs</tt> runs.
+	 */
+	static int bytesFor(final int runs) {
+		return 2 + (runs * 4);
+	}
+
+	static RunContainer from(final Container container) {
+		final RunContainer run = new RunContainer(new char[Math.max(2, container.numberOfRuns() * 2)], 0);
+		int start = container.nextValue(0);
+		while (start >= 0) {
+			int end = start;
+			int next = container.nextValue(end + 1);
+			while (next == (end + 1)) {
+				end = next;
+				next = container.nextValue(end + 1);
+			}
+			run.insertRun(run.count, start, end);
+			start = next;
+		}
+		return run;
+	}
+
+	/**
+	 * @return A container of the values from <tt>from</tt> up to but not including <tt>to</tt>.
+	 */
+	static RunContainer ofRange(final int from, final int to) {
+		return new RunContainer(new char[] { (char) from, (char) (to - from - 1) }, 1);
+	}
+
+	static RunContainer read(final DataInput in) throws IOException {
+		final int count = in.readUnsignedShort();
+		final char[] runs = new char[Math.max(2, count * 2)];
+		for (int i = 0; i < (count * 2); i++) {
+			runs[i] = in.readChar();
+		}
+		return new RunContainer(runs, count);
+	}
+
+	@Override
+	Container add(final char value) {
+		final int i = find(value);
+		if ((i >= 0) && (value <= end(i))) {
+			return this;
+		}
+		final boolean joinsPrevious = (i >= 0) && ((end(i) + 1) == value);
+		final boolean joinsNext = ((i + 1) < count) && (start(i + 1) == (value + 1));
+		if (joinsPrevious && joinsNext) {
+			final int end = end(i + 1);
+			removeRun(i + 1);
+			setEnd(i, end);
+		} else if (joinsPrevious) {
+			setEnd(i, value);
+		} else if (joinsNext) {
+			final int end = end(i + 1);
+			runs[2 * (i + 1)] = value;
+			setEnd(i + 1, end);
+		} else {
+			insertRun(i + 1, value, value);
+			return tooManyRuns() ? runOptimize() : this;
+		}
+		return this;
+	}
+
+	@Override
+	void andInto(final long[] words) {
+		int gap = 0;
+		for (int i = 0; i < count; i++) {
+			clearRange(words, gap, start(i));
+			gap = end(i) + 1;
+		}
+		clearRange(words, gap, SPAN);
+	}
+
+	@Override
+	void andNotInto(final long[] words) {
+		for (int i = 0; i < count; i++) {
+			clearRange(words, start(i), end(i) + 1);
+		}
+	}
+
+	@Override
+	int cardinality() {
+		int cardinality = 0;
+		for (int i = 0; i < count; i++) {
+			cardinality += runs[(2 * i) + 1] + 1;
+		}
+		return cardinality;
+	}
+
+	@Override
+	boolean contains(final char value) {
+		final int i = find(value);
+		return (i >= 0) && (value <= end(i));
+	}
+
+	@Override
+	Container copy() {
+		return new RunContainer(Arrays.copyOf(runs, Math.max(2, count * 2)), count);
+	}
+
+	@Override
+	void forEach(final int high, final RoaringBitmap.Procedure procedure) {
+		for (int i = 0; i < count; i++) {
+			final int end = end(i);
+			for (int value = start(i); value <= end; value++) {
+				procedure.apply(high | value);
+			}
+		}
+	}
+
+	@Override
+	int nextValue(final int from) {
+		if (from >= SPAN) {
+			return -1;
+		}
+		final int i = find(from);
+		if ((i >= 0) && (from <= end(i))) {
+			return from;
+		}
+		return (i + 1) < count ? start(i + 1) : -1;
+	}
+
+	@Override
+	int numberOfRuns() {
+		return count;
+	}
+
+	@Override
+	void orInto(final long[] words) {
+		for (int i = 0; i < count; i++) {
+			setRange(words, start(i), end(i) + 1);
+		}
+	}
+
+	@Override
+	Container remove(final char value) {
+		final int i = find(value);
+		if ((i < 0) || (value > end(i))) {
+			return this;
+		}
+		final int start = start(i);
+		final int end = end(i);
+		if (start == end) {
+			removeRun(i);
+			return count == 0 ? null : this;
+		}
+		if (value == start) {
+			runs[2 * i] = (char) (value + 1);
+			setEnd(i, end);
+		} else if (value == end) {
+			setEnd(i, end - 1);
+		} else {
+			setEnd(i, value - 1);
+			insertRun(i + 1, value + 1, end);
+			return tooManyRuns() ? runOptimize() : this;
+		}
+		return this;
+	}
+
+	@Override
+	int serializedSize() {
+		return 1 + bytesFor(count);
+	}
+
+	@Override
+	int toArray(final int[] array, final int offset, final int high) {
+		int n = offset;
+		for (int i = 0; i < count; i++) {
+			final int end = end(i);
+			for (int value = start(i); value <= end; value++) {
+				array[n++] = high | value;
+			}
+		}
+		return n;
+	}
+
+	@Override
+	void write(final DataOutput out) throws IOException {
+		out.writeByte(RUN);
+		out.writeShort(count);
+		for (int i = 0; i < (count * 2); i++) {
+			out.writeChar(runs[i]);
+		}
+	}
+
+	private int end(final int run) {
+		return runs[2 * run] + runs[(2 * run) + 1];
+	}
+
+	/**
+	 * @return Index of the last run starting at or before <tt>value</tt>, or -1.
+	 */
+	private int find(final int value) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (runs[2 * mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	private void insertRun(final int run, final int start, final int end) {
+		if (((count + 1) * 2) > runs.length) {
+			runs = Arrays.copyOf(runs, Math.max(4, runs.length * 2));
+		}
+		System.arraycopy(runs, 2 * run, runs, 2 * (run + 1), 2 * (count - run));
+		runs[2 * run] = (char) start;
+		runs[(2 * run) + 1] = (char) (end - start);
+		count++;
+	}
+
+	private void removeRun(final int run) {
+		System.arraycopy(runs, 2 * (run + 1), runs, 2 * run, 2 * (count - run - 1));
+		count--;
+	}
+
+	private void setEnd(final int run, final int end) {
+		runs[(2 * run) + 1] = (char) (end - runs[2 * run]);
+	}
+
+	private int start(final int run) {
+		return runs[2 * run];
+	}
+
+	/**
+	 * @return Whether the runs have come to take more room than a bitmap would.
+	 */
+	private boolean tooManyRuns() {
+		return bytesFor(count) >= BITMAP_BYTES;
+	}
+}
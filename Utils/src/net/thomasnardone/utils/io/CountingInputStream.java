@@ -12,6 +12,16 @@ public class CountingInputStream extends InputStream {
 		count = 0;
 	}
 
+	@Override
+	public int available() throws IOException {
+		return input.available();
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
 	public long getCount() {
 		return count;
 	}
@@ -28,4 +38,20 @@ public class CountingInputStream extends InputStream {
 		}
 		return read;
 	}
+
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+		final int read = input.read(buffer, offset, length);
+		if (read > 0) {
+			count += read;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		final long skipped = input.skip(n);
+		count += skipped;
+		return skipped;
+	}
 }
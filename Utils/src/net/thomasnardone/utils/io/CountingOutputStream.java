@@ -12,6 +12,16 @@ public class CountingOutputStream extends OutputStream {
 		count = 0;
 	}
 
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		output.flush();
+	}
+
 	public long getCount() {
 		return count;
 	}
@@ -20,6 +30,12 @@ public class CountingOutputStream extends OutputStream {
 		return ByteFormatter.format(count);
 	}
 
+	@Override
+	public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+		output.write(buffer, offset, length);
+		count += length;
+	}
+
 	@Override
 	public void write(final int oneByte) throws IOException {
 		count++;
@@ -0,0 +1,307 @@
+package net.thomasnardone.utils.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time from a reused buffer. Quoted fields may hold delimiters, doubled quotes and line
+ * breaks; records end with CRLF, LF or CR, and blank lines are skipped. Fields are exposed as views into the buffer, valid
+ * until the next call to {@link #next()}. Wrap a {@link MappedFileReader} to read a large file through memory mappings.
+ */
+public class CsvReader implements Closeable {
+	public static final int		DEFAULT_BUFFER_SIZE	= 1 << 16;
+
+	private static final char	QUOTE				= '"';
+
+	private char[]				buffer;
+	private int					count;
+	private final char			delimiter;
+	private int[]				ends;
+	private boolean				eof;
+	private Field[]				fields;
+	private final Reader		in;
+	private int					limit;
+	private int					position;
+	private int					recordStart;
+	private int[]				starts;
+	private int					write;
+
+	public CsvReader(final Reader in) {
+		this(in, ',');
+	}
+
+	public CsvReader(final Reader in, final char delimiter) {
+		this(in, delimiter, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param bufferSize
+	 *            Initial size of the buffer, which grows to hold a whole record if need be.
+	 */
+	public CsvReader(final Reader in, final char delimiter, final int bufferSize) {
+		if ((delimiter == QUOTE) || (delimiter == '\n') || (delimiter == '\r')) {
+			throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+		}
+		this.in = in;
+		this.delimiter = delimiter;
+		buffer = new char[Math.max(16, bufferSize)];
+		starts = new int[16];
+		ends = new int[16];
+		fields = new Field[16];
+	}
+
+	/**
+	 * @return Every record of <tt>in</tt>, which is closed afterwards.
+	 */
+	public static String[][] readAll(final Reader in) throws IOException {
+		CsvReader reader = new CsvReader(in);
+		try {
+			return reader.readAll();
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Pass each remaining record to <tt>procedure</tt>.
+	 */
+	public void forEach(final Procedure procedure) throws IOException {
+		while (next()) {
+			procedure.apply(this);
+		}
+	}
+
+	/**
+	 * @return A view of field <tt>index</tt> of the current record, valid until the next call to {@link #next()}.
+	 */
+	public CharSequence getField(final int index) {
+		checkIndex(index);
+		if (fields[index] == null) {
+			fields[index] = new Field(index);
+		}
+		return fields[index];
+	}
+
+	public int getFieldCount() {
+		return count;
+	}
+
+	public String getString(final int index) {
+		checkIndex(index);
+		return new String(buffer, starts[index], ends[index] - starts[index]);
+	}
+
+	/**
+	 * Move to the next record.
+	 *
+	 * @return <tt>false</tt> at the end of the input.
+	 */
+	public boolean next() throws IOException {
+		count = 0;
+		while (true) {
+			recordStart = position;
+			if ((position == limit) && !fill()) {
+				return false;
+			}
+			final char c = buffer[position];
+			if ((c != '\n') && (c != '\r')) {
+				break;
+			}
+			position++;
+		}
+		while (readField()) {
+			// more fields follow
+		}
+		return true;
+	}
+
+	/**
+	 * @return The remaining records.
+	 */
+	public String[][] readAll() throws IOException {
+		List<String[]> records = new ArrayList<String[]>();
+		while (next()) {
+			records.add(toArray());
+		}
+		return records.toArray(new String[records.size()][]);
+	}
+
+	/**
+	 * @return The fields of the current record as strings.
+	 */
+	public String[] toArray() {
+		final String[] strings = new String[count];
+		for (int i = 0; i < count; i++) {
+			strings[i] = getString(i);
+		}
+		return strings;
+	}
+
+	private void checkIndex(final int index) {
+		if ((index < 0) || (index >= count)) {
+			throw new IndexOutOfBoundsException("Field " + index + " of " + count);
+		}
+	}
+
+	/**
+	 * Record the end of the current field, after the delimiter or line break at <tt>position</tt> if any.
+	 *
+	 * @return Whether another field of the same record follows.
+	 */
+	private boolean endField(final boolean atEnd) throws IOException {
+		ends[count++] = write;
+		if (atEnd) {
+			return false;
+		}
+		final char c = buffer[position++];
+		if (c == delimiter) {
+			return true;
+		}
+		if ((c == '\r') && ((position < limit) || fill()) && (buffer[position] == '\n')) {
+			position++;
+		}
+		return false;
+	}
+
+	/**
+	 * Read more input, first moving the current record to the front of the buffer or growing the buffer if it's full.
+	 *
+	 * @return <tt>false</tt> at the end of the input.
+	 */
+	private boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+		if (recordStart > 0) {
+			final int shift = recordStart;
+			System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+			limit -= shift;
+			position -= shift;
+			write -= shift;
+			recordStart = 0;
+			for (int i = 0; i <= count; i++) {
+				starts[i] -= shift;
+				ends[i] -= shift;
+			}
+		} else if (limit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+		final int read = in.read(buffer, limit, buffer.length - limit);
+		if (read < 0) {
+			eof = true;
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+	private boolean isTerminator(final char c) {
+		return (c == delimiter) || (c == '\n') || (c == '\r');
+	}
+
+	/**
+	 * Read one field into {@link #starts} and {@link #ends}. Quoted fields are unescaped in place, so every field is one run of
+	 * the buffer.
+	 *
+	 * @return Whether another field of the same record follows.
+	 */
+	private boolean readField() throws IOException {
+		if ((count + 1) == starts.length) {
+			starts = Arrays.copyOf(starts, starts.length * 2);
+			ends = Arrays.copyOf(ends, ends.length * 2);
+			fields = Arrays.copyOf(fields, fields.length * 2);
+		}
+		if ((position == limit) && !fill()) {
+			starts[count] = write = position;
+			return endField(true);
+		}
+		if (buffer[position] != QUOTE) {
+			starts[count] = position;
+			while (true) {
+				if ((position == limit) && !fill()) {
+					write = position;
+					return endField(true);
+				}
+				if (isTerminator(buffer[position])) {
+					write = position;
+					return endField(false);
+				}
+				position++;
+			}
+		}
+		starts[count] = write = ++position;
+		while (true) {
+			if ((position == limit) && !fill()) {
+				return endField(true);
+			}
+			final char c = buffer[position++];
+			if (c == QUOTE) {
+				if ((position == limit) && !fill()) {
+					return endField(true);
+				}
+				if (buffer[position] != QUOTE) {
+					break;
+				}
+				position++;
+			}
+			buffer[write++] = c;
+		}
+		// anything between the closing quote and the next delimiter is kept as is
+		while (true) {
+			if ((position == limit) && !fill()) {
+				return endField(true);
+			}
+			if (isTerminator(buffer[position])) {
+				return endField(false);
+			}
+			buffer[write++] = buffer[position++];
+		}
+	}
+
+	public interface Procedure {
+		void apply(CsvReader record);
+	}
+
+	/**
+	 * Field {@link #index} of whichever record is current.
+	 */
+	private class Field implements CharSequence {
+		private final int	index;
+
+		Field(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public char charAt(final int i) {
+			if ((i < 0) || (i >= length())) {
+				throw new IndexOutOfBoundsException(String.valueOf(i));
+			}
+			return buffer[starts[index] + i];
+		}
+
+		@Override
+		public int length() {
+			return ends[index] - starts[index];
+		}
+
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			return toString().substring(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return new String(buffer, starts[index], length());
+		}
+	}
+}
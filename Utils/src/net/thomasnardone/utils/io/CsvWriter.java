@@ -0,0 +1,163 @@
+package net.thomasnardone.utils.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes RFC 4180 CSV through its own buffer. Fields holding the delimiter, a quote or a line break are quoted, and records
+ * end with CRLF. A record of one empty field is written as <tt>""</tt> so that {@link CsvReader} doesn't skip it.
+ */
+public class CsvWriter implements Closeable, Flushable {
+	private static final int	BUFFER_SIZE	= 8192;
+	private static final char	QUOTE		= '"';
+
+	private final char[]		buffer;
+	private int					count;
+	private final char			delimiter;
+	private int					fields;
+	private final Writer		out;
+	private boolean				recordEmpty;
+
+	public CsvWriter(final Writer out) {
+		this(out, ',');
+	}
+
+	public CsvWriter(final Writer out, final char delimiter) {
+		if ((delimiter == QUOTE) || (delimiter == '\n') || (delimiter == '\r')) {
+			throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+		}
+		this.out = out;
+		this.delimiter = delimiter;
+		buffer = new char[BUFFER_SIZE];
+		recordEmpty = true;
+	}
+
+	/**
+	 * Write <tt>records</tt> to <tt>out</tt>, which is closed afterwards.
+	 */
+	public static void writeAll(final Writer out, final Object[][] records) throws IOException {
+		CsvWriter writer = new CsvWriter(out);
+		try {
+			writer.writeAll(records);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		flushBuffer();
+		out.close();
+	}
+
+	/**
+	 * End the current record.
+	 */
+	public void endRecord() throws IOException {
+		if ((fields > 0) && recordEmpty) {
+			put(QUOTE);
+			put(QUOTE);
+		}
+		put('\r');
+		put('\n');
+		fields = 0;
+		recordEmpty = true;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	public void writeAll(final Object[][] records) throws IOException {
+		for (Object[] record : records) {
+			writeRecord(record);
+		}
+	}
+
+	/**
+	 * Add a field to the current record; <tt>null</tt> is written as an empty field.
+	 */
+	public void writeField(final CharSequence value) throws IOException {
+		if (fields++ > 0) {
+			put(delimiter);
+		}
+		if ((value == null) || (value.length() == 0)) {
+			return;
+		}
+		recordEmpty = false;
+		if (!needsQuotes(value)) {
+			append(value, 0, value.length());
+			return;
+		}
+		put(QUOTE);
+		int from = 0;
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) == QUOTE) {
+				append(value, from, i + 1);
+				from = i;
+			}
+		}
+		append(value, from, value.length());
+		put(QUOTE);
+	}
+
+	/**
+	 * Write a whole record. Values that aren't {@link CharSequence}s are written by their <tt>toString()</tt>.
+	 */
+	public void writeRecord(final Object... values) throws IOException {
+		for (Object value : values) {
+			if ((value == null) || (value instanceof CharSequence)) {
+				writeField((CharSequence) value);
+			} else {
+				writeField(value.toString());
+			}
+		}
+		endRecord();
+	}
+
+	private void append(final CharSequence s, int from, final int to) throws IOException {
+		while (from < to) {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			final int n = Math.min(to - from, buffer.length - count);
+			if (s instanceof String) {
+				((String) s).getChars(from, from + n, buffer, count);
+			} else {
+				for (int i = 0; i < n; i++) {
+					buffer[count + i] = s.charAt(from + i);
+				}
+			}
+			count += n;
+			from += n;
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			out.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	private boolean needsQuotes(final CharSequence value) {
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if ((c == delimiter) || (c == QUOTE) || (c == '\n') || (c == '\r')) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void put(final char c) throws IOException {
+		if (count == buffer.length) {
+			flushBuffer();
+		}
+		buffer[count++] = c;
+	}
+}
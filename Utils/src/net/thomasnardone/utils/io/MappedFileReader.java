@@ -0,0 +1,110 @@
+package net.thomasnardone.utils.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+
+/**
+ * Decodes a file through read-only memory mappings, one window at a time so files beyond 2GB can be read. Malformed input is
+ * replaced rather than reported. Mappings are released when collected, not on {@link #close()}.
+ */
+public class MappedFileReader extends Reader {
+	private static final int		WINDOW_SIZE	= 1 << 24;
+
+	private final FileChannel		channel;
+	private final CharsetDecoder	decoder;
+	private boolean					flushed;
+	/** Decoded chars not yet returned, left over when a surrogate pair was asked for one char at a time. */
+	private final char[]			pending		= new char[2];
+	private int						pendingCount;
+	private int						pendingStart;
+	private final long				size;
+	private MappedByteBuffer		window;
+	private final int				windowSize;
+	private long					windowStart;
+
+	public MappedFileReader(final File file, final Charset charset) throws IOException {
+		this(file, charset, WINDOW_SIZE);
+	}
+
+	MappedFileReader(final File file, final Charset charset, final int windowSize) throws IOException {
+		channel = new FileInputStream(file).getChannel();
+		decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		size = channel.size();
+		this.windowSize = windowSize;
+		map(0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	@Override
+	public int read(final char[] chars, final int offset, final int length) throws IOException {
+		if (window == null) {
+			throw new IOException("Reader closed");
+		}
+		if (length == 0) {
+			return 0;
+		}
+		if (pendingCount > 0) {
+			final int read = Math.min(length, pendingCount);
+			System.arraycopy(pending, pendingStart, chars, offset, read);
+			pendingStart += read;
+			pendingCount -= read;
+			return read;
+		}
+		if (length == 1) {
+			// one char can't hold a surrogate pair, so decode two and keep the second for the next call
+			final int read = read(pending, 0, 2);
+			if (read < 0) {
+				return -1;
+			}
+			chars[offset] = pending[0];
+			pendingStart = 1;
+			pendingCount = read - 1;
+			return 1;
+		}
+		if (flushed) {
+			return -1;
+		}
+		final CharBuffer out = CharBuffer.wrap(chars, offset, length);
+		while (true) {
+			final boolean last = (windowStart + window.limit()) == size;
+			final CoderResult result = decoder.decode(window, out, last);
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (result.isOverflow()) {
+				// at least two chars were asked for, which holds any code point, so some were decoded
+				return out.position() - offset;
+			}
+			if (last) {
+				flushed = decoder.flush(out).isUnderflow();
+				final int read = out.position() - offset;
+				return read > 0 ? read : -1;
+			}
+			if (out.position() > offset) {
+				return out.position() - offset;
+			}
+			// what's left of the window is part of a character; map again from its first byte
+			map(windowStart + window.position());
+		}
+	}
+
+	private void map(final long start) throws IOException {
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+	}
+}
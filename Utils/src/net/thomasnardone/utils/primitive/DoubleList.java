@@ -0,0 +1,243 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of <tt>double</tt>s, without boxing. Only growing the backing array allocates.
+ */
+public class DoubleList {
+	public static final int			DEFAULT_CAPACITY	= 10;
+	private static final double[]	EMPTY				= new double[0];
+
+	private double[]				data;
+	private int						size;
+
+	public DoubleList() {
+		data = EMPTY;
+	}
+
+	public DoubleList(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity: " + capacity);
+		}
+		data = capacity == 0 ? EMPTY : new double[capacity];
+	}
+
+	/**
+	 * @return A list holding a copy of <tt>values</tt>.
+	 */
+	public static DoubleList of(final double... values) {
+		DoubleList list = new DoubleList(values.length);
+		list.addAll(values);
+		return list;
+	}
+
+	public void add(final double value) {
+		if (size == data.length) {
+			grow(size + 1);
+		}
+		data[size++] = value;
+	}
+
+	public void add(final int index, final double value) {
+		if ((index < 0) || (index > size)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (size == data.length) {
+			grow(size + 1);
+		}
+		System.arraycopy(data, index, data, index + 1, size - index);
+		data[index] = value;
+		size++;
+	}
+
+	public void addAll(final double[] values) {
+		addAll(values, 0, values.length);
+	}
+
+	public void addAll(final double[] values, final int offset, final int length) {
+		ensureCapacity(size + length);
+		System.arraycopy(values, offset, data, size, length);
+		size += length;
+	}
+
+	public void addAll(final DoubleList list) {
+		addAll(list.data, 0, list.size);
+	}
+
+	/**
+	 * Insert <tt>value</tt> after any equal values, keeping an ascending list in order.
+	 *
+	 * @return The index <tt>value</tt> was inserted at.
+	 */
+	public int addSorted(final double value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (Double.compare(data[mid], value) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		add(low, value);
+		return low;
+	}
+
+	/**
+	 * Search an ascending list for <tt>value</tt>.
+	 *
+	 * @return Index of <tt>value</tt>, or <tt>-(insertion point) - 1</tt> as {@link Arrays#binarySearch(double[], double)}.
+	 */
+	public int binarySearch(final double value) {
+		return Arrays.binarySearch(data, 0, size, value);
+	}
+
+	/**
+	 * Empty the list, keeping its capacity.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	public boolean contains(final double value) {
+		return indexOf(value) > -1;
+	}
+
+	public void ensureCapacity(final int capacity) {
+		if (capacity > data.length) {
+			grow(capacity);
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DoubleList)) {
+			return false;
+		}
+		DoubleList other = (DoubleList) obj;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (Double.doubleToLongBits(data[i]) != Double.doubleToLongBits(other.data[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public double get(final int index) {
+		checkIndex(index);
+		return data[index];
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < size; i++) {
+			final long bits = Double.doubleToLongBits(data[i]);
+			hash = (31 * hash) + (int) (bits ^ (bits >>> 32));
+		}
+		return hash;
+	}
+
+	/**
+	 * @return The first index holding <tt>value</tt>, or -1.
+	 */
+	public int indexOf(final double value) {
+		for (int i = 0; i < size; i++) {
+			if (Double.doubleToLongBits(data[i]) == Double.doubleToLongBits(value)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The value removed from <tt>index</tt>.
+	 */
+	public double removeAt(final int index) {
+		checkIndex(index);
+		final double removed = data[index];
+		System.arraycopy(data, index + 1, data, index, size - index - 1);
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Remove the first occurrence of <tt>value</tt>.
+	 *
+	 * @return Whether it was found.
+	 */
+	public boolean removeValue(final double value) {
+		final int index = indexOf(value);
+		if (index < 0) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * @return The value previously at <tt>index</tt>.
+	 */
+	public double set(final int index, final double value) {
+		checkIndex(index);
+		final double old = data[index];
+		data[index] = value;
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void sort() {
+		Arrays.sort(data, 0, size);
+	}
+
+	public double[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(size * 4 + 2).append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(data[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+	public void trimToSize() {
+		if (size < data.length) {
+			data = size == 0 ? EMPTY : Arrays.copyOf(data, size);
+		}
+	}
+
+	private void checkIndex(final int index) {
+		if ((index < 0) || (index >= size)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private void grow(final int minCapacity) {
+		int capacity = Math.max(DEFAULT_CAPACITY, data.length + (data.length >> 1));
+		if (capacity < minCapacity) {
+			capacity = minCapacity;
+		}
+		data = Arrays.copyOf(data, capacity);
+	}
+}
@@ -0,0 +1,220 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Set of <tt>int</tt>s in an open-addressing table with linear probing. Adding, removing and looking up don't allocate unless
+ * the table has to grow; removal shifts later keys back rather than leaving tombstones.
+ */
+public class IntHashSet {
+	private boolean	hasZero;
+	private int[]	keys;
+	private int		mask;
+	private int		resizeAt;
+	private int		size;
+
+	public IntHashSet() {
+		this(0);
+	}
+
+	public IntHashSet(final int expectedSize) {
+		allocate(IntHashing.capacityFor(expectedSize));
+	}
+
+	/**
+	 * @return A set holding <tt>values</tt>.
+	 */
+	public static IntHashSet of(final int... values) {
+		IntHashSet set = new IntHashSet(values.length);
+		for (int value : values) {
+			set.add(value);
+		}
+		return set;
+	}
+
+	/**
+	 * @return Whether <tt>key</tt> was added, i.e. wasn't already present.
+	 */
+	public boolean add(final int key) {
+		if (key == 0) {
+			if (hasZero) {
+				return false;
+			}
+			hasZero = true;
+			size++;
+			return true;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] == key) {
+			return false;
+		}
+		keys[slot] = key;
+		size++;
+		if (nonZeroSize() >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Empty the set, keeping its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		hasZero = false;
+		size = 0;
+	}
+
+	public boolean contains(final int key) {
+		if (key == 0) {
+			return hasZero;
+		}
+		return keys[slotFor(key)] == key;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IntHashSet)) {
+			return false;
+		}
+		IntHashSet other = (IntHashSet) obj;
+		if ((size != other.size) || (hasZero != other.hasZero)) {
+			return false;
+		}
+		for (int key : keys) {
+			if ((key != 0) && !other.contains(key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pass every key to <tt>procedure</tt>, in no particular order. The set mustn't be changed meanwhile.
+	 */
+	public void forEach(final Procedure procedure) {
+		if (hasZero) {
+			procedure.apply(0);
+		}
+		for (int key : keys) {
+			if (key != 0) {
+				procedure.apply(key);
+			}
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int key : keys) {
+			hash += key;
+		}
+		return hash;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return Whether <tt>key</tt> was present.
+	 */
+	public boolean remove(final int key) {
+		if (key == 0) {
+			if (!hasZero) {
+				return false;
+			}
+			hasZero = false;
+			size--;
+			return true;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] != key) {
+			return false;
+		}
+		shiftBack(slot);
+		size--;
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int[] toArray() {
+		int[] array = new int[size];
+		int i = 0;
+		if (hasZero) {
+			array[i++] = 0;
+		}
+		for (int key : keys) {
+			if (key != 0) {
+				array[i++] = key;
+			}
+		}
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return IntList.of(toArray()).toString();
+	}
+
+	private void allocate(final int capacity) {
+		keys = new int[capacity];
+		mask = capacity - 1;
+		resizeAt = IntHashing.resizeAt(capacity);
+	}
+
+	private int nonZeroSize() {
+		return hasZero ? size - 1 : size;
+	}
+
+	private void rehash(final int capacity) {
+		final int[] oldKeys = keys;
+		allocate(capacity);
+		for (int key : oldKeys) {
+			if (key != 0) {
+				keys[slotFor(key)] = key;
+			}
+		}
+	}
+
+	/**
+	 * Empty <tt>removed</tt>, moving back any later keys in its run that would no longer be found.
+	 */
+	private void shiftBack(final int removed) {
+		int gap = removed;
+		int slot = removed;
+		while (true) {
+			slot = (slot + 1) & mask;
+			final int key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			if (IntHashing.canShift(IntHashing.mix(key) & mask, gap, slot, mask)) {
+				keys[gap] = key;
+				gap = slot;
+			}
+		}
+		keys[gap] = 0;
+	}
+
+	/**
+	 * @return The slot holding non-zero <tt>key</tt>, or the empty slot it would go in.
+	 */
+	private int slotFor(final int key) {
+		int slot = IntHashing.mix(key) & mask;
+		while ((keys[slot] != 0) && (keys[slot] != key)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	public interface Procedure {
+		void apply(int key);
+	}
+}
@@ -0,0 +1,48 @@
+package net.thomasnardone.utils.primitive;
+
+/**
+ * Sizing and hashing shared by the open-addressing <tt>int</tt>-keyed tables. Tables are a power of two long and are grown once
+ * they are three quarters full; key 0 marks an empty slot, so each table stores a 0 key on the side.
+ */
+final class IntHashing {
+	static final int	MIN_CAPACITY	= 4;
+
+	private IntHashing() {}
+
+	/**
+	 * @return Whether the key in <tt>slot</tt>, which hashed to <tt>home</tt>, may move back into the empty <tt>gap</tt> - that
+	 *         is, whether <tt>gap</tt> lies on its probe path.
+	 */
+	static boolean canShift(final int home, final int gap, final int slot, final int mask) {
+		return ((slot - home) & mask) >= ((slot - gap) & mask);
+	}
+
+	/**
+	 * @return The table length needed to hold <tt>expectedSize</tt> keys without growing.
+	 */
+	static int capacityFor(final int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Negative size: " + expectedSize);
+		}
+		final long needed = (long) expectedSize * 4 / 3 + 1;
+		if (needed > (1 << 30)) {
+			throw new IllegalArgumentException("Too many keys: " + expectedSize);
+		}
+		return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+	}
+
+	/**
+	 * Spread the key bits so sequential keys don't cluster.
+	 */
+	static int mix(final int key) {
+		final int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return How many non-zero keys a table of <tt>capacity</tt> slots holds before it grows.
+	 */
+	static int resizeAt(final int capacity) {
+		return capacity - (capacity >> 2);
+	}
+}
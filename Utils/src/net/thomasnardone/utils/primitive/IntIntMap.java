@@ -0,0 +1,278 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Map from <tt>int</tt> to <tt>int</tt> in an open-addressing table with linear probing, laid out like {@link IntHashSet}. Only
+ * growing the table allocates. Lookups of absent keys return 0 unless another default is given.
+ */
+public class IntIntMap {
+	private boolean	hasZeroKey;
+	private int[]	keys;
+	private int		mask;
+	private int		resizeAt;
+	private int		size;
+	private int[]	values;
+	private int		zeroValue;
+
+	public IntIntMap() {
+		this(0);
+	}
+
+	public IntIntMap(final int expectedSize) {
+		allocate(IntHashing.capacityFor(expectedSize));
+	}
+
+	/**
+	 * Add <tt>delta</tt> to the value of <tt>key</tt>, counting from 0 if it's absent.
+	 *
+	 * @return The new value.
+	 */
+	public int addTo(final int key, final int delta) {
+		if (key == 0) {
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			return zeroValue += delta;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] == key) {
+			return values[slot] += delta;
+		}
+		insert(slot, key, delta);
+		return delta;
+	}
+
+	/**
+	 * Empty the map, keeping its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		hasZeroKey = false;
+		zeroValue = 0;
+		size = 0;
+	}
+
+	public boolean containsKey(final int key) {
+		if (key == 0) {
+			return hasZeroKey;
+		}
+		return keys[slotFor(key)] == key;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IntIntMap)) {
+			return false;
+		}
+		IntIntMap other = (IntIntMap) obj;
+		if ((size != other.size) || (hasZeroKey != other.hasZeroKey) || (hasZeroKey && (zeroValue != other.zeroValue))) {
+			return false;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if ((keys[i] != 0) && (!other.containsKey(keys[i]) || (other.get(keys[i]) != values[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pass every entry to <tt>procedure</tt>, in no particular order. The map mustn't be changed meanwhile.
+	 */
+	public void forEach(final Procedure procedure) {
+		if (hasZeroKey) {
+			procedure.apply(0, zeroValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				procedure.apply(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return The value of <tt>key</tt>, or 0 if it's absent.
+	 */
+	public int get(final int key) {
+		return get(key, 0);
+	}
+
+	/**
+	 * @return The value of <tt>key</tt>, or <tt>missing</tt> if it's absent.
+	 */
+	public int get(final int key, final int missing) {
+		if (key == 0) {
+			return hasZeroKey ? zeroValue : missing;
+		}
+		final int slot = slotFor(key);
+		return keys[slot] == key ? values[slot] : missing;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = hasZeroKey ? zeroValue : 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				hash += keys[i] ^ values[i];
+			}
+		}
+		return hash;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The keys, in no particular order.
+	 */
+	public int[] keys() {
+		int[] array = new int[size];
+		int i = 0;
+		if (hasZeroKey) {
+			array[i++] = 0;
+		}
+		for (int key : keys) {
+			if (key != 0) {
+				array[i++] = key;
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * @return The previous value of <tt>key</tt>, or 0 if it was absent.
+	 */
+	public int put(final int key, final int value) {
+		if (key == 0) {
+			final int old = hasZeroKey ? zeroValue : 0;
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			zeroValue = value;
+			return old;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] == key) {
+			final int old = values[slot];
+			values[slot] = value;
+			return old;
+		}
+		insert(slot, key, value);
+		return 0;
+	}
+
+	/**
+	 * @return The value <tt>key</tt> had, or 0 if it was absent.
+	 */
+	public int remove(final int key) {
+		if (key == 0) {
+			if (!hasZeroKey) {
+				return 0;
+			}
+			final int old = zeroValue;
+			hasZeroKey = false;
+			zeroValue = 0;
+			size--;
+			return old;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] != key) {
+			return 0;
+		}
+		final int old = values[slot];
+		shiftBack(slot);
+		size--;
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("{");
+		forEach(new Procedure() {
+			@Override
+			public void apply(final int key, final int value) {
+				if (sb.length() > 1) {
+					sb.append(", ");
+				}
+				sb.append(key).append('=').append(value);
+			}
+		});
+		return sb.append('}').toString();
+	}
+
+	private void allocate(final int capacity) {
+		keys = new int[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		resizeAt = IntHashing.resizeAt(capacity);
+	}
+
+	private void insert(final int slot, final int key, final int value) {
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+		if ((hasZeroKey ? size - 1 : size) >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+	}
+
+	private void rehash(final int capacity) {
+		final int[] oldKeys = keys;
+		final int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				final int slot = slotFor(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Empty <tt>removed</tt>, moving back any later entries in its run that would no longer be found.
+	 */
+	private void shiftBack(final int removed) {
+		int gap = removed;
+		int slot = removed;
+		while (true) {
+			slot = (slot + 1) & mask;
+			final int key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			if (IntHashing.canShift(IntHashing.mix(key) & mask, gap, slot, mask)) {
+				keys[gap] = key;
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = 0;
+	}
+
+	/**
+	 * @return The slot holding non-zero <tt>key</tt>, or the empty slot it would go in.
+	 */
+	private int slotFor(final int key) {
+		int slot = IntHashing.mix(key) & mask;
+		while ((keys[slot] != 0) && (keys[slot] != key)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	public interface Procedure {
+		void apply(int key, int value);
+	}
+}
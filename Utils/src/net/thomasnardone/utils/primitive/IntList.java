@@ -0,0 +1,242 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of <tt>int</tt>s, without boxing. Only growing the backing array allocates.
+ */
+public class IntList {
+	public static final int		DEFAULT_CAPACITY	= 10;
+	private static final int[]	EMPTY				= new int[0];
+
+	private int[]				data;
+	private int					size;
+
+	public IntList() {
+		data = EMPTY;
+	}
+
+	public IntList(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity: " + capacity);
+		}
+		data = capacity == 0 ? EMPTY : new int[capacity];
+	}
+
+	/**
+	 * @return A list holding a copy of <tt>values</tt>.
+	 */
+	public static IntList of(final int... values) {
+		IntList list = new IntList(values.length);
+		list.addAll(values);
+		return list;
+	}
+
+	public void add(final int value) {
+		if (size == data.length) {
+			grow(size + 1);
+		}
+		data[size++] = value;
+	}
+
+	public void add(final int index, final int value) {
+		if ((index < 0) || (index > size)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (size == data.length) {
+			grow(size + 1);
+		}
+		System.arraycopy(data, index, data, index + 1, size - index);
+		data[index] = value;
+		size++;
+	}
+
+	public void addAll(final int[] values) {
+		addAll(values, 0, values.length);
+	}
+
+	public void addAll(final int[] values, final int offset, final int length) {
+		ensureCapacity(size + length);
+		System.arraycopy(values, offset, data, size, length);
+		size += length;
+	}
+
+	public void addAll(final IntList list) {
+		addAll(list.data, 0, list.size);
+	}
+
+	/**
+	 * Insert <tt>value</tt> after any equal values, keeping an ascending list in order.
+	 *
+	 * @return The index <tt>value</tt> was inserted at.
+	 */
+	public int addSorted(final int value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (data[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		add(low, value);
+		return low;
+	}
+
+	/**
+	 * Search an ascending list for <tt>value</tt>.
+	 *
+	 * @return Index of <tt>value</tt>, or <tt>-(insertion point) - 1</tt> as {@link Arrays#binarySearch(int[], int)}.
+	 */
+	public int binarySearch(final int value) {
+		return Arrays.binarySearch(data, 0, size, value);
+	}
+
+	/**
+	 * Empty the list, keeping its capacity.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	public boolean contains(final int value) {
+		return indexOf(value) > -1;
+	}
+
+	public void ensureCapacity(final int capacity) {
+		if (capacity > data.length) {
+			grow(capacity);
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IntList)) {
+			return false;
+		}
+		IntList other = (IntList) obj;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (data[i] != other.data[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int get(final int index) {
+		checkIndex(index);
+		return data[index];
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < size; i++) {
+			hash = (31 * hash) + data[i];
+		}
+		return hash;
+	}
+
+	/**
+	 * @return The first index holding <tt>value</tt>, or -1.
+	 */
+	public int indexOf(final int value) {
+		for (int i = 0; i < size; i++) {
+			if (data[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The value removed from <tt>index</tt>.
+	 */
+	public int removeAt(final int index) {
+		checkIndex(index);
+		final int removed = data[index];
+		System.arraycopy(data, index + 1, data, index, size - index - 1);
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Remove the first occurrence of <tt>value</tt>.
+	 *
+	 * @return Whether it was found.
+	 */
+	public boolean removeValue(final int value) {
+		final int index = indexOf(value);
+		if (index < 0) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * @return The value previously at <tt>index</tt>.
+	 */
+	public int set(final int index, final int value) {
+		checkIndex(index);
+		final int old = data[index];
+		data[index] = value;
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void sort() {
+		Arrays.sort(data, 0, size);
+	}
+
+	public int[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(size * 4 + 2).append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(data[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+	public void trimToSize() {
+		if (size < data.length) {
+			data = size == 0 ? EMPTY : Arrays.copyOf(data, size);
+		}
+	}
+
+	private void checkIndex(final int index) {
+		if ((index < 0) || (index >= size)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	private void grow(final int minCapacity) {
+		int capacity = Math.max(DEFAULT_CAPACITY, data.length + (data.length >> 1));
+		if (capacity < minCapacity) {
+			capacity = minCapacity;
+		}
+		data = Arrays.copyOf(data, capacity);
+	}
+}
@@ -0,0 +1,256 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Map from <tt>int</tt> to objects in an open-addressing table with linear probing, laid out like {@link IntHashSet}. Only
+ * growing the table allocates. <tt>null</tt> values are allowed, so use {@link #containsKey(int)} to tell them from absent keys.
+ */
+public class IntObjectMap<V> {
+	private boolean		hasZeroKey;
+	private int[]		keys;
+	private int			mask;
+	private int			resizeAt;
+	private int			size;
+	private Object[]	values;
+	private V			zeroValue;
+
+	public IntObjectMap() {
+		this(0);
+	}
+
+	public IntObjectMap(final int expectedSize) {
+		allocate(IntHashing.capacityFor(expectedSize));
+	}
+
+	/**
+	 * Empty the map, keeping its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, null);
+		hasZeroKey = false;
+		zeroValue = null;
+		size = 0;
+	}
+
+	public boolean containsKey(final int key) {
+		if (key == 0) {
+			return hasZeroKey;
+		}
+		return keys[slotFor(key)] == key;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IntObjectMap)) {
+			return false;
+		}
+		IntObjectMap<?> other = (IntObjectMap<?>) obj;
+		if ((size != other.size) || (hasZeroKey != other.hasZeroKey) || (hasZeroKey && !equal(zeroValue, other.zeroValue))) {
+			return false;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if ((keys[i] != 0) && (!other.containsKey(keys[i]) || !equal(values[i], other.get(keys[i])))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Pass every entry to <tt>procedure</tt>, in no particular order. The map mustn't be changed meanwhile.
+	 */
+	public void forEach(final Procedure<? super V> procedure) {
+		if (hasZeroKey) {
+			procedure.apply(0, zeroValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				procedure.apply(keys[i], valueAt(i));
+			}
+		}
+	}
+
+	/**
+	 * @return The value of <tt>key</tt>, or <tt>null</tt> if it's absent.
+	 */
+	public V get(final int key) {
+		if (key == 0) {
+			return zeroValue;
+		}
+		final int slot = slotFor(key);
+		return keys[slot] == key ? valueAt(slot) : null;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = hasZeroKey && (zeroValue != null) ? zeroValue.hashCode() : 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				hash += keys[i] ^ (values[i] == null ? 0 : values[i].hashCode());
+			}
+		}
+		return hash;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The keys, in no particular order.
+	 */
+	public int[] keys() {
+		int[] array = new int[size];
+		int i = 0;
+		if (hasZeroKey) {
+			array[i++] = 0;
+		}
+		for (int key : keys) {
+			if (key != 0) {
+				array[i++] = key;
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * @return The previous value of <tt>key</tt>, or <tt>null</tt> if it was absent.
+	 */
+	public V put(final int key, final V value) {
+		if (key == 0) {
+			final V old = zeroValue;
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			zeroValue = value;
+			return old;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] == key) {
+			final V old = valueAt(slot);
+			values[slot] = value;
+			return old;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+		if ((hasZeroKey ? size - 1 : size) >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * @return The value <tt>key</tt> had, or <tt>null</tt> if it was absent.
+	 */
+	public V remove(final int key) {
+		if (key == 0) {
+			final V old = zeroValue;
+			if (hasZeroKey) {
+				hasZeroKey = false;
+				zeroValue = null;
+				size--;
+			}
+			return old;
+		}
+		final int slot = slotFor(key);
+		if (keys[slot] != key) {
+			return null;
+		}
+		final V old = valueAt(slot);
+		shiftBack(slot);
+		size--;
+		return old;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("{");
+		forEach(new Procedure<V>() {
+			@Override
+			public void apply(final int key, final V value) {
+				if (sb.length() > 1) {
+					sb.append(", ");
+				}
+				sb.append(key).append('=').append(value);
+			}
+		});
+		return sb.append('}').toString();
+	}
+
+	private static boolean equal(final Object a, final Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private void allocate(final int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeAt = IntHashing.resizeAt(capacity);
+	}
+
+	private void rehash(final int capacity) {
+		final int[] oldKeys = keys;
+		final Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				final int slot = slotFor(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Empty <tt>removed</tt>, moving back any later entries in its run that would no longer be found.
+	 */
+	private void shiftBack(final int removed) {
+		int gap = removed;
+		int slot = removed;
+		while (true) {
+			slot = (slot + 1) & mask;
+			final int key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			if (IntHashing.canShift(IntHashing.mix(key) & mask, gap, slot, mask)) {
+				keys[gap] = key;
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = 0;
+		values[gap] = null;
+	}
+
+	/**
+	 * @return The slot holding non-zero <tt>key</tt>, or the empty slot it would go in.
+	 */
+	private int slotFor(final int key) {
+		int slot = IntHashing.mix(key) & mask;
+		while ((keys[slot] != 0) && (keys[slot] != key)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V valueAt(final int slot) {
+		return (V) values[slot];
+	}
+
+	public interface Procedure<V> {
+		void apply(int key, V value);
+	}
+}
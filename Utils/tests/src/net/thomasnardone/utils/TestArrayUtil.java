@@ -21,6 +21,18 @@ public class TestArrayUtil {
 	@After
 	public void tearDown() throws Exception {}
 
+	@Test
+	public void testIndexOfAndCount() {
+		int[] array = new int[100];
+		ArrayUtil.fill(array, 40, 60, 7);
+		Assert.assertEquals(40, ArrayUtil.indexOf(array, 7));
+		Assert.assertEquals(20, ArrayUtil.count(array, 7));
+		array[99] = 9;
+		Assert.assertEquals(99, ArrayUtil.find(9, array));
+		Assert.assertEquals(-1, ArrayUtil.indexOf(array, 8));
+		Assert.assertEquals(0, ArrayUtil.indexOf(array, 0));
+	}
+
 	@Test
 	public void testInsert() {
 		int[] array = { 1, 2, 3 };
@@ -70,4 +82,24 @@ public class TestArrayUtil {
 		int[] array = { 1, 2, 3 };
 		ArrayUtil.remove(array, 3);
 	}
+
+	@Test
+	public void testSetOperations() {
+		int[] evens = new int[500];
+		for (int i = 0; i < evens.length; i++) {
+			evens[i] = i * 2;
+		}
+		int[] some = { -3, 4, 5, 10, 998, 1000 };
+		Assert.assertArrayEquals(new int[] { 4, 10, 998 }, ArrayUtil.intersect(some, evens));
+		Assert.assertArrayEquals(new int[] { 4, 10 }, ArrayUtil.intersect(new int[] { 1, 4, 6, 10 }, new int[] { 0, 4, 5, 10 }));
+		Assert.assertArrayEquals(new int[] { -3, 5, 1000 }, ArrayUtil.difference(some, evens));
+		Assert.assertArrayEquals(new int[] { -3, 0, 4, 5, 10 }, ArrayUtil.union(new int[] { -3, 4, 10 }, new int[] { 0, 4, 5 }));
+		Assert.assertArrayEquals(new int[] { 1, 2, 3, 5, 8, 9 },
+				ArrayUtil.merge(new int[] { 2, 8 }, new int[0], new int[] { 1, 2, 3, 9 }, new int[] { 5, 8 }));
+		Assert.assertArrayEquals(new int[] { 1, 2, 4 }, ArrayUtil.merge(new int[] { 4 }, new int[] { 2 }, new int[] { 1, 2 }));
+		Assert.assertEquals(0, ArrayUtil.merge().length);
+		Assert.assertEquals(3, ArrayUtil.rank(some, 6));
+		Assert.assertEquals(3, ArrayUtil.rank(some, 10));
+		Assert.assertEquals(10, ArrayUtil.select(some, 3));
+	}
 }
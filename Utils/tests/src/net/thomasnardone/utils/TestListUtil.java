@@ -1,11 +1,54 @@
 package net.thomasnardone.utils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 public class TestListUtil {
+	@Test
+	public void testDiff() {
+		List<String> before = Arrays.asList("a", "b", "b", "c", "d");
+		ListDiff<String> diff = ListUtil.diff(before, Arrays.asList("e", "d", "b", "a", "a", "f"));
+		Assert.assertEquals(Arrays.asList("e", "f"), diff.getAdded());
+		Assert.assertEquals(Arrays.asList("c"), diff.getRemoved());
+		Assert.assertEquals(2, diff.getCountChanges().size());
+		Assert.assertEquals(Integer.valueOf(1), diff.getCountChanges().get("a"));
+		Assert.assertEquals(Integer.valueOf(-1), diff.getCountChanges().get("b"));
+		Assert.assertTrue(ListUtil.diff(Arrays.asList(1, 2, 2), Arrays.asList(2, 1, 2)).isEmpty());
+	}
+
+	@Test
+	public void testDuplicates() {
+		Assert.assertFalse(ListUtil.listsContainSameItems(Arrays.asList(1, 1, 2), Arrays.asList(1, 2, 2)));
+		Assert.assertTrue(ListUtil.listsContainSameItems(Arrays.asList(1, null, 1), Arrays.asList(null, 1, 1)));
+	}
+
+	@Test
+	public void testParallel() {
+		List<Integer> list1 = new ArrayList<Integer>();
+		Random random = new Random(1);
+		for (int i = 0; i < (ListUtil.PARALLEL_THRESHOLD * 2); i++) {
+			list1.add(random.nextInt(1000));
+		}
+		List<Integer> list2 = new ArrayList<Integer>(list1);
+		Collections.shuffle(list2, random);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Assert.assertTrue(ListUtil.listsContainSameItems(list1, list2, executor));
+			list2.set(0, list2.get(0) + 1);
+			Assert.assertFalse(ListUtil.listsContainSameItems(list1, list2, executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	@Test
 	public void testListsContainSameItems() {
 		Assert.assertTrue(ListUtil.listsContainSameItems(Arrays.asList(1, 2, 3), Arrays.asList(1, 2, 3)));
@@ -7,6 +7,36 @@ import org.junit.Assert;
 import org.junit.Test;
 
 public class TestStringUtil {
+	private static final String	SPLIT_REGEX	= "(?<=[A-Z])(?=[A-Z][a-z])|(?<=[^A-Z])(?=[A-Z])|(?<=[A-Za-z])(?=[^A-Za-z])";
+
+	@Test
+	public void testCapitalize() {
+		Assert.assertEquals("FooBar", StringUtil.capitalize("fooBar"));
+		Assert.assertEquals("FooBar", StringUtil.capitalize("FooBar"));
+		Assert.assertEquals("fooBar", StringUtil.deCapitalize("FooBar"));
+		Assert.assertEquals("$foo", StringUtil.capitalize("$foo"));
+		Assert.assertEquals("(a", StringUtil.deCapitalize("(a"));
+		Assert.assertEquals("", StringUtil.capitalize(""));
+	}
+
+	@Test
+	public void testConvertCase() {
+		final String s = "XMLHttpRequest2";
+		Assert.assertEquals("xmlHttpRequest2", StringUtil.convertCase(s, IdentifierCase.CAMEL));
+		Assert.assertEquals("XML_HTTP_REQUEST_2", StringUtil.convertCase(s, IdentifierCase.CONSTANT));
+		Assert.assertEquals("xml-http-request-2", StringUtil.convertCase(s, IdentifierCase.KEBAB));
+		Assert.assertEquals("xml_http_request_2", StringUtil.convertCase(s, IdentifierCase.SNAKE));
+		Assert.assertEquals("Xml Http Request 2", StringUtil.convertCase(s, IdentifierCase.TITLE));
+
+		Assert.assertEquals("fooBarBaz", StringUtil.convertCase("FOO_BAR_BAZ", IdentifierCase.CAMEL));
+		Assert.assertEquals("foo_bar_baz", StringUtil.convertCase("  foo-bar baz ", IdentifierCase.SNAKE));
+		Assert.assertEquals("FOO_BAR", StringUtil.convertCase("Foo Bar", IdentifierCase.CONSTANT));
+		Assert.assertEquals("", StringUtil.convertCase("_-", IdentifierCase.CAMEL));
+
+		StringBuilder sb = new StringBuilder("get");
+		Assert.assertSame(sb, StringUtil.convertCase("_first_name", IdentifierCase.TITLE, sb));
+		Assert.assertEquals("getFirst Name", sb.toString());
+	}
 
 	@Test
 	public void testFromCsv() {
@@ -15,6 +45,17 @@ public class TestStringUtil {
 		Assert.assertArrayEquals(new String[0], StringUtil.fromCsv(null));
 	}
 
+	@Test
+	public void testSplitAndUnderscoreMatchRegex() {
+		for (String s : new String[] { "fooBar", "FooBar", "parseXMLFile2", "XMLHttpRequest", "a1b2C3", "ABC", "aB", "x", "$foo",
+				"foo_bar", "HTTP2Server", "utf8String", "already Split", "MyURLs", "stra\u00dfeName", "\u00c9t\u00e9Time" }) {
+			Assert.assertEquals(s, StringUtil.capitalize(s.replaceAll(SPLIT_REGEX, " ")), StringUtil.splitCamelCase(s));
+			Assert.assertEquals(s, s.replaceAll(SPLIT_REGEX, "_").toLowerCase(), StringUtil.underscore(s));
+			Assert.assertEquals(s, StringUtil.underscore(s).replaceAll("[^\\p{L}\\p{N}]+", "_").replaceAll("^_|_$", ""),
+					StringUtil.convertCase(s, IdentifierCase.SNAKE));
+		}
+	}
+
 	@Test
 	public void testToCsv() {
 		Assert.assertEquals("one,two", StringUtil.toCsv(Arrays.asList("one", "two")));
@@ -0,0 +1,152 @@
+package net.thomasnardone.utils.bitmap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRoaringBitmap {
+	private static void assertSame(final BitSet expected, final RoaringBitmap actual) {
+		Assert.assertEquals(expected.cardinality(), actual.cardinality());
+		int value = actual.nextSetBit(0);
+		for (int bit = expected.nextSetBit(0); bit >= 0; bit = expected.nextSetBit(bit + 1)) {
+			Assert.assertEquals(bit, value);
+			value = actual.nextSetBit(value + 1);
+		}
+		Assert.assertEquals(-1, value);
+	}
+
+	/**
+	 * Mixes sparse values, a dense block and long runs, so every kind of container meets every other.
+	 */
+	private static BitSet randomSet(final Random random) {
+		BitSet set = new BitSet();
+		for (int i = 0; i < 2000; i++) {
+			set.set(random.nextInt(400000));
+		}
+		final int dense = random.nextInt(4) << 16;
+		for (int i = 0; i < 30000; i++) {
+			set.set(dense + random.nextInt(1 << 16));
+		}
+		final int from = random.nextInt(300000);
+		set.set(from, from + random.nextInt(100000));
+		return set;
+	}
+
+	private static RoaringBitmap toBitmap(final BitSet set, final boolean optimize) {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int bit = set.nextSetBit(0); bit >= 0; bit = set.nextSetBit(bit + 1)) {
+			bitmap.add(bit);
+		}
+		if (optimize) {
+			bitmap.runOptimize();
+		}
+		return bitmap;
+	}
+
+	@Test
+	public void testAddAndRemove() {
+		Random random = new Random(3);
+		BitSet expected = new BitSet();
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int i = 0; i < 200000; i++) {
+			final int value = random.nextInt(1 << 18);
+			if (random.nextInt(4) == 0) {
+				Assert.assertEquals(expected.get(value), bitmap.remove(value));
+				expected.clear(value);
+			} else {
+				Assert.assertEquals(!expected.get(value), bitmap.add(value));
+				expected.set(value);
+			}
+		}
+		assertSame(expected, bitmap);
+		bitmap.runOptimize();
+		for (int i = 0; i < 50000; i++) {
+			final int value = random.nextInt(1 << 18);
+			Assert.assertEquals(expected.get(value), bitmap.contains(value));
+			Assert.assertEquals(expected.get(value), bitmap.remove(value));
+			expected.clear(value);
+		}
+		assertSame(expected, bitmap);
+	}
+
+	@Test
+	public void testRanges() {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		bitmap.add(10, 200000);
+		bitmap.remove(65530, 65540);
+		bitmap.add(65535);
+		BitSet expected = new BitSet();
+		expected.set(10, 200000);
+		expected.clear(65530, 65540);
+		expected.set(65535);
+		assertSame(expected, bitmap);
+		Assert.assertTrue(bitmap.serializedSize() < 100);
+
+		Random random = new Random(9);
+		for (int i = 0; i < 20000; i++) {
+			final int value = random.nextInt(210000);
+			if (random.nextBoolean()) {
+				Assert.assertEquals(expected.get(value), bitmap.remove(value));
+				expected.clear(value);
+			} else {
+				Assert.assertEquals(!expected.get(value), bitmap.add(value));
+				expected.set(value);
+			}
+		}
+		assertSame(expected, bitmap);
+		bitmap.remove(0, 300000);
+		Assert.assertTrue(bitmap.isEmpty());
+	}
+
+	@Test
+	public void testSerialization() throws IOException {
+		RoaringBitmap bitmap = toBitmap(randomSet(new Random(5)), true);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bitmap.writeTo(new DataOutputStream(bytes));
+		Assert.assertEquals(bitmap.serializedSize(), bytes.size());
+		RoaringBitmap read = RoaringBitmap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		Assert.assertEquals(bitmap, read);
+		Assert.assertArrayEquals(bitmap.toArray(), read.toArray());
+	}
+
+	@Test
+	public void testSetOperations() {
+		Random random = new Random(11);
+		for (int round = 0; round < 8; round++) {
+			BitSet a = randomSet(random);
+			BitSet b = randomSet(random);
+			RoaringBitmap x = toBitmap(a, (round & 1) != 0);
+			RoaringBitmap y = toBitmap(b, (round & 2) != 0);
+
+			BitSet and = (BitSet) a.clone();
+			and.and(b);
+			RoaringBitmap xAndY = x.clone();
+			xAndY.and(y);
+			assertSame(and, xAndY);
+			Assert.assertEquals(and.cardinality(), x.andCardinality(y));
+
+			BitSet or = (BitSet) a.clone();
+			or.or(b);
+			RoaringBitmap xOrY = x.clone();
+			xOrY.or(y);
+			assertSame(or, xOrY);
+
+			BitSet andNot = (BitSet) a.clone();
+			andNot.andNot(b);
+			RoaringBitmap xAndNotY = x.clone();
+			xAndNotY.andNot(y);
+			assertSame(andNot, xAndNotY);
+
+			assertSame(a, x);
+			Assert.assertEquals(toBitmap(a, false), toBitmap(a, true));
+			Assert.assertEquals(toBitmap(a, false).hashCode(), toBitmap(a, true).hashCode());
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package net.thomasnardone.utils.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCsvReader {
+	private static final Charset	UTF_8	= Charset.forName("UTF-8");
+
+	@Test
+	public void testFieldViews() throws IOException {
+		CsvReader reader = new CsvReader(new StringReader("ab,\"c\"\"d\"\nx"));
+		Assert.assertTrue(reader.next());
+		CharSequence first = reader.getField(0);
+		Assert.assertEquals(2, first.length());
+		Assert.assertEquals('b', first.charAt(1));
+		Assert.assertEquals("c\"d", reader.getField(1).toString());
+		Assert.assertEquals("\"d", reader.getField(1).subSequence(1, 3));
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("x", first.toString());
+		Assert.assertFalse(reader.next());
+		Assert.assertEquals(0, reader.getFieldCount());
+	}
+
+	@Test
+	public void testMappedFile() throws IOException {
+		File file = File.createTempFile("csv", ".csv");
+		file.deleteOnExit();
+		List<String[]> expected = new ArrayList<String[]>();
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), UTF_8);
+		CsvWriter writer = new CsvWriter(out);
+		for (int i = 0; i < 2000; i++) {
+			String[] record = { String.valueOf(i), "caf\u00e9 \u20ac\ud83d\ude00" + i,
+					(i % 7) == 0 ? "line\nbreak, \"quoted\"" : "" };
+			writer.writeRecord((Object[]) record);
+			expected.add(record);
+		}
+		writer.close();
+
+		// small windows and a small buffer, so characters, fields and records all straddle boundaries
+		CsvReader reader = new CsvReader(new MappedFileReader(file, UTF_8, 61), ',', 16);
+		String[][] records = reader.readAll();
+		reader.close();
+		Assert.assertEquals(expected.size(), records.length);
+		for (int i = 0; i < records.length; i++) {
+			Assert.assertArrayEquals(expected.get(i), records[i]);
+		}
+
+		// a surrogate pair where the reader asks for a single char
+		out = new OutputStreamWriter(new FileOutputStream(file), UTF_8);
+		out.write("aaaaaaaaaaaaaaa\ud83d\ude00,b\r\nc,d\r\n");
+		out.close();
+		reader = new CsvReader(new MappedFileReader(file, UTF_8), ',', 16);
+		records = reader.readAll();
+		reader.close();
+		Assert.assertEquals(2, records.length);
+		Assert.assertArrayEquals(new String[] { "aaaaaaaaaaaaaaa\ud83d\ude00", "b" }, records[0]);
+		Assert.assertArrayEquals(new String[] { "c", "d" }, records[1]);
+	}
+
+	@Test
+	public void testParse() throws IOException {
+		String[][] records = CsvReader.readAll(new StringReader("a,b,c\r\n\"x,y\",\"say \"\"hi\"\"\",\"two\r\nlines\"\n\n"
+				+ ",,\r\"\"\nlast,\"quote\"d,\"open"));
+		Assert.assertEquals(5, records.length);
+		Assert.assertArrayEquals(new String[] { "a", "b", "c" }, records[0]);
+		Assert.assertArrayEquals(new String[] { "x,y", "say \"hi\"", "two\r\nlines" }, records[1]);
+		Assert.assertArrayEquals(new String[] { "", "", "" }, records[2]);
+		Assert.assertArrayEquals(new String[] { "" }, records[3]);
+		Assert.assertArrayEquals(new String[] { "last", "quoted", "open" }, records[4]);
+
+		CsvReader reader = new CsvReader(new StringReader("1;\"2;3\"\n"), ';');
+		final List<String> fields = new ArrayList<String>();
+		reader.forEach(new CsvReader.Procedure() {
+			@Override
+			public void apply(final CsvReader record) {
+				for (int i = 0; i < record.getFieldCount(); i++) {
+					fields.add(record.getString(i));
+				}
+			}
+		});
+		Assert.assertEquals(2, fields.size());
+		Assert.assertEquals("2;3", fields.get(1));
+		Assert.assertEquals(0, CsvReader.readAll(new StringReader("")).length);
+	}
+}
@@ -0,0 +1,40 @@
+package net.thomasnardone.utils.io;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCsvWriter {
+	@Test
+	public void testRoundTrip() throws IOException {
+		StringBuilder longField = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			longField.append("\"x\",");
+		}
+		Object[][] records = { { "plain", "with,comma", "say \"hi\"" }, { "", null, 42 }, { "" }, { "two\nlines", longField } };
+		StringWriter out = new StringWriter();
+		CsvWriter.writeAll(out, records);
+
+		String[][] read = CsvReader.readAll(new StringReader(out.toString()));
+		Assert.assertEquals(records.length, read.length);
+		Assert.assertArrayEquals(new String[] { "plain", "with,comma", "say \"hi\"" }, read[0]);
+		Assert.assertArrayEquals(new String[] { "", "", "42" }, read[1]);
+		Assert.assertArrayEquals(new String[] { "" }, read[2]);
+		Assert.assertArrayEquals(new String[] { "two\nlines", longField.toString() }, read[3]);
+	}
+
+	@Test
+	public void testWrite() throws IOException {
+		StringWriter out = new StringWriter();
+		CsvWriter writer = new CsvWriter(out, '\t');
+		writer.writeField("a,b");
+		writer.writeField("c\td");
+		writer.endRecord();
+		writer.writeRecord("\"", null);
+		writer.flush();
+		Assert.assertEquals("a,b\t\"c\td\"\r\n\"\"\"\"\t\r\n", out.toString());
+	}
+}
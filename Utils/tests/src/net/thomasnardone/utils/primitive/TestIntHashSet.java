@@ -0,0 +1,50 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIntHashSet {
+	@Test
+	public void testAgainstHashSet() {
+		Random random = new Random(42);
+		IntHashSet set = new IntHashSet();
+		Set<Integer> expected = new HashSet<Integer>();
+		for (int i = 0; i < 20000; i++) {
+			final int key = random.nextInt(500) - 250;
+			if (random.nextInt(3) == 0) {
+				Assert.assertEquals(expected.remove(key), set.remove(key));
+			} else {
+				Assert.assertEquals(expected.add(key), set.add(key));
+			}
+			Assert.assertEquals(expected.size(), set.size());
+		}
+		for (int key = -250; key < 250; key++) {
+			Assert.assertEquals(expected.contains(key), set.contains(key));
+		}
+		int[] keys = set.toArray();
+		Arrays.sort(keys);
+		Assert.assertEquals(expected.size(), keys.length);
+		for (int key : keys) {
+			Assert.assertTrue(expected.contains(key));
+		}
+	}
+
+	@Test
+	public void testZeroAndEquality() {
+		IntHashSet set = IntHashSet.of(0, 7, Integer.MIN_VALUE);
+		Assert.assertTrue(set.contains(0));
+		Assert.assertEquals(3, set.size());
+		Assert.assertEquals(IntHashSet.of(Integer.MIN_VALUE, 7, 0), set);
+		Assert.assertTrue(set.remove(0));
+		Assert.assertFalse(set.contains(0));
+		Assert.assertFalse(set.equals(IntHashSet.of(Integer.MIN_VALUE, 7, 0)));
+		set.clear();
+		Assert.assertTrue(set.isEmpty());
+		Assert.assertFalse(set.contains(7));
+	}
+}
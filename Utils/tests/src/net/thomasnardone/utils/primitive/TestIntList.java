@@ -0,0 +1,46 @@
+package net.thomasnardone.utils.primitive;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIntList {
+	@Test
+	public void testAddAndRemove() {
+		IntList list = new IntList();
+		for (int i = 0; i < 100; i++) {
+			list.add(i);
+		}
+		Assert.assertEquals(100, list.size());
+		list.add(0, -1);
+		Assert.assertEquals(-1, list.get(0));
+		Assert.assertEquals(99, list.get(100));
+		Assert.assertEquals(-1, list.removeAt(0));
+		Assert.assertEquals(5, list.set(5, 50));
+		Assert.assertEquals(5, list.indexOf(50));
+		Assert.assertTrue(list.removeValue(50));
+		Assert.assertFalse(list.contains(5));
+		Assert.assertEquals(99, list.size());
+		list.clear();
+		Assert.assertTrue(list.isEmpty());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetPastSize() {
+		IntList list = new IntList(10);
+		list.add(1);
+		list.get(1);
+	}
+
+	@Test
+	public void testSorted() {
+		IntList list = IntList.of(5, 1, 4, 1);
+		list.sort();
+		Assert.assertArrayEquals(new int[] { 1, 1, 4, 5 }, list.toArray());
+		Assert.assertEquals(3, list.addSorted(4));
+		Assert.assertEquals(0, list.addSorted(0));
+		Assert.assertEquals(6, list.addSorted(9));
+		Assert.assertEquals(IntList.of(0, 1, 1, 4, 4, 5, 9), list);
+		Assert.assertEquals(5, list.binarySearch(5));
+		Assert.assertEquals(-4, list.binarySearch(3));
+	}
+}
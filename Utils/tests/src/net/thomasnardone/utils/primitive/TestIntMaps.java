@@ -0,0 +1,47 @@
+package net.thomasnardone.utils.primitive;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIntMaps {
+	@Test
+	public void testIntIntMap() {
+		IntIntMap map = new IntIntMap();
+		Assert.assertEquals(-1, map.get(3, -1));
+		Assert.assertEquals(0, map.put(3, 30));
+		Assert.assertEquals(30, map.put(3, 31));
+		Assert.assertEquals(2, map.addTo(0, 2));
+		Assert.assertEquals(5, map.addTo(0, 3));
+		Assert.assertEquals(1, map.addTo(-8, 1));
+		Assert.assertEquals(3, map.size());
+		Assert.assertEquals(5, map.remove(0));
+		Assert.assertFalse(map.containsKey(0));
+		Assert.assertEquals(31, map.get(3));
+		Assert.assertEquals(2, map.keys().length);
+	}
+
+	@Test
+	public void testIntObjectMapAgainstHashMap() {
+		Random random = new Random(7);
+		IntObjectMap<String> map = new IntObjectMap<String>(4);
+		Map<Integer, String> expected = new HashMap<Integer, String>();
+		for (int i = 0; i < 20000; i++) {
+			final int key = random.nextInt(1000) * 64;
+			if (random.nextInt(3) == 0) {
+				Assert.assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				final String value = Integer.toString(i);
+				Assert.assertEquals(expected.put(key, value), map.put(key, value));
+			}
+			Assert.assertEquals(expected.size(), map.size());
+		}
+		for (int key = 0; key < 64000; key += 64) {
+			Assert.assertEquals(expected.get(key), map.get(key));
+			Assert.assertEquals(expected.containsKey(key), map.containsKey(key));
+		}
+	}
+}